@@ -14,13 +14,13 @@
  */
 package com.navercorp.pinpoint.bootstrap.plugin.jdbc;
 
-import java.util.Map;
+import com.navercorp.pinpoint.bootstrap.plugin.jdbc.bindvalue.BindValueBuffer;
 
 /**
  * @author Jongho Moon
  *
  */
 public interface BindValueAccessor {
-    void _$PINPOINT$_setBindValue(Map<Integer, String> map);
-    Map<Integer, String> _$PINPOINT$_getBindValue();
+    void _$PINPOINT$_setBindValue(BindValueBuffer bindValueBuffer);
+    BindValueBuffer _$PINPOINT$_getBindValue();
 }
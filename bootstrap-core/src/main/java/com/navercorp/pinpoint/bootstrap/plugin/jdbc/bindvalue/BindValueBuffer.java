@@ -0,0 +1,128 @@
+/*
+ * Copyright 2019 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.navercorp.pinpoint.bootstrap.plugin.jdbc.bindvalue;
+
+/**
+ * Bind values of a PreparedStatement, addressed by parameter index.
+ * Only the setter name and its arguments are kept when a value is bound.
+ * Conversion to String is deferred until the values are recorded, and stops at the length limit.
+ * Not thread safe. A buffer is reused for every execution of the same statement.
+ */
+public class BindValueBuffer {
+
+    private static final int DEFAULT_CAPACITY = 16;
+    // wire protocols of most databases limit the number of bind variables to 65535
+    static final int MAX_PARAMETER_INDEX = 65535;
+
+    private String[] methodNames;
+    private Object[][] arguments;
+    // highest parameter index bound since the last clear
+    private int maxParameterIndex;
+
+    public BindValueBuffer() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public BindValueBuffer(int initialCapacity) {
+        if (initialCapacity < 0) {
+            throw new IllegalArgumentException("negative initialCapacity:" + initialCapacity);
+        }
+        this.methodNames = new String[initialCapacity];
+        this.arguments = new Object[initialCapacity][];
+    }
+
+    /**
+     * @param parameterIndex the first parameter is 1
+     * @param methodName name of the PreparedStatement setter. e.g. setInt
+     * @param args arguments of the setter
+     */
+    public void set(int parameterIndex, String methodName, Object[] args) {
+        if (parameterIndex <= 0 || parameterIndex > MAX_PARAMETER_INDEX) {
+            // invalid index. PreparedStatement first parameterIndex is 1
+            return;
+        }
+        final int index = parameterIndex - 1;
+        if (index >= methodNames.length) {
+            grow(parameterIndex);
+        }
+        methodNames[index] = methodName;
+        arguments[index] = args;
+        if (parameterIndex > maxParameterIndex) {
+            maxParameterIndex = parameterIndex;
+        }
+    }
+
+    private void grow(int minCapacity) {
+        int newCapacity = Math.max(methodNames.length << 1, DEFAULT_CAPACITY);
+        if (newCapacity < minCapacity) {
+            newCapacity = minCapacity;
+        }
+        if (newCapacity > MAX_PARAMETER_INDEX) {
+            newCapacity = MAX_PARAMETER_INDEX;
+        }
+        final String[] newMethodNames = new String[newCapacity];
+        System.arraycopy(methodNames, 0, newMethodNames, 0, maxParameterIndex);
+        final Object[][] newArguments = new Object[newCapacity][];
+        System.arraycopy(arguments, 0, newArguments, 0, maxParameterIndex);
+        this.methodNames = newMethodNames;
+        this.arguments = newArguments;
+    }
+
+    public int getMaxParameterIndex() {
+        return maxParameterIndex;
+    }
+
+    public boolean isEmpty() {
+        return maxParameterIndex == 0;
+    }
+
+    /**
+     * @param parameterIndex the first parameter is 1
+     * @return the converted bind value, or {@code null} if the parameter was not bound
+     */
+    public String getBindValue(int parameterIndex) {
+        if (parameterIndex <= 0 || parameterIndex > maxParameterIndex) {
+            return null;
+        }
+        final int index = parameterIndex - 1;
+        final String methodName = methodNames[index];
+        if (methodName == null) {
+            return null;
+        }
+        return BindValueConverter.convert(methodName, arguments[index]);
+    }
+
+    /**
+     * Releases the bound arguments so that the buffer can be reused by the next execution.
+     */
+    public void clear() {
+        for (int i = 0; i < maxParameterIndex; i++) {
+            methodNames[i] = null;
+            arguments[i] = null;
+        }
+        maxParameterIndex = 0;
+    }
+
+    @Override
+    public String toString() {
+        return "BindValueBuffer{" +
+                "maxParameterIndex=" + maxParameterIndex +
+                ", capacity=" + methodNames.length +
+                '}';
+    }
+}
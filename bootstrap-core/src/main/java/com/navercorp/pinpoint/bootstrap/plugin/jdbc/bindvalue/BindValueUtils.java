@@ -53,6 +53,31 @@ public final class BindValueUtils {
         return bindValueToString(temp, limit);
     }
 
+    public static String bindValueToString(final BindValueBuffer bindValueBuffer, int limit) {
+        if (bindValueBuffer == null) {
+            return "";
+        }
+        final int length = bindValueBuffer.getMaxParameterIndex();
+        if (length <= 0) {
+            return "";
+        }
+        final StringBuilder sb = new StringBuilder(32);
+        final int end = length - 1;
+        for (int i = 0; i < length; i++) {
+            if (sb.length() >= limit) {
+                // values after the limit are never converted
+                appendLength(sb, length);
+                break;
+            }
+            final String bindValue = StringUtils.defaultString(bindValueBuffer.getBindValue(i + 1), "");
+            StringUtils.appendAbbreviate(sb, bindValue, limit);
+            if (i < end) {
+                sb.append(", ");
+            }
+        }
+        return sb.toString();
+    }
+
     private static int getMaxParameterIndex(Map<Integer, String> bindValueMap) {
         int maxIndex = 0;
         for (Integer idx : bindValueMap.keySet()) {
@@ -16,16 +16,13 @@
 
 package com.navercorp.pinpoint.bootstrap.plugin.jdbc.interceptor;
 
-import java.util.HashMap;
-import java.util.Map;
-
 import com.navercorp.pinpoint.bootstrap.context.Trace;
 import com.navercorp.pinpoint.bootstrap.context.TraceContext;
 import com.navercorp.pinpoint.bootstrap.interceptor.StaticAroundInterceptor;
 import com.navercorp.pinpoint.bootstrap.logging.PLogger;
 import com.navercorp.pinpoint.bootstrap.logging.PLoggerFactory;
 import com.navercorp.pinpoint.bootstrap.plugin.jdbc.BindValueAccessor;
-import com.navercorp.pinpoint.bootstrap.plugin.jdbc.bindvalue.BindValueConverter;
+import com.navercorp.pinpoint.bootstrap.plugin.jdbc.bindvalue.BindValueBuffer;
 import com.navercorp.pinpoint.bootstrap.util.NumberUtils;
 
 /**
@@ -72,13 +69,13 @@ public class PreparedStatementBindVariableInterceptor implements StaticAroundInt
             return;
         }
 
-        Map<Integer, String> bindList = ((BindValueAccessor) target)._$PINPOINT$_getBindValue();
-        if (bindList == null) {
-            bindList = new HashMap<Integer, String>();
-            ((BindValueAccessor) target)._$PINPOINT$_setBindValue(bindList);
+        BindValueBuffer bindValueBuffer = ((BindValueAccessor) target)._$PINPOINT$_getBindValue();
+        if (bindValueBuffer == null) {
+            bindValueBuffer = new BindValueBuffer();
+            ((BindValueAccessor) target)._$PINPOINT$_setBindValue(bindValueBuffer);
         }
 
-        final String value = BindValueConverter.convert(methodName, args);
-        bindList.put(index, value);
+        // conversion is deferred to execution time
+        bindValueBuffer.set(index, methodName, args);
     }
 }
\ No newline at end of file
@@ -16,9 +16,6 @@
 
 package com.navercorp.pinpoint.bootstrap.plugin.jdbc.interceptor;
 
-import java.util.HashMap;
-import java.util.Map;
-
 import com.navercorp.pinpoint.bootstrap.context.DatabaseInfo;
 import com.navercorp.pinpoint.bootstrap.context.MethodDescriptor;
 import com.navercorp.pinpoint.bootstrap.context.ParsingResult;
@@ -32,6 +29,7 @@ import com.navercorp.pinpoint.bootstrap.plugin.jdbc.BindValueAccessor;
 import com.navercorp.pinpoint.bootstrap.plugin.jdbc.DatabaseInfoAccessor;
 import com.navercorp.pinpoint.bootstrap.plugin.jdbc.ParsingResultAccessor;
 import com.navercorp.pinpoint.bootstrap.plugin.jdbc.UnKnownDatabaseInfo;
+import com.navercorp.pinpoint.bootstrap.plugin.jdbc.bindvalue.BindValueBuffer;
 import com.navercorp.pinpoint.bootstrap.plugin.jdbc.bindvalue.BindValueUtils;
 
 /**
@@ -93,7 +91,7 @@ public class PreparedStatementExecuteQueryInterceptor implements AroundIntercept
             if (target instanceof ParsingResultAccessor) {
                 parsingResult = ((ParsingResultAccessor)target)._$PINPOINT$_getParsingResult();
             }
-            Map<Integer, String> bindValue = null;
+            BindValueBuffer bindValue = null;
             if (target instanceof BindValueAccessor) {
                 bindValue = ((BindValueAccessor)target)._$PINPOINT$_getBindValue();
             }
@@ -123,11 +121,14 @@ public class PreparedStatementExecuteQueryInterceptor implements AroundIntercept
 
     private void clean(Object target) {
         if (target instanceof BindValueAccessor) {
-            ((BindValueAccessor)target)._$PINPOINT$_setBindValue(new HashMap<Integer, String>());
+            final BindValueBuffer bindValue = ((BindValueAccessor)target)._$PINPOINT$_getBindValue();
+            if (bindValue != null) {
+                bindValue.clear();
+            }
         }
     }
 
-    private String toBindVariable(Map<Integer, String> bindValue) {
+    private String toBindVariable(BindValueBuffer bindValue) {
         return BindValueUtils.bindValueToString(bindValue, maxSqlBindValueLength);
     }
 
@@ -0,0 +1,68 @@
+/*
+ * Copyright 2019 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.navercorp.pinpoint.bootstrap.plugin.jdbc.bindvalue;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class BindValueBufferTest {
+
+    @Test
+    public void testBindValue() {
+        BindValueBuffer buffer = new BindValueBuffer(1);
+        buffer.set(2, "setString", new Object[]{2, "b"});
+        buffer.set(1, "setInt", new Object[]{1, 10});
+        buffer.set(4, "setNull", new Object[]{4, 0});
+
+        Assert.assertEquals(4, buffer.getMaxParameterIndex());
+        Assert.assertEquals("10", buffer.getBindValue(1));
+        Assert.assertEquals("b", buffer.getBindValue(2));
+        Assert.assertNull(buffer.getBindValue(3));
+        Assert.assertEquals("null", buffer.getBindValue(4));
+        Assert.assertEquals("10, b, , null", BindValueUtils.bindValueToString(buffer, 1024));
+    }
+
+    @Test
+    public void testInvalidIndex() {
+        BindValueBuffer buffer = new BindValueBuffer();
+        buffer.set(0, "setInt", new Object[]{0, 1});
+        buffer.set(BindValueBuffer.MAX_PARAMETER_INDEX + 1, "setInt", new Object[]{0, 1});
+        Assert.assertTrue(buffer.isEmpty());
+        Assert.assertEquals("", BindValueUtils.bindValueToString(buffer, 1024));
+    }
+
+    @Test
+    public void testClear() {
+        BindValueBuffer buffer = new BindValueBuffer();
+        buffer.set(1, "setString", new Object[]{1, "a"});
+        buffer.clear();
+        Assert.assertTrue(buffer.isEmpty());
+        Assert.assertNull(buffer.getBindValue(1));
+
+        buffer.set(2, "setString", new Object[]{2, "b"});
+        Assert.assertEquals(", b", BindValueUtils.bindValueToString(buffer, 1024));
+    }
+
+    @Test
+    public void testBindValueToString_limit() {
+        BindValueBuffer buffer = new BindValueBuffer();
+        buffer.set(1, "setString", new Object[]{1, "abc"});
+        buffer.set(2, "setString", new Object[]{2, "b"});
+        Assert.assertEquals("a...(3), ...(2)", BindValueUtils.bindValueToString(buffer, 1));
+    }
+}
@@ -20,8 +20,9 @@ import com.navercorp.pinpoint.collector.service.SendAgentStatService;
 import com.navercorp.pinpoint.collector.util.Address;
 
 import java.util.ArrayList;
-import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 
@@ -49,14 +50,12 @@ public class TcpDataSenderRepository {
     }
 
     private void replaceDataInSendAgentStatService() {
-        Collection<SenderContext> values = clusterConnectionRepository.values();
-
-        List<FlinkTcpDataSender> tcpDataSenderList = new ArrayList<>(values.size());
-        for (SenderContext senderContext : values) {
-            tcpDataSenderList.add(senderContext.getFlinkTcpDataSender());
+        Map<Address, FlinkTcpDataSender> tcpDataSenderMap = new HashMap<>(clusterConnectionRepository.size());
+        for (Map.Entry<Address, SenderContext> entry : clusterConnectionRepository.entrySet()) {
+            tcpDataSenderMap.put(entry.getKey(), entry.getValue().getFlinkTcpDataSender());
         }
 
-        sendAgentStatService.replaceFlinkTcpDataSenderList(tcpDataSenderList);
+        sendAgentStatService.replaceFlinkTcpDataSender(tcpDataSenderMap);
     }
 
     public boolean containsKey(Address address) {
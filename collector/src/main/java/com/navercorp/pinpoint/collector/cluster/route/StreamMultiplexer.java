@@ -0,0 +1,313 @@
+/*
+ * Copyright 2019 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.navercorp.pinpoint.collector.cluster.route;
+
+import com.navercorp.pinpoint.rpc.packet.stream.StreamClosePacket;
+import com.navercorp.pinpoint.rpc.packet.stream.StreamResponsePacket;
+import com.navercorp.pinpoint.rpc.stream.ClientStreamChannel;
+import com.navercorp.pinpoint.rpc.stream.ClientStreamChannelContext;
+import com.navercorp.pinpoint.rpc.stream.ClientStreamChannelMessageListener;
+import com.navercorp.pinpoint.rpc.stream.ServerStreamChannel;
+import com.navercorp.pinpoint.rpc.stream.StreamChannelStateChangeEventHandler;
+import com.navercorp.pinpoint.rpc.stream.StreamChannelStateCode;
+import com.navercorp.pinpoint.thrift.dto.command.TCommandTransfer;
+import com.navercorp.pinpoint.thrift.dto.command.TCommandTransferResponse;
+import com.navercorp.pinpoint.thrift.dto.command.TRouteResult;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Shares one producer stream to an agent between every consumer stream asking the same command of the same agent.
+ * <p>
+ * The first consumer opens the producer stream, later ones attach to it. Every data packet of the producer is
+ * sent to all connected consumers. The response filters run once per consumer with the event of that consumer,
+ * as they would without sharing, and the response is serialized for each consumer after its filters ran.
+ * The producer is closed when the last consumer leaves, and every consumer is closed when the producer closes.
+ */
+public class StreamMultiplexer {
+
+    private static final long OPEN_WAIT_MILLIS = 5000;
+
+    private final Logger logger = LoggerFactory.getLogger(this.getClass());
+
+    private final ConcurrentMap<StreamKey, SharedStream> sharedStreams = new ConcurrentHashMap<>();
+
+    private final RouteFilterChain<ResponseEvent> responseFilterChain;
+    private final RouteFilterChain<StreamRouteCloseEvent> streamCloseFilterChain;
+    private final Function<TCommandTransferResponse, byte[]> serializer;
+
+    public interface ProducerFactory {
+        ClientStreamChannelContext openStream(byte[] payload, ClientStreamChannelMessageListener messageListener);
+    }
+
+    public StreamMultiplexer(RouteFilterChain<ResponseEvent> responseFilterChain, RouteFilterChain<StreamRouteCloseEvent> streamCloseFilterChain,
+                             Function<TCommandTransferResponse, byte[]> serializer) {
+        this.responseFilterChain = Objects.requireNonNull(responseFilterChain, "responseFilterChain must not be null");
+        this.streamCloseFilterChain = Objects.requireNonNull(streamCloseFilterChain, "streamCloseFilterChain must not be null");
+        this.serializer = Objects.requireNonNull(serializer, "serializer must not be null");
+    }
+
+    /**
+     * @return the attached consumer, or null if the producer stream could not be opened
+     */
+    public SharedStreamConsumer attach(StreamEvent streamEvent, ProducerFactory producerFactory) {
+        Objects.requireNonNull(streamEvent, "streamEvent must not be null");
+        Objects.requireNonNull(producerFactory, "producerFactory must not be null");
+
+        final StreamKey streamKey = new StreamKey(streamEvent.getDeliveryCommand());
+        final SharedStreamConsumer consumer = new SharedStreamConsumer(streamEvent);
+        while (true) {
+            final SharedStream newStream = new SharedStream(streamKey, streamEvent);
+            final SharedStream sharedStream = sharedStreams.putIfAbsent(streamKey, newStream);
+            if (sharedStream == null) {
+                newStream.addConsumer(consumer);
+                if (newStream.open(producerFactory)) {
+                    return consumer;
+                }
+                return null;
+            }
+            if (!sharedStream.addConsumer(consumer)) {
+                // closing, retry with a new producer
+                sharedStreams.remove(streamKey, sharedStream);
+                continue;
+            }
+            if (sharedStream.awaitOpen()) {
+                logger.info("attach consumer to shared stream. key:{}, consumers:{}", streamKey, sharedStream.consumers.size());
+                return consumer;
+            }
+            sharedStream.removeConsumer(consumer);
+            return null;
+        }
+    }
+
+    public int getSharedStreamCount() {
+        return sharedStreams.size();
+    }
+
+    private TCommandTransferResponse createResponse(TRouteResult result, byte[] payload) {
+        TCommandTransferResponse response = new TCommandTransferResponse();
+        response.setRouteResult(result);
+        response.setPayload(payload);
+        return response;
+    }
+
+    public class SharedStreamConsumer {
+        private final StreamEvent streamEvent;
+        private final ServerStreamChannel consumer;
+        private volatile SharedStream sharedStream;
+
+        private SharedStreamConsumer(StreamEvent streamEvent) {
+            this.streamEvent = streamEvent;
+            this.consumer = streamEvent.getStreamChannelContext().getStreamChannel();
+        }
+
+        public void close() {
+            final SharedStream sharedStream = this.sharedStream;
+            if (sharedStream != null) {
+                sharedStream.removeConsumer(this);
+            }
+            consumer.close();
+        }
+    }
+
+    private class SharedStream implements ClientStreamChannelMessageListener, StreamChannelStateChangeEventHandler<ClientStreamChannel> {
+
+        private final StreamKey streamKey;
+        // the event of the first consumer opens the producer stream
+        private final StreamEvent streamEvent;
+        private final List<SharedStreamConsumer> consumers = new CopyOnWriteArrayList<>();
+        private final CountDownLatch openLatch = new CountDownLatch(1);
+
+        private volatile ClientStreamChannelContext producerContext;
+        private volatile boolean opened;
+        private boolean closed;
+
+        private SharedStream(StreamKey streamKey, StreamEvent streamEvent) {
+            this.streamKey = streamKey;
+            this.streamEvent = streamEvent;
+        }
+
+        private boolean open(ProducerFactory producerFactory) {
+            try {
+                final ClientStreamChannelContext producerContext = producerFactory.openStream(streamEvent.getDeliveryCommand().getPayload(), this);
+                if (producerContext.getCreateFailPacket() == null) {
+                    this.producerContext = producerContext;
+                    producerContext.getStreamChannel().addStateChangeEventHandler(this);
+                    this.opened = true;
+                    logger.info("open shared stream. key:{}", streamKey);
+                }
+            } catch (RuntimeException e) {
+                logger.warn("open shared stream failed. key:{}, message:{}", streamKey, e.getMessage(), e);
+            } finally {
+                openLatch.countDown();
+            }
+            if (!opened) {
+                // consumers of a failed stream are answered by the caller
+                closeAll();
+            }
+            return opened;
+        }
+
+        private boolean awaitOpen() {
+            try {
+                openLatch.await(OPEN_WAIT_MILLIS, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return opened;
+        }
+
+        private synchronized boolean addConsumer(SharedStreamConsumer consumer) {
+            if (closed) {
+                return false;
+            }
+            consumers.add(consumer);
+            consumer.sharedStream = this;
+            return true;
+        }
+
+        private void removeConsumer(SharedStreamConsumer consumer) {
+            final boolean last;
+            synchronized (this) {
+                if (!consumers.remove(consumer)) {
+                    return;
+                }
+                last = consumers.isEmpty() && !closed;
+                if (last) {
+                    closed = true;
+                }
+            }
+            if (last) {
+                logger.info("last consumer left, close shared stream. key:{}", streamKey);
+                sharedStreams.remove(streamKey, this);
+                final ClientStreamChannelContext producerContext = this.producerContext;
+                if (producerContext != null) {
+                    producerContext.getStreamChannel().close();
+                }
+            }
+        }
+
+        @Override
+        public void handleStreamData(ClientStreamChannelContext producerContext, StreamResponsePacket packet) {
+            for (SharedStreamConsumer consumer : consumers) {
+                final StreamChannelStateCode stateCode = consumer.consumer.getCurrentState();
+                if (StreamChannelStateCode.CONNECTED == stateCode) {
+                    // a filter may change the response, so every consumer gets its own
+                    final TCommandTransferResponse response = createResponse(TRouteResult.OK, packet.getPayload());
+                    responseFilterChain.doEvent(new ResponseEvent(consumer.streamEvent, -1, response));
+                    consumer.consumer.sendData(serializer.apply(response));
+                } else if (StreamChannelStateCode.CONNECT_ARRIVED != stateCode) {
+                    logger.warn("Can not route stream data to consumer.(state:{})", stateCode);
+                    consumer.close();
+                }
+            }
+        }
+
+        @Override
+        public void handleStreamClose(ClientStreamChannelContext producerContext, StreamClosePacket packet) {
+            for (SharedStreamConsumer consumer : closeAll()) {
+                StreamRouteCloseEvent event = new StreamRouteCloseEvent(consumer.streamEvent.getDeliveryCommand(), producerContext, consumer.streamEvent.getStreamChannelContext());
+                streamCloseFilterChain.doEvent(event);
+                consumer.consumer.close();
+            }
+        }
+
+        @Override
+        public void eventPerformed(ClientStreamChannel streamChannel, StreamChannelStateCode updatedStateCode) throws Exception {
+            logger.info("eventPerformed streamChannel:{}, stateCode:{}", streamChannel, updatedStateCode);
+
+            switch (updatedStateCode) {
+                case CLOSED:
+                case ILLEGAL_STATE:
+                    for (SharedStreamConsumer consumer : closeAll()) {
+                        consumer.consumer.close();
+                    }
+                    break;
+                default:
+                    break;
+            }
+        }
+
+        @Override
+        public void exceptionCaught(ClientStreamChannel streamChannel, StreamChannelStateCode updatedStateCode, Throwable e) {
+            logger.warn("exceptionCaught message:{}, streamChannel:{}, stateCode:{}", e.getMessage(), streamChannel, updatedStateCode, e);
+        }
+
+        private List<SharedStreamConsumer> closeAll() {
+            final List<SharedStreamConsumer> closedConsumers;
+            synchronized (this) {
+                closed = true;
+                closedConsumers = new ArrayList<>(consumers);
+                consumers.clear();
+            }
+            sharedStreams.remove(streamKey, this);
+            return closedConsumers;
+        }
+    }
+
+    private static class StreamKey {
+        private final String agentId;
+        private final long startTime;
+        private final ByteBuffer payload;
+
+        private StreamKey(TCommandTransfer deliveryCommand) {
+            this.agentId = deliveryCommand.getAgentId();
+            this.startTime = deliveryCommand.getStartTime();
+            this.payload = ByteBuffer.wrap(deliveryCommand.getPayload());
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+
+            StreamKey streamKey = (StreamKey) o;
+
+            if (startTime != streamKey.startTime) return false;
+            if (agentId != null ? !agentId.equals(streamKey.agentId) : streamKey.agentId != null) return false;
+            return payload.equals(streamKey.payload);
+        }
+
+        @Override
+        public int hashCode() {
+            int result = agentId != null ? agentId.hashCode() : 0;
+            result = 31 * result + (int) (startTime ^ (startTime >>> 32));
+            result = 31 * result + payload.hashCode();
+            return result;
+        }
+
+        @Override
+        public String toString() {
+            return "StreamKey{" +
+                    "agentId='" + agentId + '\'' +
+                    ", startTime=" + startTime +
+                    ", payloadSize=" + payload.remaining() +
+                    '}';
+        }
+    }
+}
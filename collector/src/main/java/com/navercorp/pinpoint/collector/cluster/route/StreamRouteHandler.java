@@ -55,6 +55,9 @@ public class StreamRouteHandler extends AbstractRouteHandler<StreamEvent> {
     private final RouteFilterChain<ResponseEvent> responseFilterChain;
     private final RouteFilterChain<StreamRouteCloseEvent> streamCloseFilterChain;
 
+    private final StreamMultiplexer streamMultiplexer;
+    private boolean streamShareEnable;
+
     @Autowired
     @Qualifier("commandHeaderTBaseSerializerFactory")
     private SerializerFactory<HeaderTBaseSerializer> commandSerializerFactory;
@@ -68,6 +71,11 @@ public class StreamRouteHandler extends AbstractRouteHandler<StreamEvent> {
         this.streamCreateFilterChain = streamCreateFilterChain;
         this.responseFilterChain = responseFilterChain;
         this.streamCloseFilterChain = streamCloseFilterChain;
+        this.streamMultiplexer = new StreamMultiplexer(responseFilterChain, streamCloseFilterChain, this::serialize);
+    }
+
+    public void setStreamShareEnable(boolean streamShareEnable) {
+        this.streamShareEnable = streamShareEnable;
     }
 
     @Override
@@ -109,7 +117,14 @@ public class StreamRouteHandler extends AbstractRouteHandler<StreamEvent> {
         }
 
         try {
-            if (clusterPoint instanceof PinpointServerClusterPoint) {
+            if (clusterPoint instanceof PinpointServerClusterPoint && streamShareEnable) {
+                final PinpointServer pinpointServer = ((PinpointServerClusterPoint) clusterPoint).getPinpointServer();
+                StreamMultiplexer.SharedStreamConsumer sharedStreamConsumer = streamMultiplexer.attach(event, pinpointServer::openStream);
+                if (sharedStreamConsumer != null) {
+                    event.getStreamChannelContext().setAttributeIfAbsent(ATTACHMENT_KEY, sharedStreamConsumer);
+                    return createResponse(TRouteResult.OK);
+                }
+            } else if (clusterPoint instanceof PinpointServerClusterPoint) {
                 StreamRouteManager routeManager = new StreamRouteManager(event);
 
                 ServerStreamChannelContext consumerContext = event.getStreamChannelContext();
@@ -143,6 +158,8 @@ public class StreamRouteHandler extends AbstractRouteHandler<StreamEvent> {
         
         if (attachmentListener instanceof StreamRouteManager) {
             ((StreamRouteManager)attachmentListener).close();
+        } else if (attachmentListener instanceof StreamMultiplexer.SharedStreamConsumer) {
+            ((StreamMultiplexer.SharedStreamConsumer)attachmentListener).close();
         }
     }
 
@@ -0,0 +1,157 @@
+/*
+ * Copyright 2019 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.navercorp.pinpoint.collector.cluster.zookeeper;
+
+import com.navercorp.pinpoint.common.server.cluster.zookeeper.AgentShardCodec;
+import com.navercorp.pinpoint.common.server.cluster.zookeeper.exception.PinpointZookeeperException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Writes the agents of a collector as ephemeral shard nodes encoded by {@link AgentShardCodec}.
+ * <p>
+ * The registry keeps its own copy of every shard, so a change only writes the shards it touched,
+ * without reading the current data back from zookeeper.
+ * A shard that failed to be written stays dirty and is written again with the next change.
+ * <p>
+ * The shard nodes are ephemeral, but their parent node can not be, as an ephemeral node can not have children.
+ * {@link #close()} deletes it when the collector stops. The parent of a collector that did not stop cleanly
+ * stays behind empty.
+ */
+public class ShardedAgentRegistry {
+
+    private final Logger logger = LoggerFactory.getLogger(this.getClass());
+
+    private final ZookeeperClient zookeeperClient;
+    private final String collectorUniqPath;
+    private final String shardParentPath;
+    private final int shardCount;
+
+    private final List<Set<String>> shards;
+    private final BitSet dirtyShards;
+
+    public ShardedAgentRegistry(ZookeeperClient zookeeperClient, String collectorUniqPath, String serverIdentifier, int shardCount) {
+        if (shardCount <= 0) {
+            throw new IllegalArgumentException("shardCount must be positive");
+        }
+        this.zookeeperClient = zookeeperClient;
+        this.collectorUniqPath = collectorUniqPath;
+        this.shardParentPath = ZookeeperUtils.bindingPathAndNode(AgentShardCodec.AGENT_SHARD_PATH, serverIdentifier);
+        this.shardCount = shardCount;
+
+        this.shards = new ArrayList<>(shardCount);
+        for (int i = 0; i < shardCount; i++) {
+            shards.add(new HashSet<String>());
+        }
+        this.dirtyShards = new BitSet(shardCount);
+    }
+
+    public synchronized boolean add(List<String> agentKeys) {
+        for (String agentKey : agentKeys) {
+            final int shardIndex = AgentShardCodec.shardIndex(agentKey, shardCount);
+            if (shards.get(shardIndex).add(agentKey)) {
+                dirtyShards.set(shardIndex);
+            }
+        }
+        return flush();
+    }
+
+    public synchronized boolean remove(List<String> agentKeys) {
+        for (String agentKey : agentKeys) {
+            final int shardIndex = AgentShardCodec.shardIndex(agentKey, shardCount);
+            if (shards.get(shardIndex).remove(agentKey)) {
+                dirtyShards.set(shardIndex);
+            }
+        }
+        return flush();
+    }
+
+    /**
+     * Rewrites every shard. Called after the session was re-established, when the ephemeral nodes are gone.
+     */
+    public synchronized boolean clear() {
+        for (Set<String> shard : shards) {
+            shard.clear();
+        }
+        dirtyShards.set(0, shardCount);
+        return flush();
+    }
+
+    /**
+     * Deletes the shard nodes and their parent. Called before the zookeeper client is closed.
+     */
+    public synchronized void close() {
+        try {
+            for (int shardIndex = 0; shardIndex < shardCount; shardIndex++) {
+                zookeeperClient.delete(ZookeeperUtils.bindingPathAndNode(shardParentPath, String.valueOf(shardIndex)));
+            }
+            zookeeperClient.delete(shardParentPath);
+            logger.info("delete agent shards. path:{}", shardParentPath);
+        } catch (Exception e) {
+            logger.warn("delete agent shards failed. path:{}, caused:{}", shardParentPath, e.getMessage(), e);
+        }
+    }
+
+    public synchronized List<String> getAgentList() {
+        final List<String> agentList = new ArrayList<>();
+        for (Set<String> shard : shards) {
+            agentList.addAll(shard);
+        }
+        return agentList;
+    }
+
+    private boolean flush() {
+        try {
+            if (!zookeeperClient.exists(collectorUniqPath)) {
+                // the shard parent exists before the marker, so a reader seeing the marker can watch it
+                zookeeperClient.createPath(shardParentPath, true);
+                zookeeperClient.createPath(collectorUniqPath);
+                zookeeperClient.createNode(collectorUniqPath, AgentShardCodec.getShardedMarker());
+            }
+
+            for (int shardIndex = dirtyShards.nextSetBit(0); shardIndex >= 0; shardIndex = dirtyShards.nextSetBit(shardIndex + 1)) {
+                writeShard(shardIndex);
+                dirtyShards.clear(shardIndex);
+            }
+            return true;
+        } catch (Exception e) {
+            logger.warn("flush agent shards failed. caused:{}, dirtyShards:{}", e.getMessage(), dirtyShards.cardinality(), e);
+        }
+        return false;
+    }
+
+    private void writeShard(int shardIndex) throws PinpointZookeeperException, InterruptedException {
+        final String shardPath = ZookeeperUtils.bindingPathAndNode(shardParentPath, String.valueOf(shardIndex));
+        final byte[] shardData = AgentShardCodec.encode(shards.get(shardIndex));
+        if (zookeeperClient.exists(shardPath)) {
+            zookeeperClient.setData(shardPath, shardData);
+        } else {
+            zookeeperClient.createPath(shardPath);
+            zookeeperClient.createNode(shardPath, shardData);
+        }
+        if (logger.isDebugEnabled()) {
+            logger.debug("write agent shard. path:{}, agents:{}, bytes:{}", shardPath, shards.get(shardIndex).size(), shardData.length);
+        }
+    }
+}
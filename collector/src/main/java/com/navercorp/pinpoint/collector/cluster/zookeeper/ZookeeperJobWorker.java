@@ -60,14 +60,25 @@ public class ZookeeperJobWorker implements Runnable {
     private final ZookeeperClient zookeeperClient;
     private final PinpointServerRepository pinpointServerRepository = new PinpointServerRepository();
     private final ConcurrentLinkedDeque<ZookeeperJob> zookeeperJobDeque = new ConcurrentLinkedDeque<>();
+    // null when the agents are written as a single string in the collector node
+    private final ShardedAgentRegistry shardedAgentRegistry;
     private Thread workerThread;
 
     public ZookeeperJobWorker(ZookeeperClient zookeeperClient, String serverIdentifier) {
+        this(zookeeperClient, serverIdentifier, 0);
+    }
+
+    public ZookeeperJobWorker(ZookeeperClient zookeeperClient, String serverIdentifier, int agentShardCount) {
         this.zookeeperClient = zookeeperClient;
 
         this.workerState = new CommonStateContext();
 
         this.collectorUniqPath = ZookeeperUtils.bindingPathAndNode(PINPOINT_COLLECTOR_CLUSTER_PATH, serverIdentifier);
+        if (agentShardCount > 0) {
+            this.shardedAgentRegistry = new ShardedAgentRegistry(zookeeperClient, collectorUniqPath, serverIdentifier, agentShardCount);
+        } else {
+            this.shardedAgentRegistry = null;
+        }
     }
 
     public void start() {
@@ -117,6 +128,10 @@ public class ZookeeperJobWorker implements Runnable {
             }
         }
 
+        if (shardedAgentRegistry != null) {
+            shardedAgentRegistry.close();
+        }
+
         this.workerState.changeStateStopped();
         logger.info("stop() completed.");
     }
@@ -136,6 +151,9 @@ public class ZookeeperJobWorker implements Runnable {
     }
 
     public List<String> getClusterList() {
+        if (shardedAgentRegistry != null) {
+            return shardedAgentRegistry.getAgentList();
+        }
         try {
             final String clusterData = getClusterData();
             return tokenize(clusterData);
@@ -323,6 +341,9 @@ public class ZookeeperJobWorker implements Runnable {
         }
 
         final List<String> addContentCandidateList = getZookeeperKeyList(zookeeperJobList);
+        if (shardedAgentRegistry != null) {
+            return shardedAgentRegistry.add(addContentCandidateList);
+        }
 
         try {
             if (zookeeperClient.exists(collectorUniqPath)) {
@@ -351,6 +372,9 @@ public class ZookeeperJobWorker implements Runnable {
         }
 
         final List<String> removeContentCandidateList = getZookeeperKeyList(zookeeperJobList);
+        if (shardedAgentRegistry != null) {
+            return shardedAgentRegistry.remove(removeContentCandidateList);
+        }
 
         try {
             if (zookeeperClient.exists(collectorUniqPath)) {
@@ -382,6 +406,9 @@ public class ZookeeperJobWorker implements Runnable {
         if (logger.isDebugEnabled()) {
             logger.debug("handleClear zookeeperJobList:{}", zookeeperJobList);
         }
+        if (shardedAgentRegistry != null) {
+            return shardedAgentRegistry.clear();
+        }
 
         try {
             if (zookeeperClient.exists(collectorUniqPath)) {
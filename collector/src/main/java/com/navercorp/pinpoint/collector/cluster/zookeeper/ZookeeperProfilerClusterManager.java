@@ -49,10 +49,14 @@ public class ZookeeperProfilerClusterManager implements ServerStateChangeEventHa
     // keep it simple - register on RUN, remove on FINISHED, skip otherwise
     // should only be instantiated when cluster is enabled.
     public ZookeeperProfilerClusterManager(ZookeeperClient client, String serverIdentifier, ClusterPointRepository profileCluster) {
+        this(client, serverIdentifier, profileCluster, 0);
+    }
+
+    public ZookeeperProfilerClusterManager(ZookeeperClient client, String serverIdentifier, ClusterPointRepository profileCluster, int agentShardCount) {
         this.workerState = new CommonStateContext();
         this.profileCluster = profileCluster;
 
-        this.worker = new ZookeeperJobWorker(client, serverIdentifier);
+        this.worker = new ZookeeperJobWorker(client, serverIdentifier, agentShardCount);
     }
 
     public void start() {
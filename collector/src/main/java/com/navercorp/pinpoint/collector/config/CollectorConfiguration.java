@@ -62,9 +62,290 @@ public class CollectorConfiguration implements InitializingBean {
     private String clusterListenIp;
     private int clusterListenPort;
 
+    private boolean clusterStreamShareEnable;
+    private int clusterAgentShardCount;
+
     private boolean flinkClusterEnable;
     private String flinkClusterZookeeperAddress;
     private int flinkClusterSessionTimeout;
+    private int flinkClusterStatBatchSize;
+
+    private boolean statRollupEnable;
+
+    private boolean topologyEnable;
+
+    private boolean spanPipelineEnable;
+    private int spanPipelineThreadSize;
+    private int spanPipelineQueueSize;
+    private int spanPipelineBatchSize;
+    private long spanPipelineBatchWindow;
+
+    private int spanEncodingVersion;
+    private String spanEncodingCompression;
+
+    private boolean tailSamplingEnable;
+    private long tailSamplingWindow;
+    private int tailSamplingMaxTransactions;
+    private long tailSamplingMaxBytes;
+    private String tailSamplingOverflowPolicy;
+    private boolean tailSamplingErrorRule;
+    private int tailSamplingLatencyThreshold;
+    private String tailSamplingUrlPatterns;
+    private int tailSamplingBaselineRate;
+
+    private String storageType;
+    private String storageLocalPath;
+    private long storageLocalPartitionMillis;
+    private long storageLocalRetentionMillis;
+
+    private boolean quotaEnable;
+    private int quotaSpanApplicationRate;
+    private int quotaSpanAgentRate;
+    private int quotaSpanTotalRate;
+    private String quotaApplicationWeights;
+    private int quotaStatAgentRate;
+    private boolean quotaHintEnable;
+    private long quotaHintDurationMillis;
+
+    public boolean isTailSamplingEnable() {
+        return tailSamplingEnable;
+    }
+
+    public void setTailSamplingEnable(boolean tailSamplingEnable) {
+        this.tailSamplingEnable = tailSamplingEnable;
+    }
+
+    public long getTailSamplingWindow() {
+        return tailSamplingWindow;
+    }
+
+    public void setTailSamplingWindow(long tailSamplingWindow) {
+        this.tailSamplingWindow = tailSamplingWindow;
+    }
+
+    public int getTailSamplingMaxTransactions() {
+        return tailSamplingMaxTransactions;
+    }
+
+    public void setTailSamplingMaxTransactions(int tailSamplingMaxTransactions) {
+        this.tailSamplingMaxTransactions = tailSamplingMaxTransactions;
+    }
+
+    public long getTailSamplingMaxBytes() {
+        return tailSamplingMaxBytes;
+    }
+
+    public void setTailSamplingMaxBytes(long tailSamplingMaxBytes) {
+        this.tailSamplingMaxBytes = tailSamplingMaxBytes;
+    }
+
+    public String getTailSamplingOverflowPolicy() {
+        return tailSamplingOverflowPolicy;
+    }
+
+    public void setTailSamplingOverflowPolicy(String tailSamplingOverflowPolicy) {
+        this.tailSamplingOverflowPolicy = tailSamplingOverflowPolicy;
+    }
+
+    public boolean isTailSamplingErrorRule() {
+        return tailSamplingErrorRule;
+    }
+
+    public void setTailSamplingErrorRule(boolean tailSamplingErrorRule) {
+        this.tailSamplingErrorRule = tailSamplingErrorRule;
+    }
+
+    public int getTailSamplingLatencyThreshold() {
+        return tailSamplingLatencyThreshold;
+    }
+
+    public void setTailSamplingLatencyThreshold(int tailSamplingLatencyThreshold) {
+        this.tailSamplingLatencyThreshold = tailSamplingLatencyThreshold;
+    }
+
+    public String getTailSamplingUrlPatterns() {
+        return tailSamplingUrlPatterns;
+    }
+
+    public void setTailSamplingUrlPatterns(String tailSamplingUrlPatterns) {
+        this.tailSamplingUrlPatterns = tailSamplingUrlPatterns;
+    }
+
+    public int getTailSamplingBaselineRate() {
+        return tailSamplingBaselineRate;
+    }
+
+    public void setTailSamplingBaselineRate(int tailSamplingBaselineRate) {
+        this.tailSamplingBaselineRate = tailSamplingBaselineRate;
+    }
+
+    public String getStorageType() {
+        return storageType;
+    }
+
+    public void setStorageType(String storageType) {
+        this.storageType = storageType;
+    }
+
+    public String getStorageLocalPath() {
+        return storageLocalPath;
+    }
+
+    public void setStorageLocalPath(String storageLocalPath) {
+        this.storageLocalPath = storageLocalPath;
+    }
+
+    public long getStorageLocalPartitionMillis() {
+        return storageLocalPartitionMillis;
+    }
+
+    public void setStorageLocalPartitionMillis(long storageLocalPartitionMillis) {
+        this.storageLocalPartitionMillis = storageLocalPartitionMillis;
+    }
+
+    public long getStorageLocalRetentionMillis() {
+        return storageLocalRetentionMillis;
+    }
+
+    public void setStorageLocalRetentionMillis(long storageLocalRetentionMillis) {
+        this.storageLocalRetentionMillis = storageLocalRetentionMillis;
+    }
+
+    public boolean isQuotaEnable() {
+        return quotaEnable;
+    }
+
+    public void setQuotaEnable(boolean quotaEnable) {
+        this.quotaEnable = quotaEnable;
+    }
+
+    public int getQuotaSpanApplicationRate() {
+        return quotaSpanApplicationRate;
+    }
+
+    public void setQuotaSpanApplicationRate(int quotaSpanApplicationRate) {
+        this.quotaSpanApplicationRate = quotaSpanApplicationRate;
+    }
+
+    public int getQuotaSpanAgentRate() {
+        return quotaSpanAgentRate;
+    }
+
+    public void setQuotaSpanAgentRate(int quotaSpanAgentRate) {
+        this.quotaSpanAgentRate = quotaSpanAgentRate;
+    }
+
+    public int getQuotaSpanTotalRate() {
+        return quotaSpanTotalRate;
+    }
+
+    public void setQuotaSpanTotalRate(int quotaSpanTotalRate) {
+        this.quotaSpanTotalRate = quotaSpanTotalRate;
+    }
+
+    public String getQuotaApplicationWeights() {
+        return quotaApplicationWeights;
+    }
+
+    public void setQuotaApplicationWeights(String quotaApplicationWeights) {
+        this.quotaApplicationWeights = quotaApplicationWeights;
+    }
+
+    public int getQuotaStatAgentRate() {
+        return quotaStatAgentRate;
+    }
+
+    public void setQuotaStatAgentRate(int quotaStatAgentRate) {
+        this.quotaStatAgentRate = quotaStatAgentRate;
+    }
+
+    public boolean isQuotaHintEnable() {
+        return quotaHintEnable;
+    }
+
+    public void setQuotaHintEnable(boolean quotaHintEnable) {
+        this.quotaHintEnable = quotaHintEnable;
+    }
+
+    public long getQuotaHintDurationMillis() {
+        return quotaHintDurationMillis;
+    }
+
+    public void setQuotaHintDurationMillis(long quotaHintDurationMillis) {
+        this.quotaHintDurationMillis = quotaHintDurationMillis;
+    }
+
+    public int getSpanEncodingVersion() {
+        return spanEncodingVersion;
+    }
+
+    public void setSpanEncodingVersion(int spanEncodingVersion) {
+        this.spanEncodingVersion = spanEncodingVersion;
+    }
+
+    public String getSpanEncodingCompression() {
+        return spanEncodingCompression;
+    }
+
+    public void setSpanEncodingCompression(String spanEncodingCompression) {
+        this.spanEncodingCompression = spanEncodingCompression;
+    }
+
+    public boolean isSpanPipelineEnable() {
+        return spanPipelineEnable;
+    }
+
+    public void setSpanPipelineEnable(boolean spanPipelineEnable) {
+        this.spanPipelineEnable = spanPipelineEnable;
+    }
+
+    public int getSpanPipelineThreadSize() {
+        return spanPipelineThreadSize;
+    }
+
+    public void setSpanPipelineThreadSize(int spanPipelineThreadSize) {
+        this.spanPipelineThreadSize = spanPipelineThreadSize;
+    }
+
+    public int getSpanPipelineQueueSize() {
+        return spanPipelineQueueSize;
+    }
+
+    public void setSpanPipelineQueueSize(int spanPipelineQueueSize) {
+        this.spanPipelineQueueSize = spanPipelineQueueSize;
+    }
+
+    public int getSpanPipelineBatchSize() {
+        return spanPipelineBatchSize;
+    }
+
+    public void setSpanPipelineBatchSize(int spanPipelineBatchSize) {
+        this.spanPipelineBatchSize = spanPipelineBatchSize;
+    }
+
+    public long getSpanPipelineBatchWindow() {
+        return spanPipelineBatchWindow;
+    }
+
+    public void setSpanPipelineBatchWindow(long spanPipelineBatchWindow) {
+        this.spanPipelineBatchWindow = spanPipelineBatchWindow;
+    }
+
+    public void setStatRollupEnable(boolean statRollupEnable) {
+        this.statRollupEnable = statRollupEnable;
+    }
+
+    public boolean isStatRollupEnable() {
+        return statRollupEnable;
+    }
+
+    public boolean isTopologyEnable() {
+        return topologyEnable;
+    }
+
+    public void setTopologyEnable(boolean topologyEnable) {
+        this.topologyEnable = topologyEnable;
+    }
 
     public void setFlinkClusterEnable(boolean flinkClusterEnable) {
         this.flinkClusterEnable = flinkClusterEnable;
@@ -90,6 +371,14 @@ public class CollectorConfiguration implements InitializingBean {
         return flinkClusterSessionTimeout;
     }
 
+    public void setFlinkClusterStatBatchSize(int flinkClusterStatBatchSize) {
+        this.flinkClusterStatBatchSize = flinkClusterStatBatchSize;
+    }
+
+    public int getFlinkClusterStatBatchSize() {
+        return flinkClusterStatBatchSize;
+    }
+
     public int getAgentEventWorkerThreadSize() {
         return this.agentEventWorkerThreadSize;
     }
@@ -154,6 +443,22 @@ public class CollectorConfiguration implements InitializingBean {
         this.clusterListenPort = clusterListenPort;
     }
 
+    public boolean isClusterStreamShareEnable() {
+        return clusterStreamShareEnable;
+    }
+
+    public void setClusterStreamShareEnable(boolean clusterStreamShareEnable) {
+        this.clusterStreamShareEnable = clusterStreamShareEnable;
+    }
+
+    public int getClusterAgentShardCount() {
+        return clusterAgentShardCount;
+    }
+
+    public void setClusterAgentShardCount(int clusterAgentShardCount) {
+        this.clusterAgentShardCount = clusterAgentShardCount;
+    }
+
     public void readConfigFile() {
 
         // may be useful for some kind of standalone like testcase. It should be modified to read a classpath for testcase.
@@ -189,6 +494,44 @@ public class CollectorConfiguration implements InitializingBean {
         this.flinkClusterEnable = readBoolean(properties, "flink.cluster.enable");
         this.flinkClusterZookeeperAddress = readString(properties, "flink.cluster.zookeeper.address", "");
         this.flinkClusterSessionTimeout = readInt(properties, "flink.cluster.zookeeper.sessiontimeout", -1);
+        this.flinkClusterStatBatchSize = readInt(properties, "flink.cluster.stat.batch.size", 1);
+
+        this.statRollupEnable = readBoolean(properties, "collector.stat.rollup.enable");
+
+        this.topologyEnable = readBoolean(properties, "collector.topology.enable");
+
+        this.spanPipelineEnable = readBoolean(properties, "collector.span.pipeline.enable");
+        this.spanPipelineThreadSize = readInt(properties, "collector.span.pipeline.threadSize", 8);
+        this.spanPipelineQueueSize = readInt(properties, "collector.span.pipeline.queueSize", 1024 * 5);
+        this.spanPipelineBatchSize = readInt(properties, "collector.span.pipeline.batchSize", 500);
+        this.spanPipelineBatchWindow = readLong(properties, "collector.span.pipeline.batchWindow", 100);
+
+        this.spanEncodingVersion = readInt(properties, "collector.span.encoding.version", 0);
+        this.spanEncodingCompression = readString(properties, "collector.span.encoding.compression", "none");
+
+        this.tailSamplingEnable = readBoolean(properties, "collector.span.tailsampling.enable");
+        this.tailSamplingWindow = readLong(properties, "collector.span.tailsampling.window", 10000);
+        this.tailSamplingMaxTransactions = readInt(properties, "collector.span.tailsampling.maxTransactions", 100000);
+        this.tailSamplingMaxBytes = readLong(properties, "collector.span.tailsampling.maxBytes", 256 * 1024 * 1024);
+        this.tailSamplingOverflowPolicy = readString(properties, "collector.span.tailsampling.overflowPolicy", "persist");
+        this.tailSamplingErrorRule = readBoolean(properties, "collector.span.tailsampling.rule.error");
+        this.tailSamplingLatencyThreshold = readInt(properties, "collector.span.tailsampling.rule.latencyThreshold", -1);
+        this.tailSamplingUrlPatterns = readString(properties, "collector.span.tailsampling.rule.urlPatterns", "");
+        this.tailSamplingBaselineRate = readInt(properties, "collector.span.tailsampling.baselineRate", 0);
+
+        this.storageType = readString(properties, "collector.storage.type", "hbase");
+        this.storageLocalPath = readString(properties, "collector.storage.local.path", "./pinpoint-storage");
+        this.storageLocalPartitionMillis = readLong(properties, "collector.storage.local.partitionMillis", 3600000);
+        this.storageLocalRetentionMillis = readLong(properties, "collector.storage.local.retentionMillis", -1);
+
+        this.quotaEnable = readBoolean(properties, "collector.quota.enable");
+        this.quotaSpanApplicationRate = readInt(properties, "collector.quota.span.application.rate", 0);
+        this.quotaSpanAgentRate = readInt(properties, "collector.quota.span.agent.rate", 0);
+        this.quotaSpanTotalRate = readInt(properties, "collector.quota.span.total.rate", 0);
+        this.quotaApplicationWeights = readString(properties, "collector.quota.application.weights", "");
+        this.quotaStatAgentRate = readInt(properties, "collector.quota.stat.agent.rate", 0);
+        this.quotaHintEnable = readBoolean(properties, "collector.quota.hint.enable");
+        this.quotaHintDurationMillis = readLong(properties, "collector.quota.hint.durationMillis", 60000);
         
         String[] l4Ips = StringUtils.split(readString(properties, "collector.l4.ip", null), ",");
         if (l4Ips == null) {
@@ -208,6 +551,8 @@ public class CollectorConfiguration implements InitializingBean {
 
         this.clusterListenIp = readString(properties, "cluster.listen.ip", "");
         this.clusterListenPort = readInt(properties, "cluster.listen.port", -1);
+        this.clusterStreamShareEnable = readBoolean(properties, "cluster.stream.share.enable");
+        this.clusterAgentShardCount = readInt(properties, "cluster.zookeeper.agent.shard.count", 0);
     }
 
     protected static String readString(Properties properties, String propertyName, String defaultValue) {
@@ -260,9 +605,42 @@ public class CollectorConfiguration implements InitializingBean {
         sb.append(", clusterSessionTimeout=").append(clusterSessionTimeout);
         sb.append(", clusterListenIp='").append(clusterListenIp).append('\'');
         sb.append(", clusterListenPort=").append(clusterListenPort);
+        sb.append(", clusterStreamShareEnable=").append(clusterStreamShareEnable);
+        sb.append(", clusterAgentShardCount=").append(clusterAgentShardCount);
         sb.append(", flinkClusterEnable=").append(flinkClusterEnable);
         sb.append(", flinkClusterZookeeperAddress='").append(flinkClusterZookeeperAddress).append('\'');
         sb.append(", flinkClusterSessionTimeout=").append(flinkClusterSessionTimeout);
+        sb.append(", flinkClusterStatBatchSize=").append(flinkClusterStatBatchSize);
+        sb.append(", statRollupEnable=").append(statRollupEnable);
+        sb.append(", topologyEnable=").append(topologyEnable);
+        sb.append(", spanPipelineEnable=").append(spanPipelineEnable);
+        sb.append(", spanPipelineThreadSize=").append(spanPipelineThreadSize);
+        sb.append(", spanPipelineQueueSize=").append(spanPipelineQueueSize);
+        sb.append(", spanPipelineBatchSize=").append(spanPipelineBatchSize);
+        sb.append(", spanPipelineBatchWindow=").append(spanPipelineBatchWindow);
+        sb.append(", spanEncodingVersion=").append(spanEncodingVersion);
+        sb.append(", spanEncodingCompression='").append(spanEncodingCompression).append('\'');
+        sb.append(", tailSamplingEnable=").append(tailSamplingEnable);
+        sb.append(", tailSamplingWindow=").append(tailSamplingWindow);
+        sb.append(", tailSamplingMaxTransactions=").append(tailSamplingMaxTransactions);
+        sb.append(", tailSamplingMaxBytes=").append(tailSamplingMaxBytes);
+        sb.append(", tailSamplingOverflowPolicy='").append(tailSamplingOverflowPolicy).append('\'');
+        sb.append(", tailSamplingErrorRule=").append(tailSamplingErrorRule);
+        sb.append(", tailSamplingLatencyThreshold=").append(tailSamplingLatencyThreshold);
+        sb.append(", tailSamplingUrlPatterns='").append(tailSamplingUrlPatterns).append('\'');
+        sb.append(", tailSamplingBaselineRate=").append(tailSamplingBaselineRate);
+        sb.append(", storageType='").append(storageType).append('\'');
+        sb.append(", storageLocalPath='").append(storageLocalPath).append('\'');
+        sb.append(", storageLocalPartitionMillis=").append(storageLocalPartitionMillis);
+        sb.append(", storageLocalRetentionMillis=").append(storageLocalRetentionMillis);
+        sb.append(", quotaEnable=").append(quotaEnable);
+        sb.append(", quotaSpanApplicationRate=").append(quotaSpanApplicationRate);
+        sb.append(", quotaSpanAgentRate=").append(quotaSpanAgentRate);
+        sb.append(", quotaSpanTotalRate=").append(quotaSpanTotalRate);
+        sb.append(", quotaApplicationWeights='").append(quotaApplicationWeights).append('\'');
+        sb.append(", quotaStatAgentRate=").append(quotaStatAgentRate);
+        sb.append(", quotaHintEnable=").append(quotaHintEnable);
+        sb.append(", quotaHintDurationMillis=").append(quotaHintDurationMillis);
         sb.append('}');
         return sb.toString();
     }
@@ -0,0 +1,281 @@
+/*
+ * Copyright 2019 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.navercorp.pinpoint.collector.config;
+
+import com.navercorp.pinpoint.collector.dao.AgentStatDaoV2;
+import com.navercorp.pinpoint.collector.dao.ApplicationTraceIndexDao;
+import com.navercorp.pinpoint.collector.dao.MapResponseTimeDao;
+import com.navercorp.pinpoint.collector.dao.MapStatisticsCalleeDao;
+import com.navercorp.pinpoint.collector.dao.MapStatisticsCallerDao;
+import com.navercorp.pinpoint.collector.dao.TraceDao;
+import com.navercorp.pinpoint.collector.dao.local.LocalAgentStatDao;
+import com.navercorp.pinpoint.collector.dao.local.LocalApplicationTraceIndexDao;
+import com.navercorp.pinpoint.collector.dao.local.LocalMapResponseTimeDao;
+import com.navercorp.pinpoint.collector.dao.local.LocalMapStatisticsCalleeDao;
+import com.navercorp.pinpoint.collector.dao.local.LocalMapStatisticsCallerDao;
+import com.navercorp.pinpoint.collector.dao.local.LocalMetaDataDao;
+import com.navercorp.pinpoint.collector.dao.local.LocalStorage;
+import com.navercorp.pinpoint.collector.dao.local.LocalTraceDao;
+import com.navercorp.pinpoint.collector.util.DataSourceListBoUtils;
+import com.navercorp.pinpoint.common.server.bo.serializer.RowKeyEncoder;
+import com.navercorp.pinpoint.common.server.bo.serializer.stat.ActiveTraceSerializer;
+import com.navercorp.pinpoint.common.server.bo.serializer.stat.AgentStatHbaseOperationFactory;
+import com.navercorp.pinpoint.common.server.bo.serializer.stat.CpuLoadSerializer;
+import com.navercorp.pinpoint.common.server.bo.serializer.stat.DataSourceSerializer;
+import com.navercorp.pinpoint.common.server.bo.serializer.stat.DeadlockThreadCountSerializer;
+import com.navercorp.pinpoint.common.server.bo.serializer.stat.DirectBufferSerializer;
+import com.navercorp.pinpoint.common.server.bo.serializer.stat.FileDescriptorSerializer;
+import com.navercorp.pinpoint.common.server.bo.serializer.stat.JvmGcDetailedSerializer;
+import com.navercorp.pinpoint.common.server.bo.serializer.stat.JvmGcSerializer;
+import com.navercorp.pinpoint.common.server.bo.serializer.stat.ResponseTimeSerializer;
+import com.navercorp.pinpoint.common.server.bo.serializer.stat.TransactionSerializer;
+import com.navercorp.pinpoint.common.server.bo.serializer.trace.v2.SpanChunkSerializerV2;
+import com.navercorp.pinpoint.common.server.bo.serializer.trace.v2.SpanSerializerV2;
+import com.navercorp.pinpoint.common.server.bo.stat.ActiveTraceBo;
+import com.navercorp.pinpoint.common.server.bo.stat.AgentStatType;
+import com.navercorp.pinpoint.common.server.bo.stat.CpuLoadBo;
+import com.navercorp.pinpoint.common.server.bo.stat.DataSourceListBo;
+import com.navercorp.pinpoint.common.server.bo.stat.DeadlockThreadCountBo;
+import com.navercorp.pinpoint.common.server.bo.stat.DirectBufferBo;
+import com.navercorp.pinpoint.common.server.bo.stat.FileDescriptorBo;
+import com.navercorp.pinpoint.common.server.bo.stat.JvmGcBo;
+import com.navercorp.pinpoint.common.server.bo.stat.JvmGcDetailedBo;
+import com.navercorp.pinpoint.common.server.bo.stat.ResponseTimeBo;
+import com.navercorp.pinpoint.common.server.bo.stat.TransactionBo;
+import com.navercorp.pinpoint.common.server.util.AcceptedTimeService;
+import com.navercorp.pinpoint.common.util.TimeSlot;
+import com.navercorp.pinpoint.common.util.TransactionId;
+import com.sematext.hbase.wd.AbstractRowKeyDistributor;
+import com.sematext.hbase.wd.RowKeyDistributorByHashPrefix;
+import org.apache.commons.lang3.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.ConditionContext;
+import org.springframework.context.annotation.Conditional;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.ConfigurationCondition;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.io.support.ResourcePropertySource;
+import org.springframework.core.type.AnnotatedTypeMetadata;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Replaces the hbase DAOs of the collector with the {@link LocalStorage} DAOs when {@code collector.storage.type=local}.
+ * <p>
+ * The hbase DAOs are still created, the local ones are {@link Primary} so every service writes to the local storage.
+ * Only the tables of the DAOs below are moved. Agent info, agent life cycle, agent events and the application index
+ * are still written to hbase, and the web reads hbase only, so an hbase cluster is still required.
+ * <p>
+ * The local storage is a write side only, meant for collector ingestion benchmarks. There are no web DAOs for it:
+ * the block index of a {@link com.navercorp.pinpoint.common.server.storage.LocalLogStore} lives in the collector
+ * process, so another process can not follow the files while they are written.
+ */
+@Configuration
+@Conditional(LocalStorageConfiguration.Condition.class)
+public class LocalStorageConfiguration {
+
+    @Autowired
+    private CollectorConfiguration collectorConfiguration;
+
+    @Autowired
+    private AcceptedTimeService acceptedTimeService;
+
+    @Autowired
+    private TimeSlot timeSlot;
+
+    @Autowired
+    private AgentStatHbaseOperationFactory agentStatHbaseOperationFactory;
+
+    @Autowired
+    @Qualifier("statisticsCallerRowKeyDistributor")
+    private RowKeyDistributorByHashPrefix statisticsCallerRowKeyDistributor;
+
+    @Autowired
+    @Qualifier("statisticsCalleeRowKeyDistributor")
+    private RowKeyDistributorByHashPrefix statisticsCalleeRowKeyDistributor;
+
+    @Autowired
+    @Qualifier("statisticsSelfRowKeyDistributor")
+    private RowKeyDistributorByHashPrefix statisticsSelfRowKeyDistributor;
+
+    @Bean
+    public LocalStorage localStorage() {
+        final File directory = new File(collectorConfiguration.getStorageLocalPath());
+        return new LocalStorage(directory, collectorConfiguration.getStorageLocalPartitionMillis());
+    }
+
+    @Bean
+    @Primary
+    public TraceDao localTraceDao(SpanSerializerV2 spanSerializer, SpanChunkSerializerV2 spanChunkSerializer,
+                                  @Qualifier("traceRowKeyEncoderV2") RowKeyEncoder<TransactionId> rowKeyEncoder) {
+        return new LocalTraceDao(localStorage(), spanSerializer, spanChunkSerializer, rowKeyEncoder);
+    }
+
+    @Bean
+    @Primary
+    public ApplicationTraceIndexDao localApplicationTraceIndexDao(@Qualifier("applicationTraceIndexDistributor") AbstractRowKeyDistributor rowKeyDistributor) {
+        return new LocalApplicationTraceIndexDao(localStorage(), acceptedTimeService, rowKeyDistributor);
+    }
+
+    @Bean
+    @Primary
+    public MapStatisticsCallerDao localMapStatisticsCallerDao() {
+        return new LocalMapStatisticsCallerDao(localStorage(), acceptedTimeService, timeSlot, statisticsCallerRowKeyDistributor);
+    }
+
+    @Bean
+    @Primary
+    public MapStatisticsCalleeDao localMapStatisticsCalleeDao() {
+        return new LocalMapStatisticsCalleeDao(localStorage(), acceptedTimeService, timeSlot, statisticsCalleeRowKeyDistributor);
+    }
+
+    @Bean
+    @Primary
+    public MapResponseTimeDao localMapResponseTimeDao() {
+        return new LocalMapResponseTimeDao(localStorage(), acceptedTimeService, timeSlot, statisticsSelfRowKeyDistributor);
+    }
+
+    @Bean
+    @Primary
+    public LocalMetaDataDao localMetaDataDao(@Qualifier("metadataRowKeyDistributor") RowKeyDistributorByHashPrefix metadataRowKeyDistributor,
+                                             @Qualifier("metadataRowKeyDistributor2") RowKeyDistributorByHashPrefix metadataRowKeyDistributor2) {
+        return new LocalMetaDataDao(localStorage(), metadataRowKeyDistributor, metadataRowKeyDistributor2);
+    }
+
+    @Bean
+    @Primary
+    public AgentStatDaoV2<JvmGcBo> localJvmGcDao(JvmGcSerializer serializer) {
+        return new LocalAgentStatDao<>(localStorage(), agentStatHbaseOperationFactory, AgentStatType.JVM_GC, serializer);
+    }
+
+    @Bean
+    @Primary
+    public AgentStatDaoV2<JvmGcDetailedBo> localJvmGcDetailedDao(JvmGcDetailedSerializer serializer) {
+        return new LocalAgentStatDao<>(localStorage(), agentStatHbaseOperationFactory, AgentStatType.JVM_GC_DETAILED, serializer);
+    }
+
+    @Bean
+    @Primary
+    public AgentStatDaoV2<CpuLoadBo> localCpuLoadDao(CpuLoadSerializer serializer) {
+        return new LocalAgentStatDao<>(localStorage(), agentStatHbaseOperationFactory, AgentStatType.CPU_LOAD, serializer);
+    }
+
+    @Bean
+    @Primary
+    public AgentStatDaoV2<TransactionBo> localTransactionDao(TransactionSerializer serializer) {
+        return new LocalAgentStatDao<>(localStorage(), agentStatHbaseOperationFactory, AgentStatType.TRANSACTION, serializer);
+    }
+
+    @Bean
+    @Primary
+    public AgentStatDaoV2<ActiveTraceBo> localActiveTraceDao(ActiveTraceSerializer serializer) {
+        return new LocalAgentStatDao<>(localStorage(), agentStatHbaseOperationFactory, AgentStatType.ACTIVE_TRACE, serializer);
+    }
+
+    @Bean
+    @Primary
+    public AgentStatDaoV2<DataSourceListBo> localDataSourceListDao(DataSourceSerializer serializer) {
+        return new LocalAgentStatDao<DataSourceListBo>(localStorage(), agentStatHbaseOperationFactory, AgentStatType.DATASOURCE, serializer) {
+            @Override
+            protected List<DataSourceListBo> prepare(List<DataSourceListBo> dataSourceListBos) {
+                return DataSourceListBoUtils.reorderDataSourceListBos(dataSourceListBos);
+            }
+        };
+    }
+
+    @Bean
+    @Primary
+    public AgentStatDaoV2<ResponseTimeBo> localResponseTimeDao(ResponseTimeSerializer serializer) {
+        return new LocalAgentStatDao<>(localStorage(), agentStatHbaseOperationFactory, AgentStatType.RESPONSE_TIME, serializer);
+    }
+
+    @Bean
+    @Primary
+    public AgentStatDaoV2<DeadlockThreadCountBo> localDeadlockThreadCountDao(DeadlockThreadCountSerializer serializer) {
+        return new LocalAgentStatDao<>(localStorage(), agentStatHbaseOperationFactory, AgentStatType.DEADLOCK, serializer);
+    }
+
+    @Bean
+    @Primary
+    public AgentStatDaoV2<FileDescriptorBo> localFileDescriptorDao(FileDescriptorSerializer serializer) {
+        return new LocalAgentStatDao<>(localStorage(), agentStatHbaseOperationFactory, AgentStatType.FILE_DESCRIPTOR, serializer);
+    }
+
+    @Bean
+    @Primary
+    public AgentStatDaoV2<DirectBufferBo> localDirectBufferDao(DirectBufferSerializer serializer) {
+        return new LocalAgentStatDao<>(localStorage(), agentStatHbaseOperationFactory, AgentStatType.DIRECT_BUFFER, serializer);
+    }
+
+    @Scheduled(fixedRate = 1000)
+    public void flushStatistics() {
+        // bean methods return the singletons
+        localMapStatisticsCallerDao().flushAll();
+        localMapStatisticsCalleeDao().flushAll();
+        localMapResponseTimeDao().flushAll();
+    }
+
+    @Scheduled(fixedRate = 60000)
+    public void deleteExpiredPartitions() {
+        final long retentionMillis = collectorConfiguration.getStorageLocalRetentionMillis();
+        if (retentionMillis <= 0) {
+            return;
+        }
+        localStorage().deleteBefore(System.currentTimeMillis() - retentionMillis);
+    }
+
+    static class Condition implements ConfigurationCondition {
+        private static final String STORAGE_TYPE = "collector.storage.type";
+        private static final String PROPERTIES_LOCATION = "classpath:pinpoint-collector.properties";
+
+        private final Logger logger = LoggerFactory.getLogger(this.getClass());
+
+        @Override
+        public ConfigurationPhase getConfigurationPhase() {
+            return ConfigurationPhase.PARSE_CONFIGURATION;
+        }
+
+        @Override
+        public boolean matches(ConditionContext context, AnnotatedTypeMetadata metadata) {
+            // evaluated by the component scan, before the pinpoint_collector_properties bean is defined
+            String storageType = context.getEnvironment().getProperty(STORAGE_TYPE);
+            if (storageType == null) {
+                storageType = readStorageType(context);
+            }
+            storageType = StringUtils.defaultIfBlank(storageType, "hbase").trim();
+            logger.info("{}:{}", STORAGE_TYPE, storageType);
+            return "local".equalsIgnoreCase(storageType);
+        }
+
+        private String readStorageType(ConditionContext context) {
+            try {
+                final ResourcePropertySource propertySource = new ResourcePropertySource(PROPERTIES_LOCATION, context.getClassLoader());
+                return (String) propertySource.getProperty(STORAGE_TYPE);
+            } catch (IOException e) {
+                logger.warn("{} not readable. Caused:{}", PROPERTIES_LOCATION, e.getMessage());
+                return null;
+            }
+        }
+    }
+}
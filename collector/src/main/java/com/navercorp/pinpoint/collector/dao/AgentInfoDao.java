@@ -23,4 +23,9 @@ import com.navercorp.pinpoint.common.server.bo.AgentInfoBo;
  */
 public interface AgentInfoDao {
     void insert(AgentInfoBo agentInfo);
+
+    /**
+     * @return null if the agent info of the agent started at agentStartTime is not stored
+     */
+    String getApplicationName(String agentId, long agentStartTime);
 }
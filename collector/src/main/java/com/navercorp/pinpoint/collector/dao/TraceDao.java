@@ -3,6 +3,8 @@ package com.navercorp.pinpoint.collector.dao;
 import com.navercorp.pinpoint.common.server.bo.SpanBo;
 import com.navercorp.pinpoint.common.server.bo.SpanChunkBo;
 
+import java.util.List;
+
 /**
  * @author Woonduk Kang(emeroad)
  */
@@ -10,4 +12,9 @@ public interface TraceDao {
     void insert(SpanBo span);
 
     void insertSpanChunk(SpanChunkBo spanChunk);
+
+    /**
+     * Writes spans and span chunks together, merging the ones that belong to the same transaction into a single row mutation.
+     */
+    void insertAll(List<SpanBo> spanList, List<SpanChunkBo> spanChunkList);
 }
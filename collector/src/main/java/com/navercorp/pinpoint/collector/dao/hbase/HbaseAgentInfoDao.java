@@ -17,6 +17,7 @@
 package com.navercorp.pinpoint.collector.dao.hbase;
 
 import com.navercorp.pinpoint.collector.dao.AgentInfoDao;
+import com.navercorp.pinpoint.common.hbase.RowMapper;
 import com.navercorp.pinpoint.common.hbase.TableNameProvider;
 import com.navercorp.pinpoint.common.server.bo.AgentInfoBo;
 import com.navercorp.pinpoint.common.hbase.HBaseTables;
@@ -26,6 +27,7 @@ import com.navercorp.pinpoint.common.util.TimeUtils;
 
 import org.apache.hadoop.hbase.TableName;
 import org.apache.hadoop.hbase.client.Put;
+import org.apache.hadoop.hbase.client.Result;
 import org.apache.hadoop.hbase.util.Bytes;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -78,4 +80,31 @@ public class HbaseAgentInfoDao implements AgentInfoDao {
         final TableName agentInfoTableName = tableNameProvider.getTableName(HBaseTables.AGENTINFO_STR);
         hbaseTemplate.put(agentInfoTableName, put);
     }
+
+    @Override
+    public String getApplicationName(String agentId, long agentStartTime) {
+        if (agentId == null) {
+            throw new NullPointerException("agentId must not be null");
+        }
+
+        final long reverseKey = TimeUtils.reverseTimeMillis(agentStartTime);
+        final byte[] rowKey = RowKeyUtils.concatFixedByteAndLong(Bytes.toBytes(agentId), HBaseTables.AGENT_NAME_MAX_LEN, reverseKey);
+
+        final TableName agentInfoTableName = tableNameProvider.getTableName(HBaseTables.AGENTINFO_STR);
+        return hbaseTemplate.get(agentInfoTableName, rowKey, HBaseTables.AGENTINFO_CF_INFO, HBaseTables.AGENTINFO_CF_INFO_IDENTIFIER, APPLICATION_NAME_MAPPER);
+    }
+
+    private static final RowMapper<String> APPLICATION_NAME_MAPPER = new RowMapper<String>() {
+        @Override
+        public String mapRow(Result result, int rowNum) throws Exception {
+            final byte[] serializedAgentInfo = result.getValue(HBaseTables.AGENTINFO_CF_INFO, HBaseTables.AGENTINFO_CF_INFO_IDENTIFIER);
+            if (serializedAgentInfo == null) {
+                return null;
+            }
+            final AgentInfoBo agentInfoBo = new AgentInfoBo.Builder(serializedAgentInfo).build();
+            final String applicationName = agentInfoBo.getApplicationName();
+            // build() replaces a missing application name with an empty one
+            return applicationName.isEmpty() ? null : applicationName;
+        }
+    };
 }
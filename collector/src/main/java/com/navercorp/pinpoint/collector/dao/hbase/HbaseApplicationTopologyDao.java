@@ -0,0 +1,70 @@
+/*
+ * Copyright 2019 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.navercorp.pinpoint.collector.dao.hbase;
+
+import com.navercorp.pinpoint.collector.dao.ApplicationTopologyDao;
+import com.navercorp.pinpoint.common.hbase.HBaseTables;
+import com.navercorp.pinpoint.common.hbase.HbaseOperations2;
+import com.navercorp.pinpoint.common.hbase.TableNameProvider;
+import com.navercorp.pinpoint.common.server.bo.TopologyEdgeBo;
+import org.apache.hadoop.hbase.HConstants;
+import org.apache.hadoop.hbase.TableName;
+import org.apache.hadoop.hbase.client.Put;
+import org.apache.hadoop.hbase.util.Bytes;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+
+/**
+ * One row per time bucket, one empty cell per edge.
+ */
+@Repository
+public class HbaseApplicationTopologyDao implements ApplicationTopologyDao {
+
+    private final Logger logger = LoggerFactory.getLogger(this.getClass());
+
+    @Autowired
+    private HbaseOperations2 hbaseTemplate;
+
+    @Autowired
+    private TableNameProvider tableNameProvider;
+
+    @Override
+    public void insert(long bucket, Collection<TopologyEdgeBo> edges) {
+        if (edges == null) {
+            throw new NullPointerException("edges must not be null");
+        }
+        if (edges.isEmpty()) {
+            return;
+        }
+        if (logger.isDebugEnabled()) {
+            logger.debug("insert topology edges. bucket:{}, edges:{}", bucket, edges.size());
+        }
+
+        final Put put = new Put(Bytes.toBytes(bucket));
+        for (TopologyEdgeBo edge : edges) {
+            put.addColumn(HBaseTables.APPLICATION_TOPOLOGY_CF_EDGE, edge.writeQualifier(), HConstants.EMPTY_BYTE_ARRAY);
+        }
+
+        final TableName applicationTopologyTableName = tableNameProvider.getTableName(HBaseTables.APPLICATION_TOPOLOGY_STR);
+        hbaseTemplate.put(applicationTopologyTableName, put);
+    }
+}
@@ -11,6 +11,7 @@ import com.navercorp.pinpoint.common.server.bo.serializer.trace.v2.SpanChunkSeri
 import com.navercorp.pinpoint.common.server.bo.serializer.trace.v2.SpanSerializerV2;
 import com.navercorp.pinpoint.common.util.TransactionId;
 import org.apache.commons.collections.CollectionUtils;
+import org.apache.hadoop.hbase.Cell;
 import org.apache.hadoop.hbase.TableName;
 import org.apache.hadoop.hbase.client.Put;
 import org.slf4j.Logger;
@@ -19,7 +20,12 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.stereotype.Repository;
 
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 import static com.navercorp.pinpoint.common.hbase.HBaseTables.TRACE_V2_STR;
 
@@ -98,8 +104,61 @@ public class HbaseTraceDaoV2 implements TraceDao {
         }
     }
 
+    @Override
+    public void insertAll(List<SpanBo> spanList, List<SpanChunkBo> spanChunkList) {
+        if (spanList == null) {
+            throw new NullPointerException("spanList must not be null");
+        }
+        if (spanChunkList == null) {
+            throw new NullPointerException("spanChunkList must not be null");
+        }
 
+        final Map<ByteBuffer, Put> putMap = new LinkedHashMap<>(spanList.size() + spanChunkList.size());
+        for (SpanBo spanBo : spanList) {
+            final byte[] rowKey = this.rowKeyEncoder.encodeRowKey(spanBo.getTransactionId());
+            final Put put = new Put(rowKey, spanBo.getCollectorAcceptTime());
+            this.spanSerializer.serialize(spanBo, put, null);
+            mergePut(putMap, put);
+        }
+        for (SpanChunkBo spanChunkBo : spanChunkList) {
+            if (CollectionUtils.isEmpty(spanChunkBo.getSpanEventBoList())) {
+                continue;
+            }
+            final byte[] rowKey = this.rowKeyEncoder.encodeRowKey(spanChunkBo.getTransactionId());
+            final Put put = new Put(rowKey, spanChunkBo.getCollectorAcceptTime());
+            this.spanChunkSerializer.serialize(spanChunkBo, put, null);
+            mergePut(putMap, put);
+        }
+        if (putMap.isEmpty()) {
+            return;
+        }
 
+        final TableName traceTableName = tableNameProvider.getTableName(TRACE_V2_STR);
+        final List<Put> rejectedPuts = hbaseTemplate.asyncPut(traceTableName, new ArrayList<>(putMap.values()));
+        if (CollectionUtils.isNotEmpty(rejectedPuts)) {
+            hbaseTemplate.put(traceTableName, rejectedPuts);
+        }
+    }
 
-
+    private void mergePut(Map<ByteBuffer, Put> putMap, Put put) {
+        if (put.isEmpty()) {
+            return;
+        }
+        final ByteBuffer key = ByteBuffer.wrap(put.getRow());
+        final Put mergedPut = putMap.get(key);
+        if (mergedPut == null) {
+            putMap.put(key, put);
+            return;
+        }
+        // cells keep the accepted time of their own span, so they can be moved as they are
+        for (List<Cell> cells : put.getFamilyCellMap().values()) {
+            for (Cell cell : cells) {
+                try {
+                    mergedPut.add(cell);
+                } catch (IOException e) {
+                    throw new IllegalStateException("unexpected row mismatch", e);
+                }
+            }
+        }
+    }
 }
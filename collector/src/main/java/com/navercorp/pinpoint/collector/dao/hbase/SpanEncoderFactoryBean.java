@@ -0,0 +1,67 @@
+/*
+ * Copyright 2019 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.navercorp.pinpoint.collector.dao.hbase;
+
+import com.navercorp.pinpoint.collector.config.CollectorConfiguration;
+import com.navercorp.pinpoint.common.server.bo.serializer.trace.v2.SpanEncoder;
+import com.navercorp.pinpoint.common.server.bo.serializer.trace.v2.SpanEncoderV0;
+import com.navercorp.pinpoint.common.server.bo.serializer.trace.v2.SpanEncoderV1;
+import com.navercorp.pinpoint.common.server.bo.serializer.trace.v2.SpanEventListCompression;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.FactoryBean;
+
+import java.util.Objects;
+
+/**
+ * Selects the trace column value format written by the collector from collector.span.encoding.version.
+ */
+public class SpanEncoderFactoryBean implements FactoryBean<SpanEncoder> {
+
+    private final Logger logger = LoggerFactory.getLogger(this.getClass());
+
+    private final CollectorConfiguration configuration;
+
+    public SpanEncoderFactoryBean(CollectorConfiguration configuration) {
+        this.configuration = Objects.requireNonNull(configuration, "configuration must not be null");
+    }
+
+    @Override
+    public SpanEncoder getObject() throws Exception {
+        final int version = configuration.getSpanEncodingVersion();
+        if (version == 0) {
+            logger.info("span encoding version:0");
+            return new SpanEncoderV0();
+        }
+        if (version == SpanEncoderV1.ENCODING_VERSION) {
+            final SpanEventListCompression compression = SpanEventListCompression.findByName(configuration.getSpanEncodingCompression());
+            logger.info("span encoding version:{} compression:{}", version, compression);
+            return new SpanEncoderV1(compression);
+        }
+        throw new IllegalArgumentException("unsupported collector.span.encoding.version:" + version);
+    }
+
+    @Override
+    public Class<SpanEncoder> getObjectType() {
+        return SpanEncoder.class;
+    }
+
+    @Override
+    public boolean isSingleton() {
+        return true;
+    }
+}
@@ -0,0 +1,68 @@
+/*
+ * Copyright 2019 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.navercorp.pinpoint.collector.dao.hbase.stat;
+
+import com.navercorp.pinpoint.collector.dao.AgentStatRollupDao;
+import com.navercorp.pinpoint.common.hbase.HbaseOperations2;
+import com.navercorp.pinpoint.common.hbase.TableNameProvider;
+import com.navercorp.pinpoint.common.server.bo.serializer.stat.AgentStatHbaseOperationFactory;
+import com.navercorp.pinpoint.common.server.bo.serializer.stat.AgentStatSerializer;
+import com.navercorp.pinpoint.common.server.bo.stat.AgentStatDataPoint;
+import com.navercorp.pinpoint.common.server.bo.stat.AgentStatRollupResolution;
+import com.navercorp.pinpoint.common.server.bo.stat.AgentStatType;
+import org.apache.commons.collections.CollectionUtils;
+import org.apache.hadoop.hbase.TableName;
+import org.apache.hadoop.hbase.client.Put;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+/**
+ * Writes rolled up agent statistics using the same row key and V2 codecs as {@code AgentStatV2}.
+ */
+@Repository
+public class HbaseAgentStatRollupDao implements AgentStatRollupDao {
+
+    @Autowired
+    private HbaseOperations2 hbaseTemplate;
+
+    @Autowired
+    private TableNameProvider tableNameProvider;
+
+    @Autowired
+    private AgentStatHbaseOperationFactory agentStatHbaseOperationFactory;
+
+    @Override
+    public <T extends AgentStatDataPoint> void insert(String agentId, AgentStatType agentStatType, AgentStatRollupResolution resolution, List<T> rollupDataPoints, AgentStatSerializer<T> serializer) {
+        if (agentId == null) {
+            throw new NullPointerException("agentId must not be null");
+        }
+        if (CollectionUtils.isEmpty(rollupDataPoints)) {
+            return;
+        }
+        List<Put> rollupPuts = this.agentStatHbaseOperationFactory.createRollupPuts(agentId, agentStatType, resolution, rollupDataPoints, serializer);
+        if (!rollupPuts.isEmpty()) {
+            TableName rollupTableName = tableNameProvider.getTableName(resolution.getTableName());
+            List<Put> rejectedPuts = this.hbaseTemplate.asyncPut(rollupTableName, rollupPuts);
+            if (CollectionUtils.isNotEmpty(rejectedPuts)) {
+                this.hbaseTemplate.put(rollupTableName, rejectedPuts);
+            }
+        }
+    }
+}
@@ -17,17 +17,15 @@
 package com.navercorp.pinpoint.collector.dao.hbase.stat;
 
 import com.navercorp.pinpoint.collector.dao.AgentStatDaoV2;
+import com.navercorp.pinpoint.collector.util.DataSourceListBoUtils;
 import com.navercorp.pinpoint.common.hbase.HBaseTables;
 import com.navercorp.pinpoint.common.hbase.HbaseOperations2;
 import com.navercorp.pinpoint.common.hbase.TableNameProvider;
 import com.navercorp.pinpoint.common.server.bo.serializer.stat.AgentStatHbaseOperationFactory;
-import com.navercorp.pinpoint.common.server.bo.serializer.stat.AgentStatUtils;
 import com.navercorp.pinpoint.common.server.bo.serializer.stat.DataSourceSerializer;
 import com.navercorp.pinpoint.common.server.bo.stat.AgentStatType;
-import com.navercorp.pinpoint.common.server.bo.stat.DataSourceBo;
 import com.navercorp.pinpoint.common.server.bo.stat.DataSourceListBo;
 import com.navercorp.pinpoint.common.util.CollectionUtils;
-import org.apache.commons.collections.map.MultiKeyMap;
 import org.apache.hadoop.hbase.TableName;
 import org.apache.hadoop.hbase.client.Put;
 import org.slf4j.Logger;
@@ -35,8 +33,6 @@ import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Repository;
 
-import java.util.ArrayList;
-import java.util.Collection;
 import java.util.List;
 
 /**
@@ -68,7 +64,7 @@ public class HbaseDataSourceListDao implements AgentStatDaoV2<DataSourceListBo>
             return;
         }
 
-        List<DataSourceListBo> reorderedDataSourceListBos = reorderDataSourceListBos(dataSourceListBos);
+        List<DataSourceListBo> reorderedDataSourceListBos = DataSourceListBoUtils.reorderDataSourceListBos(dataSourceListBos);
         List<Put> activeTracePuts = this.agentStatHbaseOperationFactory.createPuts(agentId, AgentStatType.DATASOURCE, reorderedDataSourceListBos, dataSourceSerializer);
         if (!activeTracePuts.isEmpty()) {
             TableName agentStatTableName = tableNameProvider.getTableName(HBaseTables.AGENT_STAT_VER2_STR);
@@ -79,37 +75,4 @@ public class HbaseDataSourceListDao implements AgentStatDaoV2<DataSourceListBo>
         }
     }
 
-    private List<DataSourceListBo> reorderDataSourceListBos(List<DataSourceListBo> dataSourceListBos) {
-        // reorder dataSourceBo using id and timeSlot
-        MultiKeyMap dataSourceListBoMap = new MultiKeyMap();
-
-        for (DataSourceListBo dataSourceListBo : dataSourceListBos) {
-            for (DataSourceBo dataSourceBo : dataSourceListBo.getList()) {
-                int id = dataSourceBo.getId();
-                long timestamp = dataSourceBo.getTimestamp();
-                long timeSlot = AgentStatUtils.getBaseTimestamp(timestamp);
-
-                DataSourceListBo mappedDataSourceListBo = (DataSourceListBo) dataSourceListBoMap.get(id, timeSlot);
-                if (mappedDataSourceListBo == null) {
-                    mappedDataSourceListBo = new DataSourceListBo();
-                    mappedDataSourceListBo.setAgentId(dataSourceBo.getAgentId());
-                    mappedDataSourceListBo.setStartTimestamp(dataSourceBo.getStartTimestamp());
-                    mappedDataSourceListBo.setTimestamp(dataSourceBo.getTimestamp());
-
-                    dataSourceListBoMap.put(id, timeSlot, mappedDataSourceListBo);
-                }
-
-                // set fastest timestamp
-                if (mappedDataSourceListBo.getTimestamp() > dataSourceBo.getTimestamp()) {
-                    mappedDataSourceListBo.setTimestamp(dataSourceBo.getTimestamp());
-                }
-
-                mappedDataSourceListBo.add(dataSourceBo);
-            }
-        }
-
-        Collection values = dataSourceListBoMap.values();
-        return new ArrayList<DataSourceListBo>(values);
-    }
-
 }
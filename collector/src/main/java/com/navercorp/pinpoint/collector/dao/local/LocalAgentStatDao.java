@@ -0,0 +1,67 @@
+/*
+ * Copyright 2019 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.navercorp.pinpoint.collector.dao.local;
+
+import com.navercorp.pinpoint.collector.dao.AgentStatDaoV2;
+import com.navercorp.pinpoint.common.server.bo.serializer.HbaseSerializer;
+import com.navercorp.pinpoint.common.server.bo.serializer.stat.AgentStatHbaseOperationFactory;
+import com.navercorp.pinpoint.common.server.bo.stat.AgentStatDataPoint;
+import com.navercorp.pinpoint.common.server.bo.stat.AgentStatType;
+import org.apache.commons.collections.CollectionUtils;
+import org.apache.hadoop.hbase.client.Put;
+
+import java.util.List;
+import java.util.Objects;
+
+import static com.navercorp.pinpoint.common.hbase.HBaseTables.AGENT_STAT_VER2_STR;
+
+/**
+ * {@link AgentStatDaoV2} on the {@link LocalStorage} for any agent stat type. Cells are the same as the agent stat v2 table.
+ */
+public class LocalAgentStatDao<T extends AgentStatDataPoint> implements AgentStatDaoV2<T> {
+
+    private final LocalStorage localStorage;
+    private final AgentStatHbaseOperationFactory agentStatHbaseOperationFactory;
+    private final AgentStatType agentStatType;
+    private final HbaseSerializer<List<T>, Put> agentStatSerializer;
+
+    public LocalAgentStatDao(LocalStorage localStorage, AgentStatHbaseOperationFactory agentStatHbaseOperationFactory,
+                             AgentStatType agentStatType, HbaseSerializer<List<T>, Put> agentStatSerializer) {
+        this.localStorage = Objects.requireNonNull(localStorage, "localStorage must not be null");
+        this.agentStatHbaseOperationFactory = Objects.requireNonNull(agentStatHbaseOperationFactory, "agentStatHbaseOperationFactory must not be null");
+        this.agentStatType = Objects.requireNonNull(agentStatType, "agentStatType must not be null");
+        this.agentStatSerializer = Objects.requireNonNull(agentStatSerializer, "agentStatSerializer must not be null");
+    }
+
+    @Override
+    public void insert(String agentId, List<T> agentStatDataPoints) {
+        if (agentId == null) {
+            throw new NullPointerException("agentId must not be null");
+        }
+        if (CollectionUtils.isEmpty(agentStatDataPoints)) {
+            return;
+        }
+        final List<Put> puts = this.agentStatHbaseOperationFactory.createPuts(agentId, agentStatType, prepare(agentStatDataPoints), agentStatSerializer);
+        if (!puts.isEmpty()) {
+            localStorage.put(AGENT_STAT_VER2_STR, puts);
+        }
+    }
+
+    protected List<T> prepare(List<T> agentStatDataPoints) {
+        return agentStatDataPoints;
+    }
+}
@@ -0,0 +1,68 @@
+/*
+ * Copyright 2019 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.navercorp.pinpoint.collector.dao.local;
+
+import com.navercorp.pinpoint.collector.dao.ApplicationTraceIndexDao;
+import com.navercorp.pinpoint.common.buffer.AutomaticBuffer;
+import com.navercorp.pinpoint.common.buffer.Buffer;
+import com.navercorp.pinpoint.common.server.bo.SpanBo;
+import com.navercorp.pinpoint.common.server.util.AcceptedTimeService;
+import com.navercorp.pinpoint.common.server.util.SpanUtils;
+import com.sematext.hbase.wd.AbstractRowKeyDistributor;
+import org.apache.hadoop.hbase.client.Put;
+
+import java.util.Objects;
+
+import static com.navercorp.pinpoint.common.hbase.HBaseTables.AGENT_NAME_MAX_LEN;
+import static com.navercorp.pinpoint.common.hbase.HBaseTables.APPLICATION_TRACE_INDEX_CF_TRACE;
+import static com.navercorp.pinpoint.common.hbase.HBaseTables.APPLICATION_TRACE_INDEX_STR;
+
+/**
+ * {@link ApplicationTraceIndexDao} on the {@link LocalStorage}. Cells are the same as the application trace index table.
+ */
+public class LocalApplicationTraceIndexDao implements ApplicationTraceIndexDao {
+
+    private final LocalStorage localStorage;
+    private final AcceptedTimeService acceptedTimeService;
+    private final AbstractRowKeyDistributor rowKeyDistributor;
+
+    public LocalApplicationTraceIndexDao(LocalStorage localStorage, AcceptedTimeService acceptedTimeService, AbstractRowKeyDistributor rowKeyDistributor) {
+        this.localStorage = Objects.requireNonNull(localStorage, "localStorage must not be null");
+        this.acceptedTimeService = Objects.requireNonNull(acceptedTimeService, "acceptedTimeService must not be null");
+        this.rowKeyDistributor = Objects.requireNonNull(rowKeyDistributor, "rowKeyDistributor must not be null");
+    }
+
+    @Override
+    public void insert(SpanBo span) {
+        if (span == null) {
+            throw new NullPointerException("span must not be null");
+        }
+
+        final Buffer buffer = new AutomaticBuffer(10 + AGENT_NAME_MAX_LEN);
+        buffer.putVInt(span.getElapsed());
+        buffer.putSVInt(span.getErrCode());
+        buffer.putPrefixedString(span.getAgentId());
+        final byte[] value = buffer.getBuffer();
+
+        final long acceptedTime = acceptedTimeService.getAcceptedTime();
+        final byte[] applicationTraceIndexRowKey = SpanUtils.getApplicationTraceIndexRowKey(span.getApplicationId(), acceptedTime);
+        final Put put = new Put(rowKeyDistributor.getDistributedKey(applicationTraceIndexRowKey));
+        put.addColumn(APPLICATION_TRACE_INDEX_CF_TRACE, SpanUtils.getVarTransactionId(span), acceptedTime, value);
+
+        localStorage.put(APPLICATION_TRACE_INDEX_STR, put);
+    }
+}
@@ -0,0 +1,60 @@
+/*
+ * Copyright 2019 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.navercorp.pinpoint.collector.dao.local;
+
+import com.navercorp.pinpoint.collector.dao.MapResponseTimeDao;
+import com.navercorp.pinpoint.collector.dao.hbase.statistics.CallRowKey;
+import com.navercorp.pinpoint.collector.dao.hbase.statistics.ColumnName;
+import com.navercorp.pinpoint.collector.dao.hbase.statistics.ResponseColumnName;
+import com.navercorp.pinpoint.collector.dao.hbase.statistics.RowKey;
+import com.navercorp.pinpoint.common.server.util.AcceptedTimeService;
+import com.navercorp.pinpoint.common.trace.ServiceType;
+import com.navercorp.pinpoint.common.util.ApplicationMapStatisticsUtils;
+import com.navercorp.pinpoint.common.util.TimeSlot;
+import com.sematext.hbase.wd.RowKeyDistributorByHashPrefix;
+
+import static com.navercorp.pinpoint.common.hbase.HBaseTables.MAP_STATISTICS_SELF_VER2_CF_COUNTER;
+import static com.navercorp.pinpoint.common.hbase.HBaseTables.MAP_STATISTICS_SELF_VER2_STR;
+
+/**
+ * {@link MapResponseTimeDao} on the {@link LocalStorage}. Same rows and columns as the hbase self statistics table.
+ */
+public class LocalMapResponseTimeDao extends LocalStatisticsDao implements MapResponseTimeDao {
+
+    public LocalMapResponseTimeDao(LocalStorage localStorage, AcceptedTimeService acceptedTimeService, TimeSlot timeSlot, RowKeyDistributorByHashPrefix rowKeyDistributorByHashPrefix) {
+        super(localStorage, acceptedTimeService, timeSlot, rowKeyDistributorByHashPrefix, MAP_STATISTICS_SELF_VER2_STR, MAP_STATISTICS_SELF_VER2_CF_COUNTER);
+    }
+
+    @Override
+    public void received(String applicationName, ServiceType applicationServiceType, String agentId, int elapsed, boolean isError) {
+        if (applicationName == null) {
+            throw new NullPointerException("applicationName must not be null");
+        }
+        if (agentId == null) {
+            throw new NullPointerException("agentId must not be null");
+        }
+
+        if (logger.isDebugEnabled()) {
+            logger.debug("[Received] {} ({})[{}]", applicationName, applicationServiceType, agentId);
+        }
+
+        final RowKey selfRowKey = new CallRowKey(applicationName, applicationServiceType.getCode(), getRowTimeSlot());
+        final short slotNumber = ApplicationMapStatisticsUtils.getSlotNumber(applicationServiceType, elapsed, isError);
+        final ColumnName selfColumnName = new ResponseColumnName(agentId, slotNumber);
+        increment(selfRowKey, selfColumnName);
+    }
+}
@@ -0,0 +1,65 @@
+/*
+ * Copyright 2019 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.navercorp.pinpoint.collector.dao.local;
+
+import com.navercorp.pinpoint.collector.dao.MapStatisticsCalleeDao;
+import com.navercorp.pinpoint.collector.dao.hbase.statistics.CallRowKey;
+import com.navercorp.pinpoint.collector.dao.hbase.statistics.CallerColumnName;
+import com.navercorp.pinpoint.collector.dao.hbase.statistics.ColumnName;
+import com.navercorp.pinpoint.collector.dao.hbase.statistics.RowKey;
+import com.navercorp.pinpoint.common.server.util.AcceptedTimeService;
+import com.navercorp.pinpoint.common.trace.ServiceType;
+import com.navercorp.pinpoint.common.util.ApplicationMapStatisticsUtils;
+import com.navercorp.pinpoint.common.util.TimeSlot;
+import com.sematext.hbase.wd.RowKeyDistributorByHashPrefix;
+import org.apache.commons.lang3.StringUtils;
+
+import static com.navercorp.pinpoint.common.hbase.HBaseTables.MAP_STATISTICS_CALLER_VER2_CF_COUNTER;
+import static com.navercorp.pinpoint.common.hbase.HBaseTables.MAP_STATISTICS_CALLER_VER2_STR;
+
+/**
+ * {@link MapStatisticsCalleeDao} on the {@link LocalStorage}. Same rows and columns as the hbase caller statistics table.
+ */
+public class LocalMapStatisticsCalleeDao extends LocalStatisticsDao implements MapStatisticsCalleeDao {
+
+    public LocalMapStatisticsCalleeDao(LocalStorage localStorage, AcceptedTimeService acceptedTimeService, TimeSlot timeSlot, RowKeyDistributorByHashPrefix rowKeyDistributorByHashPrefix) {
+        super(localStorage, acceptedTimeService, timeSlot, rowKeyDistributorByHashPrefix, MAP_STATISTICS_CALLER_VER2_STR, MAP_STATISTICS_CALLER_VER2_CF_COUNTER);
+    }
+
+    @Override
+    public void update(String calleeApplicationName, ServiceType calleeServiceType, String callerApplicationName, ServiceType callerServiceType, String callerHost, int elapsed, boolean isError) {
+        if (callerApplicationName == null) {
+            throw new NullPointerException("callerApplicationName must not be null");
+        }
+        if (calleeApplicationName == null) {
+            throw new NullPointerException("calleeApplicationName must not be null");
+        }
+
+        if (logger.isDebugEnabled()) {
+            logger.debug("[Callee] {} ({}) <- {} ({})[{}]",
+                    calleeApplicationName, calleeServiceType, callerApplicationName, callerServiceType, callerHost);
+        }
+
+        // there may be no endpoint in case of httpclient
+        callerHost = StringUtils.defaultString(callerHost);
+
+        final RowKey calleeRowKey = new CallRowKey(calleeApplicationName, calleeServiceType.getCode(), getRowTimeSlot());
+        final short callerSlotNumber = ApplicationMapStatisticsUtils.getSlotNumber(calleeServiceType, elapsed, isError);
+        final ColumnName callerColumnName = new CallerColumnName(callerServiceType.getCode(), callerApplicationName, callerHost, callerSlotNumber);
+        increment(calleeRowKey, callerColumnName);
+    }
+}
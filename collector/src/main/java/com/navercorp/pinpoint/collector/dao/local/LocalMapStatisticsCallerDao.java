@@ -0,0 +1,65 @@
+/*
+ * Copyright 2019 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.navercorp.pinpoint.collector.dao.local;
+
+import com.navercorp.pinpoint.collector.dao.MapStatisticsCallerDao;
+import com.navercorp.pinpoint.collector.dao.hbase.statistics.CallRowKey;
+import com.navercorp.pinpoint.collector.dao.hbase.statistics.CalleeColumnName;
+import com.navercorp.pinpoint.collector.dao.hbase.statistics.ColumnName;
+import com.navercorp.pinpoint.collector.dao.hbase.statistics.RowKey;
+import com.navercorp.pinpoint.common.server.util.AcceptedTimeService;
+import com.navercorp.pinpoint.common.trace.ServiceType;
+import com.navercorp.pinpoint.common.util.ApplicationMapStatisticsUtils;
+import com.navercorp.pinpoint.common.util.TimeSlot;
+import com.sematext.hbase.wd.RowKeyDistributorByHashPrefix;
+import org.apache.commons.lang3.StringUtils;
+
+import static com.navercorp.pinpoint.common.hbase.HBaseTables.MAP_STATISTICS_CALLEE_VER2_CF_COUNTER;
+import static com.navercorp.pinpoint.common.hbase.HBaseTables.MAP_STATISTICS_CALLEE_VER2_STR;
+
+/**
+ * {@link MapStatisticsCallerDao} on the {@link LocalStorage}. Same rows and columns as the hbase callee statistics table.
+ */
+public class LocalMapStatisticsCallerDao extends LocalStatisticsDao implements MapStatisticsCallerDao {
+
+    public LocalMapStatisticsCallerDao(LocalStorage localStorage, AcceptedTimeService acceptedTimeService, TimeSlot timeSlot, RowKeyDistributorByHashPrefix rowKeyDistributorByHashPrefix) {
+        super(localStorage, acceptedTimeService, timeSlot, rowKeyDistributorByHashPrefix, MAP_STATISTICS_CALLEE_VER2_STR, MAP_STATISTICS_CALLEE_VER2_CF_COUNTER);
+    }
+
+    @Override
+    public void update(String callerApplicationName, ServiceType callerServiceType, String callerAgentId, String calleeApplicationName, ServiceType calleeServiceType, String calleeHost, int elapsed, boolean isError) {
+        if (callerApplicationName == null) {
+            throw new NullPointerException("callerApplicationName must not be null");
+        }
+        if (calleeApplicationName == null) {
+            throw new NullPointerException("calleeApplicationName must not be null");
+        }
+
+        if (logger.isDebugEnabled()) {
+            logger.debug("[Caller] {} ({}) {} -> {} ({})[{}]", callerApplicationName, callerServiceType, callerAgentId,
+                    calleeApplicationName, calleeServiceType, calleeHost);
+        }
+
+        // there may be no endpoint in case of httpclient
+        calleeHost = StringUtils.defaultString(calleeHost);
+
+        final RowKey callerRowKey = new CallRowKey(callerApplicationName, callerServiceType.getCode(), getRowTimeSlot());
+        final short calleeSlotNumber = ApplicationMapStatisticsUtils.getSlotNumber(calleeServiceType, elapsed, isError);
+        final ColumnName calleeColumnName = new CalleeColumnName(callerAgentId, calleeServiceType.getCode(), calleeApplicationName, calleeHost, calleeSlotNumber);
+        increment(callerRowKey, calleeColumnName);
+    }
+}
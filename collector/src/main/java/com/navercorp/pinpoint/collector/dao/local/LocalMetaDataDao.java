@@ -0,0 +1,85 @@
+/*
+ * Copyright 2019 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.navercorp.pinpoint.collector.dao.local;
+
+import com.navercorp.pinpoint.collector.dao.ApiMetaDataDao;
+import com.navercorp.pinpoint.collector.dao.SqlMetaDataDao;
+import com.navercorp.pinpoint.collector.dao.StringMetaDataDao;
+import com.navercorp.pinpoint.common.buffer.AutomaticBuffer;
+import com.navercorp.pinpoint.common.buffer.Buffer;
+import com.navercorp.pinpoint.common.hbase.HBaseTables;
+import com.navercorp.pinpoint.common.server.bo.ApiMetaDataBo;
+import com.navercorp.pinpoint.common.server.bo.SqlMetaDataBo;
+import com.navercorp.pinpoint.common.server.bo.StringMetaDataBo;
+import com.sematext.hbase.wd.RowKeyDistributorByHashPrefix;
+import org.apache.hadoop.hbase.client.Put;
+import org.apache.hadoop.hbase.util.Bytes;
+
+import java.util.Objects;
+
+/**
+ * Api, sql and string metadata on the {@link LocalStorage}. Cells are the same as the hbase metadata tables.
+ */
+public class LocalMetaDataDao implements ApiMetaDataDao, SqlMetaDataDao, StringMetaDataDao {
+
+    private final LocalStorage localStorage;
+    private final RowKeyDistributorByHashPrefix metadataRowKeyDistributor;
+    private final RowKeyDistributorByHashPrefix metadataRowKeyDistributor2;
+
+    public LocalMetaDataDao(LocalStorage localStorage, RowKeyDistributorByHashPrefix metadataRowKeyDistributor, RowKeyDistributorByHashPrefix metadataRowKeyDistributor2) {
+        this.localStorage = Objects.requireNonNull(localStorage, "localStorage must not be null");
+        this.metadataRowKeyDistributor = Objects.requireNonNull(metadataRowKeyDistributor, "metadataRowKeyDistributor must not be null");
+        this.metadataRowKeyDistributor2 = Objects.requireNonNull(metadataRowKeyDistributor2, "metadataRowKeyDistributor2 must not be null");
+    }
+
+    @Override
+    public void insert(ApiMetaDataBo apiMetaData) {
+        if (apiMetaData == null) {
+            throw new NullPointerException("apiMetaData must not be null");
+        }
+        final Put put = new Put(metadataRowKeyDistributor.getDistributedKey(apiMetaData.toRowKey()));
+        final Buffer buffer = new AutomaticBuffer(64);
+        buffer.putPrefixedString(apiMetaData.getApiInfo());
+        buffer.putInt(apiMetaData.getLineNumber());
+        buffer.putInt(apiMetaData.getMethodTypeEnum().getCode());
+        put.addColumn(HBaseTables.API_METADATA_CF_API, HBaseTables.API_METADATA_CF_API_QUALI_SIGNATURE, buffer.getBuffer());
+
+        localStorage.put(HBaseTables.API_METADATA_STR, put);
+    }
+
+    @Override
+    public void insert(SqlMetaDataBo sqlMetaData) {
+        if (sqlMetaData == null) {
+            throw new NullPointerException("sqlMetaData must not be null");
+        }
+        final Put put = new Put(metadataRowKeyDistributor2.getDistributedKey(sqlMetaData.toRowKey()));
+        put.addColumn(HBaseTables.SQL_METADATA_VER2_CF_SQL, HBaseTables.SQL_METADATA_VER2_CF_SQL_QUALI_SQLSTATEMENT, Bytes.toBytes(sqlMetaData.getSql()));
+
+        localStorage.put(HBaseTables.SQL_METADATA_VER2_STR, put);
+    }
+
+    @Override
+    public void insert(StringMetaDataBo stringMetaData) {
+        if (stringMetaData == null) {
+            throw new NullPointerException("stringMetaData must not be null");
+        }
+        final Put put = new Put(metadataRowKeyDistributor.getDistributedKey(stringMetaData.toRowKey()));
+        put.addColumn(HBaseTables.STRING_METADATA_CF_STR, HBaseTables.STRING_METADATA_CF_STR_QUALI_STRING, Bytes.toBytes(stringMetaData.getStringValue()));
+
+        localStorage.put(HBaseTables.STRING_METADATA_STR, put);
+    }
+}
@@ -0,0 +1,80 @@
+/*
+ * Copyright 2019 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.navercorp.pinpoint.collector.dao.local;
+
+import com.navercorp.pinpoint.collector.dao.CachedStatisticsDao;
+import com.navercorp.pinpoint.collector.dao.hbase.statistics.BulkIncrementer;
+import com.navercorp.pinpoint.collector.dao.hbase.statistics.ColumnName;
+import com.navercorp.pinpoint.collector.dao.hbase.statistics.RowKey;
+import com.navercorp.pinpoint.collector.dao.hbase.statistics.RowKeyMerge;
+import com.navercorp.pinpoint.common.server.util.AcceptedTimeService;
+import com.navercorp.pinpoint.common.util.TimeSlot;
+import com.sematext.hbase.wd.RowKeyDistributorByHashPrefix;
+import org.apache.hadoop.hbase.TableName;
+import org.apache.hadoop.hbase.client.Increment;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Counts map statistics in memory with a {@link BulkIncrementer} and appends the merged increments on {@link #flushAll()}.
+ */
+abstract class LocalStatisticsDao implements CachedStatisticsDao {
+
+    protected final Logger logger = LoggerFactory.getLogger(this.getClass());
+
+    private final LocalStorage localStorage;
+    private final AcceptedTimeService acceptedTimeService;
+    private final TimeSlot timeSlot;
+    private final RowKeyDistributorByHashPrefix rowKeyDistributorByHashPrefix;
+    private final TableName tableName;
+    private final BulkIncrementer bulkIncrementer;
+
+    LocalStatisticsDao(LocalStorage localStorage, AcceptedTimeService acceptedTimeService, TimeSlot timeSlot,
+                       RowKeyDistributorByHashPrefix rowKeyDistributorByHashPrefix, String tableName, byte[] family) {
+        this.localStorage = Objects.requireNonNull(localStorage, "localStorage must not be null");
+        this.acceptedTimeService = Objects.requireNonNull(acceptedTimeService, "acceptedTimeService must not be null");
+        this.timeSlot = Objects.requireNonNull(timeSlot, "timeSlot must not be null");
+        this.rowKeyDistributorByHashPrefix = Objects.requireNonNull(rowKeyDistributorByHashPrefix, "rowKeyDistributorByHashPrefix must not be null");
+        this.tableName = TableName.valueOf(tableName);
+        this.bulkIncrementer = new BulkIncrementer(new RowKeyMerge(family));
+    }
+
+    protected long getRowTimeSlot() {
+        final long acceptedTime = acceptedTimeService.getAcceptedTime();
+        return timeSlot.getTimeSlot(acceptedTime);
+    }
+
+    protected void increment(RowKey rowKey, ColumnName columnName) {
+        bulkIncrementer.increment(tableName, rowKey, columnName);
+    }
+
+    @Override
+    public void flushAll() {
+        final Map<TableName, List<Increment>> incrementMap = bulkIncrementer.getIncrements(rowKeyDistributorByHashPrefix);
+        for (Map.Entry<TableName, List<Increment>> e : incrementMap.entrySet()) {
+            final List<Increment> increments = e.getValue();
+            if (logger.isDebugEnabled()) {
+                logger.debug("flush {} to [{}] Increment:{}", this.getClass().getSimpleName(), e.getKey().getNameAsString(), increments.size());
+            }
+            localStorage.increment(e.getKey().getNameAsString(), increments);
+        }
+    }
+}
@@ -0,0 +1,156 @@
+/*
+ * Copyright 2019 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.navercorp.pinpoint.collector.dao.local;
+
+import com.navercorp.pinpoint.common.buffer.AutomaticBuffer;
+import com.navercorp.pinpoint.common.buffer.Buffer;
+import com.navercorp.pinpoint.common.server.storage.LocalLogStore;
+import org.apache.hadoop.hbase.Cell;
+import org.apache.hadoop.hbase.CellUtil;
+import org.apache.hadoop.hbase.HConstants;
+import org.apache.hadoop.hbase.client.Increment;
+import org.apache.hadoop.hbase.client.Mutation;
+import org.apache.hadoop.hbase.client.Put;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Keeps the cells of the hbase {@link Put}s and {@link Increment}s built by the serializers in one {@link LocalLogStore} per table.
+ * <p>
+ * A record is keyed by the row key, stamped with the cell timestamp, and holds {@code [type][family][qualifier][value]}.
+ * Increments are stored as deltas, readers sum the counters of the same row and column.
+ */
+public class LocalStorage implements DisposableBean {
+
+    public static final byte CELL_TYPE_PUT = 0;
+    public static final byte CELL_TYPE_INCREMENT = 1;
+
+    private final Logger logger = LoggerFactory.getLogger(this.getClass());
+
+    private final File directory;
+    private final long partitionMillis;
+    private final ConcurrentMap<String, LocalLogStore> stores = new ConcurrentHashMap<>();
+
+    public LocalStorage(File directory, long partitionMillis) {
+        this.directory = Objects.requireNonNull(directory, "directory must not be null");
+        this.partitionMillis = partitionMillis;
+        logger.info("LocalStorage directory:{} partitionMillis:{}", directory.getAbsolutePath(), partitionMillis);
+    }
+
+    public void put(String tableName, Put put) {
+        append(tableName, put, CELL_TYPE_PUT);
+    }
+
+    public void put(String tableName, List<Put> puts) {
+        for (Put put : puts) {
+            append(tableName, put, CELL_TYPE_PUT);
+        }
+    }
+
+    public void increment(String tableName, List<Increment> increments) {
+        for (Increment increment : increments) {
+            append(tableName, increment, CELL_TYPE_INCREMENT);
+        }
+    }
+
+    private void append(String tableName, Mutation mutation, byte cellType) {
+        final LocalLogStore store = getStore(tableName);
+        final long currentTime = System.currentTimeMillis();
+        try {
+            for (List<Cell> cells : mutation.getFamilyCellMap().values()) {
+                for (Cell cell : cells) {
+                    final Buffer buffer = new AutomaticBuffer(cell.getQualifierLength() + cell.getValueLength() + 16);
+                    buffer.putByte(cellType);
+                    buffer.putPrefixedBytes(CellUtil.cloneFamily(cell));
+                    buffer.putPrefixedBytes(CellUtil.cloneQualifier(cell));
+                    buffer.putBytes(CellUtil.cloneValue(cell));
+
+                    final long timestamp = cell.getTimestamp() == HConstants.LATEST_TIMESTAMP ? currentTime : cell.getTimestamp();
+                    store.append(mutation.getRow(), timestamp, buffer.getBuffer());
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("append failed. table:" + tableName, e);
+        }
+    }
+
+    public LocalLogStore getStore(String tableName) {
+        LocalLogStore store = stores.get(tableName);
+        if (store != null) {
+            return store;
+        }
+        synchronized (stores) {
+            store = stores.get(tableName);
+            if (store == null) {
+                try {
+                    store = new LocalLogStore(new File(directory, tableName), partitionMillis);
+                } catch (IOException e) {
+                    throw new UncheckedIOException("can not open table:" + tableName, e);
+                }
+                stores.put(tableName, store);
+            }
+            return store;
+        }
+    }
+
+    public void deleteBefore(long timestamp) {
+        for (Map.Entry<String, LocalLogStore> entry : stores.entrySet()) {
+            try {
+                final int deleted = entry.getValue().deleteBefore(timestamp);
+                if (deleted > 0) {
+                    logger.info("delete expired partitions. table:{} count:{}", entry.getKey(), deleted);
+                }
+            } catch (IOException e) {
+                logger.warn("delete expired partitions failed. table:{}", entry.getKey(), e);
+            }
+        }
+    }
+
+    public void flush() {
+        for (Map.Entry<String, LocalLogStore> entry : stores.entrySet()) {
+            try {
+                entry.getValue().flush();
+            } catch (IOException e) {
+                logger.warn("flush failed. table:{}", entry.getKey(), e);
+            }
+        }
+    }
+
+    @Override
+    public void destroy() {
+        synchronized (stores) {
+            for (Map.Entry<String, LocalLogStore> entry : stores.entrySet()) {
+                try {
+                    entry.getValue().close();
+                } catch (IOException e) {
+                    logger.warn("close failed. table:{}", entry.getKey(), e);
+                }
+            }
+            stores.clear();
+        }
+    }
+}
@@ -0,0 +1,93 @@
+/*
+ * Copyright 2019 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.navercorp.pinpoint.collector.dao.local;
+
+import com.navercorp.pinpoint.collector.dao.TraceDao;
+import com.navercorp.pinpoint.common.server.bo.SpanBo;
+import com.navercorp.pinpoint.common.server.bo.SpanChunkBo;
+import com.navercorp.pinpoint.common.server.bo.serializer.RowKeyEncoder;
+import com.navercorp.pinpoint.common.server.bo.serializer.trace.v2.SpanChunkSerializerV2;
+import com.navercorp.pinpoint.common.server.bo.serializer.trace.v2.SpanSerializerV2;
+import com.navercorp.pinpoint.common.util.TransactionId;
+import org.apache.commons.collections.CollectionUtils;
+import org.apache.hadoop.hbase.client.Put;
+
+import java.util.List;
+import java.util.Objects;
+
+import static com.navercorp.pinpoint.common.hbase.HBaseTables.TRACE_V2_STR;
+
+/**
+ * {@link TraceDao} on the {@link LocalStorage}. Cells are the same as the trace v2 table.
+ */
+public class LocalTraceDao implements TraceDao {
+
+    private final LocalStorage localStorage;
+    private final SpanSerializerV2 spanSerializer;
+    private final SpanChunkSerializerV2 spanChunkSerializer;
+    private final RowKeyEncoder<TransactionId> rowKeyEncoder;
+
+    public LocalTraceDao(LocalStorage localStorage, SpanSerializerV2 spanSerializer, SpanChunkSerializerV2 spanChunkSerializer, RowKeyEncoder<TransactionId> rowKeyEncoder) {
+        this.localStorage = Objects.requireNonNull(localStorage, "localStorage must not be null");
+        this.spanSerializer = Objects.requireNonNull(spanSerializer, "spanSerializer must not be null");
+        this.spanChunkSerializer = Objects.requireNonNull(spanChunkSerializer, "spanChunkSerializer must not be null");
+        this.rowKeyEncoder = Objects.requireNonNull(rowKeyEncoder, "rowKeyEncoder must not be null");
+    }
+
+    @Override
+    public void insert(SpanBo spanBo) {
+        if (spanBo == null) {
+            throw new NullPointerException("spanBo must not be null");
+        }
+        final byte[] rowKey = this.rowKeyEncoder.encodeRowKey(spanBo.getTransactionId());
+        final Put put = new Put(rowKey, spanBo.getCollectorAcceptTime());
+        this.spanSerializer.serialize(spanBo, put, null);
+
+        localStorage.put(TRACE_V2_STR, put);
+    }
+
+    @Override
+    public void insertSpanChunk(SpanChunkBo spanChunkBo) {
+        if (CollectionUtils.isEmpty(spanChunkBo.getSpanEventBoList())) {
+            return;
+        }
+        final byte[] rowKey = this.rowKeyEncoder.encodeRowKey(spanChunkBo.getTransactionId());
+        final Put put = new Put(rowKey, spanChunkBo.getCollectorAcceptTime());
+        this.spanChunkSerializer.serialize(spanChunkBo, put, null);
+
+        if (!put.isEmpty()) {
+            localStorage.put(TRACE_V2_STR, put);
+        }
+    }
+
+    @Override
+    public void insertAll(List<SpanBo> spanList, List<SpanChunkBo> spanChunkList) {
+        if (spanList == null) {
+            throw new NullPointerException("spanList must not be null");
+        }
+        if (spanChunkList == null) {
+            throw new NullPointerException("spanChunkList must not be null");
+        }
+        // a local append has no round trip to save, so there is nothing to merge
+        for (SpanBo spanBo : spanList) {
+            insert(spanBo);
+        }
+        for (SpanChunkBo spanChunkBo : spanChunkList) {
+            insertSpanChunk(spanChunkBo);
+        }
+    }
+}
@@ -17,7 +17,7 @@
 package com.navercorp.pinpoint.collector.handler.thrift;
 
 import com.navercorp.pinpoint.collector.handler.SimpleHandler;
-import com.navercorp.pinpoint.collector.service.TraceService;
+import com.navercorp.pinpoint.collector.service.SpanIngestionPipeline;
 import com.navercorp.pinpoint.common.server.bo.SpanChunkBo;
 import com.navercorp.pinpoint.common.server.bo.SpanFactory;
 
@@ -40,7 +40,7 @@ public class ThriftSpanChunkHandler implements SimpleHandler {
     private final Logger logger = LoggerFactory.getLogger(getClass());
 
     @Autowired
-    private TraceService traceService;
+    private SpanIngestionPipeline spanIngestionPipeline;
 
     @Autowired
     private SpanFactory spanFactory;
@@ -59,7 +59,7 @@ public class ThriftSpanChunkHandler implements SimpleHandler {
 
         try {
             final SpanChunkBo spanChunkBo = newSpanChunkBo(tbase);
-            this.traceService.insertSpanChunk(spanChunkBo);
+            this.spanIngestionPipeline.insertSpanChunk(spanChunkBo);
         } catch (Exception e) {
             logger.warn("SpanChunk handle error Caused:{}", e.getMessage(), e);
         }
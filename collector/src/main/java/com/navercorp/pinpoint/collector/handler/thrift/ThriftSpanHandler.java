@@ -17,7 +17,7 @@
 package com.navercorp.pinpoint.collector.handler.thrift;
 
 import com.navercorp.pinpoint.collector.handler.SimpleHandler;
-import com.navercorp.pinpoint.collector.service.TraceService;
+import com.navercorp.pinpoint.collector.service.SpanIngestionPipeline;
 import com.navercorp.pinpoint.common.server.bo.SpanBo;
 import com.navercorp.pinpoint.common.server.bo.SpanFactory;
 
@@ -41,7 +41,7 @@ public class ThriftSpanHandler implements SimpleHandler {
     private final Logger logger = LoggerFactory.getLogger(getClass());
 
     @Autowired
-    private TraceService traceService;
+    private SpanIngestionPipeline spanIngestionPipeline;
 
     @Autowired
     private SpanFactory spanFactory;
@@ -68,7 +68,7 @@ public class ThriftSpanHandler implements SimpleHandler {
             }
 
             final SpanBo spanBo = spanFactory.buildSpanBo(tSpan);
-            traceService.insertSpan(spanBo);
+            spanIngestionPipeline.insertSpan(spanBo);
         } catch (Exception e) {
             logger.warn("Span handle error. Caused:{}. Span:{}", e.getMessage(), tbase, e);
         }
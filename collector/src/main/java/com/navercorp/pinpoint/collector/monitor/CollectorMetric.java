@@ -24,6 +24,9 @@ import com.codahale.metrics.Slf4jReporter;
 import com.codahale.metrics.jvm.GarbageCollectorMetricSet;
 import com.codahale.metrics.jvm.MemoryUsageGaugeSet;
 import com.codahale.metrics.jvm.ThreadStatesGaugeSet;
+import com.navercorp.pinpoint.collector.service.IngestionQuotaService;
+import com.navercorp.pinpoint.collector.service.SpanIngestionPipeline;
+import com.navercorp.pinpoint.collector.service.TailSamplingBuffer;
 import com.navercorp.pinpoint.collector.util.LoggerUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -51,6 +54,15 @@ public class CollectorMetric {
     @Autowired(required = false)
     private HBaseAsyncOperationMetrics hBaseAsyncOperationMetrics;
 
+    @Autowired(required = false)
+    private SpanIngestionPipeline spanIngestionPipeline;
+
+    @Autowired(required = false)
+    private TailSamplingBuffer tailSamplingBuffer;
+
+    @Autowired(required = false)
+    private IngestionQuotaService ingestionQuotaService;
+
     private ScheduledReporter reporter;
 
     private final boolean isEnable = isEnable0(REPORTER_LOGGER_NAME);
@@ -87,6 +99,18 @@ public class CollectorMetric {
                 metricRegistry.register(metric.getKey(), metric.getValue());
             }
         }
+
+        if (spanIngestionPipeline != null) {
+            metricRegistry.registerAll(spanIngestionPipeline);
+        }
+
+        if (tailSamplingBuffer != null) {
+            metricRegistry.registerAll(tailSamplingBuffer);
+        }
+
+        if (ingestionQuotaService != null) {
+            metricRegistry.registerAll(ingestionQuotaService);
+        }
     }
 
     private void initReporters() {
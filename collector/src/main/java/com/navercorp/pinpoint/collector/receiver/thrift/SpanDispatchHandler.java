@@ -19,9 +19,12 @@ package com.navercorp.pinpoint.collector.receiver.thrift;
 import com.navercorp.pinpoint.collector.handler.SimpleHandler;
 import com.navercorp.pinpoint.collector.handler.thrift.ThriftSpanChunkHandler;
 import com.navercorp.pinpoint.collector.handler.thrift.ThriftSpanHandler;
+import com.navercorp.pinpoint.collector.service.IngestionQuotaService;
 import com.navercorp.pinpoint.io.header.Header;
 import com.navercorp.pinpoint.io.request.ServerRequest;
 import com.navercorp.pinpoint.io.request.ServerResponse;
+import com.navercorp.pinpoint.thrift.dto.TSpan;
+import com.navercorp.pinpoint.thrift.dto.TSpanChunk;
 import com.navercorp.pinpoint.thrift.io.DefaultTBaseLocator;
 import org.springframework.beans.factory.annotation.Autowired;
 
@@ -36,6 +39,9 @@ public class SpanDispatchHandler implements DispatchHandler {
     @Autowired()
     private ThriftSpanChunkHandler thriftSpanChunkHandler;
 
+    @Autowired
+    private IngestionQuotaService ingestionQuotaService;
+
     public SpanDispatchHandler() {
     }
 
@@ -55,9 +61,25 @@ public class SpanDispatchHandler implements DispatchHandler {
     @Override
     public void dispatchSendMessage(ServerRequest serverRequest) {
         SimpleHandler simpleHandler = getSimpleHandler(serverRequest.getHeader());
+        if (!acquireQuota(serverRequest.getData())) {
+            return;
+        }
         simpleHandler.handleSimple(serverRequest);
     }
 
+    // dropped before the handlers when the application or agent is over its ingestion quota
+    private boolean acquireQuota(Object data) {
+        if (data instanceof TSpan) {
+            final TSpan span = (TSpan) data;
+            return ingestionQuotaService.acquireSpan(span.getApplicationName(), span.getAgentId());
+        }
+        if (data instanceof TSpanChunk) {
+            final TSpanChunk spanChunk = (TSpanChunk) data;
+            return ingestionQuotaService.acquireSpan(spanChunk.getApplicationName(), spanChunk.getAgentId());
+        }
+        return true;
+    }
+
 
     @Override
     public void dispatchRequestMessage(ServerRequest serverRequest, ServerResponse serverResponse) {
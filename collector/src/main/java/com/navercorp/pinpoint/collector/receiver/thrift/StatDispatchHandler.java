@@ -20,9 +20,12 @@ import com.navercorp.pinpoint.collector.handler.thrift.ThriftAgentEventHandler;
 import com.navercorp.pinpoint.collector.handler.thrift.ThriftAgentStatHandlerV2;
 import com.navercorp.pinpoint.collector.handler.SimpleHandler;
 import com.navercorp.pinpoint.collector.handler.SimpleDualHandler;
+import com.navercorp.pinpoint.collector.service.IngestionQuotaService;
 import com.navercorp.pinpoint.io.header.Header;
 import com.navercorp.pinpoint.io.request.ServerRequest;
 import com.navercorp.pinpoint.io.request.ServerResponse;
+import com.navercorp.pinpoint.thrift.dto.TAgentStat;
+import com.navercorp.pinpoint.thrift.dto.TAgentStatBatch;
 import com.navercorp.pinpoint.thrift.io.DefaultTBaseLocator;
 import org.springframework.beans.factory.annotation.Autowired;
 
@@ -38,6 +41,8 @@ public class StatDispatchHandler implements DispatchHandler {
     @Autowired
     private ThriftAgentEventHandler thriftAgentEventHandler;
 
+    @Autowired
+    private IngestionQuotaService ingestionQuotaService;
 
     public StatDispatchHandler() {
 
@@ -57,9 +62,23 @@ public class StatDispatchHandler implements DispatchHandler {
     @Override
     public void dispatchSendMessage(ServerRequest serverRequest) {
         SimpleHandler simpleHandler = getSimpleHandler(serverRequest.getHeader());
+        if (!acquireQuota(serverRequest.getData())) {
+            return;
+        }
         simpleHandler.handleSimple(serverRequest);
     }
 
+    // stats do not carry the application name, only the agent quota applies
+    private boolean acquireQuota(Object data) {
+        if (data instanceof TAgentStatBatch) {
+            return ingestionQuotaService.acquireStat(((TAgentStatBatch) data).getAgentId());
+        }
+        if (data instanceof TAgentStat) {
+            return ingestionQuotaService.acquireStat(((TAgentStat) data).getAgentId());
+        }
+        return true;
+    }
+
     @Override
     public void dispatchRequestMessage(ServerRequest serverRequest, ServerResponse serverResponse) {
 
@@ -0,0 +1,104 @@
+/*
+ * Copyright 2019 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.navercorp.pinpoint.collector.receiver.thrift.tcp;
+
+import com.navercorp.pinpoint.collector.cluster.PinpointServerClusterPoint;
+import com.navercorp.pinpoint.collector.service.IngestionQuotaService;
+import com.navercorp.pinpoint.common.util.Assert;
+import com.navercorp.pinpoint.rpc.common.SocketStateCode;
+import com.navercorp.pinpoint.rpc.packet.HandshakePropertyType;
+import com.navercorp.pinpoint.rpc.server.PinpointServer;
+import com.navercorp.pinpoint.rpc.server.handler.ServerStateChangeEventHandler;
+import com.navercorp.pinpoint.rpc.util.MapUtils;
+import com.navercorp.pinpoint.thrift.dto.command.TCmdSamplingHint;
+import com.navercorp.pinpoint.thrift.io.HeaderTBaseSerializer;
+import com.navercorp.pinpoint.thrift.io.SerializerFactory;
+import com.navercorp.pinpoint.thrift.util.SerializationUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Sends the sampling hint of the {@link IngestionQuotaService} to agents connected to this collector.
+ * <p>
+ * Agents are tracked while their tcp channel is in duplex mode, and only agents advertising the sampling hint command
+ * are sent one. The agent answer is not waited for.
+ */
+public class SamplingHintSender implements ServerStateChangeEventHandler, IngestionQuotaService.QuotaExceededListener {
+
+    private final Logger logger = LoggerFactory.getLogger(this.getClass());
+
+    private final SerializerFactory<HeaderTBaseSerializer> commandSerializerFactory;
+
+    private final ConcurrentMap<String, PinpointServerClusterPoint> agents = new ConcurrentHashMap<>();
+
+    public SamplingHintSender(SerializerFactory<HeaderTBaseSerializer> commandSerializerFactory) {
+        this.commandSerializerFactory = Assert.requireNonNull(commandSerializerFactory, "commandSerializerFactory must not be null");
+    }
+
+    @Override
+    public void eventPerformed(PinpointServer pinpointServer, SocketStateCode stateCode) {
+        final String agentId = MapUtils.getString(pinpointServer.getChannelProperties(), HandshakePropertyType.AGENT_ID.getName());
+        if (agentId == null) {
+            return;
+        }
+        if (SocketStateCode.RUN_DUPLEX == stateCode) {
+            try {
+                agents.put(agentId, new PinpointServerClusterPoint(pinpointServer));
+            } catch (IllegalArgumentException e) {
+                logger.debug("skip agent without handshake properties. agentId:{} message:{}", agentId, e.getMessage());
+            }
+        } else if (SocketStateCode.isClosed(stateCode)) {
+            final PinpointServerClusterPoint clusterPoint = agents.get(agentId);
+            if (clusterPoint != null && clusterPoint.getPinpointServer() == pinpointServer) {
+                agents.remove(agentId, clusterPoint);
+            }
+        }
+    }
+
+    @Override
+    public void exceptionCaught(PinpointServer pinpointServer, SocketStateCode stateCode, Throwable e) {
+        logger.warn("exceptionCaught(). pinpointServer:{}, code:{}. error:{}.", pinpointServer, stateCode, e.getMessage(), e);
+    }
+
+    @Override
+    public void quotaExceeded(String applicationName, String agentId, int throttleRate, long durationMillis) {
+        final PinpointServerClusterPoint clusterPoint = agents.get(agentId);
+        if (clusterPoint == null) {
+            logger.debug("agent not connected. agentId:{}", agentId);
+            return;
+        }
+        final TCmdSamplingHint samplingHint = new TCmdSamplingHint(throttleRate, durationMillis);
+        if (!clusterPoint.isSupportCommand(samplingHint)) {
+            logger.debug("sampling hint not supported. agentId:{} version:{}", agentId, clusterPoint.gerVersion());
+            return;
+        }
+        final byte[] payload = SerializationUtils.serialize(samplingHint, commandSerializerFactory, null);
+        if (payload == null) {
+            return;
+        }
+        logger.info("send sampling hint. applicationName:{} agentId:{} throttleRate:{} durationMillis:{}", applicationName, agentId, throttleRate, durationMillis);
+        clusterPoint.request(payload);
+    }
+
+    public int getAgentCount() {
+        return agents.size();
+    }
+}
@@ -0,0 +1,60 @@
+/*
+ * Copyright 2019 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.navercorp.pinpoint.collector.rollup;
+
+import com.navercorp.pinpoint.common.server.bo.stat.ActiveTraceBo;
+import com.navercorp.pinpoint.common.server.bo.stat.ActiveTraceHistogram;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Active trace counts of each histogram slot are averaged.
+ */
+public class ActiveTraceRollupFunction implements AgentStatRollupFunction<ActiveTraceBo> {
+
+    private static final long UNCOLLECTED_COUNT = ActiveTraceBo.UNCOLLECTED_ACTIVE_TRACE_COUNT;
+
+    @Override
+    public ActiveTraceBo rollup(long timestamp, List<ActiveTraceBo> dataPoints) {
+        final ActiveTraceBo last = dataPoints.get(dataPoints.size() - 1);
+        final ActiveTraceBo rollup = new ActiveTraceBo();
+        rollup.setAgentId(last.getAgentId());
+        rollup.setStartTimestamp(last.getStartTimestamp());
+        rollup.setTimestamp(timestamp);
+        rollup.setVersion(last.getVersion());
+        rollup.setHistogramSchemaType(last.getHistogramSchemaType());
+
+        final List<ActiveTraceHistogram> histograms = new ArrayList<>(dataPoints.size());
+        for (ActiveTraceBo dataPoint : dataPoints) {
+            if (dataPoint.getActiveTraceHistogram() != null) {
+                histograms.add(dataPoint.getActiveTraceHistogram());
+            }
+        }
+        if (histograms.isEmpty()) {
+            rollup.setActiveTraceHistogram(ActiveTraceHistogram.UNCOLLECTED);
+            return rollup;
+        }
+        final int fastCount = (int) RollupValues.avg(histograms, ActiveTraceHistogram::getFastCount, UNCOLLECTED_COUNT);
+        final int normalCount = (int) RollupValues.avg(histograms, ActiveTraceHistogram::getNormalCount, UNCOLLECTED_COUNT);
+        final int slowCount = (int) RollupValues.avg(histograms, ActiveTraceHistogram::getSlowCount, UNCOLLECTED_COUNT);
+        final int verySlowCount = (int) RollupValues.avg(histograms, ActiveTraceHistogram::getVerySlowCount, UNCOLLECTED_COUNT);
+        rollup.setActiveTraceHistogram(new ActiveTraceHistogram(fastCount, normalCount, slowCount, verySlowCount));
+        return rollup;
+    }
+}
@@ -0,0 +1,225 @@
+/*
+ * Copyright 2019 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.navercorp.pinpoint.collector.rollup;
+
+import com.navercorp.pinpoint.common.server.bo.stat.AgentStatDataPoint;
+import com.navercorp.pinpoint.common.server.bo.stat.AgentStatRollupResolution;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Accumulates data points of a single stat type per agent and rolls them up into every {@link AgentStatRollupResolution}.
+ * <p>
+ * Raw data points are rolled up into the finest resolution, and each rolled up data point is in turn fed into the next
+ * coarser resolution. An interval is closed either when a data point of a later interval arrives, or when
+ * {@link #flushExpired(long)} finds that the interval has elapsed. Data points arriving after their interval was closed are dropped.
+ */
+public class AgentStatRollupBuffer<T extends AgentStatDataPoint> {
+
+    private static final AgentStatRollupResolution[] RESOLUTIONS = AgentStatRollupResolution.values();
+
+    private final Logger logger = LoggerFactory.getLogger(this.getClass());
+
+    private final AgentStatRollupFunction<T> rollupFunction;
+    private final long flushDelayMs;
+
+    private final ConcurrentMap<AgentKey, AgentRollupState> agentRollupStates = new ConcurrentHashMap<>();
+
+    public AgentStatRollupBuffer(AgentStatRollupFunction<T> rollupFunction, long flushDelayMs) {
+        this.rollupFunction = Objects.requireNonNull(rollupFunction, "rollupFunction must not be null");
+        if (flushDelayMs < 0) {
+            throw new IllegalArgumentException("flushDelayMs must not be negative");
+        }
+        this.flushDelayMs = flushDelayMs;
+    }
+
+    /**
+     * @return data points of the intervals closed by {@code dataPoints}, grouped by resolution
+     */
+    public Map<AgentStatRollupResolution, List<T>> add(String agentId, List<T> dataPoints) {
+        final Map<AgentStatRollupResolution, List<T>> closed = new EnumMap<>(AgentStatRollupResolution.class);
+        for (T dataPoint : dataPoints) {
+            final AgentKey agentKey = new AgentKey(agentId, dataPoint.getStartTimestamp());
+            boolean added = false;
+            while (!added) {
+                final AgentRollupState agentRollupState = getAgentRollupState(agentKey);
+                synchronized (agentRollupState) {
+                    // retry if the state was dropped by flushExpired in the meantime
+                    if (!agentRollupState.removed) {
+                        agentRollupState.add(0, dataPoint, closed);
+                        added = true;
+                    }
+                }
+            }
+        }
+        return closed;
+    }
+
+    private AgentRollupState getAgentRollupState(AgentKey agentKey) {
+        final AgentRollupState agentRollupState = agentRollupStates.get(agentKey);
+        if (agentRollupState != null) {
+            return agentRollupState;
+        }
+        final AgentRollupState newState = new AgentRollupState();
+        final AgentRollupState previous = agentRollupStates.putIfAbsent(agentKey, newState);
+        if (previous == null) {
+            return newState;
+        }
+        return previous;
+    }
+
+    /**
+     * Closes every interval that ended more than {@code flushDelayMs} before {@code currentTimeMillis}.
+     *
+     * @return data points of the closed intervals, grouped by resolution
+     */
+    public Map<AgentStatRollupResolution, List<T>> flushExpired(long currentTimeMillis) {
+        final Map<AgentStatRollupResolution, List<T>> closed = new EnumMap<>(AgentStatRollupResolution.class);
+        final Iterator<AgentRollupState> iterator = agentRollupStates.values().iterator();
+        while (iterator.hasNext()) {
+            final AgentRollupState agentRollupState = iterator.next();
+            synchronized (agentRollupState) {
+                agentRollupState.flushExpired(currentTimeMillis, closed);
+                if (agentRollupState.isEmpty()) {
+                    iterator.remove();
+                    agentRollupState.removed = true;
+                }
+            }
+        }
+        return closed;
+    }
+
+    int getAgentCount() {
+        return agentRollupStates.size();
+    }
+
+    private static <T> void addClosed(Map<AgentStatRollupResolution, List<T>> closed, AgentStatRollupResolution resolution, T rollup) {
+        List<T> rollups = closed.get(resolution);
+        if (rollups == null) {
+            rollups = new ArrayList<>();
+            closed.put(resolution, rollups);
+        }
+        rollups.add(rollup);
+    }
+
+    private class AgentRollupState {
+
+        private final long[] intervalTimestamps = new long[RESOLUTIONS.length];
+        private final long[] closedIntervalTimestamps = new long[RESOLUTIONS.length];
+        private final List<List<T>> intervalDataPoints = new ArrayList<>(RESOLUTIONS.length);
+        // set once the state is dropped from the map
+        private boolean removed = false;
+
+        private AgentRollupState() {
+            for (int i = 0; i < RESOLUTIONS.length; i++) {
+                intervalDataPoints.add(new ArrayList<T>());
+            }
+        }
+
+        private void add(int level, T dataPoint, Map<AgentStatRollupResolution, List<T>> closed) {
+            final AgentStatRollupResolution resolution = RESOLUTIONS[level];
+            final long intervalTimestamp = resolution.refineTimestamp(dataPoint.getTimestamp());
+            final List<T> dataPoints = intervalDataPoints.get(level);
+            // rewriting a closed interval would overwrite its rollup with a partial one
+            if (intervalTimestamp <= closedIntervalTimestamps[level] || (!dataPoints.isEmpty() && intervalTimestamp < intervalTimestamps[level])) {
+                if (logger.isDebugEnabled()) {
+                    logger.debug("Dropping late data point for {} rollup. dataPoint:{}", resolution, dataPoint);
+                }
+                return;
+            }
+            if (!dataPoints.isEmpty() && intervalTimestamp != intervalTimestamps[level]) {
+                close(level, closed);
+            }
+            intervalTimestamps[level] = intervalTimestamp;
+            dataPoints.add(dataPoint);
+        }
+
+        private void close(int level, Map<AgentStatRollupResolution, List<T>> closed) {
+            final List<T> dataPoints = intervalDataPoints.get(level);
+            final AgentStatRollupResolution resolution = RESOLUTIONS[level];
+            final T rollup = rollupFunction.rollup(intervalTimestamps[level], new ArrayList<>(dataPoints));
+            dataPoints.clear();
+            closedIntervalTimestamps[level] = intervalTimestamps[level];
+            addClosed(closed, resolution, rollup);
+            final int nextLevel = level + 1;
+            if (nextLevel < RESOLUTIONS.length) {
+                add(nextLevel, rollup, closed);
+            }
+        }
+
+        private void flushExpired(long currentTimeMillis, Map<AgentStatRollupResolution, List<T>> closed) {
+            // finer levels first, as closing them feeds the coarser ones
+            for (int level = 0; level < RESOLUTIONS.length; level++) {
+                if (intervalDataPoints.get(level).isEmpty()) {
+                    continue;
+                }
+                final long intervalEnd = intervalTimestamps[level] + RESOLUTIONS[level].getInterval();
+                if (intervalEnd + flushDelayMs <= currentTimeMillis) {
+                    close(level, closed);
+                }
+            }
+        }
+
+        private boolean isEmpty() {
+            for (List<T> dataPoints : intervalDataPoints) {
+                if (!dataPoints.isEmpty()) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    private static class AgentKey {
+
+        private final String agentId;
+        private final long startTimestamp;
+
+        private AgentKey(String agentId, long startTimestamp) {
+            this.agentId = agentId;
+            this.startTimestamp = startTimestamp;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+
+            AgentKey agentKey = (AgentKey) o;
+
+            if (startTimestamp != agentKey.startTimestamp) return false;
+            return agentId.equals(agentKey.agentId);
+        }
+
+        @Override
+        public int hashCode() {
+            int result = agentId.hashCode();
+            result = 31 * result + (int) (startTimestamp ^ (startTimestamp >>> 32));
+            return result;
+        }
+    }
+}
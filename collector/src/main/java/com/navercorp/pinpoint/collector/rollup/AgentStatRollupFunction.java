@@ -0,0 +1,34 @@
+/*
+ * Copyright 2019 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.navercorp.pinpoint.collector.rollup;
+
+import com.navercorp.pinpoint.common.server.bo.stat.AgentStatDataPoint;
+
+import java.util.List;
+
+/**
+ * Aggregates the data points of a single rollup interval into one data point.
+ * Implementations must be composable, as coarser resolutions are rolled up from the output of finer ones.
+ */
+public interface AgentStatRollupFunction<T extends AgentStatDataPoint> {
+
+    /**
+     * @param timestamp start of the rollup interval
+     * @param dataPoints data points of the interval sorted by timestamp, never empty
+     */
+    T rollup(long timestamp, List<T> dataPoints);
+}
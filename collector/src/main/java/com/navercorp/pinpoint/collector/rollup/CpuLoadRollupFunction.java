@@ -0,0 +1,39 @@
+/*
+ * Copyright 2019 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.navercorp.pinpoint.collector.rollup;
+
+import com.navercorp.pinpoint.common.server.bo.stat.CpuLoadBo;
+
+import java.util.List;
+
+/**
+ * Cpu loads are averaged.
+ */
+public class CpuLoadRollupFunction implements AgentStatRollupFunction<CpuLoadBo> {
+
+    @Override
+    public CpuLoadBo rollup(long timestamp, List<CpuLoadBo> dataPoints) {
+        final CpuLoadBo first = dataPoints.get(0);
+        final CpuLoadBo rollup = new CpuLoadBo();
+        rollup.setAgentId(first.getAgentId());
+        rollup.setStartTimestamp(first.getStartTimestamp());
+        rollup.setTimestamp(timestamp);
+        rollup.setJvmCpuLoad(RollupValues.avg(dataPoints, CpuLoadBo::getJvmCpuLoad, CpuLoadBo.UNCOLLECTED_VALUE));
+        rollup.setSystemCpuLoad(RollupValues.avg(dataPoints, CpuLoadBo::getSystemCpuLoad, CpuLoadBo.UNCOLLECTED_VALUE));
+        return rollup;
+    }
+}
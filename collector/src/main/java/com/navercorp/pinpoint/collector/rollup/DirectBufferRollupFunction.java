@@ -0,0 +1,41 @@
+/*
+ * Copyright 2019 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.navercorp.pinpoint.collector.rollup;
+
+import com.navercorp.pinpoint.common.server.bo.stat.DirectBufferBo;
+
+import java.util.List;
+
+/**
+ * Direct and mapped buffer counts and usages are averaged.
+ */
+public class DirectBufferRollupFunction implements AgentStatRollupFunction<DirectBufferBo> {
+
+    @Override
+    public DirectBufferBo rollup(long timestamp, List<DirectBufferBo> dataPoints) {
+        final DirectBufferBo first = dataPoints.get(0);
+        final DirectBufferBo rollup = new DirectBufferBo();
+        rollup.setAgentId(first.getAgentId());
+        rollup.setStartTimestamp(first.getStartTimestamp());
+        rollup.setTimestamp(timestamp);
+        rollup.setDirectCount(RollupValues.avg(dataPoints, DirectBufferBo::getDirectCount, DirectBufferBo.UNCOLLECTED_VALUE));
+        rollup.setDirectMemoryUsed(RollupValues.avg(dataPoints, DirectBufferBo::getDirectMemoryUsed, DirectBufferBo.UNCOLLECTED_VALUE));
+        rollup.setMappedCount(RollupValues.avg(dataPoints, DirectBufferBo::getMappedCount, DirectBufferBo.UNCOLLECTED_VALUE));
+        rollup.setMappedMemoryUsed(RollupValues.avg(dataPoints, DirectBufferBo::getMappedMemoryUsed, DirectBufferBo.UNCOLLECTED_VALUE));
+        return rollup;
+    }
+}
@@ -0,0 +1,46 @@
+/*
+ * Copyright 2019 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.navercorp.pinpoint.collector.rollup;
+
+import com.navercorp.pinpoint.common.server.bo.stat.JvmGcDetailedBo;
+
+import java.util.List;
+
+/**
+ * All values are averaged. New gc count/time are collected per collect interval, and averaging them keeps
+ * the magnitude drawn by the web sampler unchanged.
+ */
+public class JvmGcDetailedRollupFunction implements AgentStatRollupFunction<JvmGcDetailedBo> {
+
+    @Override
+    public JvmGcDetailedBo rollup(long timestamp, List<JvmGcDetailedBo> dataPoints) {
+        final JvmGcDetailedBo first = dataPoints.get(0);
+        final JvmGcDetailedBo rollup = new JvmGcDetailedBo();
+        rollup.setAgentId(first.getAgentId());
+        rollup.setStartTimestamp(first.getStartTimestamp());
+        rollup.setTimestamp(timestamp);
+        rollup.setGcNewCount(RollupValues.avg(dataPoints, JvmGcDetailedBo::getGcNewCount, JvmGcDetailedBo.UNCOLLECTED_VALUE));
+        rollup.setGcNewTime(RollupValues.avg(dataPoints, JvmGcDetailedBo::getGcNewTime, JvmGcDetailedBo.UNCOLLECTED_VALUE));
+        rollup.setCodeCacheUsed(RollupValues.avg(dataPoints, JvmGcDetailedBo::getCodeCacheUsed, JvmGcDetailedBo.UNCOLLECTED_PERCENTAGE));
+        rollup.setNewGenUsed(RollupValues.avg(dataPoints, JvmGcDetailedBo::getNewGenUsed, JvmGcDetailedBo.UNCOLLECTED_PERCENTAGE));
+        rollup.setOldGenUsed(RollupValues.avg(dataPoints, JvmGcDetailedBo::getOldGenUsed, JvmGcDetailedBo.UNCOLLECTED_PERCENTAGE));
+        rollup.setSurvivorSpaceUsed(RollupValues.avg(dataPoints, JvmGcDetailedBo::getSurvivorSpaceUsed, JvmGcDetailedBo.UNCOLLECTED_PERCENTAGE));
+        rollup.setPermGenUsed(RollupValues.avg(dataPoints, JvmGcDetailedBo::getPermGenUsed, JvmGcDetailedBo.UNCOLLECTED_PERCENTAGE));
+        rollup.setMetaspaceUsed(RollupValues.avg(dataPoints, JvmGcDetailedBo::getMetaspaceUsed, JvmGcDetailedBo.UNCOLLECTED_PERCENTAGE));
+        return rollup;
+    }
+}
@@ -0,0 +1,45 @@
+/*
+ * Copyright 2019 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.navercorp.pinpoint.collector.rollup;
+
+import com.navercorp.pinpoint.common.server.bo.stat.JvmGcBo;
+
+import java.util.List;
+
+/**
+ * Memory usage is averaged, memory limits keep their maximum, and the cumulative old gc count/time keep their last reading
+ * so that the delta computed between consecutive points stays correct.
+ */
+public class JvmGcRollupFunction implements AgentStatRollupFunction<JvmGcBo> {
+
+    @Override
+    public JvmGcBo rollup(long timestamp, List<JvmGcBo> dataPoints) {
+        final JvmGcBo first = dataPoints.get(0);
+        final JvmGcBo rollup = new JvmGcBo();
+        rollup.setAgentId(first.getAgentId());
+        rollup.setStartTimestamp(first.getStartTimestamp());
+        rollup.setTimestamp(timestamp);
+        rollup.setGcType(dataPoints.get(dataPoints.size() - 1).getGcType());
+        rollup.setHeapUsed(RollupValues.avg(dataPoints, JvmGcBo::getHeapUsed, JvmGcBo.UNCOLLECTED_VALUE));
+        rollup.setHeapMax(RollupValues.max(dataPoints, JvmGcBo::getHeapMax, JvmGcBo.UNCOLLECTED_VALUE));
+        rollup.setNonHeapUsed(RollupValues.avg(dataPoints, JvmGcBo::getNonHeapUsed, JvmGcBo.UNCOLLECTED_VALUE));
+        rollup.setNonHeapMax(RollupValues.max(dataPoints, JvmGcBo::getNonHeapMax, JvmGcBo.UNCOLLECTED_VALUE));
+        rollup.setGcOldCount(RollupValues.last(dataPoints, JvmGcBo::getGcOldCount, JvmGcBo.UNCOLLECTED_VALUE));
+        rollup.setGcOldTime(RollupValues.last(dataPoints, JvmGcBo::getGcOldTime, JvmGcBo.UNCOLLECTED_VALUE));
+        return rollup;
+    }
+}
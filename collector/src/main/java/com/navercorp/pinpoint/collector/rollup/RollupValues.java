@@ -0,0 +1,102 @@
+/*
+ * Copyright 2019 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.navercorp.pinpoint.collector.rollup;
+
+import java.util.List;
+import java.util.function.ToDoubleFunction;
+import java.util.function.ToLongFunction;
+
+/**
+ * Per-metric aggregations used by {@link AgentStatRollupFunction} implementations.
+ * Uncollected values are skipped, and the uncollected value is returned when nothing was collected.
+ */
+final class RollupValues {
+
+    private RollupValues() {
+    }
+
+    static <T> long avg(List<T> dataPoints, ToLongFunction<T> getter, long uncollectedValue) {
+        long sum = 0;
+        int count = 0;
+        for (T dataPoint : dataPoints) {
+            final long value = getter.applyAsLong(dataPoint);
+            if (value != uncollectedValue) {
+                sum += value;
+                count++;
+            }
+        }
+        if (count == 0) {
+            return uncollectedValue;
+        }
+        return Math.round((double) sum / count);
+    }
+
+    static <T> double avg(List<T> dataPoints, ToDoubleFunction<T> getter, double uncollectedValue) {
+        double sum = 0;
+        int count = 0;
+        for (T dataPoint : dataPoints) {
+            final double value = getter.applyAsDouble(dataPoint);
+            if (value != uncollectedValue) {
+                sum += value;
+                count++;
+            }
+        }
+        if (count == 0) {
+            return uncollectedValue;
+        }
+        return sum / count;
+    }
+
+    static <T> long max(List<T> dataPoints, ToLongFunction<T> getter, long uncollectedValue) {
+        long max = uncollectedValue;
+        boolean collected = false;
+        for (T dataPoint : dataPoints) {
+            final long value = getter.applyAsLong(dataPoint);
+            if (value != uncollectedValue) {
+                max = collected ? Math.max(max, value) : value;
+                collected = true;
+            }
+        }
+        return max;
+    }
+
+    static <T> long sum(List<T> dataPoints, ToLongFunction<T> getter, long uncollectedValue) {
+        long sum = 0;
+        boolean collected = false;
+        for (T dataPoint : dataPoints) {
+            final long value = getter.applyAsLong(dataPoint);
+            if (value != uncollectedValue) {
+                sum += value;
+                collected = true;
+            }
+        }
+        return collected ? sum : uncollectedValue;
+    }
+
+    /**
+     * Cumulative values (gc count, gc time) keep their last collected reading.
+     */
+    static <T> long last(List<T> dataPoints, ToLongFunction<T> getter, long uncollectedValue) {
+        for (int i = dataPoints.size() - 1; i >= 0; i--) {
+            final long value = getter.applyAsLong(dataPoints.get(i));
+            if (value != uncollectedValue) {
+                return value;
+            }
+        }
+        return uncollectedValue;
+    }
+}
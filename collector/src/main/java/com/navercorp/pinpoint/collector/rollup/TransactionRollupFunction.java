@@ -0,0 +1,42 @@
+/*
+ * Copyright 2019 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.navercorp.pinpoint.collector.rollup;
+
+import com.navercorp.pinpoint.common.server.bo.stat.TransactionBo;
+
+import java.util.List;
+
+/**
+ * Transaction counts and their collect intervals are summed, so that the tps derived from them stays correct.
+ */
+public class TransactionRollupFunction implements AgentStatRollupFunction<TransactionBo> {
+
+    @Override
+    public TransactionBo rollup(long timestamp, List<TransactionBo> dataPoints) {
+        final TransactionBo first = dataPoints.get(0);
+        final TransactionBo rollup = new TransactionBo();
+        rollup.setAgentId(first.getAgentId());
+        rollup.setStartTimestamp(first.getStartTimestamp());
+        rollup.setTimestamp(timestamp);
+        rollup.setCollectInterval(RollupValues.sum(dataPoints, TransactionBo::getCollectInterval, TransactionBo.UNCOLLECTED_VALUE));
+        rollup.setSampledNewCount(RollupValues.sum(dataPoints, TransactionBo::getSampledNewCount, TransactionBo.UNCOLLECTED_VALUE));
+        rollup.setSampledContinuationCount(RollupValues.sum(dataPoints, TransactionBo::getSampledContinuationCount, TransactionBo.UNCOLLECTED_VALUE));
+        rollup.setUnsampledNewCount(RollupValues.sum(dataPoints, TransactionBo::getUnsampledNewCount, TransactionBo.UNCOLLECTED_VALUE));
+        rollup.setUnsampledContinuationCount(RollupValues.sum(dataPoints, TransactionBo::getUnsampledContinuationCount, TransactionBo.UNCOLLECTED_VALUE));
+        return rollup;
+    }
+}
@@ -0,0 +1,142 @@
+/*
+ * Copyright 2019 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.navercorp.pinpoint.collector.service;
+
+import com.google.common.base.Ticker;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.navercorp.pinpoint.collector.dao.AgentInfoDao;
+import com.navercorp.pinpoint.common.server.bo.AgentInfoBo;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Application names of running agents, so that data sent by agent id can be routed by application.
+ * <p>
+ * Filled when the agent info is received, and read from the agent info table for agents that connected to another collector.
+ * An agent whose info is not stored yet, or whose lookup failed, is remembered as unknown for a few seconds,
+ * so that its data does not look up the agent info table on every message.
+ */
+@Service
+public class AgentApplicationCache {
+
+    private static final int MAX_SIZE = 100000;
+    private static final long EXPIRE_HOURS = 24;
+    static final long UNKNOWN_EXPIRE_MILLIS = 10000;
+
+    private final Logger logger = LoggerFactory.getLogger(this.getClass());
+
+    private final AgentInfoDao agentInfoDao;
+
+    private final Cache<AgentKey, String> applicationNames;
+    private final Cache<AgentKey, Boolean> unknownAgents;
+
+    @Autowired
+    public AgentApplicationCache(AgentInfoDao agentInfoDao) {
+        this(agentInfoDao, Ticker.systemTicker());
+    }
+
+    AgentApplicationCache(AgentInfoDao agentInfoDao, Ticker ticker) {
+        this.agentInfoDao = Objects.requireNonNull(agentInfoDao, "agentInfoDao must not be null");
+        Objects.requireNonNull(ticker, "ticker must not be null");
+        this.applicationNames = CacheBuilder.newBuilder()
+                .maximumSize(MAX_SIZE)
+                .expireAfterAccess(EXPIRE_HOURS, TimeUnit.HOURS)
+                .ticker(ticker)
+                .build();
+        this.unknownAgents = CacheBuilder.newBuilder()
+                .maximumSize(MAX_SIZE)
+                .expireAfterWrite(UNKNOWN_EXPIRE_MILLIS, TimeUnit.MILLISECONDS)
+                .ticker(ticker)
+                .build();
+    }
+
+    public void put(AgentInfoBo agentInfoBo) {
+        if (agentInfoBo.getApplicationName() == null) {
+            return;
+        }
+        final AgentKey agentKey = new AgentKey(agentInfoBo.getAgentId(), agentInfoBo.getStartTime());
+        applicationNames.put(agentKey, agentInfoBo.getApplicationName());
+        unknownAgents.invalidate(agentKey);
+    }
+
+    /**
+     * @return null if the application of the agent is unknown
+     */
+    public String getApplicationName(String agentId, long agentStartTime) {
+        if (agentId == null) {
+            return null;
+        }
+        final AgentKey agentKey = new AgentKey(agentId, agentStartTime);
+        final String cached = applicationNames.getIfPresent(agentKey);
+        if (cached != null) {
+            return cached;
+        }
+        if (unknownAgents.getIfPresent(agentKey) != null) {
+            return null;
+        }
+
+        final String applicationName;
+        try {
+            applicationName = agentInfoDao.getApplicationName(agentId, agentStartTime);
+        } catch (Exception e) {
+            logger.warn("agent info lookup failed. agentId:{}, startTime:{} Caused:{}", agentId, agentStartTime, e.getMessage(), e);
+            unknownAgents.put(agentKey, Boolean.TRUE);
+            return null;
+        }
+        if (applicationName == null) {
+            unknownAgents.put(agentKey, Boolean.TRUE);
+            return null;
+        }
+        applicationNames.put(agentKey, applicationName);
+        return applicationName;
+    }
+
+    private static final class AgentKey {
+        private final String agentId;
+        private final long agentStartTime;
+
+        private AgentKey(String agentId, long agentStartTime) {
+            this.agentId = Objects.requireNonNull(agentId, "agentId must not be null");
+            this.agentStartTime = agentStartTime;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+
+            AgentKey agentKey = (AgentKey) o;
+
+            if (agentStartTime != agentKey.agentStartTime) return false;
+            return agentId.equals(agentKey.agentId);
+        }
+
+        @Override
+        public int hashCode() {
+            int result = agentId.hashCode();
+            result = 31 * result + (int) (agentStartTime ^ (agentStartTime >>> 32));
+            return result;
+        }
+    }
+}
@@ -35,8 +35,12 @@ public class AgentInfoService {
     @Autowired
     private ApplicationIndexDao applicationIndexDao;
 
+    @Autowired
+    private AgentApplicationCache agentApplicationCache;
+
     public void insert(final AgentInfoBo agentInfoBo) {
         agentInfoDao.insert(agentInfoBo);
         applicationIndexDao.insert(agentInfoBo);
+        agentApplicationCache.put(agentInfoBo);
     }
 }
\ No newline at end of file
@@ -0,0 +1,176 @@
+/*
+ * Copyright 2019 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.navercorp.pinpoint.collector.service;
+
+import com.navercorp.pinpoint.collector.config.CollectorConfiguration;
+import com.navercorp.pinpoint.collector.dao.AgentStatRollupDao;
+import com.navercorp.pinpoint.collector.rollup.ActiveTraceRollupFunction;
+import com.navercorp.pinpoint.collector.rollup.AgentStatRollupBuffer;
+import com.navercorp.pinpoint.collector.rollup.AgentStatRollupFunction;
+import com.navercorp.pinpoint.collector.rollup.CpuLoadRollupFunction;
+import com.navercorp.pinpoint.collector.rollup.DirectBufferRollupFunction;
+import com.navercorp.pinpoint.collector.rollup.FileDescriptorRollupFunction;
+import com.navercorp.pinpoint.collector.rollup.JvmGcDetailedRollupFunction;
+import com.navercorp.pinpoint.collector.rollup.JvmGcRollupFunction;
+import com.navercorp.pinpoint.collector.rollup.ResponseTimeRollupFunction;
+import com.navercorp.pinpoint.collector.rollup.TransactionRollupFunction;
+import com.navercorp.pinpoint.common.server.bo.serializer.stat.ActiveTraceSerializer;
+import com.navercorp.pinpoint.common.server.bo.serializer.stat.AgentStatSerializer;
+import com.navercorp.pinpoint.common.server.bo.serializer.stat.CpuLoadSerializer;
+import com.navercorp.pinpoint.common.server.bo.serializer.stat.DirectBufferSerializer;
+import com.navercorp.pinpoint.common.server.bo.serializer.stat.FileDescriptorSerializer;
+import com.navercorp.pinpoint.common.server.bo.serializer.stat.JvmGcDetailedSerializer;
+import com.navercorp.pinpoint.common.server.bo.serializer.stat.JvmGcSerializer;
+import com.navercorp.pinpoint.common.server.bo.serializer.stat.ResponseTimeSerializer;
+import com.navercorp.pinpoint.common.server.bo.serializer.stat.TransactionSerializer;
+import com.navercorp.pinpoint.common.server.bo.stat.AgentStatBo;
+import com.navercorp.pinpoint.common.server.bo.stat.AgentStatDataPoint;
+import com.navercorp.pinpoint.common.server.bo.stat.AgentStatRollupResolution;
+import com.navercorp.pinpoint.common.server.bo.stat.AgentStatType;
+import org.apache.commons.collections.CollectionUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Maintains 1 minute, 10 minute and 1 hour rollups of agent statistics so that long range charts
+ * do not have to read every raw data point.
+ * <p>
+ * Rollups are kept in memory until their interval closes, which assumes that an agent's statistics are received by a single collector.
+ * Data source statistics and deadlock warnings are not rolled up and are always read from the raw table.
+ */
+@Service("agentStatRollupService")
+public class AgentStatRollupService implements AgentStatService {
+
+    // agents send their statistics in batches, so intervals are kept open a little longer than they last
+    private static final long FLUSH_DELAY_MS = TimeUnit.MINUTES.toMillis(2);
+
+    private final Logger logger = LoggerFactory.getLogger(this.getClass());
+
+    private final boolean rollupEnable;
+
+    private final AgentStatRollupDao agentStatRollupDao;
+
+    private final List<RollupTarget<?>> rollupTargets = new ArrayList<>();
+
+    @Autowired
+    public AgentStatRollupService(CollectorConfiguration config, AgentStatRollupDao agentStatRollupDao,
+                                  JvmGcSerializer jvmGcSerializer, JvmGcDetailedSerializer jvmGcDetailedSerializer,
+                                  CpuLoadSerializer cpuLoadSerializer, TransactionSerializer transactionSerializer,
+                                  ActiveTraceSerializer activeTraceSerializer, ResponseTimeSerializer responseTimeSerializer,
+                                  FileDescriptorSerializer fileDescriptorSerializer, DirectBufferSerializer directBufferSerializer) {
+        Objects.requireNonNull(config, "config must not be null");
+        this.rollupEnable = config.isStatRollupEnable();
+        this.agentStatRollupDao = Objects.requireNonNull(agentStatRollupDao, "agentStatRollupDao must not be null");
+
+        rollupTargets.add(new RollupTarget<>(AgentStatType.JVM_GC, AgentStatBo::getJvmGcBos, new JvmGcRollupFunction(), jvmGcSerializer));
+        rollupTargets.add(new RollupTarget<>(AgentStatType.JVM_GC_DETAILED, AgentStatBo::getJvmGcDetailedBos, new JvmGcDetailedRollupFunction(), jvmGcDetailedSerializer));
+        rollupTargets.add(new RollupTarget<>(AgentStatType.CPU_LOAD, AgentStatBo::getCpuLoadBos, new CpuLoadRollupFunction(), cpuLoadSerializer));
+        rollupTargets.add(new RollupTarget<>(AgentStatType.TRANSACTION, AgentStatBo::getTransactionBos, new TransactionRollupFunction(), transactionSerializer));
+        rollupTargets.add(new RollupTarget<>(AgentStatType.ACTIVE_TRACE, AgentStatBo::getActiveTraceBos, new ActiveTraceRollupFunction(), activeTraceSerializer));
+        rollupTargets.add(new RollupTarget<>(AgentStatType.RESPONSE_TIME, AgentStatBo::getResponseTimeBos, new ResponseTimeRollupFunction(), responseTimeSerializer));
+        rollupTargets.add(new RollupTarget<>(AgentStatType.FILE_DESCRIPTOR, AgentStatBo::getFileDescriptorBos, new FileDescriptorRollupFunction(), fileDescriptorSerializer));
+        rollupTargets.add(new RollupTarget<>(AgentStatType.DIRECT_BUFFER, AgentStatBo::getDirectBufferBos, new DirectBufferRollupFunction(), directBufferSerializer));
+    }
+
+    @Override
+    public void save(AgentStatBo agentStatBo) {
+        if (!rollupEnable) {
+            return;
+        }
+        final String agentId = agentStatBo.getAgentId();
+        for (RollupTarget<?> rollupTarget : rollupTargets) {
+            try {
+                rollupTarget.add(agentId, agentStatBo);
+            } catch (Exception e) {
+                logger.warn("Error rolling up {} of {}. Caused:{}", rollupTarget.agentStatType, agentId, e.getMessage(), e);
+            }
+        }
+    }
+
+    /**
+     * Writes the rollups of intervals that elapsed without receiving a data point of a later interval.
+     * Invoked periodically by the collector scheduler.
+     */
+    public void flushExpired() {
+        if (!rollupEnable) {
+            return;
+        }
+        final long currentTimeMillis = System.currentTimeMillis();
+        for (RollupTarget<?> rollupTarget : rollupTargets) {
+            try {
+                rollupTarget.flushExpired(currentTimeMillis);
+            } catch (Exception e) {
+                logger.warn("Error flushing {} rollups. Caused:{}", rollupTarget.agentStatType, e.getMessage(), e);
+            }
+        }
+    }
+
+    private class RollupTarget<T extends AgentStatDataPoint> {
+
+        private final AgentStatType agentStatType;
+        private final Function<AgentStatBo, List<T>> dataPointsGetter;
+        private final AgentStatRollupBuffer<T> rollupBuffer;
+        private final AgentStatSerializer<T> serializer;
+
+        private RollupTarget(AgentStatType agentStatType, Function<AgentStatBo, List<T>> dataPointsGetter, AgentStatRollupFunction<T> rollupFunction, AgentStatSerializer<T> serializer) {
+            this.agentStatType = agentStatType;
+            this.dataPointsGetter = dataPointsGetter;
+            this.rollupBuffer = new AgentStatRollupBuffer<>(rollupFunction, FLUSH_DELAY_MS);
+            this.serializer = Objects.requireNonNull(serializer, "serializer must not be null");
+        }
+
+        private void add(String agentId, AgentStatBo agentStatBo) {
+            final List<T> dataPoints = dataPointsGetter.apply(agentStatBo);
+            if (CollectionUtils.isEmpty(dataPoints)) {
+                return;
+            }
+            final Map<AgentStatRollupResolution, List<T>> rollups = rollupBuffer.add(agentId, dataPoints);
+            for (Map.Entry<AgentStatRollupResolution, List<T>> entry : rollups.entrySet()) {
+                agentStatRollupDao.insert(agentId, agentStatType, entry.getKey(), entry.getValue(), serializer);
+            }
+        }
+
+        private void flushExpired(long currentTimeMillis) {
+            final Map<AgentStatRollupResolution, List<T>> rollups = rollupBuffer.flushExpired(currentTimeMillis);
+            for (Map.Entry<AgentStatRollupResolution, List<T>> entry : rollups.entrySet()) {
+                final AgentStatRollupResolution resolution = entry.getKey();
+                for (Map.Entry<String, List<T>> agentRollups : groupByAgentId(entry.getValue()).entrySet()) {
+                    agentStatRollupDao.insert(agentRollups.getKey(), agentStatType, resolution, agentRollups.getValue(), serializer);
+                }
+            }
+        }
+
+        private Map<String, List<T>> groupByAgentId(List<T> dataPoints) {
+            final Map<String, List<T>> grouped = new HashMap<>();
+            for (T dataPoint : dataPoints) {
+                grouped.computeIfAbsent(dataPoint.getAgentId(), k -> new ArrayList<>()).add(dataPoint);
+            }
+            return grouped;
+        }
+    }
+}
@@ -0,0 +1,144 @@
+/*
+ * Copyright 2019 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.navercorp.pinpoint.collector.service;
+
+import com.google.common.collect.Sets;
+import com.navercorp.pinpoint.collector.config.CollectorConfiguration;
+import com.navercorp.pinpoint.collector.dao.ApplicationTopologyDao;
+import com.navercorp.pinpoint.common.server.bo.TopologyEdgeBo;
+import com.navercorp.pinpoint.common.server.util.AcceptedTimeService;
+import com.navercorp.pinpoint.common.trace.ServiceType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Keeps the links between applications seen by this collector, per {@link TopologyEdgeBo#BUCKET_MILLIS} bucket.
+ * <p>
+ * Only the first sighting of an edge within a bucket is queued, and {@link #flush()} writes the queued edges
+ * to the ApplicationTopology table. The web reads the buckets of a range in one scan to know which links to scan statistics for.
+ * The current and the previous bucket are kept in memory, so late spans do not write their edges again.
+ */
+@Service("applicationTopologyService")
+public class ApplicationTopologyService {
+
+    private final Logger logger = LoggerFactory.getLogger(this.getClass());
+
+    private final boolean enable;
+
+    private final ApplicationTopologyDao applicationTopologyDao;
+
+    private final AcceptedTimeService acceptedTimeService;
+
+    private final ConcurrentMap<Long, Bucket> buckets = new ConcurrentHashMap<>();
+
+    @Autowired
+    public ApplicationTopologyService(CollectorConfiguration config, ApplicationTopologyDao applicationTopologyDao, AcceptedTimeService acceptedTimeService) {
+        Objects.requireNonNull(config, "config must not be null");
+        this.enable = config.isTopologyEnable();
+        this.applicationTopologyDao = Objects.requireNonNull(applicationTopologyDao, "applicationTopologyDao must not be null");
+        this.acceptedTimeService = Objects.requireNonNull(acceptedTimeService, "acceptedTimeService must not be null");
+    }
+
+    public void recordCaller(String callerApplicationName, ServiceType callerServiceType, String calleeApplicationName, ServiceType calleeServiceType) {
+        record(TopologyEdgeBo.Direction.CALLER, callerApplicationName, callerServiceType, calleeApplicationName, calleeServiceType);
+    }
+
+    public void recordCallee(String calleeApplicationName, ServiceType calleeServiceType, String callerApplicationName, ServiceType callerServiceType) {
+        record(TopologyEdgeBo.Direction.CALLEE, callerApplicationName, callerServiceType, calleeApplicationName, calleeServiceType);
+    }
+
+    private void record(TopologyEdgeBo.Direction direction, String fromApplicationName, ServiceType fromServiceType, String toApplicationName, ServiceType toServiceType) {
+        if (!enable) {
+            return;
+        }
+        if (fromApplicationName == null || toApplicationName == null) {
+            return;
+        }
+        final long bucketTime = TopologyEdgeBo.getBucket(acceptedTimeService.getAcceptedTime());
+        final TopologyEdgeBo edge = new TopologyEdgeBo(direction, fromApplicationName, fromServiceType.getCode(), toApplicationName, toServiceType.getCode());
+
+        Bucket bucket = buckets.get(bucketTime);
+        if (bucket == null) {
+            bucket = buckets.computeIfAbsent(bucketTime, Bucket::new);
+        }
+        if (bucket.edges.add(edge)) {
+            bucket.unflushed.add(edge);
+        }
+    }
+
+    public void flush() {
+        if (!enable) {
+            return;
+        }
+        for (Bucket bucket : buckets.values()) {
+            final List<TopologyEdgeBo> edges = new ArrayList<>();
+            TopologyEdgeBo edge;
+            while ((edge = bucket.unflushed.poll()) != null) {
+                edges.add(edge);
+            }
+            if (edges.isEmpty()) {
+                continue;
+            }
+            try {
+                applicationTopologyDao.insert(bucket.time, edges);
+            } catch (Exception e) {
+                logger.warn("insert topology edges failed, retry at next flush. bucket:{}, edges:{}", bucket.time, edges.size(), e);
+                bucket.unflushed.addAll(edges);
+            }
+        }
+        removeExpiredBuckets();
+    }
+
+    private void removeExpiredBuckets() {
+        final long expiredBefore = TopologyEdgeBo.getBucket(acceptedTimeService.getAcceptedTime()) - TopologyEdgeBo.BUCKET_MILLIS;
+        final Iterator<Map.Entry<Long, Bucket>> iterator = buckets.entrySet().iterator();
+        while (iterator.hasNext()) {
+            final Bucket bucket = iterator.next().getValue();
+            if (bucket.time < expiredBefore && bucket.unflushed.isEmpty()) {
+                iterator.remove();
+            }
+        }
+    }
+
+    int getBucketCount() {
+        return buckets.size();
+    }
+
+    private static class Bucket {
+        private final long time;
+        private final Set<TopologyEdgeBo> edges = Sets.newConcurrentHashSet();
+        private final Queue<TopologyEdgeBo> unflushed = new ConcurrentLinkedQueue<>();
+
+        private Bucket(long time) {
+            this.time = time;
+        }
+    }
+}
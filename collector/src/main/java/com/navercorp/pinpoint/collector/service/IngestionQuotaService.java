@@ -0,0 +1,399 @@
+/*
+ * Copyright 2019 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.navercorp.pinpoint.collector.service;
+
+import com.codahale.metrics.Counter;
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.Metric;
+import com.codahale.metrics.MetricSet;
+import com.navercorp.pinpoint.collector.config.CollectorConfiguration;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.lang3.math.NumberUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Per application and per agent ingestion quotas, checked when spans and stats are dispatched.
+ * <p>
+ * Every quota is a token bucket refilled at its rate (items per second) and holding at most one second of tokens.
+ * A span needs a token of its agent and of its application, a stat needs a token of its agent.
+ * <p>
+ * With {@code collector.quota.span.total.rate}, the span rate of the collector is shared between the applications sending
+ * spans, in proportion to their weights. The shares are recomputed every second from the demand of the last second:
+ * an application asking for less than its share keeps what it asks for, and the rest is split between the others
+ * (weighted max-min fairness).
+ * <p>
+ * An agent over quota is told to sample less through the {@link QuotaExceededListener}, at most twice per hint duration.
+ */
+@Service("ingestionQuotaService")
+public class IngestionQuotaService implements MetricSet {
+
+    private static final String QUOTA = "collector.quota";
+
+    private static final long UPDATE_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(1);
+    private static final long IDLE_NANOS = TimeUnit.MINUTES.toNanos(5);
+
+    private final Logger logger = LoggerFactory.getLogger(this.getClass());
+
+    public interface QuotaExceededListener {
+        void quotaExceeded(String applicationName, String agentId, int throttleRate, long durationMillis);
+    }
+
+    private final boolean enable;
+    private final int spanApplicationRate;
+    private final int spanAgentRate;
+    private final int spanTotalRate;
+    private final Map<String, Double> applicationWeights;
+    private final int statAgentRate;
+    private final boolean hintEnable;
+    private final long hintDurationMillis;
+    private final LongSupplier nanoClock;
+
+    private final ConcurrentMap<String, ApplicationQuota> applications = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, TokenBucket> statAgents = new ConcurrentHashMap<>();
+
+    private final Object updateLock = new Object();
+    private volatile long nextUpdateTime;
+    private volatile double activeWeight;
+
+    private final Counter spanRejectedCount = new Counter();
+    private final Counter statRejectedCount = new Counter();
+    private final Counter hintCount = new Counter();
+
+    private volatile QuotaExceededListener quotaExceededListener;
+
+    @Autowired
+    public IngestionQuotaService(CollectorConfiguration configuration) {
+        this(configuration, System::nanoTime);
+    }
+
+    IngestionQuotaService(CollectorConfiguration configuration, LongSupplier nanoClock) {
+        Objects.requireNonNull(configuration, "configuration must not be null");
+        this.nanoClock = Objects.requireNonNull(nanoClock, "nanoClock must not be null");
+
+        this.enable = configuration.isQuotaEnable();
+        this.spanApplicationRate = Math.max(configuration.getQuotaSpanApplicationRate(), 0);
+        this.spanAgentRate = Math.max(configuration.getQuotaSpanAgentRate(), 0);
+        this.spanTotalRate = Math.max(configuration.getQuotaSpanTotalRate(), 0);
+        this.applicationWeights = parseWeights(configuration.getQuotaApplicationWeights());
+        this.statAgentRate = Math.max(configuration.getQuotaStatAgentRate(), 0);
+        this.hintEnable = configuration.isQuotaHintEnable();
+        this.hintDurationMillis = Math.max(configuration.getQuotaHintDurationMillis(), 1000);
+
+        this.nextUpdateTime = nanoClock.getAsLong() + UPDATE_INTERVAL_NANOS;
+        logger.info("IngestionQuotaService enable:{} spanApplicationRate:{} spanAgentRate:{} spanTotalRate:{} weights:{} statAgentRate:{}",
+                enable, spanApplicationRate, spanAgentRate, spanTotalRate, applicationWeights, statAgentRate);
+    }
+
+    static Map<String, Double> parseWeights(String weights) {
+        final String[] entries = StringUtils.split(weights, ", ");
+        if (entries == null || entries.length == 0) {
+            return Collections.emptyMap();
+        }
+        final Map<String, Double> result = new HashMap<>();
+        for (String entry : entries) {
+            final int index = entry.lastIndexOf(':');
+            if (index <= 0) {
+                throw new IllegalArgumentException("invalid application weight:" + entry);
+            }
+            final double weight = NumberUtils.toDouble(entry.substring(index + 1), -1);
+            if (weight <= 0) {
+                throw new IllegalArgumentException("invalid application weight:" + entry);
+            }
+            result.put(entry.substring(0, index), weight);
+        }
+        return result;
+    }
+
+    @Autowired(required = false)
+    public void setQuotaExceededListener(QuotaExceededListener quotaExceededListener) {
+        this.quotaExceededListener = quotaExceededListener;
+    }
+
+    public boolean isEnable() {
+        return enable;
+    }
+
+    /**
+     * @return false if the span is over the quota of its agent or application and must be dropped
+     */
+    public boolean acquireSpan(String applicationName, String agentId) {
+        if (!enable || applicationName == null || agentId == null) {
+            return true;
+        }
+        final long now = nanoClock.getAsLong();
+        update(now);
+
+        final ApplicationQuota applicationQuota = applications.computeIfAbsent(applicationName, this::newApplicationQuota);
+        final AgentQuota agentQuota = applicationQuota.getAgentQuota(agentId, now);
+        applicationQuota.lastAcquireTime = now;
+        applicationQuota.requestCount.incrementAndGet();
+
+        if (tryAcquire(agentQuota.bucket, now) && tryAcquire(applicationQuota.bucket, now)) {
+            agentQuota.acceptedCount.incrementAndGet();
+            return true;
+        }
+        spanRejectedCount.inc();
+        agentQuota.rejectedCount.incrementAndGet();
+        sendHint(applicationName, agentId, agentQuota, now);
+        return false;
+    }
+
+    /**
+     * @return false if the stat is over the quota of its agent and must be dropped
+     */
+    public boolean acquireStat(String agentId) {
+        if (!enable || statAgentRate == 0 || agentId == null) {
+            return true;
+        }
+        final long now = nanoClock.getAsLong();
+        update(now);
+
+        final TokenBucket bucket = statAgents.computeIfAbsent(agentId, key -> new TokenBucket(statAgentRate, now));
+        if (bucket.tryAcquire(now)) {
+            return true;
+        }
+        statRejectedCount.inc();
+        return false;
+    }
+
+    private boolean tryAcquire(TokenBucket bucket, long now) {
+        return bucket == null || bucket.tryAcquire(now);
+    }
+
+    private ApplicationQuota newApplicationQuota(String applicationName) {
+        final double weight = applicationWeights.getOrDefault(applicationName, 1.0);
+        final long now = nanoClock.getAsLong();
+        if (spanTotalRate == 0) {
+            final TokenBucket bucket = spanApplicationRate == 0 ? null : new TokenBucket(spanApplicationRate, now);
+            return new ApplicationQuota(weight, bucket);
+        }
+        // a share as if the application was already active, until the next update
+        final double share = spanTotalRate * weight / (activeWeight + weight);
+        return new ApplicationQuota(weight, new TokenBucket(capByApplicationRate(share), now));
+    }
+
+    private double capByApplicationRate(double rate) {
+        if (spanApplicationRate == 0) {
+            return rate;
+        }
+        return Math.min(rate, spanApplicationRate);
+    }
+
+    private void sendHint(String applicationName, String agentId, AgentQuota agentQuota, long now) {
+        final QuotaExceededListener listener = this.quotaExceededListener;
+        if (!hintEnable || listener == null || now < agentQuota.nextHintTime) {
+            return;
+        }
+        final int throttleRate;
+        synchronized (agentQuota) {
+            if (now < agentQuota.nextHintTime) {
+                return;
+            }
+            agentQuota.nextHintTime = now + TimeUnit.MILLISECONDS.toNanos(hintDurationMillis / 2);
+            final long accepted = agentQuota.acceptedCount.getAndSet(0);
+            final long rejected = agentQuota.rejectedCount.getAndSet(0);
+            // keep the share of the spans that were accepted
+            throttleRate = (int) Math.min(Integer.MAX_VALUE, (accepted + rejected + Math.max(accepted, 1) - 1) / Math.max(accepted, 1));
+        }
+        if (throttleRate <= 1) {
+            return;
+        }
+        hintCount.inc();
+        try {
+            listener.quotaExceeded(applicationName, agentId, throttleRate, hintDurationMillis);
+        } catch (RuntimeException e) {
+            logger.warn("quotaExceeded listener failed. applicationName:{} agentId:{}", applicationName, agentId, e);
+        }
+    }
+
+    private void update(long now) {
+        if (now < nextUpdateTime) {
+            return;
+        }
+        synchronized (updateLock) {
+            if (now < nextUpdateTime) {
+                return;
+            }
+            // since the last update
+            final long elapsed = now - nextUpdateTime + UPDATE_INTERVAL_NANOS;
+            nextUpdateTime = now + UPDATE_INTERVAL_NANOS;
+
+            removeIdle(now);
+            if (spanTotalRate > 0) {
+                updateShares(elapsed);
+            }
+        }
+    }
+
+    private void removeIdle(long now) {
+        final Iterator<ApplicationQuota> applicationIterator = applications.values().iterator();
+        while (applicationIterator.hasNext()) {
+            final ApplicationQuota applicationQuota = applicationIterator.next();
+            if (now - applicationQuota.lastAcquireTime > IDLE_NANOS) {
+                applicationIterator.remove();
+                continue;
+            }
+            applicationQuota.agents.values().removeIf(agentQuota -> now - agentQuota.lastAcquireTime > IDLE_NANOS);
+        }
+        statAgents.values().removeIf(bucket -> now - bucket.getLastAcquireTime() > IDLE_NANOS);
+    }
+
+    private void updateShares(long elapsedNanos) {
+        final double elapsedSeconds = (double) elapsedNanos / TimeUnit.SECONDS.toNanos(1);
+        final List<ApplicationQuota> active = new ArrayList<>();
+        double remainingWeight = 0;
+        for (ApplicationQuota applicationQuota : applications.values()) {
+            applicationQuota.demand = applicationQuota.requestCount.getAndSet(0) / elapsedSeconds;
+            if (applicationQuota.demand > 0) {
+                active.add(applicationQuota);
+                remainingWeight += applicationQuota.weight;
+            }
+        }
+        this.activeWeight = remainingWeight;
+        if (active.isEmpty()) {
+            return;
+        }
+
+        // water filling, the application asking for the smallest part of its weight first
+        active.sort((left, right) -> Double.compare(left.demand / left.weight, right.demand / right.weight));
+        double remainingRate = spanTotalRate;
+        for (ApplicationQuota applicationQuota : active) {
+            final double share = capByApplicationRate(remainingRate * applicationQuota.weight / remainingWeight);
+            applicationQuota.bucket.setRate(share);
+            remainingRate -= Math.min(applicationQuota.demand, share);
+            remainingWeight -= applicationQuota.weight;
+        }
+    }
+
+    public int getApplicationCount() {
+        return applications.size();
+    }
+
+    @Override
+    public Map<String, Metric> getMetrics() {
+        final Map<String, Metric> metrics = new HashMap<>();
+        metrics.put(QUOTA + ".span.rejected", spanRejectedCount);
+        metrics.put(QUOTA + ".stat.rejected", statRejectedCount);
+        metrics.put(QUOTA + ".hint", hintCount);
+        metrics.put(QUOTA + ".applications", (Gauge<Integer>) this::getApplicationCount);
+        return metrics;
+    }
+
+    private class ApplicationQuota {
+        private final double weight;
+        private final TokenBucket bucket;
+        private final ConcurrentMap<String, AgentQuota> agents = new ConcurrentHashMap<>();
+        // requests since the last update
+        private final AtomicLong requestCount = new AtomicLong();
+        private volatile long lastAcquireTime;
+        private double demand;
+
+        private ApplicationQuota(double weight, TokenBucket bucket) {
+            this.weight = weight;
+            this.bucket = bucket;
+            this.lastAcquireTime = nanoClock.getAsLong();
+        }
+
+        private AgentQuota getAgentQuota(String agentId, long now) {
+            AgentQuota agentQuota = agents.get(agentId);
+            if (agentQuota == null) {
+                agentQuota = agents.computeIfAbsent(agentId, key -> new AgentQuota(spanAgentRate == 0 ? null : new TokenBucket(spanAgentRate, now), now));
+            }
+            agentQuota.lastAcquireTime = now;
+            return agentQuota;
+        }
+    }
+
+    private static class AgentQuota {
+        private final TokenBucket bucket;
+        // since the last hint
+        private final AtomicLong acceptedCount = new AtomicLong();
+        private final AtomicLong rejectedCount = new AtomicLong();
+        private volatile long lastAcquireTime;
+        // the first hint waits for a second of counts
+        private long nextHintTime;
+
+        private AgentQuota(TokenBucket bucket, long now) {
+            this.bucket = bucket;
+            this.lastAcquireTime = now;
+            this.nextHintTime = now + UPDATE_INTERVAL_NANOS;
+        }
+    }
+
+    static class TokenBucket {
+        private double rate;
+        private double tokens;
+        private long lastRefillTime;
+        private volatile long lastAcquireTime;
+
+        TokenBucket(double rate, long now) {
+            this.rate = rate;
+            this.tokens = capacity();
+            this.lastRefillTime = now;
+            this.lastAcquireTime = now;
+        }
+
+        // one second of tokens, at least one
+        private double capacity() {
+            return Math.max(rate, 1);
+        }
+
+        synchronized boolean tryAcquire(long now) {
+            lastAcquireTime = now;
+            if (now > lastRefillTime) {
+                final double refill = rate * (now - lastRefillTime) / TimeUnit.SECONDS.toNanos(1);
+                tokens = Math.min(capacity(), tokens + refill);
+                lastRefillTime = now;
+            }
+            if (tokens < 1) {
+                return false;
+            }
+            tokens -= 1;
+            return true;
+        }
+
+        synchronized void setRate(double rate) {
+            this.rate = rate;
+            this.tokens = Math.min(tokens, capacity());
+        }
+
+        synchronized double getRate() {
+            return rate;
+        }
+
+        long getLastAcquireTime() {
+            return lastAcquireTime;
+        }
+    }
+}
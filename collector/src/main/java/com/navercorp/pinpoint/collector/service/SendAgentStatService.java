@@ -18,15 +18,25 @@ package com.navercorp.pinpoint.collector.service;
 import com.navercorp.pinpoint.collector.config.CollectorConfiguration;
 import com.navercorp.pinpoint.collector.mapper.thrift.stat.TFAgentStatBatchMapper;
 import com.navercorp.pinpoint.collector.sender.FlinkTcpDataSender;
+import com.navercorp.pinpoint.collector.util.Address;
+import com.navercorp.pinpoint.collector.util.ConsistentHashRing;
 import com.navercorp.pinpoint.common.server.bo.stat.AgentStatBo;
 import com.navercorp.pinpoint.thrift.dto.flink.TFAgentStatBatch;
+import com.navercorp.pinpoint.thrift.dto.flink.TFAgentStatBatchList;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
-import java.util.concurrent.CopyOnWriteArrayList;
-import java.util.concurrent.atomic.AtomicInteger;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 /**
  * @author minwoo.jung
@@ -36,13 +46,19 @@ public class SendAgentStatService implements AgentStatService {
 
     private final Logger logger = LoggerFactory.getLogger(this.getClass());
     private final boolean flinkClusterEnable;
+    private final int batchSize;
+    private final AgentApplicationCache agentApplicationCache;
     private final TFAgentStatBatchMapper tFAgentStatBatchMapper = new TFAgentStatBatchMapper();
 
-    private volatile List<FlinkTcpDataSender> flinkTcpDataSenderList = new CopyOnWriteArrayList<>();
-    private AtomicInteger callCount = new AtomicInteger(1);
+    // stats of an application are always routed to the same flink server while the server list does not change
+    private volatile ConsistentHashRing<FlinkTcpDataSender> flinkTcpDataSenderRing = new ConsistentHashRing<>(Collections.<String, FlinkTcpDataSender>emptyMap());
 
-    public SendAgentStatService(CollectorConfiguration config) {
+    private final ConcurrentMap<FlinkTcpDataSender, SendBuffer> sendBufferMap = new ConcurrentHashMap<>();
+
+    public SendAgentStatService(CollectorConfiguration config, AgentApplicationCache agentApplicationCache) {
         this.flinkClusterEnable = config.isFlinkClusterEnable();
+        this.batchSize = config.getFlinkClusterStatBatchSize();
+        this.agentApplicationCache = Objects.requireNonNull(agentApplicationCache, "agentApplicationCache must not be null");
     }
 
     @Override
@@ -52,44 +68,136 @@ public class SendAgentStatService implements AgentStatService {
         }
 
         try {
-            FlinkTcpDataSender tcpDataSender = roundRobinTcpDataSender();
-            if (tcpDataSender == null) {
-                logger.warn("not send flink server. Because FlinkTcpDataSender is null");
+            TFAgentStatBatch tFAgentStatBatch = tFAgentStatBatchMapper.map(agentStatBo);
+            if (tFAgentStatBatch == null) {
                 return;
             }
-            TFAgentStatBatch tFAgentStatBatch = tFAgentStatBatchMapper.map(agentStatBo);
+            send(tFAgentStatBatch);
+        } catch (Exception e) {
+            logger.error("Error sending to flink server. Caused:{}", e.getMessage(), e);
+        }
+    }
+
+    private void send(TFAgentStatBatch tFAgentStatBatch) {
+        FlinkTcpDataSender tcpDataSender = selectTcpDataSender(tFAgentStatBatch);
+        if (tcpDataSender == null) {
+            logger.warn("not send flink server. Because FlinkTcpDataSender is null");
+            return;
+        }
+        if (batchSize <= 1) {
             if (logger.isDebugEnabled()) {
                 logger.debug("send to flinkserver : {}", tFAgentStatBatch);
             }
             tcpDataSender.send(tFAgentStatBatch);
-        } catch (Exception e) {
-            logger.error("Error sending to flink server. Caused:{}", e.getMessage(), e);
+            return;
+        }
+
+        final List<TFAgentStatBatch> fullBatch = getSendBuffer(tcpDataSender).add(tFAgentStatBatch, batchSize);
+        if (fullBatch != null) {
+            send(tcpDataSender, fullBatch);
         }
     }
 
-    private FlinkTcpDataSender roundRobinTcpDataSender() {
-        if (flinkTcpDataSenderList.isEmpty()) {
+    private FlinkTcpDataSender selectTcpDataSender(TFAgentStatBatch tFAgentStatBatch) {
+        final String agentId = tFAgentStatBatch.getAgentId();
+        if (agentId == null) {
             return null;
         }
+        final String applicationName = agentApplicationCache.getApplicationName(agentId, tFAgentStatBatch.getStartTimestamp());
+        if (applicationName == null) {
+            // spread by agent until the application of the agent is known
+            return flinkTcpDataSenderRing.get(agentId);
+        }
+        return flinkTcpDataSenderRing.get(applicationName);
+    }
+
+    private SendBuffer getSendBuffer(FlinkTcpDataSender tcpDataSender) {
+        final SendBuffer sendBuffer = sendBufferMap.get(tcpDataSender);
+        if (sendBuffer != null) {
+            return sendBuffer;
+        }
+        final SendBuffer newSendBuffer = new SendBuffer();
+        final SendBuffer old = sendBufferMap.putIfAbsent(tcpDataSender, newSendBuffer);
+        if (old != null) {
+            return old;
+        }
+        return newSendBuffer;
+    }
 
-        int count = callCount.getAndIncrement();
-        int tcpDataSenderIndex = count % flinkTcpDataSenderList.size();
+    private void send(FlinkTcpDataSender tcpDataSender, List<TFAgentStatBatch> batchList) {
+        TFAgentStatBatchList tFAgentStatBatchList = new TFAgentStatBatchList(batchList);
+        if (logger.isDebugEnabled()) {
+            logger.debug("send to flinkserver : {} stats", batchList.size());
+        }
+        tcpDataSender.send(tFAgentStatBatchList);
+    }
 
-        if (tcpDataSenderIndex < 0) {
-            tcpDataSenderIndex = tcpDataSenderIndex * -1;
-            callCount.set(0);
+    /**
+     * sends the stats waiting for a full batch. called by the scheduler.
+     */
+    public void flush() {
+        for (Map.Entry<FlinkTcpDataSender, SendBuffer> entry : sendBufferMap.entrySet()) {
+            final List<TFAgentStatBatch> batchList = entry.getValue().drain();
+            if (batchList.isEmpty()) {
+                continue;
+            }
+            try {
+                send(entry.getKey(), batchList);
+            } catch (Exception e) {
+                logger.error("Error sending to flink server. Caused:{}", e.getMessage(), e);
+            }
         }
+    }
 
-        try {
-            return flinkTcpDataSenderList.get(tcpDataSenderIndex);
-        } catch (Exception e) {
-            logger.warn("not get FlinkTcpDataSender", e);
+    public void replaceFlinkTcpDataSender(Map<Address, FlinkTcpDataSender> flinkTcpDataSenderMap) {
+        Map<String, FlinkTcpDataSender> nodes = new HashMap<>(flinkTcpDataSenderMap.size());
+        for (Map.Entry<Address, FlinkTcpDataSender> entry : flinkTcpDataSenderMap.entrySet()) {
+            Address address = entry.getKey();
+            nodes.put(address.getHost() + ":" + address.getPort(), entry.getValue());
         }
+        this.flinkTcpDataSenderRing = new ConsistentHashRing<>(nodes);
 
-        return null;
+        // stats waiting for a removed server go to the new owner of their application
+        final Set<FlinkTcpDataSender> activeSenders = new HashSet<>(flinkTcpDataSenderMap.values());
+        for (FlinkTcpDataSender tcpDataSender : sendBufferMap.keySet()) {
+            if (activeSenders.contains(tcpDataSender)) {
+                continue;
+            }
+            final SendBuffer removed = sendBufferMap.remove(tcpDataSender);
+            if (removed == null) {
+                continue;
+            }
+            for (TFAgentStatBatch tFAgentStatBatch : removed.drain()) {
+                try {
+                    send(tFAgentStatBatch);
+                } catch (Exception e) {
+                    logger.error("Error sending to flink server. Caused:{}", e.getMessage(), e);
+                }
+            }
+        }
     }
 
-    public void replaceFlinkTcpDataSenderList(List<FlinkTcpDataSender> flinkTcpDataSenderList) {
-        this.flinkTcpDataSenderList = new CopyOnWriteArrayList<FlinkTcpDataSender>(flinkTcpDataSenderList);
+    private static class SendBuffer {
+        private List<TFAgentStatBatch> batchList = new ArrayList<>();
+
+        /**
+         * @return the stats to send if the batch is full, null otherwise
+         */
+        synchronized List<TFAgentStatBatch> add(TFAgentStatBatch tFAgentStatBatch, int batchSize) {
+            batchList.add(tFAgentStatBatch);
+            if (batchList.size() < batchSize) {
+                return null;
+            }
+            return drain();
+        }
+
+        synchronized List<TFAgentStatBatch> drain() {
+            if (batchList.isEmpty()) {
+                return Collections.emptyList();
+            }
+            final List<TFAgentStatBatch> drained = batchList;
+            this.batchList = new ArrayList<>();
+            return drained;
+        }
     }
 }
@@ -0,0 +1,336 @@
+/*
+ * Copyright 2019 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.navercorp.pinpoint.collector.service;
+
+import com.codahale.metrics.Counter;
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.Metric;
+import com.codahale.metrics.MetricSet;
+import com.codahale.metrics.Timer;
+import com.navercorp.pinpoint.collector.config.CollectorConfiguration;
+import com.navercorp.pinpoint.collector.dao.TraceDao;
+import com.navercorp.pinpoint.common.server.bo.SpanBo;
+import com.navercorp.pinpoint.common.server.bo.SpanChunkBo;
+import com.navercorp.pinpoint.common.util.PinpointThreadFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Staged span ingestion : decode (receiver worker) → enrich → batch write.
+ * <p>
+ * The receiver worker threads only hand decoded spans over to the enrich stage, which writes the trace index,
+ * host application map and statistics. Spans and span chunks are then queued to a single writer that collects them for
+ * up to {@code collector.span.pipeline.batchWindow} milliseconds and writes the ones of the same transaction as one put.
+ * Both stages are separated by bounded queues. A full enrich queue makes the receiver worker process the span itself,
+ * and a full write queue blocks the enrich stage.
+ * <p>
+ * On stop both stages finish what is queued. Spans a stage does not get to within the shutdown timeout
+ * are written by the stopping thread, so no queued span is discarded.
+ */
+@Service("spanIngestionPipeline")
+public class SpanIngestionPipeline implements MetricSet {
+
+    private static final String SPAN_PIPELINE = "collector.span.pipeline";
+    private static final long SHUTDOWN_TIMEOUT_MILLIS = 3000;
+
+    private final Logger logger = LoggerFactory.getLogger(this.getClass());
+
+    private final boolean enable;
+    private final int threadSize;
+    private final int batchSize;
+    private final long batchWindow;
+
+    private final TraceService traceService;
+    private final TraceDao traceDao;
+
+    private final BlockingQueue<Object> enrichQueue;
+    private final BlockingQueue<Object> writeQueue;
+
+    private final Timer enrichTimer = new Timer();
+    private final Timer writeTimer = new Timer();
+    private final Counter rejectedCount = new Counter();
+    private final Counter writtenCount = new Counter();
+
+    private ExecutorService enrichExecutor;
+    private Thread writerThread;
+    private volatile boolean running;
+    private volatile boolean writing;
+
+    @Autowired
+    public SpanIngestionPipeline(CollectorConfiguration configuration, TraceService traceService, TraceDao traceDao) {
+        Objects.requireNonNull(configuration, "configuration must not be null");
+        this.traceService = Objects.requireNonNull(traceService, "traceService must not be null");
+        this.traceDao = Objects.requireNonNull(traceDao, "traceDao must not be null");
+        // tail sampling decides and batches trace writes itself, so spans go straight to TraceService
+        this.enable = configuration.isSpanPipelineEnable() && !configuration.isTailSamplingEnable();
+        if (configuration.isSpanPipelineEnable() && configuration.isTailSamplingEnable()) {
+            logger.warn("collector.span.pipeline.enable is ignored while collector.span.tailsampling.enable=true");
+        }
+        this.threadSize = Math.max(configuration.getSpanPipelineThreadSize(), 1);
+        this.batchSize = Math.max(configuration.getSpanPipelineBatchSize(), 1);
+        this.batchWindow = Math.max(configuration.getSpanPipelineBatchWindow(), 0);
+        final int queueSize = Math.max(configuration.getSpanPipelineQueueSize(), 1);
+        this.enrichQueue = new ArrayBlockingQueue<>(queueSize);
+        this.writeQueue = new ArrayBlockingQueue<>(queueSize);
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!enable) {
+            return;
+        }
+        logger.info("start SpanIngestionPipeline threadSize:{}, batchSize:{}, batchWindow:{}ms", threadSize, batchSize, batchWindow);
+        this.running = true;
+        this.writing = true;
+        final ThreadFactory enrichThreadFactory = new PinpointThreadFactory("Pinpoint-SpanPipeline-Enrich", true);
+        this.enrichExecutor = Executors.newFixedThreadPool(threadSize, enrichThreadFactory);
+        for (int i = 0; i < threadSize; i++) {
+            this.enrichExecutor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    enrichLoop();
+                }
+            });
+        }
+        this.writerThread = new PinpointThreadFactory("Pinpoint-SpanPipeline-Writer", true).newThread(new Runnable() {
+            @Override
+            public void run() {
+                writeLoop();
+            }
+        });
+        this.writerThread.start();
+    }
+
+    public boolean isEnable() {
+        return enable;
+    }
+
+    public void insertSpan(SpanBo spanBo) {
+        if (!running || !enrichQueue.offer(spanBo)) {
+            if (running) {
+                rejectedCount.inc();
+            }
+            traceService.insertSpan(spanBo);
+        }
+    }
+
+    public void insertSpanChunk(SpanChunkBo spanChunkBo) {
+        if (!running || !enrichQueue.offer(spanChunkBo)) {
+            if (running) {
+                rejectedCount.inc();
+            }
+            traceService.insertSpanChunk(spanChunkBo);
+        }
+    }
+
+    private void enrichLoop() {
+        while (running || !enrichQueue.isEmpty()) {
+            final Object item;
+            try {
+                item = enrichQueue.poll(100, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            if (item == null) {
+                continue;
+            }
+            final Timer.Context context = enrichTimer.time();
+            try {
+                if (item instanceof SpanBo) {
+                    traceService.insertSpanIndexAndStatistics((SpanBo) item);
+                } else {
+                    traceService.insertSpanChunkStatistics((SpanChunkBo) item);
+                }
+            } catch (Exception e) {
+                logger.warn("Span enrich error. Caused:{}", e.getMessage(), e);
+            } finally {
+                context.stop();
+            }
+            try {
+                writeQueue.put(item);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                writeDirectly(item);
+                return;
+            }
+        }
+    }
+
+    private void writeLoop() {
+        final List<Object> batch = new ArrayList<>(batchSize);
+        while (writing || !writeQueue.isEmpty()) {
+            try {
+                collectBatch(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                writeBatch(batch);
+                return;
+            }
+            writeBatch(batch);
+            batch.clear();
+        }
+    }
+
+    private void collectBatch(List<Object> batch) throws InterruptedException {
+        final Object first = writeQueue.poll(100, TimeUnit.MILLISECONDS);
+        if (first == null) {
+            return;
+        }
+        batch.add(first);
+        final long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(batchWindow);
+        while (batch.size() < batchSize) {
+            writeQueue.drainTo(batch, batchSize - batch.size());
+            final long remaining = deadline - System.nanoTime();
+            if (batch.size() >= batchSize || remaining <= 0) {
+                return;
+            }
+            final Object next = writeQueue.poll(remaining, TimeUnit.NANOSECONDS);
+            if (next == null) {
+                return;
+            }
+            batch.add(next);
+        }
+    }
+
+    private void writeBatch(List<Object> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        final List<SpanBo> spanList = new ArrayList<>(batch.size());
+        final List<SpanChunkBo> spanChunkList = new ArrayList<>();
+        for (Object item : batch) {
+            if (item instanceof SpanBo) {
+                spanList.add((SpanBo) item);
+            } else {
+                spanChunkList.add((SpanChunkBo) item);
+            }
+        }
+        final Timer.Context context = writeTimer.time();
+        try {
+            traceDao.insertAll(spanList, spanChunkList);
+            writtenCount.inc(batch.size());
+        } catch (Exception e) {
+            logger.warn("Span batch write error. batchSize:{} Caused:{}", batch.size(), e.getMessage(), e);
+        } finally {
+            context.stop();
+        }
+    }
+
+    private void writeDirectly(Object item) {
+        if (item instanceof SpanBo) {
+            traceDao.insert((SpanBo) item);
+        } else {
+            traceDao.insertSpanChunk((SpanChunkBo) item);
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (!running) {
+            return;
+        }
+        logger.info("stop SpanIngestionPipeline enrichQueue:{}, writeQueue:{}", enrichQueue.size(), writeQueue.size());
+        this.running = false;
+        enrichExecutor.shutdown();
+        try {
+            if (!enrichExecutor.awaitTermination(SHUTDOWN_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS)) {
+                enrichExecutor.shutdownNow();
+                enrichExecutor.awaitTermination(SHUTDOWN_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+            }
+            // the writer drains what the enrich stage has handed over before it exits
+            this.writing = false;
+            writerThread.join(SHUTDOWN_TIMEOUT_MILLIS);
+            if (writerThread.isAlive()) {
+                writerThread.interrupt();
+                writerThread.join(SHUTDOWN_TIMEOUT_MILLIS);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        drainRemaining();
+    }
+
+    private void drainRemaining() {
+        final List<Object> remaining = new ArrayList<>();
+        enrichQueue.drainTo(remaining);
+        if (!remaining.isEmpty()) {
+            logger.info("insert {} spans left in the enrich queue", remaining.size());
+        }
+        for (Object item : remaining) {
+            try {
+                if (item instanceof SpanBo) {
+                    traceService.insertSpan((SpanBo) item);
+                } else {
+                    traceService.insertSpanChunk((SpanChunkBo) item);
+                }
+            } catch (Exception e) {
+                logger.warn("Span insert error. Caused:{}", e.getMessage(), e);
+            }
+        }
+
+        remaining.clear();
+        writeQueue.drainTo(remaining);
+        if (!remaining.isEmpty()) {
+            logger.info("write {} spans left in the write queue", remaining.size());
+            writeBatch(remaining);
+        }
+    }
+
+    @Override
+    public Map<String, Metric> getMetrics() {
+        if (!enable) {
+            return Collections.emptyMap();
+        }
+        final Map<String, Metric> metrics = new HashMap<>();
+        metrics.put(SPAN_PIPELINE + ".enrich.latency", enrichTimer);
+        metrics.put(SPAN_PIPELINE + ".write.latency", writeTimer);
+        metrics.put(SPAN_PIPELINE + ".rejected.count", rejectedCount);
+        metrics.put(SPAN_PIPELINE + ".written.count", writtenCount);
+        metrics.put(SPAN_PIPELINE + ".enrich.queue.depth", new Gauge<Integer>() {
+            @Override
+            public Integer getValue() {
+                return enrichQueue.size();
+            }
+        });
+        metrics.put(SPAN_PIPELINE + ".write.queue.depth", new Gauge<Integer>() {
+            @Override
+            public Integer getValue() {
+                return writeQueue.size();
+            }
+        });
+        return Collections.unmodifiableMap(metrics);
+    }
+}
@@ -41,6 +41,9 @@ public class StatisticsService {
     @Autowired
     private MapResponseTimeDao mapResponseTimeDao;
 
+    @Autowired
+    private ApplicationTopologyService applicationTopologyService;
+
     /**
      * Calling MySQL from Tomcat generates the following message for the caller(Tomcat) :<br/>
      * emeroad-app (TOMCAT) -> MySQL_DB_ID (MYSQL)[10.25.141.69:3306] <br/>
@@ -57,6 +60,7 @@ public class StatisticsService {
      */
     public void updateCaller(String callerApplicationName, ServiceType callerServiceType, String callerAgentId, String calleeApplicationName, ServiceType calleeServiceType, String calleeHost, int elapsed, boolean isError) {
         mapStatisticsCallerDao.update(callerApplicationName, callerServiceType, callerAgentId, calleeApplicationName, calleeServiceType, calleeHost, elapsed, isError);
+        applicationTopologyService.recordCaller(callerApplicationName, callerServiceType, calleeApplicationName, calleeServiceType);
     }
 
     /**
@@ -75,6 +79,7 @@ public class StatisticsService {
      */
     public void updateCallee(String calleeApplicationName, ServiceType calleeServiceType, String callerApplicationName, ServiceType callerServiceType, String callerHost, int elapsed, boolean isError) {
         mapStatisticsCalleeDao.update(calleeApplicationName, calleeServiceType, callerApplicationName, callerServiceType, callerHost, elapsed, isError);
+        applicationTopologyService.recordCallee(calleeApplicationName, calleeServiceType, callerApplicationName, callerServiceType);
     }
 
     public void updateResponseTime(String applicationName, ServiceType serviceType, String agentId, int elapsed, boolean isError) {
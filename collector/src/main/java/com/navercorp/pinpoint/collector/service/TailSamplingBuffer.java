@@ -0,0 +1,518 @@
+/*
+ * Copyright 2019 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.navercorp.pinpoint.collector.service;
+
+import com.codahale.metrics.Counter;
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.Metric;
+import com.codahale.metrics.MetricSet;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.navercorp.pinpoint.collector.config.CollectorConfiguration;
+import com.navercorp.pinpoint.collector.dao.ApplicationTraceIndexDao;
+import com.navercorp.pinpoint.collector.dao.TraceDao;
+import com.navercorp.pinpoint.common.server.bo.AnnotationBo;
+import com.navercorp.pinpoint.common.server.bo.SpanBo;
+import com.navercorp.pinpoint.common.server.bo.SpanChunkBo;
+import com.navercorp.pinpoint.common.server.bo.SpanEventBo;
+import com.navercorp.pinpoint.common.util.PinpointThreadFactory;
+import com.navercorp.pinpoint.common.util.TransactionId;
+import org.apache.commons.lang3.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.util.AntPathMatcher;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Collector side tail-based sampling.
+ * <p>
+ * Spans and span chunks are held per {@link TransactionId} for {@code collector.span.tailsampling.window} milliseconds
+ * after the first one of the transaction arrives. The transaction is then written to the trace and trace index tables
+ * only if one of its spans has an error, is slower than the latency threshold or is a root span whose rpc matches a url
+ * pattern, or if it falls into the baseline sample. The baseline sample is derived from the transaction id, so collectors
+ * agree on it. The decision is remembered for a while so that spans arriving after it follow the transaction.
+ * <p>
+ * The other rules only see the spans received by this collector. Spans of the same transaction sent to another collector
+ * are decided there without them, so a transaction kept by a rule may miss the parts reported to other collectors.
+ * <p>
+ * The buffer is capped by transaction count and by the estimated heap size of the buffered spans.
+ * Spans that do not fit are handled by the overflow policy.
+ */
+@Service("tailSamplingBuffer")
+public class TailSamplingBuffer implements MetricSet {
+
+    private static final String TAIL_SAMPLING = "collector.span.tailsampling";
+
+    // rough heap sizes, used to cap the buffer by memory rather than by span count
+    private static final int SPAN_SIZE = 256;
+    private static final int SPAN_EVENT_SIZE = 128;
+    private static final int ANNOTATION_SIZE = 64;
+    private static final int STRING_SIZE = 40;
+
+    private final Logger logger = LoggerFactory.getLogger(this.getClass());
+
+    public enum OverflowPolicy {
+        // write without sampling
+        PERSIST,
+        DROP,
+        // decide the oldest buffered transaction before its window ends
+        EVICT;
+
+        public static OverflowPolicy of(String name) {
+            for (OverflowPolicy policy : values()) {
+                if (policy.name().equalsIgnoreCase(name)) {
+                    return policy;
+                }
+            }
+            throw new IllegalArgumentException("unknown overflowPolicy:" + name);
+        }
+    }
+
+    private final boolean enable;
+    private final long window;
+    private final int maxTransactions;
+    private final long maxBytes;
+    private final OverflowPolicy overflowPolicy;
+
+    private final boolean errorRule;
+    private final int latencyThreshold;
+    private final String[] urlPatterns;
+    private final int baselineRate;
+    private final AntPathMatcher pathMatcher = new AntPathMatcher();
+
+    private final TraceDao traceDao;
+    private final ApplicationTraceIndexDao applicationTraceIndexDao;
+
+    private final ConcurrentHashMap<TransactionId, PendingTransaction> transactions = new ConcurrentHashMap<>();
+    // arrival order, for window expiry and eviction
+    private final Queue<PendingTransaction> arrivalQueue = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger bufferedSpans = new AtomicInteger();
+    private final AtomicLong bufferedBytes = new AtomicLong();
+    private final Cache<TransactionId, Boolean> decisions;
+
+    private final Counter keptCount = new Counter();
+    private final Counter droppedCount = new Counter();
+    private final Counter overflowCount = new Counter();
+    private final Counter lateSpanCount = new Counter();
+
+    private ScheduledExecutorService flushExecutor;
+
+    @Autowired
+    public TailSamplingBuffer(CollectorConfiguration configuration, TraceDao traceDao, ApplicationTraceIndexDao applicationTraceIndexDao) {
+        Objects.requireNonNull(configuration, "configuration must not be null");
+        this.traceDao = Objects.requireNonNull(traceDao, "traceDao must not be null");
+        this.applicationTraceIndexDao = Objects.requireNonNull(applicationTraceIndexDao, "applicationTraceIndexDao must not be null");
+
+        this.enable = configuration.isTailSamplingEnable();
+        this.window = Math.max(configuration.getTailSamplingWindow(), 0);
+        this.maxTransactions = Math.max(configuration.getTailSamplingMaxTransactions(), 1);
+        this.maxBytes = Math.max(configuration.getTailSamplingMaxBytes(), 1);
+        this.overflowPolicy = OverflowPolicy.of(StringUtils.defaultIfEmpty(configuration.getTailSamplingOverflowPolicy(), OverflowPolicy.PERSIST.name()));
+        this.errorRule = configuration.isTailSamplingErrorRule();
+        this.latencyThreshold = configuration.getTailSamplingLatencyThreshold();
+        this.urlPatterns = StringUtils.split(StringUtils.defaultString(configuration.getTailSamplingUrlPatterns()), ", ");
+        this.baselineRate = configuration.getTailSamplingBaselineRate();
+
+        this.decisions = CacheBuilder.newBuilder()
+                .maximumSize(maxTransactions)
+                .expireAfterWrite(Math.max(window * 3, 1000), TimeUnit.MILLISECONDS)
+                .build();
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!enable) {
+            return;
+        }
+        logger.info("start TailSamplingBuffer window:{}ms, maxTransactions:{}, maxBytes:{}, overflowPolicy:{}", window, maxTransactions, maxBytes, overflowPolicy);
+        this.flushExecutor = Executors.newSingleThreadScheduledExecutor(new PinpointThreadFactory("Pinpoint-TailSampling-Flush", true));
+        final long flushInterval = Math.max(window / 10, 100);
+        this.flushExecutor.scheduleWithFixedDelay(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    flush(System.currentTimeMillis() - window);
+                } catch (Exception e) {
+                    logger.warn("TailSampling flush error. Caused:{}", e.getMessage(), e);
+                }
+            }
+        }, flushInterval, flushInterval, TimeUnit.MILLISECONDS);
+    }
+
+    public boolean isEnable() {
+        return enable;
+    }
+
+    public void insertSpan(SpanBo spanBo) {
+        insert(spanBo.getTransactionId(), spanBo);
+    }
+
+    public void insertSpanChunk(SpanChunkBo spanChunkBo) {
+        insert(spanChunkBo.getTransactionId(), spanChunkBo);
+    }
+
+    private void insert(TransactionId transactionId, Object span) {
+        final Boolean decision = decisions.getIfPresent(transactionId);
+        if (decision != null) {
+            lateSpanCount.inc();
+            writeOrDrop(decision, span);
+            return;
+        }
+
+        PendingTransaction pending = transactions.get(transactionId);
+        final boolean full = (pending == null && transactions.size() >= maxTransactions) || bufferedBytes.get() >= maxBytes;
+        if (full) {
+            if (!overflow(span)) {
+                return;
+            }
+            // the transaction itself may have been evicted
+            final Boolean evicted = decisions.getIfPresent(transactionId);
+            if (evicted != null) {
+                writeOrDrop(evicted, span);
+                return;
+            }
+            pending = transactions.get(transactionId);
+        }
+        if (pending == null) {
+            final PendingTransaction newPending = new PendingTransaction(transactionId, System.currentTimeMillis());
+            pending = transactions.putIfAbsent(transactionId, newPending);
+            if (pending == null) {
+                pending = newPending;
+                arrivalQueue.offer(newPending);
+            }
+        }
+
+        final long size = estimateSpanSize(span);
+        if (pending.add(span, size)) {
+            bufferedSpans.incrementAndGet();
+            bufferedBytes.addAndGet(size);
+        } else {
+            // decided while this span was on its way in
+            lateSpanCount.inc();
+            writeOrDrop(pending.isKeep(), span);
+        }
+    }
+
+    /**
+     * @return true if the span should still be buffered
+     */
+    private boolean overflow(Object span) {
+        overflowCount.inc();
+        switch (overflowPolicy) {
+            case PERSIST:
+                write(span);
+                return false;
+            case DROP:
+                return false;
+            case EVICT:
+                final PendingTransaction oldest = arrivalQueue.poll();
+                if (oldest != null) {
+                    final List<SpanBo> spanList = new ArrayList<>();
+                    final List<SpanChunkBo> spanChunkList = new ArrayList<>();
+                    decide(oldest, spanList, spanChunkList);
+                    write(spanList, spanChunkList);
+                }
+                return true;
+            default:
+                throw new IllegalStateException("unknown overflowPolicy:" + overflowPolicy);
+        }
+    }
+
+    /**
+     * Decides every transaction that arrived before {@code expireTime}.
+     */
+    void flush(long expireTime) {
+        final List<SpanBo> spanList = new ArrayList<>();
+        final List<SpanChunkBo> spanChunkList = new ArrayList<>();
+        while (true) {
+            final PendingTransaction head = arrivalQueue.peek();
+            if (head == null || head.getFirstArrivalTime() > expireTime) {
+                break;
+            }
+            if (arrivalQueue.remove(head)) {
+                decide(head, spanList, spanChunkList);
+            }
+        }
+        write(spanList, spanChunkList);
+    }
+
+    private void decide(PendingTransaction pending, List<SpanBo> keptSpanList, List<SpanChunkBo> keptSpanChunkList) {
+        final List<SpanBo> spanList = new ArrayList<>();
+        final List<SpanChunkBo> spanChunkList = new ArrayList<>();
+        final boolean keep;
+        final long size;
+        synchronized (pending) {
+            spanList.addAll(pending.spanList);
+            spanChunkList.addAll(pending.spanChunkList);
+            size = pending.size;
+            keep = isSampled(pending.getTransactionId(), spanList, spanChunkList);
+            pending.close(keep);
+        }
+        decisions.put(pending.getTransactionId(), keep);
+        // removed last, a span arriving meanwhile finds either the closed transaction or the decision
+        transactions.remove(pending.getTransactionId(), pending);
+        bufferedSpans.addAndGet(-(spanList.size() + spanChunkList.size()));
+        bufferedBytes.addAndGet(-size);
+
+        if (keep) {
+            keptCount.inc();
+            keptSpanList.addAll(spanList);
+            keptSpanChunkList.addAll(spanChunkList);
+        } else {
+            droppedCount.inc();
+        }
+    }
+
+    boolean isSampled(TransactionId transactionId, List<SpanBo> spanList, List<SpanChunkBo> spanChunkList) {
+        for (SpanBo spanBo : spanList) {
+            if (errorRule && (spanBo.getErrCode() != 0 || spanBo.hasException() || hasException(spanBo.getSpanEventBoList()))) {
+                return true;
+            }
+            if (latencyThreshold > 0 && spanBo.getElapsed() >= latencyThreshold) {
+                return true;
+            }
+            if (spanBo.isRoot() && matchUrl(spanBo.getRpc())) {
+                return true;
+            }
+        }
+        if (errorRule) {
+            for (SpanChunkBo spanChunkBo : spanChunkList) {
+                if (hasException(spanChunkBo.getSpanEventBoList())) {
+                    return true;
+                }
+            }
+        }
+        return baselineRate > 0 && (transactionId.hashCode() & Integer.MAX_VALUE) % baselineRate == 0;
+    }
+
+    private boolean hasException(List<SpanEventBo> spanEventBoList) {
+        if (spanEventBoList == null) {
+            return false;
+        }
+        for (SpanEventBo spanEventBo : spanEventBoList) {
+            if (spanEventBo.hasException()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean matchUrl(String rpc) {
+        if (rpc == null) {
+            return false;
+        }
+        for (String urlPattern : urlPatterns) {
+            if (pathMatcher.match(urlPattern, rpc)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private long estimateSpanSize(Object span) {
+        if (span instanceof SpanBo) {
+            final SpanBo spanBo = (SpanBo) span;
+            long size = SPAN_SIZE;
+            size += estimateSize(spanBo.getAgentId()) + estimateSize(spanBo.getApplicationId()) + estimateSize(spanBo.getRpc());
+            size += estimateSize(spanBo.getEndPoint()) + estimateSize(spanBo.getRemoteAddr()) + estimateSize(spanBo.getAcceptorHost());
+            size += estimateSize(spanBo.getExceptionMessage());
+            size += estimateAnnotationSize(spanBo.getAnnotationBoList());
+            return size + estimateSpanEventSize(spanBo.getSpanEventBoList());
+        }
+        final SpanChunkBo spanChunkBo = (SpanChunkBo) span;
+        long size = SPAN_SIZE;
+        size += estimateSize(spanChunkBo.getAgentId()) + estimateSize(spanChunkBo.getApplicationId()) + estimateSize(spanChunkBo.getEndPoint());
+        return size + estimateSpanEventSize(spanChunkBo.getSpanEventBoList());
+    }
+
+    private long estimateSpanEventSize(List<SpanEventBo> spanEventBoList) {
+        if (spanEventBoList == null) {
+            return 0;
+        }
+        long size = 0;
+        for (SpanEventBo spanEventBo : spanEventBoList) {
+            size += SPAN_EVENT_SIZE;
+            size += estimateSize(spanEventBo.getRpc()) + estimateSize(spanEventBo.getEndPoint()) + estimateSize(spanEventBo.getDestinationId());
+            size += estimateSize(spanEventBo.getExceptionMessage());
+            size += estimateAnnotationSize(spanEventBo.getAnnotationBoList());
+        }
+        return size;
+    }
+
+    private long estimateAnnotationSize(List<AnnotationBo> annotationBoList) {
+        if (annotationBoList == null) {
+            return 0;
+        }
+        long size = 0;
+        for (AnnotationBo annotationBo : annotationBoList) {
+            size += ANNOTATION_SIZE;
+            final Object value = annotationBo.getValue();
+            if (value instanceof String) {
+                size += estimateSize((String) value);
+            } else if (value instanceof byte[]) {
+                size += ((byte[]) value).length;
+            }
+        }
+        return size;
+    }
+
+    private long estimateSize(String value) {
+        if (value == null) {
+            return 0;
+        }
+        return STRING_SIZE + 2L * value.length();
+    }
+
+    private void writeOrDrop(boolean keep, Object span) {
+        if (keep) {
+            write(span);
+        }
+    }
+
+    private void write(Object span) {
+        if (span instanceof SpanBo) {
+            write(Collections.singletonList((SpanBo) span), Collections.<SpanChunkBo>emptyList());
+        } else {
+            write(Collections.<SpanBo>emptyList(), Collections.singletonList((SpanChunkBo) span));
+        }
+    }
+
+    private void write(List<SpanBo> spanList, List<SpanChunkBo> spanChunkList) {
+        if (spanList.isEmpty() && spanChunkList.isEmpty()) {
+            return;
+        }
+        try {
+            traceDao.insertAll(spanList, spanChunkList);
+            for (SpanBo spanBo : spanList) {
+                applicationTraceIndexDao.insert(spanBo);
+            }
+        } catch (Exception e) {
+            logger.warn("TailSampling write error. spans:{}, spanChunks:{} Caused:{}", spanList.size(), spanChunkList.size(), e.getMessage(), e);
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (flushExecutor == null) {
+            return;
+        }
+        logger.info("stop TailSamplingBuffer transactions:{}, spans:{}", transactions.size(), bufferedSpans.get());
+        flushExecutor.shutdown();
+        try {
+            flushExecutor.awaitTermination(3000, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        // decide what is left with the spans received so far
+        flush(Long.MAX_VALUE);
+    }
+
+    @Override
+    public Map<String, Metric> getMetrics() {
+        if (!enable) {
+            return Collections.emptyMap();
+        }
+        final Map<String, Metric> metrics = new HashMap<>();
+        metrics.put(TAIL_SAMPLING + ".kept.count", keptCount);
+        metrics.put(TAIL_SAMPLING + ".dropped.count", droppedCount);
+        metrics.put(TAIL_SAMPLING + ".overflow.count", overflowCount);
+        metrics.put(TAIL_SAMPLING + ".late.count", lateSpanCount);
+        metrics.put(TAIL_SAMPLING + ".buffered.transactions", new Gauge<Integer>() {
+            @Override
+            public Integer getValue() {
+                return transactions.size();
+            }
+        });
+        metrics.put(TAIL_SAMPLING + ".buffered.spans", new Gauge<Integer>() {
+            @Override
+            public Integer getValue() {
+                return bufferedSpans.get();
+            }
+        });
+        metrics.put(TAIL_SAMPLING + ".buffered.bytes", new Gauge<Long>() {
+            @Override
+            public Long getValue() {
+                return bufferedBytes.get();
+            }
+        });
+        return Collections.unmodifiableMap(metrics);
+    }
+
+    private static class PendingTransaction {
+        private final TransactionId transactionId;
+        private final long firstArrivalTime;
+
+        private final List<SpanBo> spanList = new ArrayList<>();
+        private final List<SpanChunkBo> spanChunkList = new ArrayList<>();
+        private long size;
+        private boolean closed;
+        private boolean keep;
+
+        PendingTransaction(TransactionId transactionId, long firstArrivalTime) {
+            this.transactionId = transactionId;
+            this.firstArrivalTime = firstArrivalTime;
+        }
+
+        TransactionId getTransactionId() {
+            return transactionId;
+        }
+
+        long getFirstArrivalTime() {
+            return firstArrivalTime;
+        }
+
+        synchronized boolean add(Object span, long spanSize) {
+            if (closed) {
+                return false;
+            }
+            size += spanSize;
+            if (span instanceof SpanBo) {
+                spanList.add((SpanBo) span);
+            } else {
+                spanChunkList.add((SpanChunkBo) span);
+            }
+            return true;
+        }
+
+        synchronized void close(boolean keep) {
+            this.closed = true;
+            this.keep = keep;
+        }
+
+        synchronized boolean isKeep() {
+            return keep;
+        }
+    }
+}
@@ -51,8 +51,23 @@ public class TraceService {
     @Autowired
     private ServiceTypeRegistryService registry;
 
+    @Autowired
+    private TailSamplingBuffer tailSamplingBuffer;
+
     public void insertSpanChunk(final SpanChunkBo spanChunkBo) {
+        if (tailSamplingBuffer.isEnable()) {
+            insertSpanChunkStatistics(spanChunkBo);
+            tailSamplingBuffer.insertSpanChunk(spanChunkBo);
+            return;
+        }
         traceDao.insertSpanChunk(spanChunkBo);
+        insertSpanChunkStatistics(spanChunkBo);
+    }
+
+    /**
+     * Updates the statistics of a span chunk without writing the chunk itself.
+     */
+    public void insertSpanChunkStatistics(final SpanChunkBo spanChunkBo) {
         final ServiceType applicationServiceType = getApplicationServiceType(spanChunkBo);
         final List<SpanEventBo> spanEventList = spanChunkBo.getSpanEventBoList();
         if (spanEventList != null) {
@@ -67,8 +82,28 @@ public class TraceService {
     }
 
     public void insertSpan(final SpanBo spanBo) {
+        if (tailSamplingBuffer.isEnable()) {
+            // the trace and its index are written by the buffer if the transaction is sampled
+            insertSpanStatistics(spanBo);
+            tailSamplingBuffer.insertSpan(spanBo);
+            return;
+        }
         traceDao.insert(spanBo);
+        insertSpanIndexAndStatistics(spanBo);
+    }
+
+    /**
+     * Writes the trace index, host application map and statistics of a span without writing the span itself.
+     */
+    public void insertSpanIndexAndStatistics(final SpanBo spanBo) {
         applicationTraceIndexDao.insert(spanBo);
+        insertSpanStatistics(spanBo);
+    }
+
+    /**
+     * Writes the host application map and statistics of a span.
+     */
+    public void insertSpanStatistics(final SpanBo spanBo) {
         insertAcceptorHost(spanBo);
         insertSpanStat(spanBo);
         insertSpanEventStat(spanBo);
@@ -0,0 +1,86 @@
+/*
+ * Copyright 2019 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.navercorp.pinpoint.collector.util;
+
+import com.google.common.hash.HashFunction;
+import com.google.common.hash.Hashing;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Objects;
+import java.util.TreeMap;
+
+/**
+ * Immutable consistent hash ring.
+ * Each node is placed on the ring several times so that keys spread evenly,
+ * and adding or removing a node only moves the keys of that node.
+ */
+public class ConsistentHashRing<T> {
+
+    public static final int DEFAULT_VIRTUAL_NODE_COUNT = 64;
+
+    private static final HashFunction HASH_FUNCTION = Hashing.murmur3_32();
+
+    private final NavigableMap<Integer, T> ring;
+
+    /**
+     * @param nodes node id to node. The id decides where the node is placed on the ring.
+     */
+    public ConsistentHashRing(Map<String, T> nodes, int virtualNodeCount) {
+        Objects.requireNonNull(nodes, "nodes must not be null");
+        if (virtualNodeCount <= 0) {
+            throw new IllegalArgumentException("virtualNodeCount must be positive");
+        }
+        final NavigableMap<Integer, T> ring = new TreeMap<>();
+        for (Map.Entry<String, T> entry : nodes.entrySet()) {
+            final String nodeId = entry.getKey();
+            for (int i = 0; i < virtualNodeCount; i++) {
+                ring.put(hash(nodeId + "#" + i), entry.getValue());
+            }
+        }
+        this.ring = ring;
+    }
+
+    public ConsistentHashRing(Map<String, T> nodes) {
+        this(nodes, DEFAULT_VIRTUAL_NODE_COUNT);
+    }
+
+    private static int hash(String key) {
+        return HASH_FUNCTION.hashString(key, StandardCharsets.UTF_8).asInt();
+    }
+
+    /**
+     * @return the node owning the key, or {@code null} if the ring is empty
+     */
+    public T get(String key) {
+        Objects.requireNonNull(key, "key must not be null");
+        if (ring.isEmpty()) {
+            return null;
+        }
+        Map.Entry<Integer, T> entry = ring.ceilingEntry(hash(key));
+        if (entry == null) {
+            entry = ring.firstEntry();
+        }
+        return entry.getValue();
+    }
+
+    public boolean isEmpty() {
+        return ring.isEmpty();
+    }
+}
@@ -0,0 +1,69 @@
+/*
+ * Copyright 2019 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.navercorp.pinpoint.collector.util;
+
+import com.navercorp.pinpoint.common.server.bo.serializer.stat.AgentStatUtils;
+import com.navercorp.pinpoint.common.server.bo.stat.DataSourceBo;
+import com.navercorp.pinpoint.common.server.bo.stat.DataSourceListBo;
+import org.apache.commons.collections.map.MultiKeyMap;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Shared by the agent stat DAOs of every storage.
+ */
+public final class DataSourceListBoUtils {
+
+    private DataSourceListBoUtils() {
+    }
+
+    public static List<DataSourceListBo> reorderDataSourceListBos(List<DataSourceListBo> dataSourceListBos) {
+        // reorder dataSourceBo using id and timeSlot
+        MultiKeyMap dataSourceListBoMap = new MultiKeyMap();
+
+        for (DataSourceListBo dataSourceListBo : dataSourceListBos) {
+            for (DataSourceBo dataSourceBo : dataSourceListBo.getList()) {
+                int id = dataSourceBo.getId();
+                long timestamp = dataSourceBo.getTimestamp();
+                long timeSlot = AgentStatUtils.getBaseTimestamp(timestamp);
+
+                DataSourceListBo mappedDataSourceListBo = (DataSourceListBo) dataSourceListBoMap.get(id, timeSlot);
+                if (mappedDataSourceListBo == null) {
+                    mappedDataSourceListBo = new DataSourceListBo();
+                    mappedDataSourceListBo.setAgentId(dataSourceBo.getAgentId());
+                    mappedDataSourceListBo.setStartTimestamp(dataSourceBo.getStartTimestamp());
+                    mappedDataSourceListBo.setTimestamp(dataSourceBo.getTimestamp());
+
+                    dataSourceListBoMap.put(id, timeSlot, mappedDataSourceListBo);
+                }
+
+                // set fastest timestamp
+                if (mappedDataSourceListBo.getTimestamp() > dataSourceBo.getTimestamp()) {
+                    mappedDataSourceListBo.setTimestamp(dataSourceBo.getTimestamp());
+                }
+
+                mappedDataSourceListBo.add(dataSourceBo);
+            }
+        }
+
+        Collection values = dataSourceListBoMap.values();
+        return new ArrayList<DataSourceListBo>(values);
+    }
+}
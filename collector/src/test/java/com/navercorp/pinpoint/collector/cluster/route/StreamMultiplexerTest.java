@@ -0,0 +1,184 @@
+/*
+ * Copyright 2019 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.navercorp.pinpoint.collector.cluster.route;
+
+import com.navercorp.pinpoint.rpc.packet.stream.StreamClosePacket;
+import com.navercorp.pinpoint.rpc.packet.stream.StreamResponsePacket;
+import com.navercorp.pinpoint.rpc.stream.ClientStreamChannel;
+import com.navercorp.pinpoint.rpc.stream.ClientStreamChannelContext;
+import com.navercorp.pinpoint.rpc.stream.ClientStreamChannelMessageListener;
+import com.navercorp.pinpoint.rpc.stream.ServerStreamChannel;
+import com.navercorp.pinpoint.rpc.stream.ServerStreamChannelContext;
+import com.navercorp.pinpoint.rpc.stream.StreamChannelStateCode;
+import com.navercorp.pinpoint.thrift.dto.command.TCommandTransfer;
+import org.jboss.netty.channel.Channel;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class StreamMultiplexerTest {
+
+    private final byte[] serialized = new byte[]{1, 2, 3};
+
+    private StreamMultiplexer streamMultiplexer;
+    private ClientStreamChannel producer;
+    private AtomicInteger openCount;
+    private AtomicReference<ClientStreamChannelMessageListener> listener;
+
+    @Before
+    public void setUp() {
+        streamMultiplexer = new StreamMultiplexer(new DefaultRouteFilterChain<>(), new DefaultRouteFilterChain<>(), response -> serialized);
+        producer = mock(ClientStreamChannel.class);
+        openCount = new AtomicInteger();
+        listener = new AtomicReference<>();
+    }
+
+    @Test
+    public void shareProducer() {
+        ServerStreamChannel consumer1 = newConsumer();
+        ServerStreamChannel consumer2 = newConsumer();
+
+        StreamMultiplexer.SharedStreamConsumer sharedConsumer1 = streamMultiplexer.attach(newEvent("agent", consumer1), this::openStream);
+        StreamMultiplexer.SharedStreamConsumer sharedConsumer2 = streamMultiplexer.attach(newEvent("agent", consumer2), this::openStream);
+        Assert.assertNotNull(sharedConsumer1);
+        Assert.assertNotNull(sharedConsumer2);
+        Assert.assertEquals(1, openCount.get());
+        Assert.assertEquals(1, streamMultiplexer.getSharedStreamCount());
+
+        listener.get().handleStreamData(null, new StreamResponsePacket(1, new byte[0]));
+        verify(consumer1).sendData(serialized);
+        verify(consumer2).sendData(serialized);
+
+        sharedConsumer1.close();
+        verify(producer, never()).close();
+
+        sharedConsumer2.close();
+        verify(producer).close();
+        Assert.assertEquals(0, streamMultiplexer.getSharedStreamCount());
+    }
+
+    @Test
+    public void separateAgents() {
+        streamMultiplexer.attach(newEvent("agent1", newConsumer()), this::openStream);
+        streamMultiplexer.attach(newEvent("agent2", newConsumer()), this::openStream);
+
+        Assert.assertEquals(2, openCount.get());
+        Assert.assertEquals(2, streamMultiplexer.getSharedStreamCount());
+    }
+
+    @Test
+    public void producerClose() {
+        ServerStreamChannel consumer1 = newConsumer();
+        ServerStreamChannel consumer2 = newConsumer();
+        streamMultiplexer.attach(newEvent("agent", consumer1), this::openStream);
+        streamMultiplexer.attach(newEvent("agent", consumer2), this::openStream);
+
+        listener.get().handleStreamClose(null, new StreamClosePacket(1, (short) 0));
+
+        verify(consumer1).close();
+        verify(consumer2).close();
+        Assert.assertEquals(0, streamMultiplexer.getSharedStreamCount());
+
+        // a new consumer opens a new producer
+        streamMultiplexer.attach(newEvent("agent", newConsumer()), this::openStream);
+        Assert.assertEquals(2, openCount.get());
+    }
+
+    @Test
+    public void dropClosedConsumer() {
+        ServerStreamChannel consumer1 = newConsumer();
+        ServerStreamChannel consumer2 = newConsumer();
+        streamMultiplexer.attach(newEvent("agent", consumer1), this::openStream);
+        streamMultiplexer.attach(newEvent("agent", consumer2), this::openStream);
+
+        when(consumer1.getCurrentState()).thenReturn(StreamChannelStateCode.CLOSED);
+        listener.get().handleStreamData(null, new StreamResponsePacket(1, new byte[0]));
+        listener.get().handleStreamData(null, new StreamResponsePacket(1, new byte[0]));
+
+        verify(consumer1, never()).sendData(any(byte[].class));
+        verify(consumer2, times(2)).sendData(serialized);
+        verify(producer, never()).close();
+    }
+
+    @Test
+    public void filterPerConsumer() {
+        List<ResponseEvent> responseEvents = new CopyOnWriteArrayList<>();
+        DefaultRouteFilterChain<ResponseEvent> responseFilterChain = new DefaultRouteFilterChain<>();
+        responseFilterChain.addLast(responseEvents::add);
+        streamMultiplexer = new StreamMultiplexer(responseFilterChain, new DefaultRouteFilterChain<>(), response -> serialized);
+
+        StreamEvent event1 = newEvent("agent", newConsumer());
+        StreamEvent event2 = newEvent("agent", newConsumer());
+        SocketAddress address1 = new InetSocketAddress("127.0.0.1", 10001);
+        SocketAddress address2 = new InetSocketAddress("127.0.0.1", 10002);
+        when(event1.getRemoteAddress()).thenReturn(address1);
+        when(event2.getRemoteAddress()).thenReturn(address2);
+        streamMultiplexer.attach(event1, this::openStream);
+        streamMultiplexer.attach(event2, this::openStream);
+
+        listener.get().handleStreamData(null, new StreamResponsePacket(1, new byte[0]));
+
+        Assert.assertEquals(2, responseEvents.size());
+        Assert.assertEquals(address1, responseEvents.get(0).getRemoteAddress());
+        Assert.assertEquals(address2, responseEvents.get(1).getRemoteAddress());
+        Assert.assertNotSame(responseEvents.get(0).getRouteResult(), responseEvents.get(1).getRouteResult());
+    }
+
+    private ClientStreamChannelContext openStream(byte[] payload, ClientStreamChannelMessageListener messageListener) {
+        openCount.incrementAndGet();
+        listener.set(messageListener);
+        ClientStreamChannelContext producerContext = mock(ClientStreamChannelContext.class);
+        when(producerContext.getStreamChannel()).thenReturn(producer);
+        return producerContext;
+    }
+
+    private ServerStreamChannel newConsumer() {
+        ServerStreamChannel consumer = mock(ServerStreamChannel.class);
+        when(consumer.getCurrentState()).thenReturn(StreamChannelStateCode.CONNECTED);
+        when(consumer.getChannel()).thenReturn(mock(Channel.class));
+        return consumer;
+    }
+
+    private StreamEvent newEvent(String agentId, ServerStreamChannel consumer) {
+        ServerStreamChannelContext consumerContext = mock(ServerStreamChannelContext.class);
+        when(consumerContext.getStreamChannel()).thenReturn(consumer);
+
+        TCommandTransfer deliveryCommand = new TCommandTransfer();
+        deliveryCommand.setAgentId(agentId);
+        deliveryCommand.setStartTime(1000);
+        deliveryCommand.setPayload(new byte[]{10});
+
+        StreamEvent streamEvent = mock(StreamEvent.class);
+        when(streamEvent.getDeliveryCommand()).thenReturn(deliveryCommand);
+        when(streamEvent.getStreamChannelContext()).thenReturn(consumerContext);
+        return streamEvent;
+    }
+}
@@ -16,6 +16,7 @@
 
 package com.navercorp.pinpoint.collector.cluster.zookeeper;
 
+import com.navercorp.pinpoint.common.server.cluster.zookeeper.AgentShardCodec;
 import com.navercorp.pinpoint.common.server.cluster.zookeeper.exception.PinpointZookeeperException;
 import com.navercorp.pinpoint.common.util.BytesUtils;
 import com.navercorp.pinpoint.rpc.packet.HandshakePropertyType;
@@ -32,8 +33,10 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.ThreadLocalRandom;
 import java.util.concurrent.atomic.AtomicInteger;
 
@@ -53,6 +56,8 @@ public class ZookeeperJobWorkerTest {
 
     private static final String EMPTY_STRING = "";
 
+    private static final int SHARD_COUNT = 4;
+
     private final Logger logger = LoggerFactory.getLogger(this.getClass());
 
     private final TestAwaitUtils awaitUtils = new TestAwaitUtils(50, 3000);
@@ -156,6 +161,41 @@ public class ZookeeperJobWorkerTest {
         }
     }
 
+    @Test
+    public void shardedRegistryTest() throws Exception {
+        MockZookeeperClient zookeeperClient = new MockZookeeperClient();
+        zookeeperClient.connect();
+
+        ZookeeperJobWorker zookeeperWorker = new ZookeeperJobWorker(zookeeperClient, IDENTIFIER, SHARD_COUNT);
+        zookeeperWorker.start();
+
+        try {
+            List<PinpointServer> mockServerList = new ArrayList<>();
+            for (int i = 0; i < 20; i++) {
+                PinpointServer mockServer = createMockPinpointServer("app" + i, "agent" + i, System.currentTimeMillis());
+                mockServerList.add(mockServer);
+                zookeeperWorker.addPinpointServer(mockServer);
+            }
+
+            waitZookeeperShardData(20, zookeeperClient);
+            Assert.assertTrue(AgentShardCodec.isShardedMarker(zookeeperClient.getData(PATH)));
+            Assert.assertEquals(20, zookeeperWorker.getClusterList().size());
+
+            for (int i = 0; i < 5; i++) {
+                zookeeperWorker.removePinpointServer(mockServerList.get(i));
+            }
+            waitZookeeperShardData(15, zookeeperClient);
+            Assert.assertEquals(15, zookeeperWorker.getClusterList().size());
+
+            zookeeperWorker.clear();
+            waitZookeeperShardData(0, zookeeperClient);
+            Assert.assertEquals(0, zookeeperWorker.getClusterList().size());
+        } finally {
+            zookeeperWorker.stop();
+        }
+        Assert.assertFalse(zookeeperClient.exists(AgentShardCodec.AGENT_SHARD_PATH + "/" + IDENTIFIER));
+    }
+
     private PinpointServer createMockPinpointServer(String applicationName, String agentId, long startTimeStamp) {
         Map<Object, Object> properties = new HashMap<>();
         properties.put(HandshakePropertyType.APPLICATION_NAME.getName(), applicationName);
@@ -182,6 +222,34 @@ public class ZookeeperJobWorkerTest {
         return Arrays.asList(tokenArray);
     }
 
+    private Set<String> getShardData(ZookeeperClient zookeeperClient) throws PinpointZookeeperException, InterruptedException {
+        final Set<String> agentKeys = new HashSet<>();
+        for (int i = 0; i < SHARD_COUNT; i++) {
+            final String shardPath = AgentShardCodec.AGENT_SHARD_PATH + "/" + IDENTIFIER + "/" + i;
+            if (zookeeperClient.exists(shardPath)) {
+                agentKeys.addAll(AgentShardCodec.decode(zookeeperClient.getData(shardPath)));
+            }
+        }
+        return agentKeys;
+    }
+
+    private void waitZookeeperShardData(final int expectedAgentCount, final MockZookeeperClient zookeeperClient) {
+        // every other setData of the mock fails, so a change touching several shards is retried a few times
+        boolean pass = new TestAwaitUtils(50, 10000).await(new TestAwaitTaskUtils() {
+            @Override
+            public boolean checkCompleted() {
+                try {
+                    return expectedAgentCount == getShardData(zookeeperClient).size();
+                } catch (Exception e) {
+                    logger.warn(e.getMessage(), e);
+                }
+                return false;
+            }
+        });
+
+        Assert.assertTrue(pass);
+    }
+
     private void waitZookeeperServerData(final int expectedServerDataCount, final MockZookeeperClient zookeeperClient) {
         boolean pass = awaitUtils.await(new TestAwaitTaskUtils() {
             @Override
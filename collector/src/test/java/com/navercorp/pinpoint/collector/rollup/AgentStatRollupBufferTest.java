@@ -0,0 +1,139 @@
+/*
+ * Copyright 2019 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.navercorp.pinpoint.collector.rollup;
+
+import com.navercorp.pinpoint.common.server.bo.stat.AgentStatRollupResolution;
+import com.navercorp.pinpoint.common.server.bo.stat.CpuLoadBo;
+import com.navercorp.pinpoint.common.server.bo.stat.TransactionBo;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+public class AgentStatRollupBufferTest {
+
+    private static final String AGENT_ID = "testAgent";
+    private static final long START_TIMESTAMP = 1000L;
+    private static final long ONE_MINUTE = TimeUnit.MINUTES.toMillis(1);
+    private static final long FLUSH_DELAY = TimeUnit.MINUTES.toMillis(2);
+    // aligned to an hour
+    private static final long BASE = TimeUnit.HOURS.toMillis(400000);
+
+    @Test
+    public void interval_should_close_when_later_data_point_arrives() {
+        AgentStatRollupBuffer<CpuLoadBo> buffer = new AgentStatRollupBuffer<>(new CpuLoadRollupFunction(), FLUSH_DELAY);
+
+        List<CpuLoadBo> firstMinute = new ArrayList<>();
+        for (int i = 0; i < 12; i++) {
+            firstMinute.add(createCpuLoad(BASE + i * 5000, i % 2 == 0 ? 0.2 : 0.4));
+        }
+        Assert.assertTrue(buffer.add(AGENT_ID, firstMinute).isEmpty());
+
+        Map<AgentStatRollupResolution, List<CpuLoadBo>> closed = buffer.add(AGENT_ID, singletonList(createCpuLoad(BASE + ONE_MINUTE, 0.5)));
+        List<CpuLoadBo> rollups = closed.get(AgentStatRollupResolution.ONE_MINUTE);
+        Assert.assertEquals(1, rollups.size());
+        CpuLoadBo rollup = rollups.get(0);
+        Assert.assertEquals(BASE, rollup.getTimestamp());
+        Assert.assertEquals(START_TIMESTAMP, rollup.getStartTimestamp());
+        Assert.assertEquals(AGENT_ID, rollup.getAgentId());
+        Assert.assertEquals(0.3, rollup.getJvmCpuLoad(), 0.0001);
+        Assert.assertNull(closed.get(AgentStatRollupResolution.TEN_MINUTES));
+    }
+
+    @Test
+    public void coarser_resolutions_should_be_rolled_up_from_finer_ones() {
+        AgentStatRollupBuffer<TransactionBo> buffer = new AgentStatRollupBuffer<>(new TransactionRollupFunction(), FLUSH_DELAY);
+        List<TransactionBo> dataPoints = new ArrayList<>();
+        // one data point per minute for an hour, followed by a data point of the next hour
+        for (int i = 0; i <= 60; i++) {
+            dataPoints.add(createTransaction(BASE + i * ONE_MINUTE, ONE_MINUTE, 10));
+        }
+        Map<AgentStatRollupResolution, List<TransactionBo>> closed = buffer.add(AGENT_ID, dataPoints);
+
+        Assert.assertEquals(60, closed.get(AgentStatRollupResolution.ONE_MINUTE).size());
+        Assert.assertEquals(5, closed.get(AgentStatRollupResolution.TEN_MINUTES).size());
+        Assert.assertNull(closed.get(AgentStatRollupResolution.ONE_HOUR));
+
+        Map<AgentStatRollupResolution, List<TransactionBo>> flushed = buffer.flushExpired(BASE + TimeUnit.HOURS.toMillis(3));
+        List<TransactionBo> hourly = flushed.get(AgentStatRollupResolution.ONE_HOUR);
+        Assert.assertEquals(2, hourly.size());
+        TransactionBo firstHour = hourly.get(0);
+        Assert.assertEquals(BASE, firstHour.getTimestamp());
+        Assert.assertEquals(TimeUnit.HOURS.toMillis(1), firstHour.getCollectInterval());
+        Assert.assertEquals(600, firstHour.getSampledNewCount());
+        Assert.assertEquals(0, buffer.getAgentCount());
+    }
+
+    @Test
+    public void flushExpired_should_keep_open_intervals() {
+        AgentStatRollupBuffer<CpuLoadBo> buffer = new AgentStatRollupBuffer<>(new CpuLoadRollupFunction(), FLUSH_DELAY);
+        buffer.add(AGENT_ID, singletonList(createCpuLoad(BASE, 0.1)));
+
+        Assert.assertTrue(buffer.flushExpired(BASE + ONE_MINUTE + FLUSH_DELAY - 1).isEmpty());
+
+        Map<AgentStatRollupResolution, List<CpuLoadBo>> flushed = buffer.flushExpired(BASE + ONE_MINUTE + FLUSH_DELAY);
+        Assert.assertEquals(1, flushed.get(AgentStatRollupResolution.ONE_MINUTE).size());
+        Assert.assertNull(flushed.get(AgentStatRollupResolution.TEN_MINUTES));
+        Assert.assertEquals(1, buffer.getAgentCount());
+    }
+
+    @Test
+    public void late_data_points_should_be_dropped() {
+        AgentStatRollupBuffer<CpuLoadBo> buffer = new AgentStatRollupBuffer<>(new CpuLoadRollupFunction(), FLUSH_DELAY);
+        buffer.add(AGENT_ID, singletonList(createCpuLoad(BASE, 0.1)));
+        buffer.add(AGENT_ID, singletonList(createCpuLoad(BASE + ONE_MINUTE, 0.1)));
+
+        Assert.assertTrue(buffer.add(AGENT_ID, singletonList(createCpuLoad(BASE + 5000, 0.9))).isEmpty());
+
+        List<CpuLoadBo> rollups = buffer.add(AGENT_ID, singletonList(createCpuLoad(BASE + 2 * ONE_MINUTE, 0.1))).get(AgentStatRollupResolution.ONE_MINUTE);
+        Assert.assertEquals(1, rollups.size());
+        Assert.assertEquals(BASE + ONE_MINUTE, rollups.get(0).getTimestamp());
+    }
+
+    private static <T> List<T> singletonList(T dataPoint) {
+        List<T> dataPoints = new ArrayList<>();
+        dataPoints.add(dataPoint);
+        return dataPoints;
+    }
+
+    private static CpuLoadBo createCpuLoad(long timestamp, double cpuLoad) {
+        CpuLoadBo cpuLoadBo = new CpuLoadBo();
+        cpuLoadBo.setAgentId(AGENT_ID);
+        cpuLoadBo.setStartTimestamp(START_TIMESTAMP);
+        cpuLoadBo.setTimestamp(timestamp);
+        cpuLoadBo.setJvmCpuLoad(cpuLoad);
+        cpuLoadBo.setSystemCpuLoad(cpuLoad);
+        return cpuLoadBo;
+    }
+
+    private static TransactionBo createTransaction(long timestamp, long collectInterval, long count) {
+        TransactionBo transactionBo = new TransactionBo();
+        transactionBo.setAgentId(AGENT_ID);
+        transactionBo.setStartTimestamp(START_TIMESTAMP);
+        transactionBo.setTimestamp(timestamp);
+        transactionBo.setCollectInterval(collectInterval);
+        transactionBo.setSampledNewCount(count);
+        transactionBo.setSampledContinuationCount(count);
+        transactionBo.setUnsampledNewCount(count);
+        transactionBo.setUnsampledContinuationCount(count);
+        return transactionBo;
+    }
+}
@@ -0,0 +1,137 @@
+/*
+ * Copyright 2019 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.navercorp.pinpoint.collector.service;
+
+import com.google.common.base.Ticker;
+import com.navercorp.pinpoint.collector.dao.AgentInfoDao;
+import com.navercorp.pinpoint.common.server.bo.AgentInfoBo;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+public class AgentApplicationCacheTest {
+
+    @Test
+    public void putAgentInfo() {
+        TestAgentInfoDao agentInfoDao = new TestAgentInfoDao();
+        AgentApplicationCache cache = new AgentApplicationCache(agentInfoDao);
+
+        cache.put(newAgentInfoBo("agent", 1000, "app"));
+
+        Assert.assertEquals("app", cache.getApplicationName("agent", 1000));
+        Assert.assertEquals(0, agentInfoDao.lookupCount);
+    }
+
+    @Test
+    public void lookupAgentInfo() {
+        TestAgentInfoDao agentInfoDao = new TestAgentInfoDao();
+        agentInfoDao.applicationNames.put("agent.1000", "app");
+        AgentApplicationCache cache = new AgentApplicationCache(agentInfoDao);
+
+        Assert.assertEquals("app", cache.getApplicationName("agent", 1000));
+        Assert.assertEquals("app", cache.getApplicationName("agent", 1000));
+        Assert.assertEquals(1, agentInfoDao.lookupCount);
+    }
+
+    @Test
+    public void unknownAgentIsLookedUpAgain() {
+        TestAgentInfoDao agentInfoDao = new TestAgentInfoDao();
+        TestTicker ticker = new TestTicker();
+        AgentApplicationCache cache = new AgentApplicationCache(agentInfoDao, ticker);
+
+        Assert.assertNull(cache.getApplicationName("agent", 1000));
+        // the agent info is stored by another collector later
+        agentInfoDao.applicationNames.put("agent.1000", "app");
+        Assert.assertNull(cache.getApplicationName("agent", 1000));
+        Assert.assertEquals(1, agentInfoDao.lookupCount);
+
+        ticker.advance(AgentApplicationCache.UNKNOWN_EXPIRE_MILLIS + 1);
+        Assert.assertEquals("app", cache.getApplicationName("agent", 1000));
+        Assert.assertEquals(2, agentInfoDao.lookupCount);
+    }
+
+    @Test
+    public void failedLookupIsCached() {
+        TestAgentInfoDao agentInfoDao = new TestAgentInfoDao();
+        agentInfoDao.fail = true;
+        AgentApplicationCache cache = new AgentApplicationCache(agentInfoDao, new TestTicker());
+
+        Assert.assertNull(cache.getApplicationName("agent", 1000));
+        Assert.assertNull(cache.getApplicationName("agent", 1000));
+        Assert.assertEquals(1, agentInfoDao.lookupCount);
+
+        // the agent info received by this collector replaces the unknown entry
+        cache.put(newAgentInfoBo("agent", 1000, "app"));
+        Assert.assertEquals("app", cache.getApplicationName("agent", 1000));
+    }
+
+    @Test
+    public void restartedAgent() {
+        TestAgentInfoDao agentInfoDao = new TestAgentInfoDao();
+        AgentApplicationCache cache = new AgentApplicationCache(agentInfoDao);
+
+        cache.put(newAgentInfoBo("agent", 1000, "app"));
+        cache.put(newAgentInfoBo("agent", 2000, "app2"));
+
+        Assert.assertEquals("app", cache.getApplicationName("agent", 1000));
+        Assert.assertEquals("app2", cache.getApplicationName("agent", 2000));
+    }
+
+    private AgentInfoBo newAgentInfoBo(String agentId, long startTime, String applicationName) {
+        AgentInfoBo.Builder builder = new AgentInfoBo.Builder();
+        builder.setAgentId(agentId);
+        builder.setStartTime(startTime);
+        builder.setApplicationName(applicationName);
+        return builder.build();
+    }
+
+    private static class TestAgentInfoDao implements AgentInfoDao {
+        private final Map<String, String> applicationNames = new HashMap<>();
+        private int lookupCount;
+        private boolean fail;
+
+        @Override
+        public void insert(AgentInfoBo agentInfo) {
+        }
+
+        @Override
+        public String getApplicationName(String agentId, long agentStartTime) {
+            lookupCount++;
+            if (fail) {
+                throw new IllegalStateException("lookup failed");
+            }
+            return applicationNames.get(agentId + "." + agentStartTime);
+        }
+    }
+
+    private static class TestTicker extends Ticker {
+        private long nanos;
+
+        private void advance(long millis) {
+            nanos += TimeUnit.MILLISECONDS.toNanos(millis);
+        }
+
+        @Override
+        public long read() {
+            return nanos;
+        }
+    }
+}
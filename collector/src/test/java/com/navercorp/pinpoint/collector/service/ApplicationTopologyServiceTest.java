@@ -0,0 +1,119 @@
+/*
+ * Copyright 2019 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.navercorp.pinpoint.collector.service;
+
+import com.navercorp.pinpoint.collector.config.CollectorConfiguration;
+import com.navercorp.pinpoint.collector.dao.ApplicationTopologyDao;
+import com.navercorp.pinpoint.common.server.bo.TopologyEdgeBo;
+import com.navercorp.pinpoint.common.server.util.AcceptedTimeService;
+import com.navercorp.pinpoint.common.trace.ServiceType;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.util.Collection;
+import java.util.Collections;
+
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class ApplicationTopologyServiceTest {
+
+    private static final long START_TIME = 10 * TopologyEdgeBo.BUCKET_MILLIS;
+
+    private ApplicationTopologyDao applicationTopologyDao;
+    private AcceptedTimeService acceptedTimeService;
+    private ApplicationTopologyService applicationTopologyService;
+
+    @Before
+    public void setUp() {
+        CollectorConfiguration configuration = new CollectorConfiguration();
+        configuration.setTopologyEnable(true);
+        applicationTopologyDao = mock(ApplicationTopologyDao.class);
+        acceptedTimeService = mock(AcceptedTimeService.class);
+        when(acceptedTimeService.getAcceptedTime()).thenReturn(START_TIME + 1000);
+        applicationTopologyService = new ApplicationTopologyService(configuration, applicationTopologyDao, acceptedTimeService);
+    }
+
+    @Test
+    public void flushNewEdgesOnce() {
+        applicationTopologyService.recordCaller("app", ServiceType.STAND_ALONE, "db", ServiceType.UNKNOWN_DB);
+        applicationTopologyService.recordCaller("app", ServiceType.STAND_ALONE, "db", ServiceType.UNKNOWN_DB);
+        applicationTopologyService.recordCallee("app", ServiceType.STAND_ALONE, "user", ServiceType.USER);
+        applicationTopologyService.flush();
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<Collection<TopologyEdgeBo>> captor = ArgumentCaptor.forClass(Collection.class);
+        verify(applicationTopologyDao).insert(eq(START_TIME), captor.capture());
+        Assert.assertEquals(2, captor.getValue().size());
+        Assert.assertTrue(captor.getValue().contains(new TopologyEdgeBo(TopologyEdgeBo.Direction.CALLER, "app", ServiceType.STAND_ALONE.getCode(), "db", ServiceType.UNKNOWN_DB.getCode())));
+        Assert.assertTrue(captor.getValue().contains(new TopologyEdgeBo(TopologyEdgeBo.Direction.CALLEE, "user", ServiceType.USER.getCode(), "app", ServiceType.STAND_ALONE.getCode())));
+
+        // known edges are not written again
+        applicationTopologyService.recordCaller("app", ServiceType.STAND_ALONE, "db", ServiceType.UNKNOWN_DB);
+        applicationTopologyService.flush();
+        verify(applicationTopologyDao, times(1)).insert(anyLong(), anyCollection());
+    }
+
+    @Test
+    public void newBucket() {
+        applicationTopologyService.recordCaller("app", ServiceType.STAND_ALONE, "db", ServiceType.UNKNOWN_DB);
+        applicationTopologyService.flush();
+
+        when(acceptedTimeService.getAcceptedTime()).thenReturn(START_TIME + TopologyEdgeBo.BUCKET_MILLIS);
+        applicationTopologyService.recordCaller("app", ServiceType.STAND_ALONE, "db", ServiceType.UNKNOWN_DB);
+        applicationTopologyService.flush();
+        verify(applicationTopologyDao).insert(eq(START_TIME + TopologyEdgeBo.BUCKET_MILLIS), anyCollection());
+        Assert.assertEquals(2, applicationTopologyService.getBucketCount());
+
+        when(acceptedTimeService.getAcceptedTime()).thenReturn(START_TIME + 3 * TopologyEdgeBo.BUCKET_MILLIS);
+        applicationTopologyService.flush();
+        Assert.assertEquals(0, applicationTopologyService.getBucketCount());
+    }
+
+    @Test
+    public void retryFailedInsert() {
+        doThrow(new RuntimeException("test")).doNothing().when(applicationTopologyDao).insert(anyLong(), anyCollection());
+
+        applicationTopologyService.recordCaller("app", ServiceType.STAND_ALONE, "db", ServiceType.UNKNOWN_DB);
+        applicationTopologyService.flush();
+        applicationTopologyService.flush();
+        applicationTopologyService.flush();
+
+        verify(applicationTopologyDao, times(2)).insert(START_TIME, Collections.singletonList(
+                new TopologyEdgeBo(TopologyEdgeBo.Direction.CALLER, "app", ServiceType.STAND_ALONE.getCode(), "db", ServiceType.UNKNOWN_DB.getCode())));
+    }
+
+    @Test
+    public void disabled() {
+        applicationTopologyService = new ApplicationTopologyService(new CollectorConfiguration(), applicationTopologyDao, acceptedTimeService);
+        applicationTopologyService.recordCaller("app", ServiceType.STAND_ALONE, "db", ServiceType.UNKNOWN_DB);
+        applicationTopologyService.flush();
+
+        verify(applicationTopologyDao, never()).insert(anyLong(), anyCollection());
+        Assert.assertEquals(0, applicationTopologyService.getBucketCount());
+    }
+}
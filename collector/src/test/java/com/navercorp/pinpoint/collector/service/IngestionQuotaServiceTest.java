@@ -0,0 +1,151 @@
+/*
+ * Copyright 2019 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.navercorp.pinpoint.collector.service;
+
+import com.codahale.metrics.Counter;
+import com.navercorp.pinpoint.collector.config.CollectorConfiguration;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class IngestionQuotaServiceTest {
+
+    private final AtomicLong clock = new AtomicLong(1000);
+
+    @Test
+    public void disabled() {
+        CollectorConfiguration configuration = newConfiguration(1, 0, 0, "");
+        configuration.setQuotaEnable(false);
+        IngestionQuotaService quotaService = new IngestionQuotaService(configuration, clock::get);
+
+        Assert.assertEquals(100, acquireSpans(quotaService, "app", "agent", 100));
+    }
+
+    @Test
+    public void agentQuota() {
+        IngestionQuotaService quotaService = new IngestionQuotaService(newConfiguration(10, 0, 0, ""), clock::get);
+
+        Assert.assertEquals(10, acquireSpans(quotaService, "app", "agent1", 20));
+        // other agents of the application are not affected
+        Assert.assertEquals(10, acquireSpans(quotaService, "app", "agent2", 20));
+
+        clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(100));
+        Assert.assertEquals(1, acquireSpans(quotaService, "app", "agent1", 20));
+        Assert.assertEquals(39, ((Counter) quotaService.getMetrics().get("collector.quota.span.rejected")).getCount());
+    }
+
+    @Test
+    public void applicationQuota() {
+        IngestionQuotaService quotaService = new IngestionQuotaService(newConfiguration(0, 5, 0, ""), clock::get);
+
+        Assert.assertEquals(5, acquireSpans(quotaService, "app", "agent1", 10) + acquireSpans(quotaService, "app", "agent2", 10));
+        Assert.assertEquals(5, acquireSpans(quotaService, "other", "agent3", 10));
+    }
+
+    @Test
+    public void weightedShare() {
+        IngestionQuotaService quotaService = new IngestionQuotaService(newConfiguration(0, 0, 30, "appA:2"), clock::get);
+        acquireSpans(quotaService, "appA", "agentA", 100);
+        acquireSpans(quotaService, "appB", "agentB", 100);
+
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(1));
+        Assert.assertEquals(20, acquireSpans(quotaService, "appA", "agentA", 100));
+        Assert.assertEquals(10, acquireSpans(quotaService, "appB", "agentB", 100));
+    }
+
+    @Test
+    public void unusedShareGoesToOthers() {
+        IngestionQuotaService quotaService = new IngestionQuotaService(newConfiguration(0, 0, 30, "appA:2"), clock::get);
+        acquireSpans(quotaService, "appA", "agentA", 1);
+        acquireSpans(quotaService, "appB", "agentB", 100);
+
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(1));
+        Assert.assertEquals(29, acquireSpans(quotaService, "appB", "agentB", 100));
+    }
+
+    @Test
+    public void samplingHint() {
+        CollectorConfiguration configuration = newConfiguration(10, 0, 0, "");
+        configuration.setQuotaHintEnable(true);
+        IngestionQuotaService quotaService = new IngestionQuotaService(configuration, clock::get);
+        List<String> hints = new ArrayList<>();
+        quotaService.setQuotaExceededListener((applicationName, agentId, throttleRate, durationMillis) ->
+                hints.add(applicationName + "/" + agentId + "/" + throttleRate + "/" + durationMillis));
+
+        // the first hint waits for a second of counts
+        acquireSpans(quotaService, "app", "agent", 40);
+        Assert.assertTrue(hints.isEmpty());
+
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(1));
+        acquireSpans(quotaService, "app", "agent", 40);
+        // 20 of 51 spans accepted when the hint was sent
+        Assert.assertEquals(1, hints.size());
+        Assert.assertEquals("app/agent/3/60000", hints.get(0));
+    }
+
+    @Test
+    public void statQuota() {
+        CollectorConfiguration configuration = newConfiguration(0, 0, 0, "");
+        configuration.setQuotaStatAgentRate(2);
+        IngestionQuotaService quotaService = new IngestionQuotaService(configuration, clock::get);
+
+        Assert.assertTrue(quotaService.acquireStat("agent"));
+        Assert.assertTrue(quotaService.acquireStat("agent"));
+        Assert.assertFalse(quotaService.acquireStat("agent"));
+        Assert.assertTrue(quotaService.acquireStat("other"));
+    }
+
+    @Test
+    public void parseWeights() {
+        Map<String, Double> weights = IngestionQuotaService.parseWeights("appA:2, appB:0.5");
+        Assert.assertEquals(2.0, weights.get("appA"), 0.0);
+        Assert.assertEquals(0.5, weights.get("appB"), 0.0);
+        Assert.assertTrue(IngestionQuotaService.parseWeights("").isEmpty());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void parseInvalidWeight() {
+        IngestionQuotaService.parseWeights("appA:0");
+    }
+
+    private int acquireSpans(IngestionQuotaService quotaService, String applicationName, String agentId, int count) {
+        int acquired = 0;
+        for (int i = 0; i < count; i++) {
+            if (quotaService.acquireSpan(applicationName, agentId)) {
+                acquired++;
+            }
+        }
+        return acquired;
+    }
+
+    private CollectorConfiguration newConfiguration(int agentRate, int applicationRate, int totalRate, String weights) {
+        CollectorConfiguration configuration = new CollectorConfiguration();
+        configuration.setQuotaEnable(true);
+        configuration.setQuotaSpanAgentRate(agentRate);
+        configuration.setQuotaSpanApplicationRate(applicationRate);
+        configuration.setQuotaSpanTotalRate(totalRate);
+        configuration.setQuotaApplicationWeights(weights);
+        configuration.setQuotaHintDurationMillis(60000);
+        return configuration;
+    }
+}
@@ -0,0 +1,168 @@
+/*
+ * Copyright 2019 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.navercorp.pinpoint.collector.service;
+
+import com.navercorp.pinpoint.collector.config.CollectorConfiguration;
+import com.navercorp.pinpoint.collector.dao.TraceDao;
+import com.navercorp.pinpoint.common.server.bo.SpanBo;
+import com.navercorp.pinpoint.common.server.bo.SpanChunkBo;
+import org.junit.Assert;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.atLeast;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+public class SpanIngestionPipelineTest {
+
+    @Test
+    public void disabled() {
+        TraceService traceService = mock(TraceService.class);
+        TraceDao traceDao = mock(TraceDao.class);
+        SpanIngestionPipeline pipeline = new SpanIngestionPipeline(newConfiguration(false), traceService, traceDao);
+        pipeline.start();
+
+        SpanBo spanBo = new SpanBo();
+        pipeline.insertSpan(spanBo);
+
+        verify(traceService).insertSpan(spanBo);
+        verify(traceDao, never()).insertAll(anyList(), anyList());
+        Assert.assertTrue(pipeline.getMetrics().isEmpty());
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    public void batchWrite() {
+        TraceService traceService = mock(TraceService.class);
+        TraceDao traceDao = mock(TraceDao.class);
+        SpanIngestionPipeline pipeline = new SpanIngestionPipeline(newConfiguration(true), traceService, traceDao);
+        pipeline.start();
+
+        SpanBo spanBo1 = new SpanBo();
+        SpanBo spanBo2 = new SpanBo();
+        SpanChunkBo spanChunkBo = new SpanChunkBo();
+        pipeline.insertSpan(spanBo1);
+        pipeline.insertSpanChunk(spanChunkBo);
+        pipeline.insertSpan(spanBo2);
+        pipeline.stop();
+
+        verify(traceService).insertSpanIndexAndStatistics(spanBo1);
+        verify(traceService).insertSpanIndexAndStatistics(spanBo2);
+        verify(traceService).insertSpanChunkStatistics(spanChunkBo);
+        verify(traceService, never()).insertSpan(any(SpanBo.class));
+
+        ArgumentCaptor<List> spanCaptor = ArgumentCaptor.forClass(List.class);
+        ArgumentCaptor<List> spanChunkCaptor = ArgumentCaptor.forClass(List.class);
+        verify(traceDao, atLeastOnce()).insertAll(spanCaptor.capture(), spanChunkCaptor.capture());
+        List<Object> written = new ArrayList<>();
+        for (List spanList : spanCaptor.getAllValues()) {
+            written.addAll(spanList);
+        }
+        for (List spanChunkList : spanChunkCaptor.getAllValues()) {
+            written.addAll(spanChunkList);
+        }
+        Assert.assertEquals(3, written.size());
+        Assert.assertTrue(written.contains(spanBo1));
+        Assert.assertTrue(written.contains(spanBo2));
+        Assert.assertTrue(written.contains(spanChunkBo));
+        verify(traceDao, never()).insert(any(SpanBo.class));
+    }
+
+    @Test
+    public void insertAfterStop() {
+        TraceService traceService = mock(TraceService.class);
+        TraceDao traceDao = mock(TraceDao.class);
+        SpanIngestionPipeline pipeline = new SpanIngestionPipeline(newConfiguration(true), traceService, traceDao);
+        pipeline.start();
+        pipeline.stop();
+
+        SpanChunkBo spanChunkBo = new SpanChunkBo();
+        pipeline.insertSpanChunk(spanChunkBo);
+
+        verify(traceService, times(1)).insertSpanChunk(spanChunkBo);
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    public void stopWritesQueuedSpans() throws Exception {
+        TraceService traceService = mock(TraceService.class);
+        TraceDao traceDao = mock(TraceDao.class);
+        final CountDownLatch neverReleased = new CountDownLatch(1);
+        final AtomicBoolean first = new AtomicBoolean(true);
+        // the enrich stage is stuck on the first span until stop interrupts it
+        doAnswer(new Answer<Void>() {
+            @Override
+            public Void answer(InvocationOnMock invocation) throws Throwable {
+                if (first.compareAndSet(true, false)) {
+                    neverReleased.await();
+                }
+                return null;
+            }
+        }).when(traceService).insertSpanIndexAndStatistics(any(SpanBo.class));
+
+        CollectorConfiguration configuration = newConfiguration(true);
+        configuration.setSpanPipelineThreadSize(1);
+        SpanIngestionPipeline pipeline = new SpanIngestionPipeline(configuration, traceService, traceDao);
+        pipeline.start();
+
+        List<SpanBo> spanBoList = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            SpanBo spanBo = new SpanBo();
+            spanBoList.add(spanBo);
+            pipeline.insertSpan(spanBo);
+        }
+        pipeline.stop();
+
+        ArgumentCaptor<List> spanCaptor = ArgumentCaptor.forClass(List.class);
+        verify(traceDao, atLeast(0)).insertAll(spanCaptor.capture(), anyList());
+        ArgumentCaptor<SpanBo> insertedSpanCaptor = ArgumentCaptor.forClass(SpanBo.class);
+        verify(traceService, atLeast(0)).insertSpan(insertedSpanCaptor.capture());
+        List<Object> written = new ArrayList<>();
+        for (List spanList : spanCaptor.getAllValues()) {
+            written.addAll(spanList);
+        }
+        written.addAll(insertedSpanCaptor.getAllValues());
+        for (SpanBo spanBo : spanBoList) {
+            Assert.assertTrue(written.contains(spanBo));
+        }
+    }
+
+    private CollectorConfiguration newConfiguration(boolean enable) {
+        CollectorConfiguration configuration = new CollectorConfiguration();
+        configuration.setSpanPipelineEnable(enable);
+        configuration.setSpanPipelineThreadSize(2);
+        configuration.setSpanPipelineQueueSize(16);
+        configuration.setSpanPipelineBatchSize(8);
+        configuration.setSpanPipelineBatchWindow(50);
+        return configuration;
+    }
+}
@@ -0,0 +1,221 @@
+/*
+ * Copyright 2019 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.navercorp.pinpoint.collector.service;
+
+import com.codahale.metrics.Counter;
+import com.codahale.metrics.Gauge;
+import com.navercorp.pinpoint.collector.config.CollectorConfiguration;
+import com.navercorp.pinpoint.collector.dao.ApplicationTraceIndexDao;
+import com.navercorp.pinpoint.collector.dao.TraceDao;
+import com.navercorp.pinpoint.common.server.bo.SpanBo;
+import com.navercorp.pinpoint.common.server.bo.SpanChunkBo;
+import com.navercorp.pinpoint.common.util.TransactionId;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+public class TailSamplingBufferTest {
+
+    @Test
+    public void keepErrorTransaction() {
+        TraceDao traceDao = mock(TraceDao.class);
+        ApplicationTraceIndexDao indexDao = mock(ApplicationTraceIndexDao.class);
+        TailSamplingBuffer buffer = new TailSamplingBuffer(newConfiguration("persist", 100), traceDao, indexDao);
+
+        SpanBo errorSpan = newSpan(1, 10);
+        errorSpan.setErrCode(1);
+        SpanChunkBo spanChunkBo = newSpanChunk(1);
+        buffer.insertSpan(errorSpan);
+        buffer.insertSpanChunk(spanChunkBo);
+        verify(traceDao, never()).insertAll(anyList(), anyList());
+
+        buffer.flush(Long.MAX_VALUE);
+
+        verify(traceDao).insertAll(Collections.singletonList(errorSpan), Collections.singletonList(spanChunkBo));
+        verify(indexDao).insert(errorSpan);
+        Assert.assertEquals(1, ((Counter) buffer.getMetrics().get("collector.span.tailsampling.kept.count")).getCount());
+    }
+
+    @Test
+    public void dropFastTransaction() {
+        TraceDao traceDao = mock(TraceDao.class);
+        ApplicationTraceIndexDao indexDao = mock(ApplicationTraceIndexDao.class);
+        TailSamplingBuffer buffer = new TailSamplingBuffer(newConfiguration("persist", 100), traceDao, indexDao);
+
+        buffer.insertSpan(newSpan(1, 10));
+        buffer.flush(Long.MAX_VALUE);
+
+        verify(traceDao, never()).insertAll(anyList(), anyList());
+        verify(indexDao, never()).insert(any(SpanBo.class));
+        Assert.assertEquals(1, ((Counter) buffer.getMetrics().get("collector.span.tailsampling.dropped.count")).getCount());
+    }
+
+    @Test
+    public void keepSlowAndUrlTransaction() {
+        TraceDao traceDao = mock(TraceDao.class);
+        ApplicationTraceIndexDao indexDao = mock(ApplicationTraceIndexDao.class);
+        TailSamplingBuffer buffer = new TailSamplingBuffer(newConfiguration("persist", 100), traceDao, indexDao);
+
+        SpanBo slowSpan = newSpan(1, 1000);
+        SpanBo urlSpan = newSpan(2, 10);
+        urlSpan.setRpc("/order/checkout");
+        buffer.insertSpan(slowSpan);
+        buffer.insertSpan(urlSpan);
+        buffer.flush(Long.MAX_VALUE);
+
+        verify(indexDao).insert(slowSpan);
+        verify(indexDao).insert(urlSpan);
+    }
+
+    @Test
+    public void lateSpanFollowsDecision() {
+        TraceDao traceDao = mock(TraceDao.class);
+        ApplicationTraceIndexDao indexDao = mock(ApplicationTraceIndexDao.class);
+        TailSamplingBuffer buffer = new TailSamplingBuffer(newConfiguration("persist", 100), traceDao, indexDao);
+
+        SpanBo slowSpan = newSpan(1, 1000);
+        buffer.insertSpan(slowSpan);
+        buffer.flush(Long.MAX_VALUE);
+
+        SpanChunkBo lateSpanChunk = newSpanChunk(1);
+        buffer.insertSpanChunk(lateSpanChunk);
+
+        verify(traceDao).insertAll(Collections.<SpanBo>emptyList(), Collections.singletonList(lateSpanChunk));
+    }
+
+    @Test
+    public void overflowPersist() {
+        TraceDao traceDao = mock(TraceDao.class);
+        ApplicationTraceIndexDao indexDao = mock(ApplicationTraceIndexDao.class);
+        TailSamplingBuffer buffer = new TailSamplingBuffer(newConfiguration("persist", 1), traceDao, indexDao);
+
+        buffer.insertSpan(newSpan(1, 10));
+        SpanBo overflowSpan = newSpan(2, 10);
+        buffer.insertSpan(overflowSpan);
+
+        verify(indexDao).insert(overflowSpan);
+    }
+
+    @Test
+    public void overflowEvict() {
+        TraceDao traceDao = mock(TraceDao.class);
+        ApplicationTraceIndexDao indexDao = mock(ApplicationTraceIndexDao.class);
+        TailSamplingBuffer buffer = new TailSamplingBuffer(newConfiguration("evict", 1), traceDao, indexDao);
+
+        SpanBo slowSpan = newSpan(1, 1000);
+        buffer.insertSpan(slowSpan);
+        SpanBo fastSpan = newSpan(2, 10);
+        buffer.insertSpan(fastSpan);
+
+        // the oldest transaction is decided early, the new one is buffered
+        verify(indexDao).insert(slowSpan);
+        verify(indexDao, never()).insert(fastSpan);
+    }
+
+    @Test
+    public void overflowBytes() {
+        TraceDao traceDao = mock(TraceDao.class);
+        ApplicationTraceIndexDao indexDao = mock(ApplicationTraceIndexDao.class);
+        CollectorConfiguration configuration = newConfiguration("persist", 100);
+        configuration.setTailSamplingMaxBytes(1);
+        TailSamplingBuffer buffer = new TailSamplingBuffer(configuration, traceDao, indexDao);
+
+        SpanBo bufferedSpan = newSpan(1, 10);
+        buffer.insertSpan(bufferedSpan);
+        SpanBo overflowSpan = newSpan(2, 10);
+        buffer.insertSpan(overflowSpan);
+
+        verify(indexDao, never()).insert(bufferedSpan);
+        verify(indexDao).insert(overflowSpan);
+        Assert.assertEquals(1, ((Counter) buffer.getMetrics().get("collector.span.tailsampling.overflow.count")).getCount());
+    }
+
+    @Test
+    public void spanArrivingDuringDecisionFollowsIt() throws Exception {
+        TraceDao traceDao = mock(TraceDao.class);
+        ApplicationTraceIndexDao indexDao = mock(ApplicationTraceIndexDao.class);
+        final SpanChunkBo concurrentSpanChunk = newSpanChunk(1);
+        final AtomicReference<Thread> inserter = new AtomicReference<>();
+        final TailSamplingBuffer buffer = new TailSamplingBuffer(newConfiguration("persist", 100), traceDao, indexDao) {
+            @Override
+            boolean isSampled(TransactionId transactionId, List<SpanBo> spanList, List<SpanChunkBo> spanChunkList) {
+                if (inserter.get() == null) {
+                    Thread thread = new Thread(new Runnable() {
+                        @Override
+                        public void run() {
+                            insertSpanChunk(concurrentSpanChunk);
+                        }
+                    });
+                    inserter.set(thread);
+                    thread.start();
+                    try {
+                        thread.join(200);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+                return super.isSampled(transactionId, spanList, spanChunkList);
+            }
+        };
+
+        SpanBo slowSpan = newSpan(1, 1000);
+        buffer.insertSpan(slowSpan);
+        buffer.flush(Long.MAX_VALUE);
+        inserter.get().join(3000);
+
+        // the span chunk is written with the decision instead of opening a new transaction
+        verify(traceDao).insertAll(Collections.<SpanBo>emptyList(), Collections.singletonList(concurrentSpanChunk));
+        Assert.assertEquals(0, ((Gauge<?>) buffer.getMetrics().get("collector.span.tailsampling.buffered.transactions")).getValue());
+    }
+
+    private CollectorConfiguration newConfiguration(String overflowPolicy, int maxTransactions) {
+        CollectorConfiguration configuration = new CollectorConfiguration();
+        configuration.setTailSamplingEnable(true);
+        configuration.setTailSamplingWindow(1000);
+        configuration.setTailSamplingMaxTransactions(maxTransactions);
+        configuration.setTailSamplingMaxBytes(1024 * 1024);
+        configuration.setTailSamplingOverflowPolicy(overflowPolicy);
+        configuration.setTailSamplingErrorRule(true);
+        configuration.setTailSamplingLatencyThreshold(500);
+        configuration.setTailSamplingUrlPatterns("/order/**");
+        configuration.setTailSamplingBaselineRate(0);
+        return configuration;
+    }
+
+    private SpanBo newSpan(long sequence, int elapsed) {
+        SpanBo spanBo = new SpanBo();
+        spanBo.setTransactionId(new TransactionId("agentId", 1000, sequence));
+        spanBo.setParentSpanId(-1);
+        spanBo.setElapsed(elapsed);
+        return spanBo;
+    }
+
+    private SpanChunkBo newSpanChunk(long sequence) {
+        SpanChunkBo spanChunkBo = new SpanChunkBo();
+        spanChunkBo.setTransactionId(new TransactionId("agentId", 1000, sequence));
+        return spanChunkBo;
+    }
+}
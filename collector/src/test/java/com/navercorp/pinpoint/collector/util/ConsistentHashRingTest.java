@@ -0,0 +1,71 @@
+/*
+ * Copyright 2019 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.navercorp.pinpoint.collector.util;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+public class ConsistentHashRingTest {
+
+    @Test
+    public void emptyRing() {
+        ConsistentHashRing<String> ring = new ConsistentHashRing<>(Collections.<String, String>emptyMap());
+        Assert.assertTrue(ring.isEmpty());
+        Assert.assertNull(ring.get("agent"));
+    }
+
+    @Test
+    public void sameKeySameNode() {
+        ConsistentHashRing<String> ring = new ConsistentHashRing<>(newNodes(3));
+        for (int i = 0; i < 100; i++) {
+            String key = "agent" + i;
+            Assert.assertEquals(ring.get(key), ring.get(key));
+        }
+    }
+
+    @Test
+    public void removeNode_onlyMovesKeysOfRemovedNode() {
+        Map<String, String> nodes = newNodes(4);
+        ConsistentHashRing<String> ring = new ConsistentHashRing<>(nodes);
+
+        nodes.remove("node3");
+        ConsistentHashRing<String> shrunkRing = new ConsistentHashRing<>(nodes);
+
+        for (int i = 0; i < 1000; i++) {
+            String key = "agent" + i;
+            String before = ring.get(key);
+            if (!"node3".equals(before)) {
+                Assert.assertEquals(before, shrunkRing.get(key));
+            } else {
+                Assert.assertNotEquals("node3", shrunkRing.get(key));
+            }
+        }
+    }
+
+    private Map<String, String> newNodes(int count) {
+        Map<String, String> nodes = new HashMap<>();
+        for (int i = 0; i < count; i++) {
+            nodes.put("node" + i, "node" + i);
+        }
+        return nodes;
+    }
+}
@@ -44,6 +44,11 @@ public final class HBaseTables {
     public static final TableName AGENT_STAT_VER2 = TableName.valueOf(AGENT_STAT_VER2_STR);
     public static final byte[] AGENT_STAT_CF_STATISTICS = Bytes.toBytes("S"); // agent statistics column family
 
+    // rolled up agent statistics, one table per resolution (see AgentStatRollupResolution)
+    public static final String AGENT_STAT_ROLLUP_1M_STR = "AgentStatV2Rollup1M";
+    public static final String AGENT_STAT_ROLLUP_10M_STR = "AgentStatV2Rollup10M";
+    public static final String AGENT_STAT_ROLLUP_1H_STR = "AgentStatV2Rollup1H";
+
     public static final String TRACE_V2_STR = "TraceV2";
     @Deprecated
     public static final TableName TRACE_V2 = TableName.valueOf(TRACE_V2_STR);
@@ -111,6 +116,11 @@ public final class HBaseTables {
     public static final TableName HOST_APPLICATION_MAP_VER2 = TableName.valueOf(HOST_APPLICATION_MAP_VER2_STR);
     public static final byte[] HOST_APPLICATION_MAP_VER2_CF_MAP = Bytes.toBytes("M");
 
+    public static final String APPLICATION_TOPOLOGY_STR = "ApplicationTopology";
+    @Deprecated
+    public static final TableName APPLICATION_TOPOLOGY = TableName.valueOf(APPLICATION_TOPOLOGY_STR);
+    public static final byte[] APPLICATION_TOPOLOGY_CF_EDGE = Bytes.toBytes("E");
+
     public static final int APPLICATION_STAT_TIMESPAN_MS = 5 * 60 * 1000;
     public static final String APPLICATION_STAT_AGGRE_STR = "ApplicationStatAggre";
     @Deprecated
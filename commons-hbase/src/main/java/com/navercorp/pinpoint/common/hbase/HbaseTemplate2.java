@@ -18,6 +18,7 @@ package com.navercorp.pinpoint.common.hbase;
 
 import com.google.common.collect.Lists;
 import com.navercorp.pinpoint.common.hbase.parallel.ParallelResultScanner;
+import com.navercorp.pinpoint.common.hbase.parallel.ParallelScanScheduler;
 import com.navercorp.pinpoint.common.hbase.parallel.ScanTaskException;
 import com.navercorp.pinpoint.common.util.ExecutorFactory;
 import com.navercorp.pinpoint.common.util.PinpointThreadFactory;
@@ -74,6 +75,8 @@ public class HbaseTemplate2 extends HbaseAccessor implements HbaseOperations2, I
     private boolean enableParallelScan = false;
     private int maxThreads = DEFAULT_MAX_THREADS_FOR_PARALLEL_SCANNER;
     private int maxThreadsPerParallelScan = DEFAULT_MAX_THREADS_PER_PARALLEL_SCAN;
+    private int maxConcurrentParallelScanTasks = -1;
+    private ParallelScanScheduler parallelScanScheduler;
 
     private HBaseAsyncOperation asyncOperation = DisabledHBaseAsyncOperation.INSTANCE;
 
@@ -96,6 +99,13 @@ public class HbaseTemplate2 extends HbaseAccessor implements HbaseOperations2, I
         this.maxThreadsPerParallelScan = maxThreadsPerParallelScan;
     }
 
+    /**
+     * Global budget of scan tasks shared by all concurrent parallel scans. Defaults to {@code maxThreads}.
+     */
+    public void setMaxConcurrentParallelScanTasks(int maxConcurrentParallelScanTasks) {
+        this.maxConcurrentParallelScanTasks = maxConcurrentParallelScanTasks;
+    }
+
     public void setAsyncOperation(HBaseAsyncOperation asyncOperation) {
         if (asyncOperation == null) {
             throw new NullPointerException("asyncOperation");
@@ -115,6 +125,8 @@ public class HbaseTemplate2 extends HbaseAccessor implements HbaseOperations2, I
         } else {
             this.executor = ExecutorFactory.newFixedThreadPool(this.maxThreads, 1024, parallelScannerThreadFactory);
         }
+        final int maxConcurrentTasks = this.maxConcurrentParallelScanTasks > 0 ? this.maxConcurrentParallelScanTasks : this.maxThreads;
+        this.parallelScanScheduler = new ParallelScanScheduler(getTableFactory(), Math.max(maxConcurrentTasks, 1));
     }
 
     @Override
@@ -504,21 +516,33 @@ public class HbaseTemplate2 extends HbaseAccessor implements HbaseOperations2, I
                 }
             });
         }
-        List<List<Callable<T>>> callablePartitions = Lists.partition(callables, this.maxThreadsPerParallelScan);
-        for (List<Callable<T>> callablePartition : callablePartitions) {
-            try {
-                List<Future<T>> futures = this.executor.invokeAll(callablePartition);
-                for (Future<T> future : futures) {
-                    results.add(future.get());
+        final int permits;
+        try {
+            permits = this.parallelScanScheduler.acquire(Math.min(callables.size(), this.maxThreadsPerParallelScan), null);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            logger.warn("interrupted while findParallel [{}].", tableName);
+            return Collections.emptyList();
+        }
+        try {
+            List<List<Callable<T>>> callablePartitions = Lists.partition(callables, permits);
+            for (List<Callable<T>> callablePartition : callablePartitions) {
+                try {
+                    List<Future<T>> futures = this.executor.invokeAll(callablePartition);
+                    for (Future<T> future : futures) {
+                        results.add(future.get());
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    logger.warn("interrupted while findParallel [{}].", tableName);
+                    return Collections.emptyList();
+                } catch (ExecutionException e) {
+                    logger.warn("findParallel [{}], error : {}", tableName, e);
+                    return Collections.emptyList();
                 }
-            } catch (InterruptedException e) {
-                Thread.currentThread().interrupt();
-                logger.warn("interrupted while findParallel [{}].", tableName);
-                return Collections.emptyList();
-            } catch (ExecutionException e) {
-                logger.warn("findParallel [{}], error : {}", tableName, e);
-                return Collections.emptyList();
             }
+        } finally {
+            this.parallelScanScheduler.release(permits);
         }
         return results;
     }
@@ -670,7 +694,7 @@ public class HbaseTemplate2 extends HbaseAccessor implements HbaseOperations2, I
                 watch = new StopWatch();
                 watch.start();
             }
-            ParallelResultScanner scanner = new ParallelResultScanner(tableName, this, this.executor, scan, rowKeyDistributor, numParallelThreads);
+            ParallelResultScanner scanner = new ParallelResultScanner(tableName, this, this.executor, scan, rowKeyDistributor, numParallelThreads, this.parallelScanScheduler);
             if (debugEnabled) {
                 logger.debug("ParallelDistributedScanner createTime: {}ms", watch.stop());
                 watch.start();
@@ -680,7 +704,7 @@ public class HbaseTemplate2 extends HbaseAccessor implements HbaseOperations2, I
             } finally {
                 scanner.close();
                 if (debugEnabled) {
-                    logger.debug("ParallelDistributedScanner scanTime: {}ms", watch.stop());
+                    logger.debug("ParallelDistributedScanner scanTime: {}ms, table:{}, {}", watch.stop(), tableName, scanner.getScanMetric());
                 }
             }
         } catch (Throwable th) {
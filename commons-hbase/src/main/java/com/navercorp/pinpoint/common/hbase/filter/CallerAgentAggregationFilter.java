@@ -0,0 +1,171 @@
+/*
+ * Copyright 2019 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.navercorp.pinpoint.common.hbase.filter;
+
+import com.navercorp.pinpoint.common.buffer.Buffer;
+import com.navercorp.pinpoint.common.buffer.OffsetFixedBuffer;
+import com.navercorp.pinpoint.common.util.BytesUtils;
+import org.apache.hadoop.hbase.Cell;
+import org.apache.hadoop.hbase.CellUtil;
+import org.apache.hadoop.hbase.KeyValue;
+import org.apache.hadoop.hbase.exceptions.DeserializationException;
+import org.apache.hadoop.hbase.filter.FilterBase;
+import org.apache.hadoop.hbase.util.Bytes;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Merges the caller agent dimension of map statistics counter cells on the region server.
+ * <p>
+ * Counter qualifiers of the caller statistics table are laid out as
+ * {@code calleeServiceType(2) + calleeApplicationName + calleeHost + histogramSlot(2) + callerAgentId}.
+ * Cells of a row that differ only by the caller agent are summed into a single cell whose caller agent id is empty,
+ * so the row carries one counter per callee, host and histogram slot regardless of the number of caller agents.
+ * <p>
+ * The filter must be on the region server classpath (pinpoint-commons-hbase and pinpoint-commons).
+ * {@link #aggregate(List)} applies the same merge on the client when it is not.
+ */
+public class CallerAgentAggregationFilter extends FilterBase {
+
+    private static final byte[] EMPTY_AGENT_ID;
+
+    static {
+        Buffer buffer = new OffsetFixedBuffer(new byte[BytesUtils.VINT_MAX_SIZE]);
+        buffer.putPrefixedString("");
+        EMPTY_AGENT_ID = buffer.copyBuffer();
+    }
+
+    @Override
+    public ReturnCode filterKeyValue(Cell cell) throws IOException {
+        return ReturnCode.INCLUDE;
+    }
+
+    @Override
+    public boolean hasFilterRow() {
+        return true;
+    }
+
+    @Override
+    public void filterRowCells(List<Cell> cells) throws IOException {
+        if (cells.size() <= 1) {
+            return;
+        }
+        List<Cell> aggregated = aggregate(cells);
+        cells.clear();
+        cells.addAll(aggregated);
+    }
+
+    /**
+     * Sums the cells of a single row that differ only by the caller agent.
+     * Cells must be sorted by qualifier, as they are within a row.
+     */
+    public static List<Cell> aggregate(List<Cell> cells) {
+        final List<Cell> aggregated = new ArrayList<>(cells.size());
+        Cell first = null;
+        int firstKeyLength = -1;
+        long sum = 0;
+        long timestamp = 0;
+        int merged = 0;
+        for (Cell cell : cells) {
+            final int keyLength = getLinkKeyLength(cell);
+            if (first != null && keyLength == firstKeyLength && sameLinkKey(first, cell, keyLength)) {
+                sum += getValue(cell);
+                timestamp = Math.max(timestamp, cell.getTimestamp());
+                merged++;
+                continue;
+            }
+            if (first != null) {
+                aggregated.add(merge(first, firstKeyLength, sum, timestamp, merged));
+            }
+            first = cell;
+            firstKeyLength = keyLength;
+            sum = getValue(cell);
+            timestamp = cell.getTimestamp();
+            merged = 1;
+        }
+        if (first != null) {
+            aggregated.add(merge(first, firstKeyLength, sum, timestamp, merged));
+        }
+        return aggregated;
+    }
+
+    private static Cell merge(Cell first, int linkKeyLength, long sum, long timestamp, int merged) {
+        if (linkKeyLength < 0 || (merged == 1 && isEmptyAgentId(first, linkKeyLength))) {
+            return first;
+        }
+        final byte[] qualifier = new byte[linkKeyLength + EMPTY_AGENT_ID.length];
+        System.arraycopy(first.getQualifierArray(), first.getQualifierOffset(), qualifier, 0, linkKeyLength);
+        System.arraycopy(EMPTY_AGENT_ID, 0, qualifier, linkKeyLength, EMPTY_AGENT_ID.length);
+        return new KeyValue(CellUtil.cloneRow(first), CellUtil.cloneFamily(first), qualifier, timestamp, KeyValue.Type.Put, Bytes.toBytes(sum));
+    }
+
+    private static boolean isEmptyAgentId(Cell cell, int linkKeyLength) {
+        return Bytes.equals(cell.getQualifierArray(), cell.getQualifierOffset() + linkKeyLength, cell.getQualifierLength() - linkKeyLength,
+                EMPTY_AGENT_ID, 0, EMPTY_AGENT_ID.length);
+    }
+
+    private static boolean sameLinkKey(Cell cell1, Cell cell2, int linkKeyLength) {
+        return Bytes.equals(cell1.getQualifierArray(), cell1.getQualifierOffset(), linkKeyLength,
+                cell2.getQualifierArray(), cell2.getQualifierOffset(), linkKeyLength);
+    }
+
+    private static long getValue(Cell cell) {
+        if (cell.getValueLength() != Bytes.SIZEOF_LONG) {
+            return 0;
+        }
+        return Bytes.toLong(cell.getValueArray(), cell.getValueOffset());
+    }
+
+    /**
+     * Returns the length of the qualifier up to the caller agent id, or -1 if the qualifier cannot be parsed.
+     */
+    static int getLinkKeyLength(Cell cell) {
+        try {
+            final Buffer buffer = new OffsetFixedBuffer(cell.getQualifierArray(), cell.getQualifierOffset(), cell.getQualifierLength());
+            buffer.readShort();
+            skipPrefixedBytes(buffer);
+            skipPrefixedBytes(buffer);
+            buffer.readShort();
+            final int linkKeyLength = buffer.getOffset() - cell.getQualifierOffset();
+            if (linkKeyLength > cell.getQualifierLength()) {
+                return -1;
+            }
+            return linkKeyLength;
+        } catch (RuntimeException e) {
+            return -1;
+        }
+    }
+
+    private static void skipPrefixedBytes(Buffer buffer) {
+        final int size = buffer.readSVInt();
+        if (size > 0) {
+            buffer.setOffset(buffer.getOffset() + size);
+        }
+    }
+
+    @Override
+    public byte[] toByteArray() throws IOException {
+        return new byte[0];
+    }
+
+    public static CallerAgentAggregationFilter parseFrom(final byte[] pbBytes) throws DeserializationException {
+        return new CallerAgentAggregationFilter();
+    }
+}
@@ -26,6 +26,7 @@ import org.apache.hadoop.hbase.client.Scan;
 import org.apache.hadoop.hbase.util.Bytes;
 
 import java.io.IOException;
+import java.io.InterruptedIOException;
 import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
@@ -39,9 +40,21 @@ public class ParallelResultScanner implements ResultScanner {
     private final AbstractRowKeyDistributor keyDistributor;
     private final List<ScanTask> scanTasks;
     private final Result[] nextResults;
+    private final ScanMetric scanMetric = new ScanMetric();
+    private final ParallelScanScheduler scanScheduler;
+    private int permits;
+    private boolean closed = false;
     private Result next = null;
 
     public ParallelResultScanner(TableName tableName, HbaseAccessor hbaseAccessor, ExecutorService executor, Scan originalScan, AbstractRowKeyDistributor keyDistributor, int numParallelThreads) throws IOException {
+        this(tableName, hbaseAccessor, executor, originalScan, keyDistributor, numParallelThreads, null);
+    }
+
+    /**
+     * @param scanScheduler if not {@code null}, scans are split on region boundaries and the number of scan tasks is
+     *                      limited by the permits borrowed from the scheduler's global budget until {@link #close()}
+     */
+    public ParallelResultScanner(TableName tableName, HbaseAccessor hbaseAccessor, ExecutorService executor, Scan originalScan, AbstractRowKeyDistributor keyDistributor, int numParallelThreads, ParallelScanScheduler scanScheduler) throws IOException {
         if (hbaseAccessor == null) {
             throw new NullPointerException("hbaseAccessor must not be null");
         }
@@ -55,14 +68,33 @@ public class ParallelResultScanner implements ResultScanner {
             throw new NullPointerException("originalScan must not be null");
         }
         this.keyDistributor = keyDistributor;
+        this.scanScheduler = scanScheduler;
 
         final ScanTaskConfig scanTaskConfig = new ScanTaskConfig(tableName, hbaseAccessor, keyDistributor, originalScan.getCaching());
-        final Scan[] splitScans = splitScans(originalScan);
+        Scan[] splitScans = splitScans(originalScan);
+        int numTasks = numParallelThreads;
+        if (scanScheduler != null) {
+            splitScans = scanScheduler.splitOnRegionBoundaries(tableName, splitScans, scanMetric);
+            try {
+                this.permits = scanScheduler.acquire(Math.min(numParallelThreads, splitScans.length), scanMetric);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("interrupted while waiting for scan budget");
+            }
+            numTasks = this.permits;
+        }
 
-        this.scanTasks = createScanTasks(scanTaskConfig, splitScans, numParallelThreads);
+        this.scanTasks = createScanTasks(scanTaskConfig, splitScans, numTasks);
         this.nextResults = new Result[scanTasks.size()];
-        for (ScanTask scanTask : scanTasks) {
-            executor.execute(scanTask);
+        this.scanMetric.setScans(splitScans.length);
+        this.scanMetric.setTasks(scanTasks.size());
+        try {
+            for (ScanTask scanTask : scanTasks) {
+                executor.execute(scanTask);
+            }
+        } catch (RuntimeException e) {
+            close();
+            throw e;
         }
     }
 
@@ -79,7 +111,7 @@ public class ParallelResultScanner implements ResultScanner {
         if (splitScans.length <= numParallelThreads) {
             List<ScanTask> scanTasks = new ArrayList<>(splitScans.length);
             for (Scan scan : splitScans) {
-                scanTasks.add(new ScanTask(scanTaskConfig, scan));
+                scanTasks.add(new ScanTask(scanTaskConfig, scanMetric, scan));
             }
             return scanTasks;
         } else {
@@ -94,7 +126,7 @@ public class ParallelResultScanner implements ResultScanner {
             List<ScanTask> scanTasks = new ArrayList<>(numParallelThreads);
             for (List<Scan> scanDistribution : scanDistributions) {
                 Scan[] scansForSingleTask = scanDistribution.toArray(new Scan[0]);
-                scanTasks.add(new ScanTask(scanTaskConfig, scansForSingleTask));
+                scanTasks.add(new ScanTask(scanTaskConfig, scanMetric, scansForSingleTask));
             }
             return scanTasks;
         }
@@ -173,9 +205,20 @@ public class ParallelResultScanner implements ResultScanner {
 
     @Override
     public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
         for (ScanTask scanTask : this.scanTasks) {
             scanTask.close();
         }
+        if (scanScheduler != null) {
+            scanScheduler.release(permits);
+        }
+    }
+
+    public ScanMetric getScanMetric() {
+        return scanMetric;
     }
 
     @Override
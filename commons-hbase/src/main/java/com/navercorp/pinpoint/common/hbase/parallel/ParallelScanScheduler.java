@@ -0,0 +1,235 @@
+/*
+ * Copyright 2019 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.navercorp.pinpoint.common.hbase.parallel;
+
+import com.navercorp.pinpoint.common.hbase.TableFactory;
+import org.apache.hadoop.hbase.HConstants;
+import org.apache.hadoop.hbase.TableName;
+import org.apache.hadoop.hbase.client.RegionLocator;
+import org.apache.hadoop.hbase.client.Scan;
+import org.apache.hadoop.hbase.client.Table;
+import org.apache.hadoop.hbase.util.Bytes;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Schedules the scan tasks of parallel scans.
+ * <p>
+ * Every query borrows task permits from a global budget shared by all concurrent parallel scans, so that a wide query
+ * degrades to fewer tasks under load instead of queueing ahead of every other query on the scanner thread pool.
+ * Scans are also split on region boundaries so that each task reads from a single region.
+ *
+ * @see ParallelResultScanner
+ */
+public class ParallelScanScheduler {
+
+    private static final long DEFAULT_REGION_BOUNDARY_REFRESH_INTERVAL = TimeUnit.MINUTES.toMillis(1);
+
+    private final Logger logger = LoggerFactory.getLogger(this.getClass());
+
+    private final TableFactory tableFactory;
+    private final Semaphore budget;
+    private final int maxConcurrentTasks;
+    private final long regionBoundaryRefreshInterval;
+
+    private final ConcurrentMap<TableName, RegionBoundaries> regionBoundariesCache = new ConcurrentHashMap<>();
+
+    public ParallelScanScheduler(TableFactory tableFactory, int maxConcurrentTasks) {
+        this(tableFactory, maxConcurrentTasks, DEFAULT_REGION_BOUNDARY_REFRESH_INTERVAL);
+    }
+
+    public ParallelScanScheduler(TableFactory tableFactory, int maxConcurrentTasks, long regionBoundaryRefreshInterval) {
+        this.tableFactory = Objects.requireNonNull(tableFactory, "tableFactory must not be null");
+        if (maxConcurrentTasks <= 0) {
+            throw new IllegalArgumentException("maxConcurrentTasks must be positive");
+        }
+        this.maxConcurrentTasks = maxConcurrentTasks;
+        this.budget = new Semaphore(maxConcurrentTasks, true);
+        this.regionBoundaryRefreshInterval = regionBoundaryRefreshInterval;
+    }
+
+    public int getMaxConcurrentTasks() {
+        return maxConcurrentTasks;
+    }
+
+    public int getAvailableTasks() {
+        return budget.availablePermits();
+    }
+
+    /**
+     * Blocks until at least one task permit is available, then takes as many more as are free, up to {@code requested}.
+     *
+     * @return the number of permits granted, which must be given back with {@link #release(int)}
+     */
+    public int acquire(int requested, ScanMetric scanMetric) throws InterruptedException {
+        if (requested <= 0) {
+            throw new IllegalArgumentException("requested must be positive");
+        }
+        final int limit = Math.min(requested, maxConcurrentTasks);
+        final long startTime = System.nanoTime();
+        budget.acquire();
+        if (scanMetric != null) {
+            scanMetric.setBudgetWaitTime(System.nanoTime() - startTime);
+        }
+        int granted = 1;
+        while (granted < limit && budget.tryAcquire()) {
+            granted++;
+        }
+        return granted;
+    }
+
+    public void release(int permits) {
+        if (permits > 0) {
+            budget.release(permits);
+        }
+    }
+
+    /**
+     * Splits each scan at the start keys of the regions it covers. Reversed scans and scans of tables whose region
+     * boundaries cannot be resolved are returned as they are.
+     */
+    public Scan[] splitOnRegionBoundaries(TableName tableName, Scan[] scans, ScanMetric scanMetric) throws IOException {
+        final byte[][] startKeys = getRegionStartKeys(tableName);
+        if (startKeys.length <= 1) {
+            setRegions(scanMetric, 1);
+            return scans;
+        }
+        final boolean[] touched = new boolean[startKeys.length];
+        final List<Scan> splitScans = new ArrayList<>(scans.length);
+        for (Scan scan : scans) {
+            if (scan.isReversed()) {
+                splitScans.add(scan);
+                markTouched(touched, startKeys, scan.getStopRow(), scan.getStartRow());
+                continue;
+            }
+            final byte[] startRow = scan.getStartRow();
+            final byte[] stopRow = scan.getStopRow();
+            final int startRegion = findRegion(startKeys, startRow);
+            final int endRegion = findRegion(startKeys, stopRow, startKeys.length - 1);
+            if (startRegion >= endRegion) {
+                touched[startRegion] = true;
+                splitScans.add(scan);
+                continue;
+            }
+            byte[] subStartRow = startRow;
+            for (int region = startRegion; region <= endRegion; region++) {
+                final byte[] subStopRow = region == endRegion ? stopRow : startKeys[region + 1];
+                if (Bytes.equals(subStartRow, subStopRow)) {
+                    continue;
+                }
+                final Scan subScan = new Scan(scan);
+                subScan.setStartRow(subStartRow);
+                subScan.setStopRow(subStopRow);
+                subScan.setId(scan.getId() + "-r" + region);
+                splitScans.add(subScan);
+                touched[region] = true;
+                subStartRow = subStopRow;
+            }
+        }
+        int regions = 0;
+        for (boolean regionTouched : touched) {
+            if (regionTouched) {
+                regions++;
+            }
+        }
+        setRegions(scanMetric, regions);
+        return splitScans.toArray(new Scan[0]);
+    }
+
+    private void setRegions(ScanMetric scanMetric, int regions) {
+        if (scanMetric != null) {
+            scanMetric.setRegions(regions);
+        }
+    }
+
+    private void markTouched(boolean[] touched, byte[][] startKeys, byte[] lowRow, byte[] highRow) {
+        final int from = findRegion(startKeys, lowRow);
+        final int to = findRegion(startKeys, highRow, startKeys.length - 1);
+        for (int region = from; region <= to; region++) {
+            touched[region] = true;
+        }
+    }
+
+    private int findRegion(byte[][] startKeys, byte[] row) {
+        return findRegion(startKeys, row, 0);
+    }
+
+    /**
+     * Returns the index of the region containing {@code row}, or {@code emptyRowRegion} for an unbounded row.
+     */
+    static int findRegion(byte[][] startKeys, byte[] row, int emptyRowRegion) {
+        if (row == null || row.length == 0) {
+            return emptyRowRegion;
+        }
+        int index = Arrays.binarySearch(startKeys, row, Bytes.BYTES_COMPARATOR);
+        if (index < 0) {
+            // insertion point - 1 : the region whose start key precedes the row
+            index = -index - 2;
+        }
+        return Math.max(index, 0);
+    }
+
+    private byte[][] getRegionStartKeys(TableName tableName) {
+        final long currentTime = System.currentTimeMillis();
+        RegionBoundaries regionBoundaries = regionBoundariesCache.get(tableName);
+        if (regionBoundaries != null && currentTime - regionBoundaries.loadTime < regionBoundaryRefreshInterval) {
+            return regionBoundaries.startKeys;
+        }
+        final byte[][] startKeys = loadRegionStartKeys(tableName);
+        regionBoundariesCache.put(tableName, new RegionBoundaries(startKeys, currentTime));
+        return startKeys;
+    }
+
+    private byte[][] loadRegionStartKeys(TableName tableName) {
+        final Table table = tableFactory.getTable(tableName);
+        try {
+            if (table instanceof RegionLocator) {
+                byte[][] startKeys = ((RegionLocator) table).getStartKeys();
+                if (startKeys != null && startKeys.length > 0 && startKeys[0].length == 0) {
+                    // first region always starts with HConstants.EMPTY_START_ROW
+                    return startKeys;
+                }
+            }
+        } catch (IOException e) {
+            logger.warn("Failed to load region boundaries of {}. Caused:{}", tableName, e.getMessage(), e);
+        } finally {
+            tableFactory.releaseTable(table);
+        }
+        return new byte[][] {HConstants.EMPTY_START_ROW};
+    }
+
+    private static class RegionBoundaries {
+        private final byte[][] startKeys;
+        private final long loadTime;
+
+        private RegionBoundaries(byte[][] startKeys, long loadTime) {
+            this.startKeys = startKeys;
+            this.loadTime = loadTime;
+        }
+    }
+}
@@ -0,0 +1,110 @@
+/*
+ * Copyright 2019 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.navercorp.pinpoint.common.hbase.parallel;
+
+import org.apache.hadoop.hbase.client.Result;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Per-query counters of a parallel scan. Updated concurrently by every {@link ScanTask} of the query.
+ */
+public class ScanMetric {
+
+    private final AtomicLong rows = new AtomicLong();
+    private final AtomicLong bytes = new AtomicLong();
+    private final AtomicLong queueWaitNanos = new AtomicLong();
+
+    private volatile int scans;
+    private volatile int regions;
+    private volatile int tasks;
+    private volatile long budgetWaitNanos;
+
+    void addResult(Result result) {
+        rows.incrementAndGet();
+        bytes.addAndGet(Result.getTotalSizeOfCells(result));
+    }
+
+    void addQueueWaitTime(long nanos) {
+        queueWaitNanos.addAndGet(nanos);
+    }
+
+    void setBudgetWaitTime(long nanos) {
+        this.budgetWaitNanos = nanos;
+    }
+
+    void setScans(int scans) {
+        this.scans = scans;
+    }
+
+    void setRegions(int regions) {
+        this.regions = regions;
+    }
+
+    void setTasks(int tasks) {
+        this.tasks = tasks;
+    }
+
+    public long getRows() {
+        return rows.get();
+    }
+
+    public long getBytes() {
+        return bytes.get();
+    }
+
+    public int getScans() {
+        return scans;
+    }
+
+    public int getRegions() {
+        return regions;
+    }
+
+    public int getTasks() {
+        return tasks;
+    }
+
+    /**
+     * Time spent waiting for permits of the global scan budget.
+     */
+    public long getBudgetWaitTimeMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(budgetWaitNanos);
+    }
+
+    /**
+     * Time the consumer spent blocked on the result queues of the scan tasks.
+     */
+    public long getQueueWaitTimeMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(queueWaitNanos.get());
+    }
+
+    @Override
+    public String toString() {
+        return "ScanMetric{" +
+                "rows=" + getRows() +
+                ", bytes=" + getBytes() +
+                ", scans=" + scans +
+                ", regions=" + regions +
+                ", tasks=" + tasks +
+                ", budgetWaitTime=" + getBudgetWaitTimeMillis() +
+                "ms, queueWaitTime=" + getQueueWaitTimeMillis() +
+                "ms}";
+    }
+}
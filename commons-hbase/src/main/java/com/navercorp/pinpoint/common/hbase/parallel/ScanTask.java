@@ -42,12 +42,17 @@ public class ScanTask implements Runnable {
 
     private final Scan[] scans;
     private final BlockingQueue<Result> resultQueue;
+    private final ScanMetric scanMetric;
 
     private volatile Throwable throwable;
     private volatile boolean isQueueClosed = false;
     private volatile boolean isDone = false;
 
     public ScanTask(ScanTaskConfig scanTaskConfig, Scan... scans) {
+        this(scanTaskConfig, null, scans);
+    }
+
+    public ScanTask(ScanTaskConfig scanTaskConfig, ScanMetric scanMetric, Scan... scans) {
         if (scanTaskConfig == null) {
             throw new NullPointerException("scanTaskConfig must not be null");
         }
@@ -62,6 +67,7 @@ public class ScanTask implements Runnable {
         this.rowKeyDistributor = scanTaskConfig.getRowKeyDistributor();
         this.scans = scans;
         this.resultQueue = new ArrayBlockingQueue<>(scanTaskConfig.getScanTaskQueueSize());
+        this.scanMetric = scanMetric;
     }
 
     @Override
@@ -73,6 +79,9 @@ public class ScanTask implements Runnable {
             ResultScanner scanner = createResultScanner(table);
             try {
                 for (Result result : scanner) {
+                    if (scanMetric != null) {
+                        scanMetric.addResult(result);
+                    }
                     this.resultQueue.put(result);
                     if (this.isDone) {
                         break;
@@ -109,7 +118,14 @@ public class ScanTask implements Runnable {
         if (this.isQueueClosed) {
             return null;
         }
-        Result take = this.resultQueue.take();
+        Result take = this.resultQueue.poll();
+        if (take == null) {
+            final long startTime = System.nanoTime();
+            take = this.resultQueue.take();
+            if (scanMetric != null) {
+                scanMetric.addQueueWaitTime(System.nanoTime() - startTime);
+            }
+        }
         if (take == END_RESULT) {
             this.isQueueClosed = true;
             return null;
@@ -0,0 +1,113 @@
+/*
+ * Copyright 2019 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.navercorp.pinpoint.common.hbase.filter;
+
+import com.navercorp.pinpoint.common.buffer.AutomaticBuffer;
+import com.navercorp.pinpoint.common.buffer.Buffer;
+import com.navercorp.pinpoint.common.buffer.OffsetFixedBuffer;
+import org.apache.hadoop.hbase.Cell;
+import org.apache.hadoop.hbase.CellUtil;
+import org.apache.hadoop.hbase.KeyValue;
+import org.apache.hadoop.hbase.util.Bytes;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+public class CallerAgentAggregationFilterTest {
+
+    private static final byte[] ROW = Bytes.toBytes("row");
+    private static final byte[] FAMILY = Bytes.toBytes("C");
+
+    @Test
+    public void filterRowCells() throws Exception {
+        List<Cell> cells = new ArrayList<>();
+        cells.add(newCell("callee", "host1", (short) 100, "agent1", 3));
+        cells.add(newCell("callee", "host1", (short) 100, "agent2", 4));
+        cells.add(newCell("callee", "host1", (short) -1, "agent1", 1));
+        cells.add(newCell("callee", "host2", (short) 100, "agent1", 5));
+        cells.add(newCell("callee", "host2", (short) 100, "agent3", 6));
+        cells.add(newCell("other", "", (short) 300, "agent1", 7));
+        Collections.sort(cells, KeyValue.COMPARATOR);
+
+        CallerAgentAggregationFilter filter = new CallerAgentAggregationFilter();
+        filter.filterRowCells(cells);
+
+        Assert.assertEquals(4, cells.size());
+        assertCell(cells, "callee", "host1", (short) 100, 7);
+        assertCell(cells, "callee", "host1", (short) -1, 1);
+        assertCell(cells, "callee", "host2", (short) 100, 11);
+        assertCell(cells, "other", "", (short) 300, 7);
+        for (Cell cell : cells) {
+            Assert.assertArrayEquals(ROW, CellUtil.cloneRow(cell));
+            Assert.assertArrayEquals(FAMILY, CellUtil.cloneFamily(cell));
+        }
+    }
+
+    @Test
+    public void aggregate_unparsableQualifier() {
+        List<Cell> cells = new ArrayList<>();
+        cells.add(new KeyValue(ROW, FAMILY, new byte[] {1}, 1L, Bytes.toBytes(1L)));
+        cells.add(newCell("callee", "host1", (short) 100, "agent1", 3));
+
+        List<Cell> aggregated = CallerAgentAggregationFilter.aggregate(cells);
+
+        Assert.assertEquals(2, aggregated.size());
+        Assert.assertSame(cells.get(0), aggregated.get(0));
+    }
+
+    @Test
+    public void serialization() throws Exception {
+        CallerAgentAggregationFilter filter = new CallerAgentAggregationFilter();
+        CallerAgentAggregationFilter parsed = CallerAgentAggregationFilter.parseFrom(filter.toByteArray());
+        Assert.assertNotNull(parsed);
+        Assert.assertTrue(parsed.hasFilterRow());
+    }
+
+    private static void assertCell(List<Cell> cells, String callee, String host, short slot, long expected) {
+        for (Cell cell : cells) {
+            Buffer buffer = new OffsetFixedBuffer(cell.getQualifierArray(), cell.getQualifierOffset(), cell.getQualifierLength());
+            buffer.readShort();
+            if (!callee.equals(buffer.readPrefixedString())) {
+                continue;
+            }
+            if (!host.equals(buffer.readPrefixedString())) {
+                continue;
+            }
+            if (slot != buffer.readShort()) {
+                continue;
+            }
+            Assert.assertEquals("", buffer.readPrefixedString());
+            Assert.assertEquals(expected, Bytes.toLong(CellUtil.cloneValue(cell)));
+            return;
+        }
+        Assert.fail("cell not found " + callee + "/" + host + "/" + slot);
+    }
+
+    private static Cell newCell(String callee, String host, short slot, String agentId, long value) {
+        Buffer buffer = new AutomaticBuffer(64);
+        buffer.putShort((short) 1010);
+        buffer.putPrefixedString(callee);
+        buffer.putPrefixedString(host);
+        buffer.putShort(slot);
+        buffer.putPrefixedString(agentId);
+        return new KeyValue(ROW, FAMILY, buffer.getBuffer(), 1L, Bytes.toBytes(value));
+    }
+}
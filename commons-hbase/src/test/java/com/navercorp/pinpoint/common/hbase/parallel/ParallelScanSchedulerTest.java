@@ -0,0 +1,123 @@
+/*
+ * Copyright 2019 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.navercorp.pinpoint.common.hbase.parallel;
+
+import com.navercorp.pinpoint.common.hbase.TableFactory;
+import org.apache.hadoop.hbase.HConstants;
+import org.apache.hadoop.hbase.TableName;
+import org.apache.hadoop.hbase.client.HTable;
+import org.apache.hadoop.hbase.client.Scan;
+import org.apache.hadoop.hbase.util.Bytes;
+import org.junit.Assert;
+import org.junit.Test;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class ParallelScanSchedulerTest {
+
+    private static final TableName TABLE_NAME = TableName.valueOf("test");
+
+    private static final byte[][] START_KEYS = {HConstants.EMPTY_START_ROW, Bytes.toBytes("c"), Bytes.toBytes("f"), Bytes.toBytes("k")};
+
+    @Test
+    public void findRegion() {
+        Assert.assertEquals(0, ParallelScanScheduler.findRegion(START_KEYS, Bytes.toBytes("a"), 0));
+        Assert.assertEquals(1, ParallelScanScheduler.findRegion(START_KEYS, Bytes.toBytes("c"), 0));
+        Assert.assertEquals(1, ParallelScanScheduler.findRegion(START_KEYS, Bytes.toBytes("d"), 0));
+        Assert.assertEquals(3, ParallelScanScheduler.findRegion(START_KEYS, Bytes.toBytes("z"), 0));
+        Assert.assertEquals(3, ParallelScanScheduler.findRegion(START_KEYS, HConstants.EMPTY_END_ROW, 3));
+    }
+
+    @Test
+    public void splitOnRegionBoundaries() throws Exception {
+        ParallelScanScheduler scheduler = new ParallelScanScheduler(newTableFactory(START_KEYS), 4);
+        ScanMetric scanMetric = new ScanMetric();
+
+        Scan[] scans = scheduler.splitOnRegionBoundaries(TABLE_NAME, new Scan[] {new Scan(Bytes.toBytes("b"), Bytes.toBytes("g"))}, scanMetric);
+
+        Assert.assertEquals(3, scans.length);
+        assertRange(scans[0], "b", "c");
+        assertRange(scans[1], "c", "f");
+        assertRange(scans[2], "f", "g");
+        Assert.assertEquals(3, scanMetric.getRegions());
+    }
+
+    @Test
+    public void splitOnRegionBoundaries_stopRowOnBoundary() throws Exception {
+        ParallelScanScheduler scheduler = new ParallelScanScheduler(newTableFactory(START_KEYS), 4);
+        ScanMetric scanMetric = new ScanMetric();
+
+        Scan[] scans = scheduler.splitOnRegionBoundaries(TABLE_NAME, new Scan[] {new Scan(Bytes.toBytes("c"), Bytes.toBytes("f"))}, scanMetric);
+
+        Assert.assertEquals(1, scans.length);
+        assertRange(scans[0], "c", "f");
+        Assert.assertEquals(1, scanMetric.getRegions());
+    }
+
+    @Test
+    public void splitOnRegionBoundaries_unbounded() throws Exception {
+        ParallelScanScheduler scheduler = new ParallelScanScheduler(newTableFactory(START_KEYS), 4);
+        ScanMetric scanMetric = new ScanMetric();
+
+        Scan[] scans = scheduler.splitOnRegionBoundaries(TABLE_NAME, new Scan[] {new Scan()}, scanMetric);
+
+        Assert.assertEquals(START_KEYS.length, scans.length);
+        Assert.assertArrayEquals(HConstants.EMPTY_START_ROW, scans[0].getStartRow());
+        Assert.assertArrayEquals(HConstants.EMPTY_END_ROW, scans[START_KEYS.length - 1].getStopRow());
+        Assert.assertEquals(START_KEYS.length, scanMetric.getRegions());
+    }
+
+    @Test
+    public void splitOnRegionBoundaries_singleRegion() throws Exception {
+        ParallelScanScheduler scheduler = new ParallelScanScheduler(newTableFactory(new byte[][] {HConstants.EMPTY_START_ROW}), 4);
+        Scan scan = new Scan(Bytes.toBytes("b"), Bytes.toBytes("g"));
+
+        Scan[] scans = scheduler.splitOnRegionBoundaries(TABLE_NAME, new Scan[] {scan}, new ScanMetric());
+
+        Assert.assertEquals(1, scans.length);
+        Assert.assertSame(scan, scans[0]);
+    }
+
+    @Test
+    public void acquire() throws Exception {
+        ParallelScanScheduler scheduler = new ParallelScanScheduler(newTableFactory(START_KEYS), 4);
+
+        Assert.assertEquals(3, scheduler.acquire(3, null));
+        Assert.assertEquals(1, scheduler.acquire(3, null));
+        Assert.assertEquals(0, scheduler.getAvailableTasks());
+
+        scheduler.release(4);
+        Assert.assertEquals(4, scheduler.acquire(10, null));
+        scheduler.release(4);
+        Assert.assertEquals(4, scheduler.getAvailableTasks());
+    }
+
+    private static TableFactory newTableFactory(byte[][] startKeys) throws Exception {
+        HTable table = mock(HTable.class);
+        when(table.getStartKeys()).thenReturn(startKeys);
+        TableFactory tableFactory = mock(TableFactory.class);
+        when(tableFactory.getTable(TABLE_NAME)).thenReturn(table);
+        return tableFactory;
+    }
+
+    private static void assertRange(Scan scan, String startRow, String stopRow) {
+        Assert.assertEquals(startRow, Bytes.toString(scan.getStartRow()));
+        Assert.assertEquals(stopRow, Bytes.toString(scan.getStopRow()));
+    }
+}
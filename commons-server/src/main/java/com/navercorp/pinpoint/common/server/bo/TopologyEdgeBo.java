@@ -0,0 +1,151 @@
+/*
+ * Copyright 2019 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.navercorp.pinpoint.common.server.bo;
+
+import com.navercorp.pinpoint.common.buffer.AutomaticBuffer;
+import com.navercorp.pinpoint.common.buffer.Buffer;
+import com.navercorp.pinpoint.common.buffer.OffsetFixedBuffer;
+
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A link between two applications seen by the collector within a time bucket.
+ * <p>
+ * {@link Direction#CALLER} edges are the links recorded in the caller statistics of {@code from},
+ * {@link Direction#CALLEE} edges the links recorded in the callee statistics of {@code to}.
+ */
+public class TopologyEdgeBo {
+
+    public static final long BUCKET_MILLIS = TimeUnit.HOURS.toMillis(1);
+
+    public enum Direction {
+        CALLER((byte) 0),
+        CALLEE((byte) 1);
+
+        private final byte code;
+
+        Direction(byte code) {
+            this.code = code;
+        }
+
+        public byte getCode() {
+            return code;
+        }
+
+        public static Direction valueOf(byte code) {
+            for (Direction direction : values()) {
+                if (direction.code == code) {
+                    return direction;
+                }
+            }
+            throw new IllegalArgumentException("unknown direction code:" + code);
+        }
+    }
+
+    private final Direction direction;
+    private final String fromApplicationName;
+    private final short fromServiceType;
+    private final String toApplicationName;
+    private final short toServiceType;
+
+    public TopologyEdgeBo(Direction direction, String fromApplicationName, short fromServiceType, String toApplicationName, short toServiceType) {
+        this.direction = Objects.requireNonNull(direction, "direction must not be null");
+        this.fromApplicationName = Objects.requireNonNull(fromApplicationName, "fromApplicationName must not be null");
+        this.fromServiceType = fromServiceType;
+        this.toApplicationName = Objects.requireNonNull(toApplicationName, "toApplicationName must not be null");
+        this.toServiceType = toServiceType;
+    }
+
+    public static long getBucket(long timestamp) {
+        return timestamp - (timestamp % BUCKET_MILLIS);
+    }
+
+    public Direction getDirection() {
+        return direction;
+    }
+
+    public String getFromApplicationName() {
+        return fromApplicationName;
+    }
+
+    public short getFromServiceType() {
+        return fromServiceType;
+    }
+
+    public String getToApplicationName() {
+        return toApplicationName;
+    }
+
+    public short getToServiceType() {
+        return toServiceType;
+    }
+
+    public byte[] writeQualifier() {
+        final Buffer buffer = new AutomaticBuffer(fromApplicationName.length() + toApplicationName.length() + 16);
+        buffer.putByte(direction.getCode());
+        buffer.putPrefixedString(fromApplicationName);
+        buffer.putShort(fromServiceType);
+        buffer.putPrefixedString(toApplicationName);
+        buffer.putShort(toServiceType);
+        return buffer.getBuffer();
+    }
+
+    public static TopologyEdgeBo readQualifier(byte[] qualifier, int offset, int length) {
+        final Buffer buffer = new OffsetFixedBuffer(qualifier, offset, length);
+        final Direction direction = Direction.valueOf(buffer.readByte());
+        final String fromApplicationName = buffer.readPrefixedString();
+        final short fromServiceType = buffer.readShort();
+        final String toApplicationName = buffer.readPrefixedString();
+        final short toServiceType = buffer.readShort();
+        return new TopologyEdgeBo(direction, fromApplicationName, fromServiceType, toApplicationName, toServiceType);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+
+        TopologyEdgeBo that = (TopologyEdgeBo) o;
+
+        if (fromServiceType != that.fromServiceType) return false;
+        if (toServiceType != that.toServiceType) return false;
+        if (direction != that.direction) return false;
+        if (!fromApplicationName.equals(that.fromApplicationName)) return false;
+        return toApplicationName.equals(that.toApplicationName);
+    }
+
+    @Override
+    public int hashCode() {
+        int result = direction.hashCode();
+        result = 31 * result + fromApplicationName.hashCode();
+        result = 31 * result + (int) fromServiceType;
+        result = 31 * result + toApplicationName.hashCode();
+        result = 31 * result + (int) toServiceType;
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return "TopologyEdgeBo{" +
+                "direction=" + direction +
+                ", from=" + fromApplicationName + '/' + fromServiceType +
+                ", to=" + toApplicationName + '/' + toServiceType +
+                '}';
+    }
+}
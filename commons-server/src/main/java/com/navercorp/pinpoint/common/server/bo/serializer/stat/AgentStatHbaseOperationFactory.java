@@ -18,6 +18,7 @@ package com.navercorp.pinpoint.common.server.bo.serializer.stat;
 
 import com.navercorp.pinpoint.common.server.bo.serializer.HbaseSerializer;
 import com.navercorp.pinpoint.common.server.bo.stat.AgentStatDataPoint;
+import com.navercorp.pinpoint.common.server.bo.stat.AgentStatRollupResolution;
 import com.navercorp.pinpoint.common.server.bo.stat.AgentStatType;
 import com.sematext.hbase.wd.AbstractRowKeyDistributor;
 import org.apache.commons.collections.CollectionUtils;
@@ -65,7 +66,7 @@ public class AgentStatHbaseOperationFactory {
         if (CollectionUtils.isEmpty(agentStatDataPoints)) {
             return Collections.emptyList();
         }
-        Map<Long, List<T>> timeslots = slotAgentStatDataPoints(agentStatDataPoints);
+        Map<Long, List<T>> timeslots = slotAgentStatDataPoints(agentStatDataPoints, AGENT_STAT_TIMESPAN_MS);
         List<Put> puts = new ArrayList<Put>();
         for (Map.Entry<Long, List<T>> timeslot : timeslots.entrySet()) {
             long baseTimestamp = timeslot.getKey();
@@ -82,6 +83,27 @@ public class AgentStatHbaseOperationFactory {
         return puts;
     }
 
+    public <T extends AgentStatDataPoint> List<Put> createRollupPuts(String agentId, AgentStatType agentStatType, AgentStatRollupResolution resolution, List<T> agentStatDataPoints, HbaseSerializer<List<T>, Put> agentStatSerializer) {
+        if (CollectionUtils.isEmpty(agentStatDataPoints)) {
+            return Collections.emptyList();
+        }
+        Map<Long, List<T>> timeslots = slotAgentStatDataPoints(agentStatDataPoints, resolution.getRowTimespan());
+        List<Put> puts = new ArrayList<Put>();
+        for (Map.Entry<Long, List<T>> timeslot : timeslots.entrySet()) {
+            long baseTimestamp = timeslot.getKey();
+            List<T> slottedAgentStatDataPoints = timeslot.getValue();
+
+            final AgentStatRowKeyComponent rowKeyComponent = new AgentStatRowKeyComponent(agentId, agentStatType, baseTimestamp);
+            byte[] rowKey = this.rowKeyEncoder.encodeRowKey(rowKeyComponent);
+            byte[] distributedRowKey = this.rowKeyDistributor.getDistributedKey(rowKey);
+
+            Put put = new Put(distributedRowKey);
+            agentStatSerializer.serialize(slottedAgentStatDataPoints, put, new AgentStatSerializationContext(baseTimestamp));
+            puts.add(put);
+        }
+        return puts;
+    }
+
     public Scan createScan(String agentId, AgentStatType agentStatType, long startTimestamp, long endTimestamp) {
         final AgentStatRowKeyComponent startRowKeyComponent = new AgentStatRowKeyComponent(agentId, agentStatType, AgentStatUtils.getBaseTimestamp(endTimestamp));
         final AgentStatRowKeyComponent endRowKeyComponenet = new AgentStatRowKeyComponent(agentId, agentStatType, AgentStatUtils.getBaseTimestamp(startTimestamp) - AGENT_STAT_TIMESPAN_MS);
@@ -90,6 +112,14 @@ public class AgentStatHbaseOperationFactory {
         return new Scan(startRowKey, endRowKey);
     }
 
+    public Scan createRollupScan(String agentId, AgentStatType agentStatType, AgentStatRollupResolution resolution, long startTimestamp, long endTimestamp) {
+        final AgentStatRowKeyComponent startRowKeyComponent = new AgentStatRowKeyComponent(agentId, agentStatType, resolution.getBaseTimestamp(endTimestamp));
+        final AgentStatRowKeyComponent endRowKeyComponent = new AgentStatRowKeyComponent(agentId, agentStatType, resolution.getBaseTimestamp(startTimestamp) - resolution.getRowTimespan());
+        byte[] startRowKey = this.rowKeyEncoder.encodeRowKey(startRowKeyComponent);
+        byte[] endRowKey = this.rowKeyEncoder.encodeRowKey(endRowKeyComponent);
+        return new Scan(startRowKey, endRowKey);
+    }
+
     public AbstractRowKeyDistributor getRowKeyDistributor() {
         return this.rowKeyDistributor;
     }
@@ -109,11 +139,11 @@ public class AgentStatHbaseOperationFactory {
         return this.rowKeyDecoder.decodeRowKey(originalRowKey).getBaseTimestamp();
     }
 
-    private <T extends AgentStatDataPoint> Map<Long, List<T>> slotAgentStatDataPoints(List<T> agentStatDataPoints) {
+    private <T extends AgentStatDataPoint> Map<Long, List<T>> slotAgentStatDataPoints(List<T> agentStatDataPoints, long rowTimespan) {
         Map<Long, List<T>> timeslots = new TreeMap<Long, List<T>>();
         for (T agentStatDataPoint : agentStatDataPoints) {
             long timestamp = agentStatDataPoint.getTimestamp();
-            long timeslot = AgentStatUtils.getBaseTimestamp(timestamp);
+            long timeslot = timestamp - (timestamp % rowTimespan);
             List<T> slottedDataPoints = timeslots.get(timeslot);
             if (slottedDataPoints == null) {
                 slottedDataPoints = new ArrayList<T>();
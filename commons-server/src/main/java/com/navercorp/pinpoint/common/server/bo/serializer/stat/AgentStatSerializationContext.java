@@ -0,0 +1,35 @@
+/*
+ * Copyright 2019 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.navercorp.pinpoint.common.server.bo.serializer.stat;
+
+import com.navercorp.pinpoint.common.server.bo.serializer.SerializationContext;
+
+/**
+ * Carries the base timestamp of the row being written, for rows that do not span {@code AGENT_STAT_TIMESPAN_MS}.
+ */
+public class AgentStatSerializationContext implements SerializationContext {
+
+    private final long baseTimestamp;
+
+    public AgentStatSerializationContext(long baseTimestamp) {
+        this.baseTimestamp = baseTimestamp;
+    }
+
+    public long getBaseTimestamp() {
+        return baseTimestamp;
+    }
+}
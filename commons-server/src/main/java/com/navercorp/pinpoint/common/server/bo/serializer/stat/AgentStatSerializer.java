@@ -47,10 +47,17 @@ public abstract class AgentStatSerializer<T extends AgentStatDataPoint> implemen
             throw new IllegalArgumentException("agentStatBos should not be empty");
         }
         long initialTimestamp = agentStatBos.get(0).getTimestamp();
-        long baseTimestamp = AgentStatUtils.getBaseTimestamp(initialTimestamp);
+        long baseTimestamp = getBaseTimestamp(initialTimestamp, context);
         long timestampDelta = initialTimestamp - baseTimestamp;
         ByteBuffer qualifierBuffer = this.encoder.encodeQualifier(timestampDelta);
         ByteBuffer valueBuffer = this.encoder.encodeValue(agentStatBos);
         put.addColumn(HBaseTables.AGENT_STAT_CF_STATISTICS, qualifierBuffer, HConstants.LATEST_TIMESTAMP, valueBuffer);
     }
+
+    private long getBaseTimestamp(long initialTimestamp, SerializationContext context) {
+        if (context instanceof AgentStatSerializationContext) {
+            return ((AgentStatSerializationContext) context).getBaseTimestamp();
+        }
+        return AgentStatUtils.getBaseTimestamp(initialTimestamp);
+    }
 }
@@ -79,10 +79,7 @@ public class SpanDecoderV0 implements SpanDecoder {
     }
 
     private void readSpanChunkValue(Buffer buffer, SpanChunkBo spanChunk, SpanEventBo firstSpanEvent, SpanDecodingContext decodingContext) {
-        final byte version = buffer.readByte();
-        if (version != 0) {
-            throw new IllegalStateException("unknown version :" + version);
-        }
+        final byte version = readVersion(buffer);
         spanChunk.setVersion(version);
 
         List<SpanEventBo> spanEventBoList = readSpanEvent(buffer, firstSpanEvent, decodingContext);
@@ -91,10 +88,7 @@ public class SpanDecoderV0 implements SpanDecoder {
 
     public void readSpanValue(Buffer buffer, SpanBo span, SpanEventBo firstSpanEvent, SpanDecodingContext decodingContext) {
 
-        final byte version = buffer.readByte();
-        if (version != 0) {
-            throw new IllegalStateException("unknown version :" + version);
-        }
+        final byte version = readVersion(buffer);
         span.setVersion(version);
 
         final SpanBitFiled bitFiled = new SpanBitFiled(buffer.readByte());
@@ -124,10 +118,10 @@ public class SpanDecoderV0 implements SpanDecoder {
         span.setStartTime(startTime);
         span.setElapsed(buffer.readVInt());
 
-        span.setRpc(buffer.readPrefixedString());
+        span.setRpc(readString(buffer, decodingContext));
 
-        span.setEndPoint(buffer.readPrefixedString());
-        span.setRemoteAddr(buffer.readPrefixedString());
+        span.setEndPoint(readString(buffer, decodingContext));
+        span.setRemoteAddr(readString(buffer, decodingContext));
         span.setApiId(buffer.readSVInt());
 
         if (bitFiled.isSetErrorCode()) {
@@ -135,7 +129,7 @@ public class SpanDecoderV0 implements SpanDecoder {
         }
         if (bitFiled.isSetHasException()) {
             int exceptionId = buffer.readSVInt();
-            String exceptionMessage = buffer.readPrefixedString();
+            String exceptionMessage = readString(buffer, decodingContext);
             span.setExceptionInfo(exceptionId, exceptionMessage);
         }
 
@@ -147,7 +141,7 @@ public class SpanDecoderV0 implements SpanDecoder {
             span.setLoggingTransactionInfo(buffer.readByte());
         }
 
-        span.setAcceptorHost(buffer.readPrefixedString());
+        span.setAcceptorHost(readString(buffer, decodingContext));
 
 
         if (bitFiled.isSetAnnotation()) {
@@ -161,7 +155,15 @@ public class SpanDecoderV0 implements SpanDecoder {
 
     }
 
-    private List<SpanEventBo> readSpanEvent(Buffer buffer, SpanEventBo firstSpanEvent, SpanDecodingContext decodingContext) {
+    protected byte readVersion(Buffer buffer) {
+        final byte version = buffer.readByte();
+        if (version != 0) {
+            throw new IllegalStateException("unknown version :" + version);
+        }
+        return version;
+    }
+
+    protected List<SpanEventBo> readSpanEvent(Buffer buffer, SpanEventBo firstSpanEvent, SpanDecodingContext decodingContext) {
         final int spanEventSize = buffer.readVInt();
         if (spanEventSize <= 0) {
             return new ArrayList<SpanEventBo>();
@@ -240,14 +242,14 @@ public class SpanDecoderV0 implements SpanDecoder {
         spanEventBo.setApiId(buffer.readSVInt());
 
         if (bitField.isSetRpc()) {
-            spanEventBo.setRpc(buffer.readPrefixedString());
+            spanEventBo.setRpc(readString(buffer, decodingContext));
         }
 
         if (bitField.isSetEndPoint()) {
-            spanEventBo.setEndPoint(buffer.readPrefixedString());
+            spanEventBo.setEndPoint(readString(buffer, decodingContext));
         }
         if (bitField.isSetDestinationId()) {
-            spanEventBo.setDestinationId(buffer.readPrefixedString());
+            spanEventBo.setDestinationId(readString(buffer, decodingContext));
         }
 
         if (bitField.isSetNextSpanId()) {
@@ -257,7 +259,7 @@ public class SpanDecoderV0 implements SpanDecoder {
 
         if (bitField.isSetHasException()) {
             int exceptionId = buffer.readSVInt();
-            String exceptionMessage = buffer.readPrefixedString();
+            String exceptionMessage = readString(buffer, decodingContext);
             spanEventBo.setExceptionInfo(exceptionId, exceptionMessage);
         }
 
@@ -289,14 +291,14 @@ public class SpanDecoderV0 implements SpanDecoder {
         firstSpanEvent.setServiceType(buffer.readShort());
 
         if (bitField.isSetRpc()) {
-            firstSpanEvent.setRpc(buffer.readPrefixedString());
+            firstSpanEvent.setRpc(readString(buffer, decodingContext));
         }
 
         if (bitField.isSetEndPoint()) {
-            firstSpanEvent.setEndPoint(buffer.readPrefixedString());
+            firstSpanEvent.setEndPoint(readString(buffer, decodingContext));
         }
         if (bitField.isSetDestinationId()) {
-            firstSpanEvent.setDestinationId(buffer.readPrefixedString());
+            firstSpanEvent.setDestinationId(readString(buffer, decodingContext));
         }
 
         firstSpanEvent.setApiId(buffer.readSVInt());
@@ -307,7 +309,7 @@ public class SpanDecoderV0 implements SpanDecoder {
 
         if (bitField.isSetHasException()) {
             int exceptionId = buffer.readSVInt();
-            String exceptionMessage = buffer.readPrefixedString();
+            String exceptionMessage = readString(buffer, decodingContext);
             firstSpanEvent.setExceptionInfo(exceptionId, exceptionMessage);
         }
 
@@ -362,6 +364,10 @@ public class SpanDecoderV0 implements SpanDecoder {
         return current;
     }
 
+    protected String readString(Buffer buffer, SpanDecodingContext decodingContext) {
+        return buffer.readPrefixedString();
+    }
+
     private AnnotationBo readDeltaAnnotationBo(Buffer buffer, AnnotationBo prev) {
         AnnotationBo annotation = new AnnotationBo();
 
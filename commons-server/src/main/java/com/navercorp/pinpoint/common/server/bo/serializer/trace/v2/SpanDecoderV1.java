@@ -0,0 +1,72 @@
+/*
+ * Copyright 2019 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.navercorp.pinpoint.common.server.bo.serializer.trace.v2;
+
+import com.navercorp.pinpoint.common.buffer.Buffer;
+import com.navercorp.pinpoint.common.buffer.FixedBuffer;
+import com.navercorp.pinpoint.common.server.bo.SpanEventBo;
+
+import java.util.List;
+
+/**
+ * Reads column values written by {@link SpanEncoderV1}.
+ */
+public class SpanDecoderV1 extends SpanDecoderV0 {
+
+    @Override
+    protected byte readVersion(Buffer buffer) {
+        final byte encodingVersion = buffer.readByte();
+        if (encodingVersion != SpanEncoderV1.ENCODING_VERSION) {
+            throw new IllegalStateException("unknown encoding version :" + encodingVersion);
+        }
+        return super.readVersion(buffer);
+    }
+
+    @Override
+    protected String readString(Buffer buffer, SpanDecodingContext decodingContext) {
+        final int code = buffer.readSVInt();
+        if (code == SpanEncoderV1.NULL_STRING) {
+            return null;
+        }
+
+        final List<String> stringDictionary = decodingContext.getStringDictionary();
+        if (code == SpanEncoderV1.NEW_STRING) {
+            final String value = buffer.readPrefixedString();
+            stringDictionary.add(value);
+            return value;
+        }
+
+        final int index = code - 1;
+        if (index < 0 || index >= stringDictionary.size()) {
+            throw new IllegalStateException("invalid string dictionary index:" + index + " size:" + stringDictionary.size());
+        }
+        return stringDictionary.get(index);
+    }
+
+    @Override
+    protected List<SpanEventBo> readSpanEvent(Buffer buffer, SpanEventBo firstSpanEvent, SpanDecodingContext decodingContext) {
+        final SpanEventListCompression compression = SpanEventListCompression.findByCode(buffer.readByte());
+        if (compression == SpanEventListCompression.NONE) {
+            return super.readSpanEvent(buffer, firstSpanEvent, decodingContext);
+        }
+
+        final int rawLength = buffer.readVInt();
+        final byte[] compressed = buffer.readPrefixedBytes();
+        final byte[] raw = compression.decompress(compressed, rawLength);
+        return super.readSpanEvent(new FixedBuffer(raw), firstSpanEvent, decodingContext);
+    }
+}
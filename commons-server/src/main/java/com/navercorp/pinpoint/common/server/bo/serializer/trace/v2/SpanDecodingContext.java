@@ -2,6 +2,9 @@ package com.navercorp.pinpoint.common.server.bo.serializer.trace.v2;
 
 import com.navercorp.pinpoint.common.util.TransactionId;
 
+import java.util.ArrayList;
+import java.util.List;
+
 /**
  * @author Woonduk Kang(emeroad)
  */
@@ -11,6 +14,8 @@ public class SpanDecodingContext {
     private long collectorAcceptedTime;
     private TransactionId transactionId;
 
+    private final List<String> stringDictionary = new ArrayList<String>();
+
 //    public AnnotationBo getPrevFirstAnnotationBo() {
 //        return prevAnnotationBo;
 //    }
@@ -37,7 +42,16 @@ public class SpanDecodingContext {
     }
 
 
+    /**
+     * strings read from the current column value, in dictionary index order
+     */
+    public List<String> getStringDictionary() {
+        return stringDictionary;
+    }
+
     public void next() {
+        // the dictionary is scoped to a single cell
+        stringDictionary.clear();
     }
 
     public void finish() {
@@ -89,7 +89,7 @@ public class SpanEncoderV0 implements SpanEncoder {
         final Buffer buffer = new AutomaticBuffer(256);
 
         final byte version = spanChunkBo.getVersion();
-        buffer.putByte(version);
+        writeVersion(buffer, version);
 
 
         final List<SpanEventBo> spanEventBoList = spanChunkBo.getSpanEventBoList();
@@ -98,7 +98,11 @@ public class SpanEncoderV0 implements SpanEncoder {
         return buffer.wrapByteBuffer();
     }
 
-    private void writeSpanEventList(Buffer buffer, List<SpanEventBo> spanEventBoList, SpanEncodingContext<?> encodingContext) {
+    protected void writeVersion(Buffer buffer, byte version) {
+        buffer.putByte(version);
+    }
+
+    protected void writeSpanEventList(Buffer buffer, List<SpanEventBo> spanEventBoList, SpanEncodingContext<?> encodingContext) {
         if (CollectionUtils.isEmpty(spanEventBoList)) {
             buffer.putVInt(0);
         } else {
@@ -125,7 +129,7 @@ public class SpanEncoderV0 implements SpanEncoder {
         final Buffer buffer = new AutomaticBuffer(256);
 
         final byte version = span.getRawVersion();
-        buffer.putByte(version);
+        writeVersion(buffer, version);
 
         // bit field
         buffer.putByte(bitField.getBitField());
@@ -158,10 +162,10 @@ public class SpanEncoderV0 implements SpanEncoder {
         buffer.putVInt(span.getElapsed());
 
 
-        buffer.putPrefixedString(span.getRpc());
+        writeString(buffer, span.getRpc(), encodingContext);
 
-        buffer.putPrefixedString(span.getEndPoint());
-        buffer.putPrefixedString(span.getRemoteAddr());
+        writeString(buffer, span.getEndPoint(), encodingContext);
+        writeString(buffer, span.getRemoteAddr(), encodingContext);
         buffer.putSVInt(span.getApiId());
 
 
@@ -172,7 +176,7 @@ public class SpanEncoderV0 implements SpanEncoder {
 
         if (bitField.isSetHasException()) {
             buffer.putSVInt(span.getExceptionId());
-            buffer.putPrefixedString(span.getExceptionMessage());
+            writeString(buffer, span.getExceptionMessage(), encodingContext);
         }
 
         if (bitField.isSetFlag()) {
@@ -184,7 +188,7 @@ public class SpanEncoderV0 implements SpanEncoder {
             buffer.putByte(span.getLoggingTransactionInfo());
         }
 
-        buffer.putPrefixedString(span.getAcceptorHost());
+        writeString(buffer, span.getAcceptorHost(), encodingContext);
 
         if (bitField.isSetAnnotation()) {
             List<AnnotationBo> annotationBoList = span.getAnnotationBoList();
@@ -213,14 +217,14 @@ public class SpanEncoderV0 implements SpanEncoder {
 
 
         if (bitField.isSetRpc()) {
-            buffer.putPrefixedString(spanEventBo.getRpc());
+            writeString(buffer, spanEventBo.getRpc(), encodingContext);
         }
 
         if (bitField.isSetEndPoint()) {
-            buffer.putPrefixedString(spanEventBo.getEndPoint());
+            writeString(buffer, spanEventBo.getEndPoint(), encodingContext);
         }
         if (bitField.isSetDestinationId()) {
-            buffer.putPrefixedString(spanEventBo.getDestinationId());
+            writeString(buffer, spanEventBo.getDestinationId(), encodingContext);
         }
 
         buffer.putSVInt(spanEventBo.getApiId());
@@ -231,7 +235,7 @@ public class SpanEncoderV0 implements SpanEncoder {
 
         if (bitField.isSetHasException()) {
             buffer.putSVInt(spanEventBo.getExceptionId());
-            buffer.putPrefixedString(spanEventBo.getExceptionMessage());
+            writeString(buffer, spanEventBo.getExceptionMessage(), encodingContext);
         }
 
         if (bitField.isSetAnnotation()) {
@@ -306,14 +310,14 @@ public class SpanEncoderV0 implements SpanEncoder {
         buffer.putSVInt(spanEventBo.getApiId());
 
         if (bitField.isSetRpc()) {
-            buffer.putPrefixedString(spanEventBo.getRpc());
+            writeString(buffer, spanEventBo.getRpc(), encodingContext);
         }
 
         if (bitField.isSetEndPoint()) {
-            buffer.putPrefixedString(spanEventBo.getEndPoint());
+            writeString(buffer, spanEventBo.getEndPoint(), encodingContext);
         }
         if (bitField.isSetDestinationId()) {
-            buffer.putPrefixedString(spanEventBo.getDestinationId());
+            writeString(buffer, spanEventBo.getDestinationId(), encodingContext);
         }
 
         if (bitField.isSetNextSpanId()) {
@@ -322,7 +326,7 @@ public class SpanEncoderV0 implements SpanEncoder {
 
         if (bitField.isSetHasException()) {
             buffer.putSVInt(spanEventBo.getExceptionId());
-            buffer.putPrefixedString(spanEventBo.getExceptionMessage());
+            writeString(buffer, spanEventBo.getExceptionMessage(), encodingContext);
         }
 
         if (bitField.isSetAnnotation()) {
@@ -375,6 +379,10 @@ public class SpanEncoderV0 implements SpanEncoder {
         }
     }
 
+    protected void writeString(Buffer buffer, String value, SpanEncodingContext<?> encodingContext) {
+        buffer.putPrefixedString(value);
+    }
+
     private void writeDeltaAnnotationBo(Buffer buffer, AnnotationBo prev, AnnotationBo current) {
         // prev : -30 cur: -20  = -20 - - 30 = 10
         // prev :  20 cur: 100  =  100 - 20 = 80
@@ -0,0 +1,117 @@
+/*
+ * Copyright 2019 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.navercorp.pinpoint.common.server.bo.serializer.trace.v2;
+
+import com.navercorp.pinpoint.common.buffer.AutomaticBuffer;
+import com.navercorp.pinpoint.common.buffer.Buffer;
+import com.navercorp.pinpoint.common.server.bo.SpanEventBo;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Column value format version 1.
+ * <p>
+ * The qualifier is identical to {@link SpanEncoderV0}. The column value starts with {@link #ENCODING_VERSION}
+ * followed by the span version, and the rest of the layout is that of {@link SpanEncoderV0} except that
+ * <ul>
+ *     <li>rpc, endPoint, destinationId, remoteAddr, acceptorHost and exception messages are written through
+ *     a dictionary scoped to the cell, so repeated values are stored once and referenced by index afterwards.</li>
+ *     <li>the span event list is prefixed with a {@link SpanEventListCompression} code and may be block compressed.</li>
+ * </ul>
+ */
+public class SpanEncoderV1 extends SpanEncoderV0 {
+
+    public static final byte ENCODING_VERSION = 1;
+
+    // dictionary reference codes. positive values refer to dictionary index + 1
+    static final int NULL_STRING = -1;
+    static final int NEW_STRING = 0;
+
+    // small event lists do not compress well enough to pay for the extra header
+    static final int DEFAULT_COMPRESSION_THRESHOLD = 256;
+
+    private final SpanEventListCompression compression;
+    private final int compressionThreshold;
+
+    public SpanEncoderV1() {
+        this(SpanEventListCompression.NONE);
+    }
+
+    public SpanEncoderV1(SpanEventListCompression compression) {
+        this(compression, DEFAULT_COMPRESSION_THRESHOLD);
+    }
+
+    public SpanEncoderV1(SpanEventListCompression compression, int compressionThreshold) {
+        if (compression == null) {
+            throw new NullPointerException("compression must not be null");
+        }
+        this.compression = compression;
+        this.compressionThreshold = compressionThreshold;
+    }
+
+    @Override
+    protected void writeVersion(Buffer buffer, byte version) {
+        buffer.putByte(ENCODING_VERSION);
+        buffer.putByte(version);
+    }
+
+    @Override
+    protected void writeString(Buffer buffer, String value, SpanEncodingContext<?> encodingContext) {
+        if (value == null) {
+            buffer.putSVInt(NULL_STRING);
+            return;
+        }
+
+        final Map<String, Integer> stringDictionary = encodingContext.getStringDictionary();
+        final Integer index = stringDictionary.get(value);
+        if (index != null) {
+            buffer.putSVInt(index + 1);
+            return;
+        }
+
+        stringDictionary.put(value, stringDictionary.size());
+        buffer.putSVInt(NEW_STRING);
+        buffer.putPrefixedString(value);
+    }
+
+    @Override
+    protected void writeSpanEventList(Buffer buffer, List<SpanEventBo> spanEventBoList, SpanEncodingContext<?> encodingContext) {
+        if (compression == SpanEventListCompression.NONE) {
+            buffer.putByte(SpanEventListCompression.NONE.getCode());
+            super.writeSpanEventList(buffer, spanEventBoList, encodingContext);
+            return;
+        }
+
+        final Buffer spanEventBuffer = new AutomaticBuffer(256);
+        super.writeSpanEventList(spanEventBuffer, spanEventBoList, encodingContext);
+        final int rawLength = spanEventBuffer.getOffset();
+
+        if (rawLength >= compressionThreshold) {
+            final byte[] compressed = compression.compress(spanEventBuffer.getInternalBuffer(), 0, rawLength);
+            if (compressed.length < rawLength) {
+                buffer.putByte(compression.getCode());
+                buffer.putVInt(rawLength);
+                buffer.putPrefixedBytes(compressed);
+                return;
+            }
+        }
+
+        buffer.putByte(SpanEventListCompression.NONE.getCode());
+        buffer.putBytes(spanEventBuffer.copyBuffer());
+    }
+}
@@ -1,5 +1,7 @@
 package com.navercorp.pinpoint.common.server.bo.serializer.trace.v2;
 
+import java.util.HashMap;
+import java.util.Map;
 
 /**
  * @author Woonduk Kang(emeroad)
@@ -7,6 +9,8 @@ package com.navercorp.pinpoint.common.server.bo.serializer.trace.v2;
 public class SpanEncodingContext<T> {
     private T value;
 
+    private Map<String, Integer> stringDictionary;
+
 //    private AnnotationBo prevAnnotationBo;
 
     public SpanEncodingContext(T value) {
@@ -18,6 +22,16 @@ public class SpanEncodingContext<T> {
         return value;
     }
 
+    /**
+     * strings already written to the current column value, and their dictionary index
+     */
+    public Map<String, Integer> getStringDictionary() {
+        if (stringDictionary == null) {
+            stringDictionary = new HashMap<String, Integer>();
+        }
+        return stringDictionary;
+    }
+
 //    public AnnotationBo getPrevFirstAnnotationBo() {
 //        return prevAnnotationBo;
 //    }
@@ -0,0 +1,121 @@
+/*
+ * Copyright 2019 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.navercorp.pinpoint.common.server.bo.serializer.trace.v2;
+
+import java.io.ByteArrayOutputStream;
+import java.util.Arrays;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Block compression applied to the span event list of a {@link SpanEncoderV1} column value.
+ * The code is stored in the column value, so new codecs must only ever be appended.
+ */
+public enum SpanEventListCompression {
+    NONE((byte) 0) {
+        @Override
+        public byte[] compress(byte[] bytes, int offset, int length) {
+            return Arrays.copyOfRange(bytes, offset, offset + length);
+        }
+
+        @Override
+        public byte[] decompress(byte[] bytes, int rawLength) {
+            if (bytes.length != rawLength) {
+                throw new IllegalStateException("corrupted span event list. expected:" + rawLength + " actual:" + bytes.length);
+            }
+            return bytes;
+        }
+    },
+    DEFLATE((byte) 1) {
+        @Override
+        public byte[] compress(byte[] bytes, int offset, int length) {
+            final Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+            try {
+                deflater.setInput(bytes, offset, length);
+                deflater.finish();
+
+                final ByteArrayOutputStream output = new ByteArrayOutputStream(length);
+                final byte[] chunk = new byte[1024];
+                while (!deflater.finished()) {
+                    final int size = deflater.deflate(chunk);
+                    output.write(chunk, 0, size);
+                }
+                return output.toByteArray();
+            } finally {
+                deflater.end();
+            }
+        }
+
+        @Override
+        public byte[] decompress(byte[] bytes, int rawLength) {
+            final Inflater inflater = new Inflater();
+            try {
+                inflater.setInput(bytes);
+                final byte[] raw = new byte[rawLength];
+                int offset = 0;
+                while (offset < rawLength && !inflater.finished()) {
+                    final int size = inflater.inflate(raw, offset, rawLength - offset);
+                    if (size == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                        break;
+                    }
+                    offset += size;
+                }
+                if (offset != rawLength) {
+                    throw new IllegalStateException("corrupted span event list. expected:" + rawLength + " actual:" + offset);
+                }
+                return raw;
+            } catch (DataFormatException e) {
+                throw new IllegalStateException("corrupted span event list", e);
+            } finally {
+                inflater.end();
+            }
+        }
+    };
+
+    private final byte code;
+
+    SpanEventListCompression(byte code) {
+        this.code = code;
+    }
+
+    public byte getCode() {
+        return code;
+    }
+
+    public abstract byte[] compress(byte[] bytes, int offset, int length);
+
+    public abstract byte[] decompress(byte[] bytes, int rawLength);
+
+    public static SpanEventListCompression findByCode(byte code) {
+        for (SpanEventListCompression compression : values()) {
+            if (compression.code == code) {
+                return compression;
+            }
+        }
+        throw new IllegalStateException("unknown compression code:" + code);
+    }
+
+    public static SpanEventListCompression findByName(String name) {
+        for (SpanEventListCompression compression : values()) {
+            if (compression.name().equalsIgnoreCase(name)) {
+                return compression;
+            }
+        }
+        throw new IllegalArgumentException("unknown compression:" + name);
+    }
+}
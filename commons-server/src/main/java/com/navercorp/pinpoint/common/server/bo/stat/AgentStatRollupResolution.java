@@ -0,0 +1,89 @@
+/*
+ * Copyright 2019 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.navercorp.pinpoint.common.server.bo.stat;
+
+import com.navercorp.pinpoint.common.hbase.HBaseTables;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Resolutions at which agent statistics are pre-aggregated.
+ * Each resolution is stored in its own table, and every row holds {@code rowTimespan / interval} data points.
+ * Resolutions are declared from the finest to the coarsest, and each one is rolled up from the previous one.
+ */
+public enum AgentStatRollupResolution {
+    ONE_MINUTE(HBaseTables.AGENT_STAT_ROLLUP_1M_STR, TimeUnit.MINUTES.toMillis(1), TimeUnit.HOURS.toMillis(1)),
+    TEN_MINUTES(HBaseTables.AGENT_STAT_ROLLUP_10M_STR, TimeUnit.MINUTES.toMillis(10), TimeUnit.HOURS.toMillis(12)),
+    ONE_HOUR(HBaseTables.AGENT_STAT_ROLLUP_1H_STR, TimeUnit.HOURS.toMillis(1), TimeUnit.DAYS.toMillis(3));
+
+    private static final AgentStatRollupResolution[] RESOLUTIONS = values();
+
+    private final String tableName;
+    private final long interval;
+    private final long rowTimespan;
+
+    AgentStatRollupResolution(String tableName, long interval, long rowTimespan) {
+        this.tableName = tableName;
+        this.interval = interval;
+        this.rowTimespan = rowTimespan;
+    }
+
+    public String getTableName() {
+        return tableName;
+    }
+
+    public long getInterval() {
+        return interval;
+    }
+
+    public long getRowTimespan() {
+        return rowTimespan;
+    }
+
+    public long refineTimestamp(long timestamp) {
+        return timestamp - (timestamp % interval);
+    }
+
+    public long getBaseTimestamp(long timestamp) {
+        return timestamp - (timestamp % rowTimespan);
+    }
+
+    /**
+     * Returns the resolution that this resolution is rolled up from, or {@code null} if it is built from raw data points.
+     */
+    public AgentStatRollupResolution getSource() {
+        final int ordinal = ordinal();
+        if (ordinal == 0) {
+            return null;
+        }
+        return RESOLUTIONS[ordinal - 1];
+    }
+
+    /**
+     * Returns the coarsest resolution whose interval evenly divides {@code windowSlotSize},
+     * or {@code null} if raw data points must be used.
+     */
+    public static AgentStatRollupResolution findCoarsest(long windowSlotSize) {
+        for (int i = RESOLUTIONS.length - 1; i >= 0; i--) {
+            AgentStatRollupResolution resolution = RESOLUTIONS[i];
+            if (windowSlotSize >= resolution.interval && windowSlotSize % resolution.interval == 0) {
+                return resolution;
+            }
+        }
+        return null;
+    }
+}
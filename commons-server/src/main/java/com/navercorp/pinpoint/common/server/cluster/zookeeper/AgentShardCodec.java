@@ -0,0 +1,118 @@
+/*
+ * Copyright 2019 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.navercorp.pinpoint.common.server.cluster.zookeeper;
+
+import com.navercorp.pinpoint.common.buffer.AutomaticBuffer;
+import com.navercorp.pinpoint.common.buffer.Buffer;
+import com.navercorp.pinpoint.common.buffer.FixedBuffer;
+import com.navercorp.pinpoint.common.util.BytesUtils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Binary format of the sharded agent registry.
+ * <p>
+ * A collector writing the sharded registry puts {@link #SHARDED_MARKER} in its collector node, and its agents in
+ * {@code AGENT_SHARD_PATH/<collectorId>/<shardIndex>} nodes. A shard holds the sorted agent keys with the prefix shared
+ * with the previous key left out: {@code [version][vint count]([vint sharedPrefixLength][prefixed suffix])*}.
+ */
+public final class AgentShardCodec {
+
+    public static final String AGENT_SHARD_PATH = "/pinpoint-cluster/collector-agent";
+
+    // written as a single line so that a reader of the legacy format sees an unknown agent key
+    private static final byte[] SHARDED_MARKER = BytesUtils.toBytes("#pinpoint-agent-shard-v1");
+
+    private static final byte VERSION = 1;
+
+    private AgentShardCodec() {
+    }
+
+    public static byte[] getShardedMarker() {
+        return Arrays.copyOf(SHARDED_MARKER, SHARDED_MARKER.length);
+    }
+
+    public static boolean isShardedMarker(byte[] collectorData) {
+        return Arrays.equals(SHARDED_MARKER, collectorData);
+    }
+
+    public static int shardIndex(String agentKey, int shardCount) {
+        if (shardCount <= 0) {
+            throw new IllegalArgumentException("shardCount must be positive");
+        }
+        return (agentKey.hashCode() & Integer.MAX_VALUE) % shardCount;
+    }
+
+    public static byte[] encode(Collection<String> agentKeys) {
+        final List<String> sortedKeys = new ArrayList<>(agentKeys);
+        Collections.sort(sortedKeys);
+
+        final Buffer buffer = new AutomaticBuffer(16 + sortedKeys.size() * 16);
+        buffer.putByte(VERSION);
+        buffer.putVInt(sortedKeys.size());
+        String prevKey = "";
+        for (String agentKey : sortedKeys) {
+            final int sharedLength = sharedPrefixLength(prevKey, agentKey);
+            buffer.putVInt(sharedLength);
+            buffer.putPrefixedString(agentKey.substring(sharedLength));
+            prevKey = agentKey;
+        }
+        return buffer.copyBuffer();
+    }
+
+    public static Set<String> decode(byte[] shardData) {
+        if (shardData == null || shardData.length == 0) {
+            return new HashSet<>();
+        }
+        final Buffer buffer = new FixedBuffer(shardData);
+        final byte version = buffer.readByte();
+        if (version != VERSION) {
+            throw new IllegalArgumentException("unknown agent shard version:" + version);
+        }
+        final int count = buffer.readVInt();
+        final Set<String> agentKeys = new HashSet<>(Math.max(16, count * 2));
+        String prevKey = "";
+        for (int i = 0; i < count; i++) {
+            final int sharedLength = buffer.readVInt();
+            final String suffix = buffer.readPrefixedString();
+            final String agentKey = prevKey.substring(0, sharedLength) + suffix;
+            agentKeys.add(agentKey);
+            prevKey = agentKey;
+        }
+        return agentKeys;
+    }
+
+    private static int sharedPrefixLength(String prevKey, String key) {
+        final int maxLength = Math.min(prevKey.length(), key.length());
+        int length = 0;
+        while (length < maxLength && prevKey.charAt(length) == key.charAt(length)) {
+            length++;
+        }
+        // do not split a surrogate pair
+        if (length > 0 && Character.isHighSurrogate(key.charAt(length - 1))) {
+            length--;
+        }
+        return length;
+    }
+}
@@ -0,0 +1,462 @@
+/*
+ * Copyright 2019 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.navercorp.pinpoint.common.server.storage;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+
+/**
+ * Embedded append-only record log, partitioned by record timestamp.
+ * <p>
+ * Each partition covers {@code partitionMillis} and is a single file named after the partition start time.
+ * A record is {@code [int length][long timestamp][int keyLength][key][value]}.
+ * Every {@code indexInterval} records of a partition form a block, and a sparse in-memory index keeps the offset and
+ * the timestamp range of each block, so time range scans only read the blocks that can match.
+ * The index is rebuilt from the files when the store is opened, and a torn record at the end of a file is truncated.
+ * <p>
+ * Writes are serialized and buffered per partition. Reads flush the buffers first and then read the files without holding the lock.
+ * A scan holds a reference to the partitions it reads, so a partition deleted or closed meanwhile is only closed
+ * when the last scan reading it ends.
+ */
+public class LocalLogStore implements Closeable {
+
+    private static final String FILE_SUFFIX = ".log";
+    private static final int RECORD_HEADER_SIZE = 4 + 8 + 4;
+    private static final int WRITE_BUFFER_SIZE = 64 * 1024;
+
+    public static final int DEFAULT_INDEX_INTERVAL = 128;
+
+    private final Logger logger = LoggerFactory.getLogger(this.getClass());
+
+    private final File directory;
+    private final long partitionMillis;
+    private final int indexInterval;
+
+    private final TreeMap<Long, Partition> partitions = new TreeMap<>();
+    private boolean closed;
+
+    public interface RecordCallback {
+        /**
+         * @return false to stop the scan
+         */
+        boolean onRecord(byte[] key, long timestamp, byte[] value);
+    }
+
+    public LocalLogStore(File directory, long partitionMillis) throws IOException {
+        this(directory, partitionMillis, DEFAULT_INDEX_INTERVAL);
+    }
+
+    public LocalLogStore(File directory, long partitionMillis, int indexInterval) throws IOException {
+        this.directory = Objects.requireNonNull(directory, "directory must not be null");
+        if (partitionMillis <= 0) {
+            throw new IllegalArgumentException("partitionMillis must be positive");
+        }
+        if (indexInterval <= 0) {
+            throw new IllegalArgumentException("indexInterval must be positive");
+        }
+        this.partitionMillis = partitionMillis;
+        this.indexInterval = indexInterval;
+
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            throw new IOException("can not create directory " + directory);
+        }
+        open();
+    }
+
+    private void open() throws IOException {
+        final File[] files = directory.listFiles();
+        if (files == null) {
+            return;
+        }
+        for (File file : files) {
+            final String name = file.getName();
+            if (!name.endsWith(FILE_SUFFIX)) {
+                continue;
+            }
+            final long partitionStart;
+            try {
+                partitionStart = Long.parseLong(name.substring(0, name.length() - FILE_SUFFIX.length()));
+            } catch (NumberFormatException e) {
+                logger.warn("skip unknown file {}", file);
+                continue;
+            }
+            final Partition partition = new Partition(partitionStart, file);
+            partition.recover();
+            partitions.put(partitionStart, partition);
+        }
+        logger.info("open LocalLogStore {} partitions:{}", directory, partitions.size());
+    }
+
+    public void append(byte[] key, long timestamp, byte[] value) throws IOException {
+        Objects.requireNonNull(key, "key must not be null");
+        Objects.requireNonNull(value, "value must not be null");
+
+        synchronized (this) {
+            checkOpen();
+            final long partitionStart = getPartitionStart(timestamp);
+            Partition partition = partitions.get(partitionStart);
+            if (partition == null) {
+                partition = new Partition(partitionStart, new File(directory, partitionStart + FILE_SUFFIX));
+                partitions.put(partitionStart, partition);
+            }
+            partition.append(key, timestamp, value);
+        }
+    }
+
+    /**
+     * Scans the records with {@code from <= timestamp < to}, partition by partition, in write order within a partition.
+     */
+    public void scan(long from, long to, RecordCallback callback) throws IOException {
+        scan(null, from, to, callback);
+    }
+
+    public List<byte[]> get(byte[] key, long from, long to) throws IOException {
+        Objects.requireNonNull(key, "key must not be null");
+        final List<byte[]> values = new ArrayList<>();
+        scan(key, from, to, new RecordCallback() {
+            @Override
+            public boolean onRecord(byte[] recordKey, long timestamp, byte[] value) {
+                values.add(value);
+                return true;
+            }
+        });
+        return values;
+    }
+
+    private void scan(byte[] key, long from, long to, RecordCallback callback) throws IOException {
+        Objects.requireNonNull(callback, "callback must not be null");
+        final List<PartitionSnapshot> snapshots = new ArrayList<>();
+        try {
+            synchronized (this) {
+                checkOpen();
+                final Long fromKey = partitions.floorKey(getPartitionStart(from));
+                final Map<Long, Partition> candidates = fromKey == null ? partitions.headMap(to, false) : partitions.subMap(fromKey, true, to, false);
+                for (Partition partition : candidates.values()) {
+                    snapshots.add(partition.snapshot());
+                }
+            }
+            for (PartitionSnapshot snapshot : snapshots) {
+                if (!snapshot.scan(key, from, to, callback)) {
+                    return;
+                }
+            }
+        } finally {
+            for (PartitionSnapshot snapshot : snapshots) {
+                snapshot.partition.release();
+            }
+        }
+    }
+
+    /**
+     * Deletes the partitions that only hold records older than {@code timestamp}.
+     *
+     * @return the number of deleted partitions
+     */
+    public synchronized int deleteBefore(long timestamp) throws IOException {
+        checkOpen();
+        int deleted = 0;
+        final Map<Long, Partition> expired = partitions.headMap(getPartitionStart(timestamp), false);
+        for (Partition partition : new ArrayList<>(expired.values())) {
+            partitions.remove(partition.partitionStart);
+            partition.retire(true);
+            deleted++;
+        }
+        return deleted;
+    }
+
+    public synchronized void flush() throws IOException {
+        checkOpen();
+        for (Partition partition : partitions.values()) {
+            partition.flush();
+        }
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        IOException exception = null;
+        for (Partition partition : partitions.values()) {
+            try {
+                partition.retire(false);
+            } catch (IOException e) {
+                exception = e;
+            }
+        }
+        partitions.clear();
+        if (exception != null) {
+            throw exception;
+        }
+    }
+
+    private void checkOpen() {
+        if (closed) {
+            throw new IllegalStateException("LocalLogStore already closed " + directory);
+        }
+    }
+
+    private long getPartitionStart(long timestamp) {
+        return timestamp - Math.floorMod(timestamp, partitionMillis);
+    }
+
+    private static class Block {
+        private final long offset;
+        private long minTimestamp = Long.MAX_VALUE;
+        private long maxTimestamp = Long.MIN_VALUE;
+        private int count;
+
+        private Block(long offset) {
+            this.offset = offset;
+        }
+
+        private void add(long timestamp) {
+            minTimestamp = Math.min(minTimestamp, timestamp);
+            maxTimestamp = Math.max(maxTimestamp, timestamp);
+            count++;
+        }
+
+        private boolean overlaps(long from, long to) {
+            return count > 0 && maxTimestamp >= from && minTimestamp < to;
+        }
+
+        private Block copy() {
+            final Block copy = new Block(offset);
+            copy.minTimestamp = minTimestamp;
+            copy.maxTimestamp = maxTimestamp;
+            copy.count = count;
+            return copy;
+        }
+    }
+
+    private class Partition {
+        private final long partitionStart;
+        private final File file;
+        private final FileChannel channel;
+        private final ByteBuffer writeBuffer = ByteBuffer.allocate(WRITE_BUFFER_SIZE);
+        // sparse index
+        private final List<Block> blocks = new ArrayList<>();
+        private long writePosition;
+        // guarded by the store lock
+        private int readers;
+        private boolean retired;
+        private boolean deleteOnClose;
+
+        private Partition(long partitionStart, File file) throws IOException {
+            this.partitionStart = partitionStart;
+            this.file = file;
+            this.channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            this.writePosition = channel.size();
+        }
+
+        private void recover() throws IOException {
+            final long size = channel.size();
+            final ByteBuffer header = ByteBuffer.allocate(RECORD_HEADER_SIZE);
+            long position = 0;
+            while (position < size) {
+                header.clear();
+                if (readFully(channel, header, position) < RECORD_HEADER_SIZE) {
+                    break;
+                }
+                header.flip();
+                final int length = header.getInt();
+                final long timestamp = header.getLong();
+                if (length < RECORD_HEADER_SIZE - 4 || position + 4 + length > size) {
+                    break;
+                }
+                index(position, timestamp);
+                position += 4 + length;
+            }
+            if (position < size) {
+                logger.warn("truncate torn record {} offset:{} size:{}", file, position, size);
+                channel.truncate(position);
+            }
+            this.writePosition = position;
+        }
+
+        private void append(byte[] key, long timestamp, byte[] value) throws IOException {
+            final int length = 8 + 4 + key.length + value.length;
+            if (4 + length > writeBuffer.remaining()) {
+                flush();
+            }
+            final long position = writePosition + writeBuffer.position();
+            if (4 + length > writeBuffer.capacity()) {
+                final ByteBuffer record = ByteBuffer.allocate(4 + length);
+                putRecord(record, length, key, timestamp, value);
+                record.flip();
+                writeFully(record, writePosition);
+                writePosition += record.limit();
+            } else {
+                putRecord(writeBuffer, length, key, timestamp, value);
+            }
+            index(position, timestamp);
+        }
+
+        private void putRecord(ByteBuffer buffer, int length, byte[] key, long timestamp, byte[] value) {
+            buffer.putInt(length);
+            buffer.putLong(timestamp);
+            buffer.putInt(key.length);
+            buffer.put(key);
+            buffer.put(value);
+        }
+
+        private void index(long position, long timestamp) {
+            Block block = blocks.isEmpty() ? null : blocks.get(blocks.size() - 1);
+            if (block == null || block.count >= indexInterval) {
+                block = new Block(position);
+                blocks.add(block);
+            }
+            block.add(timestamp);
+        }
+
+        private void flush() throws IOException {
+            if (writeBuffer.position() == 0) {
+                return;
+            }
+            writeBuffer.flip();
+            final int size = writeBuffer.limit();
+            writeFully(writeBuffer, writePosition);
+            writePosition += size;
+            writeBuffer.clear();
+        }
+
+        private void writeFully(ByteBuffer buffer, long position) throws IOException {
+            long offset = position;
+            while (buffer.hasRemaining()) {
+                offset += channel.write(buffer, offset);
+            }
+        }
+
+        private PartitionSnapshot snapshot() throws IOException {
+            flush();
+            final List<Block> copy = new ArrayList<>(blocks.size());
+            for (Block block : blocks) {
+                copy.add(block.copy());
+            }
+            readers++;
+            return new PartitionSnapshot(this, copy, writePosition);
+        }
+
+        private void release() {
+            synchronized (LocalLogStore.this) {
+                readers--;
+                if (retired && readers == 0) {
+                    try {
+                        close();
+                    } catch (IOException e) {
+                        logger.warn("can not close {}", file, e);
+                    }
+                }
+            }
+        }
+
+        /**
+         * Closes the partition, or leaves it to the last running scan.
+         */
+        private void retire(boolean delete) throws IOException {
+            retired = true;
+            deleteOnClose = delete;
+            try {
+                flush();
+            } finally {
+                if (readers == 0) {
+                    close();
+                }
+            }
+        }
+
+        private void close() throws IOException {
+            channel.close();
+            if (deleteOnClose && !file.delete()) {
+                logger.warn("can not delete {}", file);
+            }
+        }
+    }
+
+    private static class PartitionSnapshot {
+        private final Partition partition;
+        private final FileChannel channel;
+        private final List<Block> blocks;
+        private final long size;
+
+        private PartitionSnapshot(Partition partition, List<Block> blocks, long size) {
+            this.partition = partition;
+            this.channel = partition.channel;
+            this.blocks = blocks;
+            this.size = size;
+        }
+
+        private boolean scan(byte[] key, long from, long to, RecordCallback callback) throws IOException {
+            for (int i = 0; i < blocks.size(); i++) {
+                final Block block = blocks.get(i);
+                if (!block.overlaps(from, to)) {
+                    continue;
+                }
+                final long end = (i + 1 < blocks.size()) ? blocks.get(i + 1).offset : size;
+                final ByteBuffer buffer = ByteBuffer.allocate((int) (end - block.offset));
+                readFully(channel, buffer, block.offset);
+                buffer.flip();
+                while (buffer.remaining() >= RECORD_HEADER_SIZE) {
+                    final int length = buffer.getInt();
+                    final long timestamp = buffer.getLong();
+                    final int keyLength = buffer.getInt();
+                    final byte[] recordKey = new byte[keyLength];
+                    buffer.get(recordKey);
+                    final byte[] value = new byte[length - 8 - 4 - keyLength];
+                    buffer.get(value);
+
+                    if (timestamp < from || timestamp >= to) {
+                        continue;
+                    }
+                    if (key != null && !Arrays.equals(key, recordKey)) {
+                        continue;
+                    }
+                    if (!callback.onRecord(recordKey, timestamp, value)) {
+                        return false;
+                    }
+                }
+            }
+            return true;
+        }
+    }
+
+    private static int readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        int read = 0;
+        while (buffer.hasRemaining()) {
+            final int n = channel.read(buffer, position + read);
+            if (n < 0) {
+                break;
+            }
+            read += n;
+        }
+        return read;
+    }
+}
@@ -0,0 +1,56 @@
+/*
+ * Copyright 2019 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.navercorp.pinpoint.common.server.bo;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class AgentInfoBoTest {
+
+    @Test
+    public void testByteArrayConversion() {
+        final AgentInfoBo.Builder builder = new AgentInfoBo.Builder();
+        builder.setHostName("host");
+        builder.setIp("127.0.0.1");
+        builder.setPorts("8080");
+        builder.setApplicationName("app");
+        builder.setServiceTypeCode((short) 1000);
+        builder.setPid(1234);
+        builder.setAgentVersion("1.8.1");
+        builder.setStartTime(1000);
+        builder.setEndTimeStamp(2000);
+        builder.setEndStatus(1);
+        builder.setVmVersion("1.8.0");
+        builder.isContainer(true);
+        final AgentInfoBo testBo = builder.build();
+
+        final AgentInfoBo deserializedBo = new AgentInfoBo.Builder(testBo.writeValue()).build();
+
+        Assert.assertEquals(testBo.getHostName(), deserializedBo.getHostName());
+        Assert.assertEquals(testBo.getIp(), deserializedBo.getIp());
+        Assert.assertEquals(testBo.getPorts(), deserializedBo.getPorts());
+        Assert.assertEquals(testBo.getApplicationName(), deserializedBo.getApplicationName());
+        Assert.assertEquals(testBo.getServiceTypeCode(), deserializedBo.getServiceTypeCode());
+        Assert.assertEquals(testBo.getPid(), deserializedBo.getPid());
+        Assert.assertEquals(testBo.getAgentVersion(), deserializedBo.getAgentVersion());
+        Assert.assertEquals(testBo.getStartTime(), deserializedBo.getStartTime());
+        Assert.assertEquals(testBo.getEndTimeStamp(), deserializedBo.getEndTimeStamp());
+        Assert.assertEquals(testBo.getEndStatus(), deserializedBo.getEndStatus());
+        Assert.assertEquals(testBo.getVmVersion(), deserializedBo.getVmVersion());
+        Assert.assertEquals(testBo.isContainer(), deserializedBo.isContainer());
+    }
+}
@@ -0,0 +1,148 @@
+/*
+ * Copyright 2019 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.navercorp.pinpoint.common.server.bo.serializer.trace.v2;
+
+import com.google.common.collect.Lists;
+import com.navercorp.pinpoint.common.buffer.Buffer;
+import com.navercorp.pinpoint.common.buffer.OffsetFixedBuffer;
+import com.navercorp.pinpoint.common.server.bo.RandomTSpan;
+import com.navercorp.pinpoint.common.server.bo.SpanBo;
+import com.navercorp.pinpoint.common.server.bo.SpanChunkBo;
+import com.navercorp.pinpoint.common.server.bo.SpanEventBo;
+import com.navercorp.pinpoint.common.server.bo.SpanFactory;
+import com.navercorp.pinpoint.thrift.dto.TSpan;
+import com.navercorp.pinpoint.thrift.dto.TSpanChunk;
+import com.navercorp.pinpoint.thrift.dto.TSpanEvent;
+import org.apache.commons.lang3.builder.EqualsBuilder;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+public class SpanEncoderV1Test {
+
+    private static final int SPAN_EVENT_SIZE = 30;
+
+    private final RandomTSpan randomTSpan = new RandomTSpan();
+    private final SpanFactory spanFactory = new SpanFactory();
+
+    private final SpanDecoder spanDecoder = new SpanDecoderV1();
+
+    @Test
+    public void encodeSpan_none() {
+        SpanBo spanBo = repeatedSpan();
+        SpanBo decode = encodeAndDecode(new SpanEncoderV1(SpanEventListCompression.NONE), spanBo);
+
+        assertSpan(spanBo, decode);
+    }
+
+    @Test
+    public void encodeSpan_deflate() {
+        SpanBo spanBo = repeatedSpan();
+        SpanBo decode = encodeAndDecode(new SpanEncoderV1(SpanEventListCompression.DEFLATE), spanBo);
+
+        assertSpan(spanBo, decode);
+    }
+
+    @Test
+    public void encodeSpan_deflate_belowThreshold() {
+        SpanBo spanBo = spanFactory.buildSpanBo(randomTSpan.randomTSpan());
+        SpanBo decode = encodeAndDecode(new SpanEncoderV1(SpanEventListCompression.DEFLATE, Integer.MAX_VALUE), spanBo);
+
+        assertSpan(spanBo, decode);
+    }
+
+    @Test
+    public void encodeSpanChunk_deflate() {
+        TSpanChunk tSpanChunk = randomTSpan.randomTSpanChunk();
+        tSpanChunk.setSpanEventList(repeatedSpanEventList());
+        SpanChunkBo spanChunkBo = spanFactory.buildSpanChunkBo(tSpanChunk);
+        spanChunkBo.setCollectorAcceptTime(System.currentTimeMillis());
+
+        SpanEncoder spanEncoder = new SpanEncoderV1(SpanEventListCompression.DEFLATE);
+        SpanEncodingContext<SpanChunkBo> encodingContext = new SpanEncodingContext<SpanChunkBo>(spanChunkBo);
+        Buffer qualifier = wrapBuffer(spanEncoder.encodeSpanChunkQualifier(encodingContext));
+        Buffer column = wrapBuffer(spanEncoder.encodeSpanChunkColumnValue(encodingContext));
+
+        SpanDecodingContext decodingContext = new SpanDecodingContext();
+        decodingContext.setTransactionId(spanChunkBo.getTransactionId());
+        decodingContext.setCollectorAcceptedTime(spanChunkBo.getCollectorAcceptTime());
+
+        SpanChunkBo decode = (SpanChunkBo) spanDecoder.decode(qualifier, column, decodingContext);
+        Assert.assertTrue(EqualsBuilder.reflectionEquals(spanChunkBo.getSpanEventBoList(), decode.getSpanEventBoList()));
+    }
+
+    @Test
+    public void smallerThanV0() {
+        SpanBo spanBo = repeatedSpan();
+
+        int v0Size = new SpanEncoderV0().encodeSpanColumnValue(new SpanEncodingContext<SpanBo>(spanBo)).remaining();
+        int dictionarySize = new SpanEncoderV1(SpanEventListCompression.NONE).encodeSpanColumnValue(new SpanEncodingContext<SpanBo>(spanBo)).remaining();
+        int deflateSize = new SpanEncoderV1(SpanEventListCompression.DEFLATE).encodeSpanColumnValue(new SpanEncodingContext<SpanBo>(spanBo)).remaining();
+
+        Assert.assertTrue(dictionarySize < v0Size);
+        Assert.assertTrue(deflateSize <= dictionarySize);
+    }
+
+    private SpanBo repeatedSpan() {
+        TSpan tSpan = randomTSpan.randomTSpan();
+        tSpan.setSpanEventList(repeatedSpanEventList());
+        SpanBo spanBo = spanFactory.buildSpanBo(tSpan);
+        spanBo.setCollectorAcceptTime(System.currentTimeMillis());
+        return spanBo;
+    }
+
+    private List<TSpanEvent> repeatedSpanEventList() {
+        List<TSpanEvent> spanEventList = new ArrayList<TSpanEvent>(SPAN_EVENT_SIZE);
+        for (int i = 0; i < SPAN_EVENT_SIZE; i++) {
+            TSpanEvent tSpanEvent = randomTSpan.randomTSpanEvent((short) i);
+            tSpanEvent.setRpc("/repeated/rpc");
+            tSpanEvent.setEndPoint("localhost:3306");
+            tSpanEvent.setDestinationId("MYSQL_DATABASE");
+            spanEventList.add(tSpanEvent);
+        }
+        return spanEventList;
+    }
+
+    private SpanBo encodeAndDecode(SpanEncoder spanEncoder, SpanBo spanBo) {
+        SpanEncodingContext<SpanBo> encodingContext = new SpanEncodingContext<SpanBo>(spanBo);
+        Buffer qualifier = wrapBuffer(spanEncoder.encodeSpanQualifier(encodingContext));
+        Buffer column = wrapBuffer(spanEncoder.encodeSpanColumnValue(encodingContext));
+        Assert.assertEquals(SpanEncoderV1.ENCODING_VERSION, column.getByte(0));
+
+        SpanDecodingContext decodingContext = new SpanDecodingContext();
+        decodingContext.setTransactionId(spanBo.getTransactionId());
+        decodingContext.setCollectorAcceptedTime(spanBo.getCollectorAcceptTime());
+
+        return (SpanBo) spanDecoder.decode(qualifier, column, decodingContext);
+    }
+
+    private void assertSpan(SpanBo spanBo, SpanBo decode) {
+        List<String> notSerializedField = Lists.newArrayList("parentApplicationId", "parentApplicationServiceType", "annotationBoList", "spanEventBoList");
+        Assert.assertTrue(EqualsBuilder.reflectionEquals(decode, spanBo, notSerializedField));
+        Assert.assertTrue(EqualsBuilder.reflectionEquals(spanBo.getAnnotationBoList(), decode.getAnnotationBoList()));
+
+        List<SpanEventBo> decodedSpanEventBoList = decode.getSpanEventBoList();
+        Assert.assertTrue(EqualsBuilder.reflectionEquals(spanBo.getSpanEventBoList(), decodedSpanEventBoList));
+    }
+
+    private OffsetFixedBuffer wrapBuffer(ByteBuffer byteBuffer) {
+        return new OffsetFixedBuffer(byteBuffer.array(), byteBuffer.arrayOffset(), byteBuffer.remaining());
+    }
+}
@@ -0,0 +1,45 @@
+/*
+ * Copyright 2019 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.navercorp.pinpoint.common.server.bo.serializer.trace.v2;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+
+public class SpanEventListCompressionTest {
+
+    private final byte[] raw = "span-event,span-event,span-event".getBytes(StandardCharsets.UTF_8);
+
+    @Test
+    public void roundTrip() {
+        for (SpanEventListCompression compression : SpanEventListCompression.values()) {
+            byte[] padded = new byte[raw.length + 2];
+            System.arraycopy(raw, 0, padded, 1, raw.length);
+
+            byte[] compressed = compression.compress(padded, 1, raw.length);
+            byte[] decompressed = compression.decompress(compressed, raw.length);
+
+            Assert.assertArrayEquals(compression.name(), raw, decompressed);
+        }
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void none_lengthMismatch() {
+        SpanEventListCompression.NONE.decompress(raw, raw.length + 1);
+    }
+}
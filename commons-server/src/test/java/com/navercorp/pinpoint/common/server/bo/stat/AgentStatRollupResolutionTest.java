@@ -0,0 +1,52 @@
+/*
+ * Copyright 2019 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.navercorp.pinpoint.common.server.bo.stat;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+public class AgentStatRollupResolutionTest {
+
+    @Test
+    public void findCoarsest() {
+        Assert.assertNull(AgentStatRollupResolution.findCoarsest(TimeUnit.SECONDS.toMillis(5)));
+        Assert.assertEquals(AgentStatRollupResolution.ONE_MINUTE, AgentStatRollupResolution.findCoarsest(TimeUnit.MINUTES.toMillis(1)));
+        Assert.assertEquals(AgentStatRollupResolution.ONE_MINUTE, AgentStatRollupResolution.findCoarsest(TimeUnit.MINUTES.toMillis(5)));
+        Assert.assertEquals(AgentStatRollupResolution.TEN_MINUTES, AgentStatRollupResolution.findCoarsest(TimeUnit.MINUTES.toMillis(20)));
+        Assert.assertEquals(AgentStatRollupResolution.TEN_MINUTES, AgentStatRollupResolution.findCoarsest(TimeUnit.MINUTES.toMillis(30)));
+        Assert.assertEquals(AgentStatRollupResolution.ONE_HOUR, AgentStatRollupResolution.findCoarsest(TimeUnit.HOURS.toMillis(1)));
+    }
+
+    @Test
+    public void getSource() {
+        Assert.assertNull(AgentStatRollupResolution.ONE_MINUTE.getSource());
+        Assert.assertEquals(AgentStatRollupResolution.ONE_MINUTE, AgentStatRollupResolution.TEN_MINUTES.getSource());
+        Assert.assertEquals(AgentStatRollupResolution.TEN_MINUTES, AgentStatRollupResolution.ONE_HOUR.getSource());
+    }
+
+    @Test
+    public void rowTimespan_should_be_multiple_of_interval() {
+        for (AgentStatRollupResolution resolution : AgentStatRollupResolution.values()) {
+            Assert.assertEquals(0, resolution.getRowTimespan() % resolution.getInterval());
+            long timestamp = System.currentTimeMillis();
+            Assert.assertEquals(resolution.getBaseTimestamp(timestamp), resolution.getBaseTimestamp(resolution.refineTimestamp(timestamp)));
+        }
+    }
+}
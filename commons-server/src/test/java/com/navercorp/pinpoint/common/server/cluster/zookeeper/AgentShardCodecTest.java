@@ -0,0 +1,83 @@
+/*
+ * Copyright 2019 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.navercorp.pinpoint.common.server.cluster.zookeeper;
+
+import com.navercorp.pinpoint.common.util.BytesUtils;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+public class AgentShardCodecTest {
+
+    @Test
+    public void encodeDecode() {
+        Set<String> agentKeys = new HashSet<>(Arrays.asList("app:agent-1:1000", "app:agent-2:1000", "app:agent-10:2000", "other:agent:3000", "app"));
+
+        byte[] shardData = AgentShardCodec.encode(agentKeys);
+
+        Assert.assertEquals(agentKeys, AgentShardCodec.decode(shardData));
+    }
+
+    @Test
+    public void sharedPrefixIsCompressed() {
+        Set<String> agentKeys = new HashSet<>();
+        StringBuilder legacyFormat = new StringBuilder();
+        for (int i = 0; i < 1000; i++) {
+            String agentKey = "application-name:agent-id-" + i + ":1546300800000";
+            agentKeys.add(agentKey);
+            legacyFormat.append(agentKey).append("\r\n");
+        }
+
+        byte[] shardData = AgentShardCodec.encode(agentKeys);
+
+        Assert.assertEquals(agentKeys, AgentShardCodec.decode(shardData));
+        Assert.assertTrue(shardData.length * 2 < BytesUtils.toBytes(legacyFormat.toString()).length);
+    }
+
+    @Test
+    public void surrogatePair() {
+        Set<String> agentKeys = new HashSet<>(Arrays.asList("app:\uD83D\uDE00:1", "app:\uD83D\uDE01:1"));
+
+        Assert.assertEquals(agentKeys, AgentShardCodec.decode(AgentShardCodec.encode(agentKeys)));
+    }
+
+    @Test
+    public void empty() {
+        Assert.assertTrue(AgentShardCodec.decode(AgentShardCodec.encode(Collections.<String>emptySet())).isEmpty());
+        Assert.assertTrue(AgentShardCodec.decode(new byte[0]).isEmpty());
+    }
+
+    @Test
+    public void shardedMarker() {
+        Assert.assertTrue(AgentShardCodec.isShardedMarker(AgentShardCodec.getShardedMarker()));
+        Assert.assertFalse(AgentShardCodec.isShardedMarker(BytesUtils.toBytes("app:agent:1000")));
+        Assert.assertFalse(AgentShardCodec.isShardedMarker(new byte[0]));
+    }
+
+    @Test
+    public void shardIndex() {
+        for (int i = 0; i < 100; i++) {
+            int shardIndex = AgentShardCodec.shardIndex("app:agent-" + i + ":1000", 8);
+            Assert.assertTrue(shardIndex >= 0 && shardIndex < 8);
+        }
+    }
+}
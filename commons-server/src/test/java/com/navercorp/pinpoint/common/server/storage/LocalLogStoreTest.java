@@ -0,0 +1,176 @@
+/*
+ * Copyright 2019 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.navercorp.pinpoint.common.server.storage;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+public class LocalLogStoreTest {
+
+    private static final long PARTITION_MILLIS = 1000;
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void scanTimeRange() throws IOException {
+        try (LocalLogStore store = new LocalLogStore(temporaryFolder.newFolder(), PARTITION_MILLIS, 4)) {
+            for (int i = 0; i < 50; i++) {
+                store.append(bytes("key" + (i % 3)), i * 100L, bytes("value" + i));
+            }
+
+            List<String> values = scan(store, 1050, 2050);
+            Assert.assertEquals(10, values.size());
+            Assert.assertEquals("value11", values.get(0));
+            Assert.assertEquals("value20", values.get(9));
+        }
+    }
+
+    @Test
+    public void get() throws IOException {
+        try (LocalLogStore store = new LocalLogStore(temporaryFolder.newFolder(), PARTITION_MILLIS, 4)) {
+            for (int i = 0; i < 30; i++) {
+                store.append(bytes("key" + (i % 3)), i * 100L, bytes("value" + i));
+            }
+
+            List<byte[]> values = store.get(bytes("key1"), 0, Long.MAX_VALUE);
+            Assert.assertEquals(10, values.size());
+            Assert.assertEquals("value1", new String(values.get(0), StandardCharsets.UTF_8));
+            Assert.assertEquals("value28", new String(values.get(9), StandardCharsets.UTF_8));
+        }
+    }
+
+    @Test
+    public void reopen() throws IOException {
+        File directory = temporaryFolder.newFolder();
+        try (LocalLogStore store = new LocalLogStore(directory, PARTITION_MILLIS, 4)) {
+            for (int i = 0; i < 20; i++) {
+                store.append(bytes("key"), i * 100L, bytes("value" + i));
+            }
+        }
+        // torn record at the end of the last partition
+        try (RandomAccessFile file = new RandomAccessFile(new File(directory, "1000.log"), "rw")) {
+            file.seek(file.length());
+            file.writeInt(100);
+            file.writeLong(1900);
+        }
+
+        try (LocalLogStore store = new LocalLogStore(directory, PARTITION_MILLIS, 4)) {
+            Assert.assertEquals(20, scan(store, 0, Long.MAX_VALUE).size());
+
+            store.append(bytes("key"), 1950, bytes("value20"));
+            List<String> values = scan(store, 1000, 2000);
+            Assert.assertEquals(11, values.size());
+            Assert.assertEquals("value20", values.get(10));
+        }
+    }
+
+    @Test
+    public void deleteBefore() throws IOException {
+        try (LocalLogStore store = new LocalLogStore(temporaryFolder.newFolder(), PARTITION_MILLIS)) {
+            for (int i = 0; i < 30; i++) {
+                store.append(bytes("key"), i * 100L, bytes("value" + i));
+            }
+
+            Assert.assertEquals(2, store.deleteBefore(2500));
+            List<String> values = scan(store, 0, Long.MAX_VALUE);
+            Assert.assertEquals(10, values.size());
+            Assert.assertEquals("value20", values.get(0));
+        }
+    }
+
+    @Test
+    public void deleteDuringScan() throws IOException {
+        File directory = temporaryFolder.newFolder();
+        try (final LocalLogStore store = new LocalLogStore(directory, PARTITION_MILLIS, 1)) {
+            for (int i = 0; i < 5; i++) {
+                store.append(bytes("key"), i * 100L, bytes("value" + i));
+            }
+
+            final List<String> values = new ArrayList<>();
+            store.scan(0, Long.MAX_VALUE, new LocalLogStore.RecordCallback() {
+                @Override
+                public boolean onRecord(byte[] key, long timestamp, byte[] value) {
+                    if (values.isEmpty()) {
+                        try {
+                            Assert.assertEquals(1, store.deleteBefore(1000));
+                        } catch (IOException e) {
+                            throw new IllegalStateException(e);
+                        }
+                    }
+                    values.add(new String(value, StandardCharsets.UTF_8));
+                    return true;
+                }
+            });
+
+            // the running scan still reads every block of the deleted partition
+            Assert.assertEquals(5, values.size());
+            Assert.assertFalse(new File(directory, "0.log").exists());
+            Assert.assertTrue(scan(store, 0, Long.MAX_VALUE).isEmpty());
+        }
+    }
+
+    @Test
+    public void closeDuringScan() throws IOException {
+        final LocalLogStore store = new LocalLogStore(temporaryFolder.newFolder(), PARTITION_MILLIS, 1);
+        for (int i = 0; i < 5; i++) {
+            store.append(bytes("key"), i * 100L, bytes("value" + i));
+        }
+
+        final List<String> values = new ArrayList<>();
+        store.scan(0, Long.MAX_VALUE, new LocalLogStore.RecordCallback() {
+            @Override
+            public boolean onRecord(byte[] key, long timestamp, byte[] value) {
+                if (values.isEmpty()) {
+                    try {
+                        store.close();
+                    } catch (IOException e) {
+                        throw new IllegalStateException(e);
+                    }
+                }
+                values.add(new String(value, StandardCharsets.UTF_8));
+                return true;
+            }
+        });
+        Assert.assertEquals(5, values.size());
+    }
+
+    private List<String> scan(LocalLogStore store, long from, long to) throws IOException {
+        final List<String> values = new ArrayList<>();
+        store.scan(from, to, new LocalLogStore.RecordCallback() {
+            @Override
+            public boolean onRecord(byte[] key, long timestamp, byte[] value) {
+                values.add(new String(value, StandardCharsets.UTF_8));
+                return true;
+            }
+        });
+        return values;
+    }
+
+    private byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+}
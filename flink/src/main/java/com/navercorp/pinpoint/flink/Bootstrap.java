@@ -16,6 +16,8 @@
 package com.navercorp.pinpoint.flink;
 
 import com.navercorp.pinpoint.collector.receiver.thrift.TCPReceiverBean;
+import com.navercorp.pinpoint.common.hbase.HbaseTemplate2;
+import com.navercorp.pinpoint.common.hbase.TableNameProvider;
 import com.navercorp.pinpoint.flink.cluster.FlinkServerRegister;
 import com.navercorp.pinpoint.flink.config.FlinkConfiguration;
 import com.navercorp.pinpoint.flink.dao.hbase.*;
@@ -61,6 +63,8 @@ public class Bootstrap {
     private final TBaseFlatMapperInterceptor tBaseFlatMapperInterceptor;
     private final StatisticsDaoInterceptor statisticsDaoInterceptor;
     private final ApplicationStatBoWindowInterceptor applicationStatBoWindowInterceptor;
+    private final HbaseTemplate2 hbaseTemplate2;
+    private final TableNameProvider tableNameProvider;
 
     private Bootstrap() {
         applicationContext = new ClassPathXmlApplicationContext("applicationContext-flink.xml");
@@ -82,6 +86,16 @@ public class Bootstrap {
         tBaseFlatMapperInterceptor = applicationContext.getBean("tBaseFlatMapperInterceptor", TBaseFlatMapperInterceptor.class);
         statisticsDaoInterceptor =  applicationContext.getBean("statisticsDaoInterceptor", StatisticsDaoInterceptor.class);
         applicationStatBoWindowInterceptor = applicationContext.getBean("applicationStatBoWindowInterceptor", ApplicationStatBoWindowInterceptor.class);
+        hbaseTemplate2 = applicationContext.getBean("hbaseTemplate", HbaseTemplate2.class);
+        tableNameProvider = applicationContext.getBean("tableNameProvider", TableNameProvider.class);
+    }
+
+    public HbaseTemplate2 getHbaseTemplate2() {
+        return hbaseTemplate2;
+    }
+
+    public TableNameProvider getTableNameProvider() {
+        return tableNameProvider;
     }
 
     public FileDescriptorDao getFileDescriptorDao() {
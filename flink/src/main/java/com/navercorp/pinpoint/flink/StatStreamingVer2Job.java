@@ -20,8 +20,10 @@ package com.navercorp.pinpoint.flink;
  */
 
 import com.navercorp.pinpoint.common.server.bo.stat.join.JoinStatBo;
+import com.navercorp.pinpoint.flink.config.FlinkConfiguration;
 import com.navercorp.pinpoint.flink.dao.hbase.StatisticsDao;
 import com.navercorp.pinpoint.flink.function.ApplicationStatBoWindow;
+import com.navercorp.pinpoint.flink.function.PartitionedApplicationStatBoWindowOperator;
 import com.navercorp.pinpoint.flink.function.Timestamp;
 import com.navercorp.pinpoint.flink.function.ApplicationStatBoFliter;
 import com.navercorp.pinpoint.flink.receiver.TcpSourceFunction;
@@ -53,6 +55,11 @@ public class StatStreamingVer2Job implements Serializable {
         // set data source
         final TcpSourceFunction tcpSourceFunction = bootstrap.getTcpSourceFunction();
         final StreamExecutionEnvironment env = bootstrap.createStreamExecutionEnvironment();
+        final FlinkConfiguration flinkConfiguration = bootstrap.getFlinkConfiguration();
+        if (flinkConfiguration.isFlinkStatApplicationPartitioned()) {
+            // operators keep the partition of the source only with the same parallelism
+            env.setParallelism(flinkConfiguration.getFlinkSourceFunctionParallel());
+        }
         DataStreamSource<RawData> rawData = env.addSource(tcpSourceFunction);
         env.setStreamTimeCharacteristic(TimeCharacteristic.EventTime);
         bootstrap.setSourceFunctionParallel(rawData);
@@ -62,13 +69,19 @@ public class StatStreamingVer2Job implements Serializable {
 
         //1-1 save data processing application stat raw data
         final StatisticsDao statisticsDao = bootstrap.getStatisticsDao();
-        DataStream<Tuple3<String, JoinStatBo, Long>> applicationStatAggregationData = statOperator.filter(new ApplicationStatBoFliter())
-            .assignTimestampsAndWatermarks(new Timestamp())
-            .keyBy(0)
-            .window(TumblingEventTimeWindows.of(Time.milliseconds(ApplicationStatBoWindow.WINDOW_SIZE)))
-            .allowedLateness(Time.milliseconds(ApplicationStatBoWindow.ALLOWED_LATENESS))
-            .apply(new ApplicationStatBoWindow());
-        applicationStatAggregationData.writeUsingOutputFormat(statisticsDao);
+        final SingleOutputStreamOperator<Tuple3<String, JoinStatBo, Long>> applicationStatData = statOperator.filter(new ApplicationStatBoFliter())
+            .assignTimestampsAndWatermarks(new Timestamp());
+        DataStream<Tuple3<String, JoinStatBo, Long>> applicationStatAggregationData;
+        if (flinkConfiguration.isFlinkStatApplicationPartitioned()) {
+            applicationStatAggregationData = applicationStatData.transform("Partitioned Application Stat Window", applicationStatData.getType(),
+                new PartitionedApplicationStatBoWindowOperator(new ApplicationStatBoWindow(), ApplicationStatBoWindow.WINDOW_SIZE, ApplicationStatBoWindow.ALLOWED_LATENESS));
+        } else {
+            applicationStatAggregationData = applicationStatData.keyBy(0)
+                .window(TumblingEventTimeWindows.of(Time.milliseconds(ApplicationStatBoWindow.WINDOW_SIZE)))
+                .allowedLateness(Time.milliseconds(ApplicationStatBoWindow.ALLOWED_LATENESS))
+                .apply(new ApplicationStatBoWindow());
+        }
+        applicationStatAggregationData.addSink(statisticsDao);
 
         // 1-2. aggregate application stat data
 //        statOperator.filter(new FilterFunction<Tuple3<String, JoinStatBo, Long>>() {
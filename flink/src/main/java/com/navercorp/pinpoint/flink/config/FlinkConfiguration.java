@@ -35,6 +35,7 @@ public class FlinkConfiguration extends CollectorConfiguration {
     private String flinkStreamExecutionEnvironment;
 
     private int flinkSourceFunctionParallel;
+    private boolean flinkStatApplicationPartitioned;
 
     public boolean isFlinkClusterEnable() {
         return flinkClusterEnable;
@@ -60,6 +61,10 @@ public class FlinkConfiguration extends CollectorConfiguration {
         return flinkSourceFunctionParallel;
     }
 
+    public boolean isFlinkStatApplicationPartitioned() {
+        return flinkStatApplicationPartitioned;
+    }
+
     public boolean isLocalforFlinkStreamExecutionEnvironment() {
         return "local".equals(flinkStreamExecutionEnvironment) ? true : false;
     }
@@ -77,5 +82,6 @@ public class FlinkConfiguration extends CollectorConfiguration {
         this.flinkClusterTcpPort = readInt(properties,"flink.cluster.tcp.port", 19994);
         this.flinkStreamExecutionEnvironment = readString(properties, "flink.StreamExecutionEnvironment", "server");
         this.flinkSourceFunctionParallel = readInt(properties, "flink.sourceFunction.Parallel", 1);
+        this.flinkStatApplicationPartitioned = readBoolean(properties, "flink.stat.application.partitioned");
     }
 }
@@ -15,20 +15,12 @@
  */
 package com.navercorp.pinpoint.flink.dao.hbase;
 
-import com.navercorp.pinpoint.common.hbase.HBaseTables;
-import com.navercorp.pinpoint.common.hbase.HbaseTemplate2;
-import com.navercorp.pinpoint.common.hbase.TableNameProvider;
 import com.navercorp.pinpoint.common.server.bo.serializer.stat.ApplicationStatHbaseOperationFactory;
 import com.navercorp.pinpoint.common.server.bo.serializer.stat.join.DirectBufferSerializer;
 import com.navercorp.pinpoint.common.server.bo.stat.join.JoinStatBo;
 import com.navercorp.pinpoint.common.server.bo.stat.join.StatType;
-import org.apache.commons.collections.CollectionUtils;
-import org.apache.hadoop.hbase.TableName;
 import org.apache.hadoop.hbase.client.Put;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
 
-import java.util.Date;
 import java.util.List;
 import java.util.Objects;
 
@@ -36,31 +28,15 @@ import java.util.Objects;
  * @author Roy Kim
  */
 public class DirectBufferDao {
-    private final Logger logger = LoggerFactory.getLogger(this.getClass());
-
-    private final HbaseTemplate2 hbaseTemplate2;
     private final ApplicationStatHbaseOperationFactory applicationStatHbaseOperationFactory;
     private final DirectBufferSerializer directBufferSerializer;
-    private final TableNameProvider tableNameProvider;
 
-    public DirectBufferDao(HbaseTemplate2 hbaseTemplate2, ApplicationStatHbaseOperationFactory applicationStatHbaseOperationFactory, DirectBufferSerializer directBufferSerializer, TableNameProvider tableNameProvider) {
-        this.hbaseTemplate2 = Objects.requireNonNull(hbaseTemplate2, "hbaseTemplate2 must not be null");
+    public DirectBufferDao(ApplicationStatHbaseOperationFactory applicationStatHbaseOperationFactory, DirectBufferSerializer directBufferSerializer) {
         this.applicationStatHbaseOperationFactory = Objects.requireNonNull(applicationStatHbaseOperationFactory, "applicationStatHbaseOperationFactory must not be null");
         this.directBufferSerializer = Objects.requireNonNull(directBufferSerializer, "directBufferSerializer must not be null");
-        this.tableNameProvider = Objects.requireNonNull(tableNameProvider, "tableNameProvider must not be null");
     }
 
-    public void insert(String id, long timestamp, List<JoinStatBo> joinDirectBufferBoList, StatType statType) {
-        if (logger.isDebugEnabled()) {
-            logger.debug("[insert] {} : ({})", new Date(timestamp), joinDirectBufferBoList);
-        }
-        List<Put> directBufferPuts = applicationStatHbaseOperationFactory.createPuts(id, joinDirectBufferBoList, statType, directBufferSerializer);
-        if (!directBufferPuts.isEmpty()) {
-            TableName applicationStatAggreTableName = tableNameProvider.getTableName(HBaseTables.APPLICATION_STAT_AGGRE_STR);
-            List<Put> rejectedPuts = hbaseTemplate2.asyncPut(applicationStatAggreTableName, directBufferPuts);
-            if (CollectionUtils.isNotEmpty(rejectedPuts)) {
-                hbaseTemplate2.put(applicationStatAggreTableName, rejectedPuts);
-            }
-        }
+    public List<Put> createPuts(String id, List<JoinStatBo> joinDirectBufferBoList, StatType statType) {
+        return applicationStatHbaseOperationFactory.createPuts(id, joinDirectBufferBoList, statType, directBufferSerializer);
     }
 }
@@ -15,29 +15,53 @@
  */
 package com.navercorp.pinpoint.flink.dao.hbase;
 
+import com.navercorp.pinpoint.common.hbase.HBaseTables;
+import com.navercorp.pinpoint.common.hbase.HbaseTemplate2;
+import com.navercorp.pinpoint.common.hbase.TableNameProvider;
 import com.navercorp.pinpoint.common.server.bo.stat.join.JoinAgentStatBo;
 import com.navercorp.pinpoint.common.server.bo.stat.join.JoinApplicationStatBo;
 import com.navercorp.pinpoint.common.server.bo.stat.join.JoinStatBo;
 import com.navercorp.pinpoint.common.server.bo.stat.join.StatType;
+import com.navercorp.pinpoint.common.util.PinpointThreadFactory;
 import com.navercorp.pinpoint.flink.Bootstrap;
-import org.apache.flink.api.common.io.OutputFormat;
 import org.apache.flink.api.java.tuple.Tuple3;
 import org.apache.flink.configuration.Configuration;
+import org.apache.flink.metrics.Counter;
+import org.apache.flink.metrics.Gauge;
+import org.apache.flink.metrics.MetricGroup;
+import org.apache.flink.runtime.state.FunctionInitializationContext;
+import org.apache.flink.runtime.state.FunctionSnapshotContext;
+import org.apache.flink.streaming.api.checkpoint.CheckpointedFunction;
+import org.apache.flink.streaming.api.functions.sink.RichSinkFunction;
 import org.apache.flink.util.CollectionUtil;
+import org.apache.hadoop.hbase.TableName;
+import org.apache.hadoop.hbase.client.Put;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 
 /**
+ * Puts of application stats are buffered and written together.
+ * The buffer is flushed when it is full, by a timer when the last flush is older than the flush interval,
+ * at every checkpoint and when the sink is closed, so a completed checkpoint never loses stats.
+ * The timer also flushes a quiet stream, without waiting for the next stat. A failed timer flush fails the next
+ * stat or checkpoint.
+ *
  * @author minwoo.jung
  */
-public class StatisticsDao implements OutputFormat<Tuple3<String, JoinStatBo, Long>> {
+public class StatisticsDao extends RichSinkFunction<Tuple3<String, JoinStatBo, Long>> implements CheckpointedFunction {
     private final Logger logger = LoggerFactory.getLogger(this.getClass());
 
     private static final long serialVersionUID = 1L;
+    private static final int FLUSH_PUT_SIZE = 1000;
+    private static final long FLUSH_INTERVAL_MILLIS = 1000;
+
     private transient CpuLoadDao cpuLoadDao;
     private transient MemoryDao memoryDao;
     private transient TransactionDao transactionDao;
@@ -47,13 +71,24 @@ public class StatisticsDao implements OutputFormat<Tuple3<String, JoinStatBo, Lo
     private transient FileDescriptorDao fileDescriptorDao;
     private transient DirectBufferDao directBufferDao;
     private transient StatisticsDaoInterceptor statisticsDaoInterceptor;
+    private transient HbaseTemplate2 hbaseTemplate2;
+    private transient TableNameProvider tableNameProvider;
 
+    private transient Object flushLock;
+    private transient List<Put> pendingPuts;
+    private transient long lastFlushTime;
+    private transient ScheduledExecutorService flushScheduler;
+    private transient volatile Exception flushException;
+
+    private transient Counter writtenPutCounter;
+    private transient volatile long lastWriteLatency;
+    private transient volatile int lastBatchSize;
 
     public StatisticsDao() {
     }
 
     @Override
-    public void configure(Configuration parameters) {
+    public void open(Configuration parameters) throws Exception {
         Bootstrap bootstrap = Bootstrap.getInstance();
         cpuLoadDao = bootstrap.getCpuLoadDao();
         memoryDao = bootstrap.getMemoryDao();
@@ -64,14 +99,75 @@ public class StatisticsDao implements OutputFormat<Tuple3<String, JoinStatBo, Lo
         fileDescriptorDao = bootstrap.getFileDescriptorDao();
         directBufferDao = bootstrap.getDirectBufferDao();
         statisticsDaoInterceptor = bootstrap.getStatisticsDaoInterceptor();
+        hbaseTemplate2 = bootstrap.getHbaseTemplate2();
+        tableNameProvider = bootstrap.getTableNameProvider();
+        flushLock = new Object();
+        pendingPuts = new ArrayList<>();
+        lastFlushTime = System.currentTimeMillis();
+        flushScheduler = Executors.newSingleThreadScheduledExecutor(new PinpointThreadFactory("Pinpoint-StatisticsDao-Flush", true));
+        flushScheduler.scheduleWithFixedDelay(this::scheduledFlush, FLUSH_INTERVAL_MILLIS, FLUSH_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+
+        MetricGroup metricGroup = getRuntimeContext().getMetricGroup().addGroup("statisticsDao");
+        writtenPutCounter = metricGroup.counter("writtenPuts");
+        metricGroup.gauge("lastWriteLatencyMs", new Gauge<Long>() {
+            @Override
+            public Long getValue() {
+                return lastWriteLatency;
+            }
+        });
+        metricGroup.gauge("lastBatchSize", new Gauge<Integer>() {
+            @Override
+            public Integer getValue() {
+                return lastBatchSize;
+            }
+        });
     }
 
     @Override
-    public void open(int taskNumber, int numTasks) throws IOException {
+    public void initializeState(FunctionInitializationContext context) throws Exception {
+        // nothing to restore, the puts are flushed at every checkpoint
     }
 
     @Override
-    public void writeRecord(Tuple3<String, JoinStatBo, Long> statData) throws IOException {
+    public void snapshotState(FunctionSnapshotContext context) throws Exception {
+        checkFlushException();
+        synchronized (flushLock) {
+            flush();
+        }
+    }
+
+    @Override
+    public void invoke(Tuple3<String, JoinStatBo, Long> statData) throws Exception {
+        checkFlushException();
+        synchronized (flushLock) {
+            insert(statData);
+            if (pendingPuts.size() >= FLUSH_PUT_SIZE || System.currentTimeMillis() - lastFlushTime >= FLUSH_INTERVAL_MILLIS) {
+                flush();
+            }
+        }
+    }
+
+    private void scheduledFlush() {
+        try {
+            synchronized (flushLock) {
+                if (System.currentTimeMillis() - lastFlushTime >= FLUSH_INTERVAL_MILLIS) {
+                    flush();
+                }
+            }
+        } catch (Exception e) {
+            logger.warn("scheduled flush failed. Caused:{}", e.getMessage(), e);
+            flushException = e;
+        }
+    }
+
+    private void checkFlushException() throws Exception {
+        final Exception exception = flushException;
+        if (exception != null) {
+            throw new Exception("scheduled flush of application stats failed", exception);
+        }
+    }
+
+    private void insert(Tuple3<String, JoinStatBo, Long> statData) {
         statisticsDaoInterceptor.before(statData);
 
         try {
@@ -91,37 +187,46 @@ public class StatisticsDao implements OutputFormat<Tuple3<String, JoinStatBo, Lo
     }
 
     private void insertJoinApplicationStatBo(JoinApplicationStatBo joinApplicationStatBo) {
-        List<JoinStatBo> joinCpuLoadBoList = castJoinStatBoList(joinApplicationStatBo.getJoinCpuLoadBoList());
-        List<JoinStatBo> joinMemoryBoList = castJoinStatBoList(joinApplicationStatBo.getJoinMemoryBoList());
-        List<JoinStatBo> joinTransactionBoList = castJoinStatBoList(joinApplicationStatBo.getJoinTransactionBoList());
-        List<JoinStatBo> joinActiveTraceBoList = castJoinStatBoList(joinApplicationStatBo.getJoinActiveTraceBoList());
-        List<JoinStatBo> joinResponseTimeBoList = castJoinStatBoList(joinApplicationStatBo.getJoinResponseTimeBoList());
-        List<JoinStatBo> joinDataSourceBoList = castJoinStatBoList(joinApplicationStatBo.getJoinDataSourceListBoList());
-        List<JoinStatBo> joinFileDescriptorBoList = castJoinStatBoList(joinApplicationStatBo.getJoinFileDescriptorBoList());
-        List<JoinStatBo> joinDirectBufferBoList = castJoinStatBoList(joinApplicationStatBo.getJoinDirectBufferBoList());
-
         if (joinApplicationStatBo.getStatType() == StatType.APP_STST_AGGRE) {
 //            logger.info("insert application aggre : " + new Date(joinApplicationStatBo.getTimestamp()) + " ("+ joinApplicationStatBo.getApplicationId() + " )");
         } else {
             final String id = joinApplicationStatBo.getId();
-            final long timestamp = joinApplicationStatBo.getTimestamp();
-            cpuLoadDao.insert(id, timestamp, joinCpuLoadBoList, StatType.APP_CPU_LOAD);
-            memoryDao.insert(id, timestamp, joinMemoryBoList, StatType.APP_MEMORY_USED);
-            transactionDao.insert(id, timestamp, joinTransactionBoList, StatType.APP_TRANSACTION_COUNT);
-            activeTraceDao.insert(id, timestamp, joinActiveTraceBoList, StatType.APP_ACTIVE_TRACE_COUNT);
-            responseTimeDao.insert(id, timestamp, joinResponseTimeBoList, StatType.APP_RESPONSE_TIME);
-            dataSourceDao.insert(id, timestamp, joinDataSourceBoList, StatType.APP_DATA_SOURCE);
-            fileDescriptorDao.insert(id, timestamp, joinFileDescriptorBoList, StatType.APP_FILE_DESCRIPTOR);
-            directBufferDao.insert(id, timestamp, joinDirectBufferBoList, StatType.APP_DIRECT_BUFFER);
+            // puts of every stat type are sent to hbase together
+            final List<Put> puts = pendingPuts;
+            puts.addAll(cpuLoadDao.createPuts(id, asJoinStatBoList(joinApplicationStatBo.getJoinCpuLoadBoList()), StatType.APP_CPU_LOAD));
+            puts.addAll(memoryDao.createPuts(id, asJoinStatBoList(joinApplicationStatBo.getJoinMemoryBoList()), StatType.APP_MEMORY_USED));
+            puts.addAll(transactionDao.createPuts(id, asJoinStatBoList(joinApplicationStatBo.getJoinTransactionBoList()), StatType.APP_TRANSACTION_COUNT));
+            puts.addAll(activeTraceDao.createPuts(id, asJoinStatBoList(joinApplicationStatBo.getJoinActiveTraceBoList()), StatType.APP_ACTIVE_TRACE_COUNT));
+            puts.addAll(responseTimeDao.createPuts(id, asJoinStatBoList(joinApplicationStatBo.getJoinResponseTimeBoList()), StatType.APP_RESPONSE_TIME));
+            puts.addAll(dataSourceDao.createPuts(id, asJoinStatBoList(joinApplicationStatBo.getJoinDataSourceListBoList()), StatType.APP_DATA_SOURCE));
+            puts.addAll(fileDescriptorDao.createPuts(id, asJoinStatBoList(joinApplicationStatBo.getJoinFileDescriptorBoList()), StatType.APP_FILE_DESCRIPTOR));
+            puts.addAll(directBufferDao.createPuts(id, asJoinStatBoList(joinApplicationStatBo.getJoinDirectBufferBoList()), StatType.APP_DIRECT_BUFFER));
         }
     }
 
-    private List<JoinStatBo> castJoinStatBoList(List<? extends JoinStatBo> JoinStatBoList) {
-        if (CollectionUtil.isNullOrEmpty(JoinStatBoList)) {
-            return new ArrayList<>(0);
+    private void flush() {
+        final long startTime = System.currentTimeMillis();
+        lastFlushTime = startTime;
+        if (pendingPuts.isEmpty()) {
+            return;
         }
+        final List<Put> puts = pendingPuts;
+        final TableName applicationStatAggreTableName = tableNameProvider.getTableName(HBaseTables.APPLICATION_STAT_AGGRE_STR);
+        // written synchronously, the puts are kept for the next flush if hbase fails
+        hbaseTemplate2.put(applicationStatAggreTableName, puts);
+        pendingPuts = new ArrayList<>();
+
+        writtenPutCounter.inc(puts.size());
+        lastBatchSize = puts.size();
+        lastWriteLatency = System.currentTimeMillis() - startTime;
+    }
 
-        return new ArrayList<>(JoinStatBoList);
+    private List<JoinStatBo> asJoinStatBoList(List<? extends JoinStatBo> joinStatBoList) {
+        if (CollectionUtil.isNullOrEmpty(joinStatBoList)) {
+            return Collections.emptyList();
+        }
+        // read only view instead of a copy
+        return Collections.unmodifiableList(joinStatBoList);
     }
 
     private void insertJoinAgentStatBo(JoinAgentStatBo joinAgentStatBo) {
@@ -147,6 +252,15 @@ public class StatisticsDao implements OutputFormat<Tuple3<String, JoinStatBo, Lo
     }
 
     @Override
-    public void close() throws IOException {
+    public void close() throws Exception {
+        if (flushScheduler != null) {
+            flushScheduler.shutdown();
+            flushScheduler.awaitTermination(FLUSH_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+        }
+        if (pendingPuts != null) {
+            synchronized (flushLock) {
+                flush();
+            }
+        }
     }
 }
\ No newline at end of file
@@ -0,0 +1,194 @@
+/*
+ * Copyright 2019 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.navercorp.pinpoint.flink.function;
+
+import com.navercorp.pinpoint.common.server.bo.stat.join.JoinStatBo;
+import org.apache.flink.api.common.state.ListState;
+import org.apache.flink.api.common.state.ListStateDescriptor;
+import org.apache.flink.api.common.typeinfo.TypeHint;
+import org.apache.flink.api.common.typeinfo.TypeInformation;
+import org.apache.flink.api.java.tuple.Tuple1;
+import org.apache.flink.api.java.tuple.Tuple3;
+import org.apache.flink.runtime.state.StateInitializationContext;
+import org.apache.flink.runtime.state.StateSnapshotContext;
+import org.apache.flink.streaming.api.operators.AbstractUdfStreamOperator;
+import org.apache.flink.streaming.api.operators.ChainingStrategy;
+import org.apache.flink.streaming.api.operators.OneInputStreamOperator;
+import org.apache.flink.streaming.api.operators.TimestampedCollector;
+import org.apache.flink.streaming.api.watermark.Watermark;
+import org.apache.flink.streaming.api.windowing.windows.TimeWindow;
+import org.apache.flink.streaming.runtime.streamrecord.StreamRecord;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Tumbling event time window of {@link ApplicationStatBoWindow} run on the partition the stats arrive on, without keyBy.
+ * <p>
+ * Only correct when all stats of an application arrive on the same partition,
+ * i.e. the collectors route stats by application and every operator runs with the parallelism of the source.
+ * Fires, re-fires on late stats and purges like the keyed window with allowed lateness.
+ */
+public class PartitionedApplicationStatBoWindowOperator extends AbstractUdfStreamOperator<Tuple3<String, JoinStatBo, Long>, ApplicationStatBoWindow>
+        implements OneInputStreamOperator<Tuple3<String, JoinStatBo, Long>, Tuple3<String, JoinStatBo, Long>> {
+
+    private static final long serialVersionUID = 1L;
+
+    private static final String STATE_NAME = "partitioned-application-stat-window";
+
+    private final long windowSize;
+    private final long allowedLateness;
+
+    private transient Map<WindowKey, List<Tuple3<String, JoinStatBo, Long>>> windowContents;
+    private transient ListState<Tuple3<String, JoinStatBo, Long>> checkpointedState;
+    private transient TimestampedCollector<Tuple3<String, JoinStatBo, Long>> collector;
+    private transient long currentWatermark;
+
+    public PartitionedApplicationStatBoWindowOperator(ApplicationStatBoWindow applicationStatBoWindow, long windowSize, long allowedLateness) {
+        super(applicationStatBoWindow);
+        if (windowSize <= 0) {
+            throw new IllegalArgumentException("windowSize must be greater than 0");
+        }
+        this.windowSize = windowSize;
+        this.allowedLateness = allowedLateness;
+        this.chainingStrategy = ChainingStrategy.ALWAYS;
+    }
+
+    @Override
+    public void initializeState(StateInitializationContext context) throws Exception {
+        super.initializeState(context);
+        this.windowContents = new HashMap<>();
+        this.currentWatermark = Long.MIN_VALUE;
+
+        final TypeInformation<Tuple3<String, JoinStatBo, Long>> typeInformation = TypeInformation.of(new TypeHint<Tuple3<String, JoinStatBo, Long>>() {});
+        this.checkpointedState = context.getOperatorStateStore().getListState(new ListStateDescriptor<>(STATE_NAME, typeInformation));
+        if (context.isRestored()) {
+            for (Tuple3<String, JoinStatBo, Long> value : checkpointedState.get()) {
+                getWindowContent(new WindowKey(value.f0, getWindowStart(value.f2))).add(value);
+            }
+        }
+    }
+
+    @Override
+    public void open() throws Exception {
+        super.open();
+        this.collector = new TimestampedCollector<>(output);
+    }
+
+    @Override
+    public void processElement(StreamRecord<Tuple3<String, JoinStatBo, Long>> element) throws Exception {
+        final Tuple3<String, JoinStatBo, Long> value = element.getValue();
+        final long windowStart = getWindowStart(element.getTimestamp());
+        final long windowMaxTimestamp = getWindowMaxTimestamp(windowStart);
+        if (windowMaxTimestamp + allowedLateness <= currentWatermark) {
+            // the window is already purged
+            return;
+        }
+
+        final WindowKey windowKey = new WindowKey(value.f0, windowStart);
+        final List<Tuple3<String, JoinStatBo, Long>> content = getWindowContent(windowKey);
+        content.add(value);
+        if (windowMaxTimestamp <= currentWatermark) {
+            fire(windowKey, content);
+        }
+    }
+
+    @Override
+    public void processWatermark(Watermark mark) throws Exception {
+        final long previousWatermark = currentWatermark;
+        this.currentWatermark = mark.getTimestamp();
+
+        final Iterator<Map.Entry<WindowKey, List<Tuple3<String, JoinStatBo, Long>>>> iterator = windowContents.entrySet().iterator();
+        while (iterator.hasNext()) {
+            final Map.Entry<WindowKey, List<Tuple3<String, JoinStatBo, Long>>> entry = iterator.next();
+            final long windowMaxTimestamp = getWindowMaxTimestamp(entry.getKey().windowStart);
+            if (previousWatermark < windowMaxTimestamp && windowMaxTimestamp <= currentWatermark) {
+                fire(entry.getKey(), entry.getValue());
+            }
+            if (windowMaxTimestamp + allowedLateness <= currentWatermark) {
+                iterator.remove();
+            }
+        }
+        output.emitWatermark(mark);
+    }
+
+    @Override
+    public void snapshotState(StateSnapshotContext context) throws Exception {
+        super.snapshotState(context);
+        checkpointedState.clear();
+        for (List<Tuple3<String, JoinStatBo, Long>> content : windowContents.values()) {
+            for (Tuple3<String, JoinStatBo, Long> value : content) {
+                checkpointedState.add(value);
+            }
+        }
+    }
+
+    private void fire(WindowKey windowKey, List<Tuple3<String, JoinStatBo, Long>> content) throws Exception {
+        final TimeWindow window = new TimeWindow(windowKey.windowStart, windowKey.windowStart + windowSize);
+        collector.setAbsoluteTimestamp(window.maxTimestamp());
+        userFunction.apply(new Tuple1<>(windowKey.applicationId), window, content, collector);
+    }
+
+    private List<Tuple3<String, JoinStatBo, Long>> getWindowContent(WindowKey windowKey) {
+        List<Tuple3<String, JoinStatBo, Long>> content = windowContents.get(windowKey);
+        if (content == null) {
+            content = new ArrayList<>();
+            windowContents.put(windowKey, content);
+        }
+        return content;
+    }
+
+    private long getWindowStart(long timestamp) {
+        return timestamp - (timestamp % windowSize + windowSize) % windowSize;
+    }
+
+    private long getWindowMaxTimestamp(long windowStart) {
+        return windowStart + windowSize - 1;
+    }
+
+    private static final class WindowKey {
+        private final String applicationId;
+        private final long windowStart;
+
+        private WindowKey(String applicationId, long windowStart) {
+            this.applicationId = applicationId;
+            this.windowStart = windowStart;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+
+            WindowKey windowKey = (WindowKey) o;
+
+            if (windowStart != windowKey.windowStart) return false;
+            return applicationId != null ? applicationId.equals(windowKey.applicationId) : windowKey.applicationId == null;
+        }
+
+        @Override
+        public int hashCode() {
+            int result = applicationId != null ? applicationId.hashCode() : 0;
+            result = 31 * result + (int) (windowStart ^ (windowStart >>> 32));
+            return result;
+        }
+    }
+}
@@ -19,10 +19,13 @@ package com.navercorp.pinpoint.flink.receiver;
 import com.navercorp.pinpoint.collector.handler.SimpleHandler;
 import com.navercorp.pinpoint.flink.vo.RawData;
 import com.navercorp.pinpoint.io.request.ServerRequest;
+import com.navercorp.pinpoint.thrift.dto.flink.TFAgentStatBatch;
+import com.navercorp.pinpoint.thrift.dto.flink.TFAgentStatBatchList;
 import org.apache.flink.streaming.api.functions.source.SourceFunction.SourceContext;
 import org.apache.thrift.TBase;
 
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 
@@ -45,6 +48,18 @@ public class AgentStatHandler implements SimpleHandler {
         final TBase<?, ?> tBase = (TBase<?, ?>) serverRequest.getData();
         final Map<String, String> metaInfo = new HashMap<>(serverRequest.getHeaderEntity().getEntityAll());
 
+        if (tBase instanceof TFAgentStatBatchList) {
+            // stats of several agents batched by the collector are handled one agent at a time as before
+            final List<TFAgentStatBatch> agentStatBatchList = ((TFAgentStatBatchList) tBase).getAgentStatBatchList();
+            if (agentStatBatchList == null) {
+                return;
+            }
+            for (TFAgentStatBatch tFAgentStatBatch : agentStatBatchList) {
+                sourceContext.collect(new RawData(tFAgentStatBatch, metaInfo));
+            }
+            return;
+        }
+
         RawData rawData = new RawData(tBase, metaInfo);
         sourceContext.collect(rawData);
     }
@@ -16,9 +16,6 @@
 
 package com.navercorp.pinpoint.plugin.cassandra.interceptor;
 
-import java.util.HashMap;
-import java.util.Map;
-
 import com.datastax.driver.core.BatchStatement;
 import com.datastax.driver.core.BoundStatement;
 import com.datastax.driver.core.RegularStatement;
@@ -36,8 +33,8 @@ import com.navercorp.pinpoint.bootstrap.plugin.jdbc.BindValueAccessor;
 import com.navercorp.pinpoint.bootstrap.plugin.jdbc.DatabaseInfoAccessor;
 import com.navercorp.pinpoint.bootstrap.plugin.jdbc.ParsingResultAccessor;
 import com.navercorp.pinpoint.bootstrap.plugin.jdbc.UnKnownDatabaseInfo;
+import com.navercorp.pinpoint.bootstrap.plugin.jdbc.bindvalue.BindValueBuffer;
 import com.navercorp.pinpoint.bootstrap.plugin.jdbc.bindvalue.BindValueUtils;
-import com.navercorp.pinpoint.common.util.MapUtils;
 import com.navercorp.pinpoint.plugin.cassandra.field.WrappedStatementGetter;
 
 /**
@@ -101,10 +98,10 @@ public class CassandraStatementExecuteQueryInterceptor implements AroundIntercep
                     }
                 }
 
-                Map<Integer, String> bindValue = ((BindValueAccessor) target)._$PINPOINT$_getBindValue();
+                BindValueBuffer bindValue = ((BindValueAccessor) target)._$PINPOINT$_getBindValue();
                 // TODO Add bind variable interceptors to BoundStatement's setter methods and bind method and pass it down
                 // Extracting bind variables from already-serialized is too risky
-                if (MapUtils.hasLength(bindValue)) {
+                if (bindValue != null && !bindValue.isEmpty()) {
                     String bindString = toBindVariable(bindValue);
                     recorder.recordSqlParsingResult(parsingResult, bindString);
                 } else {
@@ -145,11 +142,14 @@ public class CassandraStatementExecuteQueryInterceptor implements AroundIntercep
 
     private void clean(Object target) {
         if (target instanceof BindValueAccessor) {
-            ((BindValueAccessor) target)._$PINPOINT$_setBindValue(new HashMap<Integer, String>());
+            final BindValueBuffer bindValue = ((BindValueAccessor) target)._$PINPOINT$_getBindValue();
+            if (bindValue != null) {
+                bindValue.clear();
+            }
         }
     }
 
-    private String toBindVariable(Map<Integer, String> bindValue) {
+    private String toBindVariable(BindValueBuffer bindValue) {
         return BindValueUtils.bindValueToString(bindValue, maxSqlBindValueLength);
     }
 
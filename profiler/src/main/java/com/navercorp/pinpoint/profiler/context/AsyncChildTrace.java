@@ -117,17 +117,25 @@ public class AsyncChildTrace implements Trace {
             if (isWarn) {
                 stackDump("already closed trace");
             }
-            final SpanEvent dummy = newSpanEvent(stackId);
+            final SpanEvent dummy = newDummySpanEvent(stackId);
             return dummy;
         }
         // Set properties for the case when stackFrame is not used as part of Span.
-        final SpanEvent spanEvent = newSpanEvent(stackId);
+        // a frame beyond the max depth is dropped by the call stack, so it does not take a pooled span event
+        final SpanEvent spanEvent = callStack.isOverflow() ? newDummySpanEvent(stackId) : newSpanEvent(stackId);
         this.callStack.push(spanEvent);
         return spanEvent;
     }
 
     private SpanEvent newSpanEvent(int stackId) {
-        final SpanEvent spanEvent = new SpanEvent();
+        final SpanEvent spanEvent = callStack.getFactory().newInstance();
+        spanEvent.markStartTime();
+        spanEvent.setStackId(stackId);
+        return spanEvent;
+    }
+
+    private SpanEvent newDummySpanEvent(int stackId) {
+        final SpanEvent spanEvent = callStack.getFactory().dummyInstance();
         spanEvent.markStartTime();
         spanEvent.setStackId(stackId);
         return spanEvent;
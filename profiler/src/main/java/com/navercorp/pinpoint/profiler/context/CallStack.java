@@ -30,6 +30,11 @@ public interface CallStack<T> {
 
     boolean empty();
 
+    /**
+     * @return true if the max depth is reached and the next pushed element is dropped
+     */
+    boolean isOverflow();
+
     T[] copyStackFrame();
 
     int getMaxDepth();
@@ -41,6 +46,13 @@ public interface CallStack<T> {
 
         T newInstance();
 
+        /**
+         * @return an instance that is not pooled, used in place of the frames the call stack does not keep
+         */
+        T dummyInstance();
+
+        T[] newArray(int size);
+
         void markDepth(T element, int index);
 
         void setSequence(T element, short sequence);
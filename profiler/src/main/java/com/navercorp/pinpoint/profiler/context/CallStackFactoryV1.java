@@ -16,16 +16,24 @@
 
 package com.navercorp.pinpoint.profiler.context;
 
+import com.navercorp.pinpoint.profiler.context.pool.DisabledSpanObjectPool;
+import com.navercorp.pinpoint.profiler.context.pool.SpanObjectPool;
+
 /**
  * @author Woonduk Kang(emeroad)
  */
 public class CallStackFactoryV1 implements CallStackFactory<SpanEvent> {
 
-    private final CallStack.Factory<SpanEvent> factory = new SpanEventFactory();
+    private final CallStack.Factory<SpanEvent> factory;
     private final int maxDepth;
 
     public CallStackFactoryV1(int maxDepth) {
+        this(maxDepth, DisabledSpanObjectPool.INSTANCE);
+    }
+
+    public CallStackFactoryV1(int maxDepth, SpanObjectPool spanObjectPool) {
         this.maxDepth = maxDepth;
+        this.factory = new SpanEventFactory(spanObjectPool);
     }
 
     @Override
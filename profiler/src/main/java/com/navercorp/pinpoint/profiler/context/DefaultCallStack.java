@@ -16,9 +16,6 @@
 
 package com.navercorp.pinpoint.profiler.context;
 
-import com.navercorp.pinpoint.common.annotations.VisibleForTesting;
-
-import java.lang.reflect.Array;
 import java.util.Arrays;
 
 /**
@@ -43,17 +40,11 @@ public class DefaultCallStack<T> implements CallStack<T> {
         this(factory, -1);
     }
 
-    @SuppressWarnings("unchecked")
     public DefaultCallStack(Factory<T> factory, int maxDepth) {
         this.factory = factory;
         this.maxDepth = maxDepth;
 
-        this.stack = newStack(factory.getType(), STACK_SIZE);
-    }
-
-    @SuppressWarnings("unchecked")
-    private T[] newStack(Class<T> type, int size) {
-        return (T[]) Array.newInstance(type, size);
+        this.stack = factory.newArray(STACK_SIZE);
     }
 
 
@@ -89,7 +80,7 @@ public class DefaultCallStack<T> implements CallStack<T> {
         final T[] originalStack = this.stack;
         if (size >= originalStack.length) {
             final int copyStackSize = originalStack.length << 1;
-            final T[] copyStack = newStack(factory.getType(), copyStackSize);
+            final T[] copyStack = factory.newArray(copyStackSize);
             System.arraycopy(originalStack, 0, copyStack, 0, originalStack.length);
             this.stack = copyStack;
         }
@@ -99,7 +90,7 @@ public class DefaultCallStack<T> implements CallStack<T> {
     public T pop() {
         if (isOverflow() && overflowIndex > 0) {
             overflowIndex--;
-            return factory.newInstance();
+            return factory.dummyInstance();
         }
 
         final T spanEvent = peek();
@@ -117,7 +108,7 @@ public class DefaultCallStack<T> implements CallStack<T> {
         }
 
         if (isOverflow() && overflowIndex > 0) {
-            return factory.newInstance();
+            return factory.dummyInstance();
         }
         return stack[index - 1];
     }
@@ -131,7 +122,7 @@ public class DefaultCallStack<T> implements CallStack<T> {
     public T[] copyStackFrame() {
         // without synchronization arraycopy, last index is null reference
         final T[] currentStack = this.stack;
-        final T[] copyStack = newStack(factory.getType(), currentStack.length);
+        final T[] copyStack = factory.newArray(currentStack.length);
         System.arraycopy(currentStack, 0, copyStack, 0, currentStack.length);
         return copyStack;
     }
@@ -141,8 +132,8 @@ public class DefaultCallStack<T> implements CallStack<T> {
         return maxDepth;
     }
 
-    @VisibleForTesting
-    boolean isOverflow() {
+    @Override
+    public boolean isOverflow() {
         return maxDepth != -1 && maxDepth < index;
     }
 
@@ -97,11 +97,12 @@ public final class DefaultTrace implements Trace, TraceRootSupport {
             if (isWarn) {
                 stackDump("already closed trace");
             }
-            final SpanEvent dummy = newSpanEvent(stackId);
+            final SpanEvent dummy = newDummySpanEvent(stackId);
             return wrappedSpanEventRecorder(this.wrappedSpanEventRecorder, dummy);
         }
         // Set properties for the case when stackFrame is not used as part of Span.
-        final SpanEvent spanEvent = newSpanEvent(stackId);
+        // a frame beyond the max depth is dropped by the call stack, so it does not take a pooled span event
+        final SpanEvent spanEvent = callStack.isOverflow() ? newDummySpanEvent(stackId) : newSpanEvent(stackId);
         this.callStack.push(spanEvent);
         return wrappedSpanEventRecorder(this.wrappedSpanEventRecorder, spanEvent);
     }
@@ -113,6 +114,13 @@ public final class DefaultTrace implements Trace, TraceRootSupport {
         return spanEvent;
     }
 
+    private SpanEvent newDummySpanEvent(int stackId) {
+        final SpanEvent spanEvent = callStack.getFactory().dummyInstance();
+        spanEvent.markStartTime();
+        spanEvent.setStackId(stackId);
+        return spanEvent;
+    }
+
 
     private void stackDump(String caused) {
         PinpointException exception = new PinpointException(caused);
@@ -282,7 +290,7 @@ public final class DefaultTrace implements Trace, TraceRootSupport {
                 stackDump("call stack is empty");
             }
             // make dummy.
-            spanEvent = newSpanEvent();
+            spanEvent = callStack.getFactory().dummyInstance();
         }
 
         return wrappedSpanEventRecorder(this.wrappedSpanEventRecorder, spanEvent);
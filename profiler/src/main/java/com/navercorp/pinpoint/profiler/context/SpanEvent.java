@@ -17,6 +17,8 @@
 package com.navercorp.pinpoint.profiler.context;
 
 import com.navercorp.pinpoint.common.util.IntStringValue;
+import com.navercorp.pinpoint.profiler.context.pool.Recyclable;
+import com.navercorp.pinpoint.profiler.context.pool.Recycler;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -27,7 +29,7 @@ import java.util.List;
  * @author netspider
  * @author emeroad
  */
-public class SpanEvent extends DefaultFrameAttachment {
+public class SpanEvent extends DefaultFrameAttachment implements Recyclable {
 
     private boolean timeRecording = true;
     private int stackId;
@@ -53,9 +55,48 @@ public class SpanEvent extends DefaultFrameAttachment {
     private AsyncId asyncIdObject;
     private LocalAsyncId localAsyncId;
 
+    private Recycler.Handle recycleHandle;
+
     public SpanEvent() {
     }
 
+    /**
+     * Restores the initial state so that a pooled instance can be reused.
+     * The annotation list is kept and cleared to avoid allocating a new one for the next event.
+     */
+    public void reset() {
+        detachFrameObject();
+        this.timeRecording = true;
+        this.stackId = 0;
+        this.startTime = 0;
+        this.elapsedTime = 0;
+        this.sequence = 0;
+        this.serviceType = 0;
+        this.endPoint = null;
+        if (this.annotations instanceof ArrayList) {
+            this.annotations.clear();
+        } else {
+            this.annotations = null;
+        }
+        this.depth = -1;
+        this.nextSpanId = -1;
+        this.destinationId = null;
+        this.apiId = 0;
+        this.exceptionInfo = null;
+        this.asyncIdObject = null;
+        this.localAsyncId = null;
+    }
+
+    @Override
+    public Recycler.Handle getRecycleHandle() {
+        return recycleHandle;
+    }
+
+    @Override
+    public void setRecycleHandle(Recycler.Handle recycleHandle) {
+        this.recycleHandle = recycleHandle;
+    }
+
     public void addAnnotation(Annotation annotation) {
         if (this.annotations == null) {
             this.annotations = new ArrayList<Annotation>();
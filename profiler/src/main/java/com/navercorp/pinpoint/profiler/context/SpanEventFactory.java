@@ -16,10 +16,25 @@
 
 package com.navercorp.pinpoint.profiler.context;
 
+import com.navercorp.pinpoint.common.util.Assert;
+import com.navercorp.pinpoint.profiler.context.pool.DisabledSpanObjectPool;
+import com.navercorp.pinpoint.profiler.context.pool.SpanObjectPool;
+
 /**
  * @author Woonduk Kang(emeroad)
  */
 public class SpanEventFactory implements CallStack.Factory<SpanEvent> {
+
+    private final SpanObjectPool spanObjectPool;
+
+    public SpanEventFactory() {
+        this(DisabledSpanObjectPool.INSTANCE);
+    }
+
+    public SpanEventFactory(SpanObjectPool spanObjectPool) {
+        this.spanObjectPool = Assert.requireNonNull(spanObjectPool, "spanObjectPool must not be null");
+    }
+
     @Override
     public Class<SpanEvent> getType() {
         return SpanEvent.class;
@@ -27,9 +42,20 @@ public class SpanEventFactory implements CallStack.Factory<SpanEvent> {
 
     @Override
     public SpanEvent newInstance() {
+        return spanObjectPool.newSpanEvent();
+    }
+
+    @Override
+    public SpanEvent dummyInstance() {
+        // not taken from the pool, the pool ignores it if it is released after being stored
         return new SpanEvent();
     }
 
+    @Override
+    public SpanEvent[] newArray(int size) {
+        return new SpanEvent[size];
+    }
+
     @Override
     public void markDepth(SpanEvent element, int index) {
         element.setDepth(index);
@@ -42,6 +68,8 @@ public class SpanEventFactory implements CallStack.Factory<SpanEvent> {
 
     @Override
     public String toString() {
-        return "SpanEventFactory{}";
+        return "SpanEventFactory{" +
+                "spanObjectPool=" + spanObjectPool +
+                '}';
     }
 }
@@ -0,0 +1,50 @@
+/*
+ * Copyright 2019 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.navercorp.pinpoint.profiler.context.pool;
+
+import com.navercorp.pinpoint.profiler.context.SpanEvent;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Allocates new objects every time and leaves released objects to the GC.
+ */
+public class DisabledSpanObjectPool implements SpanObjectPool {
+
+    public static final SpanObjectPool INSTANCE = new DisabledSpanObjectPool();
+
+    @Override
+    public SpanEvent newSpanEvent() {
+        return new SpanEvent();
+    }
+
+    @Override
+    public List<SpanEvent> newSpanEventList(int capacity) {
+        return new ArrayList<SpanEvent>(capacity);
+    }
+
+    @Override
+    public void release(List<SpanEvent> spanEventList) {
+    }
+
+    @Override
+    public String toString() {
+        return "DisabledSpanObjectPool{}";
+    }
+}
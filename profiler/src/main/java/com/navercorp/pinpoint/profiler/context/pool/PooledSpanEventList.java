@@ -0,0 +1,42 @@
+/*
+ * Copyright 2019 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.navercorp.pinpoint.profiler.context.pool;
+
+import com.navercorp.pinpoint.profiler.context.SpanEvent;
+
+import java.util.ArrayList;
+
+/**
+ * Span event buffer that keeps its backing array across flushes.
+ */
+class PooledSpanEventList extends ArrayList<SpanEvent> implements Recyclable {
+
+    private static final long serialVersionUID = 1L;
+
+    private transient Recycler.Handle recycleHandle;
+
+    @Override
+    public Recycler.Handle getRecycleHandle() {
+        return recycleHandle;
+    }
+
+    @Override
+    public void setRecycleHandle(Recycler.Handle recycleHandle) {
+        this.recycleHandle = recycleHandle;
+    }
+}
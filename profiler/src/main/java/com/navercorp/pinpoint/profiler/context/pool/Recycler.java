@@ -0,0 +1,217 @@
+/*
+ * Copyright 2019 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.navercorp.pinpoint.profiler.context.pool;
+
+import com.navercorp.pinpoint.common.util.Assert;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Per-thread object pool.
+ * Objects are taken from the arena of the calling thread and go back to the arena they were allocated from,
+ * even when they are recycled by another thread (e.g. the sender thread after a span has been converted).
+ * When debug logging is enabled, objects that are garbage collected without being recycled are reported.
+ *
+ * @param <T> pooled type
+ */
+public class Recycler<T extends Recyclable> {
+
+    private static final Logger logger = LoggerFactory.getLogger(Recycler.class);
+
+    public interface ObjectFactory<T> {
+        T newObject();
+
+        /**
+         * clears the state of a recycled object before it is handed out again
+         */
+        void reset(T object);
+    }
+
+    private final ObjectFactory<T> objectFactory;
+    private final int maxCapacityPerThread;
+    private final LeakDetector leakDetector;
+
+    private final ThreadLocal<Arena> arenas = new ThreadLocal<Arena>() {
+        @Override
+        protected Arena initialValue() {
+            return new Arena(maxCapacityPerThread);
+        }
+    };
+
+    public Recycler(ObjectFactory<T> objectFactory, int maxCapacityPerThread) {
+        this(objectFactory, maxCapacityPerThread, logger.isDebugEnabled());
+    }
+
+    public Recycler(ObjectFactory<T> objectFactory, int maxCapacityPerThread, boolean leakDetection) {
+        this.objectFactory = Assert.requireNonNull(objectFactory, "objectFactory must not be null");
+        if (maxCapacityPerThread < 0) {
+            throw new IllegalArgumentException("negative maxCapacityPerThread:" + maxCapacityPerThread);
+        }
+        this.maxCapacityPerThread = maxCapacityPerThread;
+        this.leakDetector = leakDetection ? new LeakDetector() : null;
+    }
+
+    @SuppressWarnings("unchecked")
+    public T get() {
+        final Arena arena = arenas.get();
+        T object = (T) arena.poll();
+        if (object == null) {
+            object = objectFactory.newObject();
+            object.setRecycleHandle(new Handle(arena));
+        }
+        final Handle handle = object.getRecycleHandle();
+        handle.recycled.set(false);
+        if (leakDetector != null) {
+            leakDetector.track(object, handle);
+        }
+        return object;
+    }
+
+    /**
+     * Returns the object to the arena it was allocated from. The object must not be used after this call.
+     *
+     * @return {@code false} if the object was not allocated by a recycler, was already recycled, or the arena is full
+     */
+    public boolean recycle(T object) {
+        if (object == null) {
+            return false;
+        }
+        final Handle handle = object.getRecycleHandle();
+        if (handle == null) {
+            return false;
+        }
+        if (!handle.recycled.compareAndSet(false, true)) {
+            logger.warn("object already recycled. object:{}", object);
+            return false;
+        }
+        if (leakDetector != null) {
+            leakDetector.untrack(handle);
+        }
+        objectFactory.reset(object);
+
+        final Arena owner = handle.owner;
+        return owner.offer(object, owner == arenas.get());
+    }
+
+    public static final class Handle {
+        private final Arena owner;
+        private final AtomicBoolean recycled = new AtomicBoolean();
+        private volatile LeakRecord leakRecord;
+
+        private Handle(Arena owner) {
+            this.owner = owner;
+        }
+    }
+
+    private static final class Arena {
+        private final int maxCapacity;
+        // accessed by the owner thread only
+        private final ArrayDeque<Recyclable> local;
+        // objects recycled by other threads, moved to local when it runs empty
+        private final Queue<Recyclable> returned = new ConcurrentLinkedQueue<Recyclable>();
+        private final AtomicInteger returnedSize = new AtomicInteger();
+
+        private Arena(int maxCapacity) {
+            this.maxCapacity = maxCapacity;
+            this.local = new ArrayDeque<Recyclable>(Math.min(maxCapacity, 16));
+        }
+
+        private Recyclable poll() {
+            final Recyclable object = local.pollLast();
+            if (object != null) {
+                return object;
+            }
+            Recyclable returnedObject;
+            while (local.size() < maxCapacity && (returnedObject = returned.poll()) != null) {
+                returnedSize.decrementAndGet();
+                local.addLast(returnedObject);
+            }
+            return local.pollLast();
+        }
+
+        private boolean offer(Recyclable object, boolean ownerThread) {
+            if (ownerThread) {
+                if (local.size() >= maxCapacity) {
+                    return false;
+                }
+                local.addLast(object);
+                return true;
+            }
+            if (returnedSize.incrementAndGet() > maxCapacity) {
+                returnedSize.decrementAndGet();
+                return false;
+            }
+            returned.offer(object);
+            return true;
+        }
+    }
+
+    private static final class LeakDetector {
+        private final ReferenceQueue<Object> referenceQueue = new ReferenceQueue<Object>();
+        private final Set<LeakRecord> records = Collections.newSetFromMap(new ConcurrentHashMap<LeakRecord, Boolean>());
+
+        private void track(Recyclable object, Handle handle) {
+            reportLeaks();
+            final LeakRecord record = new LeakRecord(object, referenceQueue);
+            records.add(record);
+            handle.leakRecord = record;
+        }
+
+        private void untrack(Handle handle) {
+            final LeakRecord record = handle.leakRecord;
+            if (record != null) {
+                handle.leakRecord = null;
+                records.remove(record);
+                record.clear();
+            }
+        }
+
+        private void reportLeaks() {
+            Reference<?> reference;
+            while ((reference = referenceQueue.poll()) != null) {
+                final LeakRecord record = (LeakRecord) reference;
+                if (records.remove(record)) {
+                    logger.warn("pooled object was garbage collected without being recycled. type:{}", record.type, record.allocation);
+                }
+            }
+        }
+    }
+
+    private static final class LeakRecord extends WeakReference<Object> {
+        private final String type;
+        private final Throwable allocation;
+
+        private LeakRecord(Object referent, ReferenceQueue<Object> referenceQueue) {
+            super(referent, referenceQueue);
+            this.type = referent.getClass().getName();
+            this.allocation = new Throwable("allocated by " + Thread.currentThread().getName());
+        }
+    }
+}
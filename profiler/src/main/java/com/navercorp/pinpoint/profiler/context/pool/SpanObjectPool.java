@@ -0,0 +1,38 @@
+/*
+ * Copyright 2019 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.navercorp.pinpoint.profiler.context.pool;
+
+import com.navercorp.pinpoint.profiler.context.SpanEvent;
+
+import java.util.List;
+
+/**
+ * Source of the short-lived objects created while tracing.
+ */
+public interface SpanObjectPool {
+
+    SpanEvent newSpanEvent();
+
+    List<SpanEvent> newSpanEventList(int capacity);
+
+    /**
+     * Returns the list and all of its span events to the pool once they have been sent.
+     * Neither the list nor the span events may be used after this call.
+     */
+    void release(List<SpanEvent> spanEventList);
+}
@@ -0,0 +1,96 @@
+/*
+ * Copyright 2019 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.navercorp.pinpoint.profiler.context.pool;
+
+import com.navercorp.pinpoint.profiler.context.SpanEvent;
+
+import java.util.List;
+
+/**
+ * Draws span events and span event buffers from per-thread arenas.
+ * They are released by the message converter after the span or span chunk has been converted.
+ */
+public class ThreadLocalSpanObjectPool implements SpanObjectPool {
+
+    private static final int MAX_LIST_CAPACITY_PER_THREAD = 4;
+
+    private final int maxCapacityPerThread;
+    private final Recycler<SpanEvent> spanEventRecycler;
+    private final Recycler<PooledSpanEventList> spanEventListRecycler;
+
+    public ThreadLocalSpanObjectPool(int maxCapacityPerThread) {
+        this.maxCapacityPerThread = maxCapacityPerThread;
+        this.spanEventRecycler = new Recycler<SpanEvent>(new SpanEventObjectFactory(), maxCapacityPerThread);
+        this.spanEventListRecycler = new Recycler<PooledSpanEventList>(new SpanEventListObjectFactory(), MAX_LIST_CAPACITY_PER_THREAD);
+    }
+
+    @Override
+    public SpanEvent newSpanEvent() {
+        return spanEventRecycler.get();
+    }
+
+    @Override
+    public List<SpanEvent> newSpanEventList(int capacity) {
+        // capacity is only a hint, the backing array grows once and is kept afterwards
+        return spanEventListRecycler.get();
+    }
+
+    @Override
+    public void release(List<SpanEvent> spanEventList) {
+        if (spanEventList == null) {
+            return;
+        }
+        for (SpanEvent spanEvent : spanEventList) {
+            spanEventRecycler.recycle(spanEvent);
+        }
+        if (spanEventList instanceof PooledSpanEventList) {
+            spanEventListRecycler.recycle((PooledSpanEventList) spanEventList);
+        }
+    }
+
+    private static class SpanEventObjectFactory implements Recycler.ObjectFactory<SpanEvent> {
+        @Override
+        public SpanEvent newObject() {
+            return new SpanEvent();
+        }
+
+        @Override
+        public void reset(SpanEvent spanEvent) {
+            spanEvent.reset();
+        }
+    }
+
+    private static class SpanEventListObjectFactory implements Recycler.ObjectFactory<PooledSpanEventList> {
+        @Override
+        public PooledSpanEventList newObject() {
+            return new PooledSpanEventList();
+        }
+
+        @Override
+        public void reset(PooledSpanEventList spanEventList) {
+            spanEventList.clear();
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "ThreadLocalSpanObjectPool{" +
+                "maxCapacityPerThread=" + maxCapacityPerThread +
+                '}';
+    }
+}
@@ -19,12 +19,15 @@ package com.navercorp.pinpoint.profiler.context.provider;
 import com.google.inject.Inject;
 import com.google.inject.Provider;
 import com.navercorp.pinpoint.bootstrap.config.ProfilerConfig;
+import com.navercorp.pinpoint.bootstrap.sampler.Sampler;
 import com.navercorp.pinpoint.profiler.context.active.ActiveTraceRepository;
 import com.navercorp.pinpoint.profiler.receiver.CommandDispatcher;
 import com.navercorp.pinpoint.profiler.receiver.ProfilerCommandLocatorBuilder;
 import com.navercorp.pinpoint.profiler.receiver.ProfilerCommandServiceLocator;
 import com.navercorp.pinpoint.profiler.receiver.service.ActiveThreadService;
 import com.navercorp.pinpoint.profiler.receiver.service.EchoService;
+import com.navercorp.pinpoint.profiler.receiver.service.SamplingHintService;
+import com.navercorp.pinpoint.profiler.sampler.ThrottleSampler;
 
 /**
  * @author Woonduk Kang(emeroad)
@@ -33,18 +36,23 @@ public class CommandDispatcherProvider implements Provider<CommandDispatcher> {
 
     private final ProfilerConfig profilerConfig;
     private final ActiveTraceRepository activeTraceRepository;
+    private final Sampler sampler;
 
     @Inject
-    public CommandDispatcherProvider(ProfilerConfig profilerConfig, Provider<ActiveTraceRepository> activeTraceRepositoryProvider) {
+    public CommandDispatcherProvider(ProfilerConfig profilerConfig, Provider<ActiveTraceRepository> activeTraceRepositoryProvider, Sampler sampler) {
         if (profilerConfig == null) {
             throw new NullPointerException("profilerConfig must not be null");
         }
         if (activeTraceRepositoryProvider == null) {
             throw new NullPointerException("activeTraceRepositoryProvider must not be null");
         }
+        if (sampler == null) {
+            throw new NullPointerException("sampler must not be null");
+        }
 
         this.profilerConfig = profilerConfig;
         this.activeTraceRepository = activeTraceRepositoryProvider.get();
+        this.sampler = sampler;
     }
 
     @Override
@@ -55,6 +63,9 @@ public class CommandDispatcherProvider implements Provider<CommandDispatcher> {
             ActiveThreadService activeThreadService = new ActiveThreadService(profilerConfig, activeTraceRepository);
             builder.addService(activeThreadService);
         }
+        if (sampler instanceof ThrottleSampler) {
+            builder.addService(new SamplingHintService((ThrottleSampler) sampler));
+        }
 
         ProfilerCommandServiceLocator commandServiceLocator = builder.build();
         CommandDispatcher commandDispatcher = new CommandDispatcher(commandServiceLocator);
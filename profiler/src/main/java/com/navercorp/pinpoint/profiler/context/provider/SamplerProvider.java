@@ -21,6 +21,7 @@ import com.google.inject.Provider;
 import com.navercorp.pinpoint.bootstrap.config.ProfilerConfig;
 import com.navercorp.pinpoint.bootstrap.sampler.Sampler;
 import com.navercorp.pinpoint.profiler.sampler.SamplerFactory;
+import com.navercorp.pinpoint.profiler.sampler.ThrottleSampler;
 
 /**
  * @author Woonduk Kang(emeroad)
@@ -40,6 +41,11 @@ public class SamplerProvider implements Provider<Sampler> {
         int samplingRate = profilerConfig.getSamplingRate();
 
         SamplerFactory samplerFactory = new SamplerFactory();
-        return samplerFactory.createSampler(samplingEnable, samplingRate);
+        Sampler sampler = samplerFactory.createSampler(samplingEnable, samplingRate);
+        if (!samplingEnable) {
+            return sampler;
+        }
+        // lowered by the sampling hint of the collector
+        return new ThrottleSampler(sampler);
     }
 }
@@ -0,0 +1,54 @@
+/*
+ * Copyright 2019 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.navercorp.pinpoint.profiler.context.provider;
+
+import com.google.inject.Inject;
+import com.google.inject.Provider;
+import com.navercorp.pinpoint.bootstrap.config.ProfilerConfig;
+import com.navercorp.pinpoint.common.util.Assert;
+import com.navercorp.pinpoint.profiler.context.pool.DisabledSpanObjectPool;
+import com.navercorp.pinpoint.profiler.context.pool.SpanObjectPool;
+import com.navercorp.pinpoint.profiler.context.pool.ThreadLocalSpanObjectPool;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+public class SpanObjectPoolProvider implements Provider<SpanObjectPool> {
+
+    private static final String POOL_ENABLE = "profiler.pool.enable";
+    private static final String POOL_MAX_CAPACITY_PER_THREAD = "profiler.pool.maxcapacity.perthread";
+
+    private final Logger logger = LoggerFactory.getLogger(this.getClass());
+
+    private final ProfilerConfig profilerConfig;
+
+    @Inject
+    public SpanObjectPoolProvider(ProfilerConfig profilerConfig) {
+        this.profilerConfig = Assert.requireNonNull(profilerConfig, "profilerConfig must not be null");
+    }
+
+    @Override
+    public SpanObjectPool get() {
+        final boolean enable = profilerConfig.readBoolean(POOL_ENABLE, false);
+        if (!enable) {
+            return DisabledSpanObjectPool.INSTANCE;
+        }
+        final int maxCapacityPerThread = profilerConfig.readInt(POOL_MAX_CAPACITY_PER_THREAD, 256);
+        logger.info("span object pool enabled. maxCapacityPerThread:{}", maxCapacityPerThread);
+        return new ThreadLocalSpanObjectPool(maxCapacityPerThread);
+    }
+}
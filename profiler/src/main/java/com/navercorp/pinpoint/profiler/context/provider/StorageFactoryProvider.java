@@ -21,6 +21,7 @@ import com.google.inject.Provider;
 import com.navercorp.pinpoint.bootstrap.config.ProfilerConfig;
 import com.navercorp.pinpoint.common.util.Assert;
 import com.navercorp.pinpoint.profiler.context.module.SpanDataSender;
+import com.navercorp.pinpoint.profiler.context.pool.SpanObjectPool;
 import com.navercorp.pinpoint.profiler.context.storage.BufferedStorageFactory;
 import com.navercorp.pinpoint.profiler.context.storage.StorageFactory;
 import com.navercorp.pinpoint.profiler.context.storage.TraceLogDelegateStorage;
@@ -36,11 +37,13 @@ public class StorageFactoryProvider implements Provider<StorageFactory> {
 
     private final ProfilerConfig profilerConfig;
     private final DataSender spanDataSender;
+    private final SpanObjectPool spanObjectPool;
 
     @Inject
-    public StorageFactoryProvider(ProfilerConfig profilerConfig, @SpanDataSender DataSender spanDataSender) {
+    public StorageFactoryProvider(ProfilerConfig profilerConfig, @SpanDataSender DataSender spanDataSender, SpanObjectPool spanObjectPool) {
         this.profilerConfig = Assert.requireNonNull(profilerConfig, "profilerConfig must not be null");
         this.spanDataSender = Assert.requireNonNull(spanDataSender, "spanDataSender must not be null");
+        this.spanObjectPool = Assert.requireNonNull(spanObjectPool, "spanObjectPool must not be null");
     }
 
     @Override
@@ -55,9 +58,9 @@ public class StorageFactoryProvider implements Provider<StorageFactory> {
     private StorageFactory newStorageFactory() {
         if (profilerConfig.isIoBufferingEnable()) {
             int ioBufferingBufferSize = this.profilerConfig.getIoBufferingBufferSize();
-            return new BufferedStorageFactory(ioBufferingBufferSize, this.spanDataSender);
+            return new BufferedStorageFactory(ioBufferingBufferSize, this.spanDataSender, this.spanObjectPool);
         } else {
-            return new BufferedStorageFactory(Integer.MAX_VALUE, this.spanDataSender);
+            return new BufferedStorageFactory(Integer.MAX_VALUE, this.spanDataSender, this.spanObjectPool);
         }
     }
 
@@ -66,6 +69,7 @@ public class StorageFactoryProvider implements Provider<StorageFactory> {
         return "StorageFactoryProvider{" +
                 "profilerConfig=" + profilerConfig +
                 ", spanDataSender=" + spanDataSender +
+                ", spanObjectPool=" + spanObjectPool +
                 '}';
     }
 
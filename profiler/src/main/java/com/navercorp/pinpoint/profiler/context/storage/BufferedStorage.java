@@ -20,12 +20,13 @@ import com.navercorp.pinpoint.common.util.Assert;
 import com.navercorp.pinpoint.common.util.CollectionUtils;
 import com.navercorp.pinpoint.profiler.context.*;
 import com.navercorp.pinpoint.profiler.context.id.TraceRoot;
+import com.navercorp.pinpoint.profiler.context.pool.DisabledSpanObjectPool;
+import com.navercorp.pinpoint.profiler.context.pool.SpanObjectPool;
 import com.navercorp.pinpoint.profiler.sender.DataSender;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.util.ArrayList;
 import java.util.List;
 
 /**
@@ -43,12 +44,17 @@ public class BufferedStorage implements Storage {
     private final TraceRoot traceRoot;
     private List<SpanEvent> storage;
     private final DataSender<Object> dataSender;
-
+    private final SpanObjectPool spanObjectPool;
 
 
     public BufferedStorage(TraceRoot traceRoot, DataSender<Object> dataSender, int bufferSize) {
+        this(traceRoot, dataSender, bufferSize, DisabledSpanObjectPool.INSTANCE);
+    }
+
+    public BufferedStorage(TraceRoot traceRoot, DataSender<Object> dataSender, int bufferSize, SpanObjectPool spanObjectPool) {
         this.traceRoot = Assert.requireNonNull(traceRoot, "traceRoot must not be null");
         this.dataSender = Assert.requireNonNull(dataSender, "dataSender must not be null");
+        this.spanObjectPool = Assert.requireNonNull(spanObjectPool, "spanObjectPool must not be null");
         this.bufferSize = bufferSize;
         this.storage = allocateBuffer();
     }
@@ -65,6 +71,9 @@ public class BufferedStorage implements Storage {
             if (isDebug) {
                 flushLog(success, spanChunk);
             }
+            if (!success) {
+                spanObjectPool.release(flushData);
+            }
         }
     }
 
@@ -74,7 +83,7 @@ public class BufferedStorage implements Storage {
 
 
     private List<SpanEvent> allocateBuffer() {
-        return new ArrayList<SpanEvent>(this.bufferSize);
+        return spanObjectPool.newSpanEventList(this.bufferSize);
     }
 
     private List<SpanEvent> getBuffer() {
@@ -102,6 +111,9 @@ public class BufferedStorage implements Storage {
         if (isDebug) {
             flushLog(success, span);
         }
+        if (!success) {
+            spanObjectPool.release(spanEventList);
+        }
     }
 
     public void flush() {
@@ -113,6 +125,9 @@ public class BufferedStorage implements Storage {
             if (isDebug) {
                 flushLog(success, spanChunk);
             }
+            if (!success) {
+                spanObjectPool.release(spanEventList);
+            }
         }
     }
 
@@ -135,6 +150,6 @@ public class BufferedStorage implements Storage {
 
     @Override
     public String toString() {
-        return "BufferedStorage{" + "bufferSize=" + bufferSize + ", dataSender=" + dataSender + '}';
+        return "BufferedStorage{" + "bufferSize=" + bufferSize + ", dataSender=" + dataSender + ", spanObjectPool=" + spanObjectPool + '}';
     }
 }
\ No newline at end of file
@@ -18,6 +18,8 @@ package com.navercorp.pinpoint.profiler.context.storage;
 
 import com.navercorp.pinpoint.common.util.Assert;
 import com.navercorp.pinpoint.profiler.context.id.TraceRoot;
+import com.navercorp.pinpoint.profiler.context.pool.DisabledSpanObjectPool;
+import com.navercorp.pinpoint.profiler.context.pool.SpanObjectPool;
 import com.navercorp.pinpoint.profiler.sender.DataSender;
 
 /**
@@ -27,16 +29,22 @@ public class BufferedStorageFactory implements StorageFactory {
 
     private final DataSender dataSender;
     private final int ioBufferingBufferSize;
+    private final SpanObjectPool spanObjectPool;
 
     public BufferedStorageFactory(int ioBufferingBufferSize, DataSender dataSender) {
+        this(ioBufferingBufferSize, dataSender, DisabledSpanObjectPool.INSTANCE);
+    }
+
+    public BufferedStorageFactory(int ioBufferingBufferSize, DataSender dataSender, SpanObjectPool spanObjectPool) {
         this.dataSender = Assert.requireNonNull(dataSender, "dataSender must not be null");
         this.ioBufferingBufferSize = ioBufferingBufferSize;
+        this.spanObjectPool = Assert.requireNonNull(spanObjectPool, "spanObjectPool must not be null");
     }
 
 
     @Override
     public Storage createStorage(TraceRoot traceRoot) {
-        Storage storage = new BufferedStorage(traceRoot, this.dataSender, this.ioBufferingBufferSize);
+        Storage storage = new BufferedStorage(traceRoot, this.dataSender, this.ioBufferingBufferSize, this.spanObjectPool);
         return storage;
     }
 
@@ -45,6 +53,7 @@ public class BufferedStorageFactory implements StorageFactory {
         return "BufferedStorageFactory{" +
                 "dataSender=" + dataSender +
                 ", ioBufferingBufferSize=" + ioBufferingBufferSize +
+                ", spanObjectPool=" + spanObjectPool +
                 '}';
     }
 }
@@ -32,6 +32,8 @@ import com.navercorp.pinpoint.profiler.context.compress.Context;
 import com.navercorp.pinpoint.profiler.context.id.Shared;
 import com.navercorp.pinpoint.profiler.context.id.TraceRoot;
 import com.navercorp.pinpoint.profiler.context.id.TransactionIdEncoder;
+import com.navercorp.pinpoint.profiler.context.pool.DisabledSpanObjectPool;
+import com.navercorp.pinpoint.profiler.context.pool.SpanObjectPool;
 import com.navercorp.pinpoint.profiler.util.AnnotationValueMapper;
 import com.navercorp.pinpoint.thrift.dto.TAnnotation;
 import com.navercorp.pinpoint.thrift.dto.TAnnotationValue;
@@ -56,16 +58,23 @@ public class SpanThriftMessageConverter implements MessageConverter<TBase<?, ?>>
     private final short applicationServiceType;
     private final TransactionIdEncoder transactionIdEncoder;
     private final SpanPostProcessor<Context> spanPostProcessor;
+    private final SpanObjectPool spanObjectPool;
 
     public SpanThriftMessageConverter(String applicationName, String agentId, long agentStartTime, short applicationServiceType,
                                       TransactionIdEncoder transactionIdEncoder, SpanPostProcessor<Context> spanPostProcessor) {
+        this(applicationName, agentId, agentStartTime, applicationServiceType, transactionIdEncoder, spanPostProcessor, DisabledSpanObjectPool.INSTANCE);
+    }
+
+    public SpanThriftMessageConverter(String applicationName, String agentId, long agentStartTime, short applicationServiceType,
+                                      TransactionIdEncoder transactionIdEncoder, SpanPostProcessor<Context> spanPostProcessor,
+                                      SpanObjectPool spanObjectPool) {
         this.applicationName = Assert.requireNonNull(applicationName, "applicationName must not be null");
         this.agentId = Assert.requireNonNull(agentId, "agentId must not be null");
         this.agentStartTime = agentStartTime;
         this.applicationServiceType = applicationServiceType;
         this.transactionIdEncoder = Assert.requireNonNull(transactionIdEncoder, "transactionIdEncoder must not be null");
         this.spanPostProcessor = Assert.requireNonNull(spanPostProcessor, "spanPostProcessor must not be null");
-
+        this.spanObjectPool = Assert.requireNonNull(spanObjectPool, "spanObjectPool must not be null");
     }
 
 
@@ -74,12 +83,16 @@ public class SpanThriftMessageConverter implements MessageConverter<TBase<?, ?>>
         if (message instanceof SpanChunk) {
             final SpanChunk spanChunk = (SpanChunk) message;
             final TSpanChunk tSpanChunk = buildTSpanChunk(spanChunk);
+            // nothing refers to the span events once they have been converted
+            spanObjectPool.release(spanChunk.getSpanEventList());
             return tSpanChunk;
         }
         if (message instanceof Span) {
             final Span span = (Span) message;
 
-            return buildTSpan(span);
+            final TSpan tSpan = buildTSpan(span);
+            spanObjectPool.release(span.getSpanEventList());
+            return tSpan;
         }
         return null;
     }
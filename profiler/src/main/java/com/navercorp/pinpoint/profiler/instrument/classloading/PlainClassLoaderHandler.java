@@ -20,8 +20,6 @@ import com.navercorp.pinpoint.common.util.jsr166.ConcurrentWeakHashMap;
 import com.navercorp.pinpoint.exception.PinpointException;
 import com.navercorp.pinpoint.profiler.instrument.BootstrapPackage;
 import com.navercorp.pinpoint.profiler.instrument.classreading.SimpleClassMetadata;
-import com.navercorp.pinpoint.profiler.instrument.classreading.SimpleClassMetadataReader;
-import com.navercorp.pinpoint.profiler.plugin.ClassLoadingChecker;
 import com.navercorp.pinpoint.profiler.plugin.PluginConfig;
 import com.navercorp.pinpoint.profiler.util.ExtensionFilter;
 import com.navercorp.pinpoint.profiler.util.FileBinary;
@@ -33,9 +31,7 @@ import org.slf4j.LoggerFactory;
 import java.io.IOException;
 import java.io.InputStream;
 
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 
@@ -57,6 +53,9 @@ public class PlainClassLoaderHandler implements ClassInjector {
 
     private final PluginConfig pluginConfig;
 
+    // parsed on first injection and shared by all class loaders
+    private volatile PluginClassIndex pluginClassIndex;
+
     public PlainClassLoaderHandler(PluginConfig pluginConfig) {
         if (pluginConfig == null) {
             throw new NullPointerException("pluginConfig must not be null");
@@ -212,80 +211,48 @@ public class PlainClassLoaderHandler implements ClassInjector {
         if (isDebug) {
             logger.debug("define Jar:{}", pluginConfig.getPluginJar());
         }
+        final PluginClassIndex pluginClassIndex = getPluginClassIndex();
 
-        List<FileBinary> fileBinaryList = readJar();
-
-        Map<String, SimpleClassMetadata> classEntryMap = parse(fileBinaryList);
-
-        for (Map.Entry<String, SimpleClassMetadata> entry : classEntryMap.entrySet()) {
-
-            final SimpleClassMetadata classMetadata = entry.getValue();
-            ClassLoadingChecker classLoadingChecker = new ClassLoadingChecker();
-            classLoadingChecker.isFirstLoad(classMetadata.getClassName());
-            define0(classLoader, attachment, classMetadata, classEntryMap, classLoadingChecker);
-        }
-    }
-
-    private List<FileBinary> readJar() {
-        try {
-            return pluginJarReader.read(ExtensionFilter.CLASS_FILTER);
-        } catch (IOException ex) {
-            throw new RuntimeException(pluginConfig.getPluginJarURLExternalForm() + " read fail." + ex.getMessage(), ex);
+        final long startTime = System.currentTimeMillis();
+        int definedClassCount = 0;
+        for (SimpleClassMetadata classMetadata : pluginClassIndex.getClassList()) {
+            if (attachment.containsClass(classMetadata.getClassName())) {
+                continue;
+            }
+            final Class<?> clazz = defineClass(classLoader, classMetadata);
+            attachment.putClass(classMetadata.getClassName(), clazz);
+            definedClassCount++;
         }
-    }
-
-    private Map<String, SimpleClassMetadata> parse(List<FileBinary> fileBinaryList) {
-        Map<String, SimpleClassMetadata> parseMap = new HashMap<String, SimpleClassMetadata>();
-        for (FileBinary fileBinary : fileBinaryList) {
-            SimpleClassMetadata classNode = parseClass(fileBinary);
-            parseMap.put(classNode.getClassName(), classNode);
+        if (logger.isInfoEnabled()) {
+            logger.info("define Jar:{} classes:{} elapsed:{}ms cl:{}", pluginConfig.getPluginJarURLExternalForm(), definedClassCount, System.currentTimeMillis() - startTime, classLoader);
         }
-        return parseMap;
-    }
-
-    private SimpleClassMetadata parseClass(FileBinary fileBinary) {
-        byte[] fileBinaryArray = fileBinary.getFileBinary();
-        SimpleClassMetadata classMetadata = SimpleClassMetadataReader.readSimpleClassMetadata(fileBinaryArray);
-        return classMetadata;
     }
 
-    private void define0(final ClassLoader classLoader, ClassLoaderAttachment attachment, SimpleClassMetadata currentClass, Map<String, SimpleClassMetadata> classMetaMap, ClassLoadingChecker classLoadingChecker) {
-        if ("java.lang.Object".equals(currentClass.getClassName())) {
-            return;
-        }
-        if (attachment.containsClass(currentClass.getClassName())) {
-            return;
-        }
-
-
-        final String superName = currentClass.getSuperClassName();
-        if (isDebug) {
-            logger.debug("className:{} super:{}", currentClass.getClassName(), superName);
+    private PluginClassIndex getPluginClassIndex() {
+        PluginClassIndex pluginClassIndex = this.pluginClassIndex;
+        if (pluginClassIndex != null) {
+            return pluginClassIndex;
         }
-        if (!"java.lang.Object".equals(superName)) {
-            if (!isSkipClass(superName, classLoadingChecker)) {
-                SimpleClassMetadata superClassBinary = classMetaMap.get(superName);
-                if (isDebug) {
-                    logger.debug("superClass dependency define super:{} ori:{}", superClassBinary.getClassName(), currentClass.getClassName());
+        synchronized (this) {
+            pluginClassIndex = this.pluginClassIndex;
+            if (pluginClassIndex == null) {
+                final long startTime = System.currentTimeMillis();
+                pluginClassIndex = PluginClassIndex.build(readJar(), pluginConfig.getPluginPackageFilter());
+                if (logger.isInfoEnabled()) {
+                    logger.info("build plugin class index:{} {} elapsed:{}ms", pluginConfig.getPluginJarURLExternalForm(), pluginClassIndex, System.currentTimeMillis() - startTime);
                 }
-                define0(classLoader, attachment, superClassBinary, classMetaMap, classLoadingChecker);
-
+                this.pluginClassIndex = pluginClassIndex;
             }
+            return pluginClassIndex;
         }
+    }
 
-        final List<String> interfaceList = currentClass.getInterfaceNames();
-        for (String interfaceName : interfaceList) {
-            if (!isSkipClass(interfaceName, classLoadingChecker)) {
-                SimpleClassMetadata interfaceClassBinary = classMetaMap.get(interfaceName);
-                if (isDebug) {
-                    logger.debug("interface dependency define interface:{} ori:{}", interfaceClassBinary.getClassName(), interfaceClassBinary.getClassName());
-                }
-                define0(classLoader, attachment, interfaceClassBinary, classMetaMap, classLoadingChecker);
-            }
+    private List<FileBinary> readJar() {
+        try {
+            return pluginJarReader.read(ExtensionFilter.CLASS_FILTER);
+        } catch (IOException ex) {
+            throw new RuntimeException(pluginConfig.getPluginJarURLExternalForm() + " read fail." + ex.getMessage(), ex);
         }
-
-        final Class<?> clazz = defineClass(classLoader, currentClass);
-        attachment.putClass(currentClass.getClassName(), clazz);
     }
 
     private Class<?> defineClass(ClassLoader classLoader, SimpleClassMetadata classMetadata) {
@@ -300,23 +267,6 @@ public class PlainClassLoaderHandler implements ClassInjector {
         return DefineClassFactory.getDefineClass().defineClass(classLoader, className, classBytes);
     }
 
-    private boolean isSkipClass(final String className, final ClassLoadingChecker classLoadingChecker) {
-        if (!isPluginPackage(className)) {
-            if (isDebug) {
-                logger.debug("PluginFilter skip class:{}", className);
-            }
-            return true;
-        }
-        if (!classLoadingChecker.isFirstLoad(className)) {
-            if (isDebug) {
-                logger.debug("skip already loaded class:{}", className);
-            }
-            return true;
-        }
-
-        return false;
-    }
-
     private class ClassLoaderAttachment {
 
         private final ConcurrentMap<String, PluginLock> pluginLock = new ConcurrentHashMap<String, PluginLock>();
@@ -0,0 +1,125 @@
+/*
+ * Copyright 2019 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.navercorp.pinpoint.profiler.instrument.classloading;
+
+import com.navercorp.pinpoint.profiler.instrument.classreading.SimpleClassMetadata;
+import com.navercorp.pinpoint.profiler.instrument.classreading.SimpleClassMetadataReader;
+import com.navercorp.pinpoint.profiler.plugin.ClassNameFilter;
+import com.navercorp.pinpoint.profiler.util.FileBinary;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Classes of a plugin jar, parsed once and sorted so that super classes and interfaces in the jar
+ * come before the classes that depend on them.
+ * The index is immutable and shared by every class loader the plugin is injected into.
+ */
+final class PluginClassIndex {
+
+    private final List<SimpleClassMetadata> classList;
+    private final long totalClassBytes;
+
+    private PluginClassIndex(List<SimpleClassMetadata> classList, long totalClassBytes) {
+        this.classList = Collections.unmodifiableList(classList);
+        this.totalClassBytes = totalClassBytes;
+    }
+
+    static PluginClassIndex build(List<FileBinary> fileBinaryList, ClassNameFilter pluginPackageFilter) {
+        if (fileBinaryList == null) {
+            throw new NullPointerException("fileBinaryList must not be null");
+        }
+        if (pluginPackageFilter == null) {
+            throw new NullPointerException("pluginPackageFilter must not be null");
+        }
+        // keep jar order for classes without dependencies between them
+        final Map<String, SimpleClassMetadata> classMetadataMap = new LinkedHashMap<String, SimpleClassMetadata>();
+        long totalClassBytes = 0;
+        for (FileBinary fileBinary : fileBinaryList) {
+            final byte[] classBinary = fileBinary.getFileBinary();
+            final SimpleClassMetadata classMetadata = SimpleClassMetadataReader.readSimpleClassMetadata(classBinary);
+            classMetadataMap.put(classMetadata.getClassName(), classMetadata);
+            totalClassBytes += classBinary.length;
+        }
+
+        final List<SimpleClassMetadata> classList = new ArrayList<SimpleClassMetadata>(classMetadataMap.size());
+        final Set<String> visited = new HashSet<String>(classMetadataMap.size());
+        for (SimpleClassMetadata classMetadata : classMetadataMap.values()) {
+            sort(classMetadata, classMetadataMap, pluginPackageFilter, visited, classList);
+        }
+        return new PluginClassIndex(classList, totalClassBytes);
+    }
+
+    private static void sort(SimpleClassMetadata classMetadata, Map<String, SimpleClassMetadata> classMetadataMap,
+                             ClassNameFilter pluginPackageFilter, Set<String> visited, List<SimpleClassMetadata> classList) {
+        final String className = classMetadata.getClassName();
+        if ("java.lang.Object".equals(className)) {
+            return;
+        }
+        if (!visited.add(className)) {
+            return;
+        }
+
+        visitDependency(classMetadata.getSuperClassName(), classMetadataMap, pluginPackageFilter, visited, classList);
+        for (String interfaceName : classMetadata.getInterfaceNames()) {
+            visitDependency(interfaceName, classMetadataMap, pluginPackageFilter, visited, classList);
+        }
+        classList.add(classMetadata);
+    }
+
+    private static void visitDependency(String className, Map<String, SimpleClassMetadata> classMetadataMap,
+                                        ClassNameFilter pluginPackageFilter, Set<String> visited, List<SimpleClassMetadata> classList) {
+        if (className == null || !pluginPackageFilter.accept(className)) {
+            // resolved by the target class loader
+            return;
+        }
+        final SimpleClassMetadata dependency = classMetadataMap.get(className);
+        if (dependency == null) {
+            return;
+        }
+        sort(dependency, classMetadataMap, pluginPackageFilter, visited, classList);
+    }
+
+    /**
+     * @return classes in definition order
+     */
+    List<SimpleClassMetadata> getClassList() {
+        return classList;
+    }
+
+    int getClassCount() {
+        return classList.size();
+    }
+
+    long getTotalClassBytes() {
+        return totalClassBytes;
+    }
+
+    @Override
+    public String toString() {
+        return "PluginClassIndex{" +
+                "classCount=" + classList.size() +
+                ", totalClassBytes=" + totalClassBytes +
+                '}';
+    }
+}
@@ -16,12 +16,25 @@
 
 package com.navercorp.pinpoint.profiler.metadata;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
 import com.navercorp.pinpoint.bootstrap.context.ParsingResult;
 import com.navercorp.pinpoint.common.util.*;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
 /**
+ * Normalizes sql with two cache levels.
+ * The first level maps the original sql to its parsing result so that repeated sql is not parsed again,
+ * the second level maps the normalized sql to its id so that equivalent sql shares one id.
+ *
  * @author emeroad
  */
 public class DefaultCachingSqlNormalizer implements CachingSqlNormalizer {
@@ -30,12 +43,38 @@ public class DefaultCachingSqlNormalizer implements CachingSqlNormalizer {
 
     private static final DefaultParsingResult EMPTY_OBJECT = new DefaultParsingResult("");
 
+    // IN list made up of bind variables only. e.g. IN (?, ?, ?)
+    private static final Pattern BIND_VARIABLE_IN_LIST = Pattern.compile("(\\b[Ii][Nn]\\s*)\\(\\s*\\?(?:\\s*,\\s*\\?)+\\s*\\)");
+    // IN list made up of replaced number or string literals only. e.g. IN (0#, 1#) or IN ('0$', '1$')
+    private static final Pattern LITERAL_IN_LIST = Pattern.compile("(\\b[Ii][Nn]\\s*)\\(\\s*((?:\\d+#|'\\d+\\$'))((?:\\s*,\\s*(?:\\d+#|'\\d+\\$'))+)\\s*\\)");
+    // index of a replaced literal. e.g. 0# or 1$
+    private static final Pattern LITERAL_INDEX = Pattern.compile("(?<![\\w#$])(\\d+)([#$])");
+    static final String COLLAPSED_IN_LIST = "(?, ...)";
+    static final String COLLAPSED_LIST_TAIL = ", ...)";
+
+    private final Cache<String, NormalizedSql> parsingCache;
     private final SimpleCache<String> sqlCache;
     private final SqlParser sqlParser;
+    private final boolean collapseInList;
 
     public DefaultCachingSqlNormalizer(int cacheSize) {
+        this(cacheSize, false);
+    }
+
+    public DefaultCachingSqlNormalizer(int cacheSize, boolean collapseInList) {
+        this.parsingCache = createParsingCache(cacheSize);
         this.sqlCache = new SimpleCache<String>(cacheSize);
         this.sqlParser = new DefaultSqlParser();
+        this.collapseInList = collapseInList;
+    }
+
+    private Cache<String, NormalizedSql> createParsingCache(int maxCacheSize) {
+        final CacheBuilder<Object, Object> cacheBuilder = CacheBuilder.newBuilder();
+        cacheBuilder.concurrencyLevel(64);
+        cacheBuilder.initialCapacity(maxCacheSize);
+        cacheBuilder.maximumSize(maxCacheSize);
+        cacheBuilder.recordStats();
+        return cacheBuilder.build();
     }
 
     @Override
@@ -69,7 +108,7 @@ public class DefaultCachingSqlNormalizer implements CachingSqlNormalizer {
         final ParsingResultInternal parsingResultInternal = (ParsingResultInternal) parsingResult;
 
         final String originalSql = parsingResultInternal.getOriginalSql();
-        final NormalizedSql normalizedSql = this.sqlParser.normalizedSql(originalSql);
+        final NormalizedSql normalizedSql = getNormalizedSql(originalSql);
 
         final Result cachingResult = this.sqlCache.put(normalizedSql.getNormalizedSql());
 
@@ -88,5 +127,150 @@ public class DefaultCachingSqlNormalizer implements CachingSqlNormalizer {
         return cachingResult.isNewValue();
     }
 
+    private NormalizedSql getNormalizedSql(String originalSql) {
+        final NormalizedSql cached = this.parsingCache.getIfPresent(originalSql);
+        if (cached != null) {
+            return cached;
+        }
+        NormalizedSql normalizedSql = this.sqlParser.normalizedSql(originalSql);
+        if (collapseInList) {
+            normalizedSql = collapseInList(normalizedSql);
+        }
+        this.parsingCache.put(originalSql, normalizedSql);
+        return normalizedSql;
+    }
+
+    /**
+     * Collapses the IN lists of bind variables and of literals.
+     * Returns the given normalizedSql itself if there is nothing to collapse.
+     */
+    static NormalizedSql collapseInList(NormalizedSql normalizedSql) {
+        final String sql = normalizedSql.getNormalizedSql();
+        final String bindVariableCollapsedSql = collapseInList(sql);
+        final NormalizedSql literalCollapsedSql = collapseLiteralInList(bindVariableCollapsedSql, normalizedSql.getParseParameter());
+        if (literalCollapsedSql != null) {
+            return literalCollapsedSql;
+        }
+        if (bindVariableCollapsedSql.equals(sql)) {
+            return normalizedSql;
+        }
+        return new DefaultNormalizedSql(bindVariableCollapsedSql, normalizedSql.getParseParameter());
+    }
+
+    /**
+     * Replaces IN lists of bind variables with {@link #COLLAPSED_IN_LIST} so that statements differing only
+     * in the number of bind variables share one sql id.
+     * Returns the given sql itself if there is nothing to collapse.
+     */
+    static String collapseInList(String normalizedSql) {
+        if (normalizedSql.indexOf('?') == -1) {
+            return normalizedSql;
+        }
+        final Matcher matcher = BIND_VARIABLE_IN_LIST.matcher(normalizedSql);
+        if (!matcher.find()) {
+            return normalizedSql;
+        }
+        final StringBuffer collapsed = new StringBuffer(normalizedSql.length());
+        do {
+            matcher.appendReplacement(collapsed, "$1");
+            collapsed.append(COLLAPSED_IN_LIST);
+        } while (matcher.find());
+        matcher.appendTail(collapsed);
+        return collapsed.toString();
+    }
+
+    /**
+     * Replaces IN lists of literals with their first literal followed by {@link #COLLAPSED_LIST_TAIL}.
+     * The values of the other literals are dropped from the parse parameters, and the literals after the list are
+     * renumbered, so that statements differing only in the number of literals share one sql id.
+     *
+     * @return the collapsed sql, or null if there is nothing to collapse
+     */
+    static NormalizedSql collapseLiteralInList(String normalizedSql, String parseParameter) {
+        if (StringUtils.isEmpty(parseParameter)) {
+            return null;
+        }
+        final Matcher matcher = LITERAL_IN_LIST.matcher(normalizedSql);
+        if (!matcher.find()) {
+            return null;
+        }
+        final List<String> parameters = new OutputParameterParser().parseOutputParameter(parseParameter);
+        final BitSet removedIndexes = new BitSet();
+        final StringBuffer collapsed = new StringBuffer(normalizedSql.length());
+        do {
+            final Matcher restMatcher = LITERAL_INDEX.matcher(matcher.group(3));
+            while (restMatcher.find()) {
+                removedIndexes.set(Integer.parseInt(restMatcher.group(1)));
+            }
+            matcher.appendReplacement(collapsed, "");
+            collapsed.append(matcher.group(1)).append('(').append(matcher.group(2)).append(COLLAPSED_LIST_TAIL);
+        } while (matcher.find());
+        matcher.appendTail(collapsed);
+        if (removedIndexes.length() > parameters.size()) {
+            // the parameters do not match the sql
+            return null;
+        }
+
+        final Matcher indexMatcher = LITERAL_INDEX.matcher(collapsed);
+        final StringBuffer renumbered = new StringBuffer(collapsed.length());
+        while (indexMatcher.find()) {
+            final int index = Integer.parseInt(indexMatcher.group(1));
+            if (index >= parameters.size()) {
+                return null;
+            }
+            final int newIndex = index - removedIndexes.get(0, index).cardinality();
+            indexMatcher.appendReplacement(renumbered, "");
+            renumbered.append(newIndex).append(indexMatcher.group(2));
+        }
+        indexMatcher.appendTail(renumbered);
+
+        final List<String> keptParameters = new ArrayList<String>(parameters.size() - removedIndexes.cardinality());
+        for (int i = 0; i < parameters.size(); i++) {
+            if (!removedIndexes.get(i)) {
+                keptParameters.add(parameters.get(i));
+            }
+        }
+        return new DefaultNormalizedSql(renumbered.toString(), joinParameters(keptParameters));
+    }
+
+    private static String joinParameters(List<String> parameters) {
+        final StringBuilder output = new StringBuilder();
+        for (int i = 0; i < parameters.size(); i++) {
+            if (i > 0) {
+                output.append(DefaultSqlParser.SEPARATOR);
+            }
+            // same escaping as DefaultSqlParser
+            output.append(parameters.get(i).replace(",", ",,"));
+        }
+        return output.toString();
+    }
+
+    public long getHitCount() {
+        return parsingCache.stats().hitCount();
+    }
+
+    public long getMissCount() {
+        return parsingCache.stats().missCount();
+    }
+
+    /**
+     * @return number of evicted sql ids. sql metadata is sent again when an evicted sql is seen.
+     */
+    public long getEvictionCount() {
+        return sqlCache.getEvictionCount();
+    }
 
+    @Override
+    public String toString() {
+        final CacheStats stats = parsingCache.stats();
+        final StringBuilder sb = new StringBuilder("DefaultCachingSqlNormalizer{");
+        sb.append("hitCount=").append(stats.hitCount());
+        sb.append(", missCount=").append(stats.missCount());
+        sb.append(", hitRate=").append(stats.hitRate());
+        sb.append(", parsingCacheEvictionCount=").append(stats.evictionCount());
+        sb.append(", sqlIdEvictionCount=").append(sqlCache.getEvictionCount());
+        sb.append(", collapseInList=").append(collapseInList);
+        sb.append('}');
+        return sb.toString();
+    }
 }
@@ -37,15 +37,19 @@ public class DefaultSqlMetaDataService implements SqlMetaDataService {
 
     @Inject
     public DefaultSqlMetaDataService(ProfilerConfig profilerConfig, EnhancedDataSender<Object> enhancedDataSender) {
-        this(enhancedDataSender, profilerConfig.getJdbcSqlCacheSize());
+        this(enhancedDataSender, profilerConfig.getJdbcSqlCacheSize(), profilerConfig.readBoolean("profiler.jdbc.sqlcache.collapseinlist", false));
     }
 
     public DefaultSqlMetaDataService(EnhancedDataSender<Object> enhancedDataSender, int jdbcSqlCacheSize) {
+        this(enhancedDataSender, jdbcSqlCacheSize, false);
+    }
+
+    public DefaultSqlMetaDataService(EnhancedDataSender<Object> enhancedDataSender, int jdbcSqlCacheSize, boolean collapseInList) {
         if (enhancedDataSender == null) {
             throw new NullPointerException("enhancedDataSender must not be null");
         }
         this.enhancedDataSender = enhancedDataSender;
-        this.cachingSqlNormalizer = new DefaultCachingSqlNormalizer(jdbcSqlCacheSize);
+        this.cachingSqlNormalizer = new DefaultCachingSqlNormalizer(jdbcSqlCacheSize, collapseInList);
     }
 
     @Override
@@ -65,8 +69,7 @@ public class DefaultSqlMetaDataService implements SqlMetaDataService {
         boolean isNewValue = this.cachingSqlNormalizer.normalizedSql(parsingResult);
         if (isNewValue) {
             if (isDebug) {
-                // TODO logging hit ratio could help debugging
-                logger.debug("NewSQLParsingResult:{}", parsingResult);
+                logger.debug("NewSQLParsingResult:{} {}", parsingResult, cachingSqlNormalizer);
             }
 
             // isNewValue means that the value is newly cached.
@@ -29,6 +29,7 @@ import java.util.concurrent.atomic.AtomicInteger;
 public class SimpleCache<T> {
     // zero means not exist.
     private final AtomicInteger idGen;
+    private final Cache<T, Result> localCache;
     private final ConcurrentMap<T, Result> cache;
 
 
@@ -42,17 +43,18 @@ public class SimpleCache<T> {
 
     public SimpleCache(int cacheSize, int startValue) {
         idGen = new AtomicInteger(startValue);
-        cache = createCache(cacheSize);
+        localCache = createCache(cacheSize);
+        cache = localCache.asMap();
     }
 
-    private ConcurrentMap<T, Result> createCache(int maxCacheSize) {
+    private Cache<T, Result> createCache(int maxCacheSize) {
         final CacheBuilder<Object, Object> cacheBuilder = CacheBuilder.newBuilder();
         cacheBuilder.concurrencyLevel(64);
         cacheBuilder.initialCapacity(maxCacheSize);
         cacheBuilder.maximumSize(maxCacheSize);
-        Cache<T, Result> localCache = cacheBuilder.build();
-        ConcurrentMap<T, Result> cache = localCache.asMap();
-        return cache;
+        // only evictions are recorded through the asMap() view
+        cacheBuilder.recordStats();
+        return cacheBuilder.build();
     }
 
     public Result put(T value) {
@@ -71,4 +73,11 @@ public class SimpleCache<T> {
         return new Result(true, newId);
     }
 
+    /**
+     * @return number of values evicted so far. An evicted value gets a new id when it is put again.
+     */
+    public long getEvictionCount() {
+        return localCache.stats().evictionCount();
+    }
+
 }
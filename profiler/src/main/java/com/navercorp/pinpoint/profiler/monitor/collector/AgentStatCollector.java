@@ -18,8 +18,6 @@ package com.navercorp.pinpoint.profiler.monitor.collector;
 
 import com.google.inject.Inject;
 import com.navercorp.pinpoint.common.util.Assert;
-import com.navercorp.pinpoint.profiler.context.module.AgentId;
-import com.navercorp.pinpoint.profiler.context.module.AgentStartTime;
 import com.navercorp.pinpoint.thrift.dto.TActiveTrace;
 import com.navercorp.pinpoint.thrift.dto.TAgentStat;
 import com.navercorp.pinpoint.thrift.dto.TCpuLoad;
@@ -36,8 +34,6 @@ import com.navercorp.pinpoint.thrift.dto.TTransaction;
  */
 public class AgentStatCollector implements AgentStatMetricCollector<TAgentStat> {
 
-    private final String agentId;
-    private final long agentStartTimestamp;
     private final AgentStatMetricCollector<TJvmGc> jvmGcMetricCollector;
     private final AgentStatMetricCollector<TCpuLoad> cpuLoadMetricCollector;
     private final AgentStatMetricCollector<TTransaction> transactionMetricCollector;
@@ -50,8 +46,6 @@ public class AgentStatCollector implements AgentStatMetricCollector<TAgentStat>
 
     @Inject
     public AgentStatCollector(
-            @AgentId String agentId,
-            @AgentStartTime long agentStartTimestamp,
             AgentStatMetricCollector<TJvmGc> jvmGcMetricCollector,
             AgentStatMetricCollector<TCpuLoad> cpuLoadMetricCollector,
             AgentStatMetricCollector<TTransaction> transactionMetricCollector,
@@ -61,8 +55,6 @@ public class AgentStatCollector implements AgentStatMetricCollector<TAgentStat>
             AgentStatMetricCollector<TDeadlock> deadlockMetricCollector,
             AgentStatMetricCollector<TFileDescriptor> fileDescriptorMetricCollector,
             AgentStatMetricCollector<TDirectBuffer> bufferMetricCollector) {
-        this.agentId = Assert.requireNonNull(agentId, "agentId must not be null");
-        this.agentStartTimestamp = agentStartTimestamp;
         this.jvmGcMetricCollector = Assert.requireNonNull(jvmGcMetricCollector, "jvmGcMetricCollector must not be null");
         this.cpuLoadMetricCollector = Assert.requireNonNull(cpuLoadMetricCollector, "cpuLoadMetricCollector must not be null");
         this.transactionMetricCollector = Assert.requireNonNull(transactionMetricCollector, "transactionMetricCollector must not be null");
@@ -76,9 +68,9 @@ public class AgentStatCollector implements AgentStatMetricCollector<TAgentStat>
 
     @Override
     public TAgentStat collect() {
+        // agentId and startTimestamp are carried once by the enclosing TAgentStatBatch,
+        // so they are not repeated for every data point.
         TAgentStat agentStat = new TAgentStat();
-        agentStat.setAgentId(agentId);
-        agentStat.setStartTimestamp(agentStartTimestamp);
         agentStat.setGc(jvmGcMetricCollector.collect());
         agentStat.setCpuLoad(cpuLoadMetricCollector.collect());
         agentStat.setTransaction(transactionMetricCollector.collect());
@@ -95,9 +87,7 @@ public class AgentStatCollector implements AgentStatMetricCollector<TAgentStat>
     @Override
     public String toString() {
         final StringBuilder sb = new StringBuilder("AgentStatCollector{");
-        sb.append("agentId='").append(agentId).append('\'');
-        sb.append(", agentStartTimestamp=").append(agentStartTimestamp);
-        sb.append(", jvmGcMetricCollector=").append(jvmGcMetricCollector);
+        sb.append("jvmGcMetricCollector=").append(jvmGcMetricCollector);
         sb.append(", cpuLoadMetricCollector=").append(cpuLoadMetricCollector);
         sb.append(", transactionMetricCollector=").append(transactionMetricCollector);
         sb.append(", activeTraceMetricCollector=").append(activeTraceMetricCollector);
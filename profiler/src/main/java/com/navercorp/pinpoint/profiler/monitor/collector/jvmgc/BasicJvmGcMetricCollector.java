@@ -32,6 +32,8 @@ public class BasicJvmGcMetricCollector implements AgentStatMetricCollector<TJvmG
 
     private final MemoryMetric memoryMetric;
     private final GarbageCollectorMetric garbageCollectorMetric;
+    // gc type does not change during the lifetime of the jvm
+    private final TJvmGcType tJvmGcType;
 
     public BasicJvmGcMetricCollector(MemoryMetric memoryMetric, GarbageCollectorMetric garbageCollectorMetric) {
         if (memoryMetric == null) {
@@ -42,14 +44,12 @@ public class BasicJvmGcMetricCollector implements AgentStatMetricCollector<TJvmG
         }
         this.memoryMetric = memoryMetric;
         this.garbageCollectorMetric = garbageCollectorMetric;
+        JvmGcType jvmGcType = garbageCollectorMetric.getGcType();
+        this.tJvmGcType = TJvmGcTypeUtils.toTJvmGcType(jvmGcType.getValue());
     }
 
     @Override
     public TJvmGc collect() {
-
-        JvmGcType jvmGcType = garbageCollectorMetric.getGcType();
-        TJvmGcType tJvmGcType = TJvmGcTypeUtils.toTJvmGcType(jvmGcType.getValue());
-
         MemoryMetricSnapshot memoryMetricSnapshot = memoryMetric.getSnapshot();
         GarbageCollectorMetricSnapshot garbageCollectorMetricSnapshot = garbageCollectorMetric.getSnapshot();
 
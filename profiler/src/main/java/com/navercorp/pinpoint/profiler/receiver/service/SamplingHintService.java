@@ -0,0 +1,57 @@
+/*
+ * Copyright 2019 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.navercorp.pinpoint.profiler.receiver.service;
+
+import com.navercorp.pinpoint.common.util.Assert;
+import com.navercorp.pinpoint.profiler.receiver.ProfilerRequestCommandService;
+import com.navercorp.pinpoint.profiler.sampler.ThrottleSampler;
+import com.navercorp.pinpoint.thrift.dto.TResult;
+import com.navercorp.pinpoint.thrift.dto.command.TCmdSamplingHint;
+import com.navercorp.pinpoint.thrift.io.TCommandType;
+import org.apache.thrift.TBase;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Applies the sampling hint sent by a collector whose ingestion quota the agent exceeds.
+ */
+public class SamplingHintService implements ProfilerRequestCommandService<TBase<?, ?>, TBase<?, ?>> {
+
+    private final Logger logger = LoggerFactory.getLogger(this.getClass());
+
+    private final ThrottleSampler throttleSampler;
+
+    public SamplingHintService(ThrottleSampler throttleSampler) {
+        this.throttleSampler = Assert.requireNonNull(throttleSampler, "throttleSampler must not be null");
+    }
+
+    @Override
+    public TBase<?, ?> requestCommandService(TBase tbase) {
+        final TCmdSamplingHint samplingHint = (TCmdSamplingHint) tbase;
+        logger.info("sampling hint from collector. throttleRate:{}, durationMillis:{}", samplingHint.getThrottleRate(), samplingHint.getDurationMillis());
+
+        throttleSampler.throttle(samplingHint.getThrottleRate(), samplingHint.getDurationMillis());
+        return new TResult(true);
+    }
+
+    @Override
+    public short getCommandServiceCode() {
+        return TCommandType.SAMPLING_HINT.getCode();
+    }
+
+}
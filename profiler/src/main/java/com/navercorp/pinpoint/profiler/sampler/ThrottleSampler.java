@@ -0,0 +1,87 @@
+/*
+ * Copyright 2019 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.navercorp.pinpoint.profiler.sampler;
+
+import com.navercorp.pinpoint.bootstrap.sampler.Sampler;
+import com.navercorp.pinpoint.common.util.Assert;
+import com.navercorp.pinpoint.common.util.MathUtils;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Lowers the sampling rate for a while when the collector reports that the agent is over its ingestion quota.
+ * <p>
+ * While a throttle is active, only 1 out of {@code throttleRate} transactions sampled by the delegate is kept.
+ */
+public class ThrottleSampler implements Sampler {
+
+    static final int MAX_THROTTLE_RATE = 100;
+
+    private final Sampler delegate;
+    private final AtomicInteger counter = new AtomicInteger(0);
+
+    private volatile int throttleRate = 1;
+    private volatile long throttleEndTime;
+
+    public ThrottleSampler(Sampler delegate) {
+        this.delegate = Assert.requireNonNull(delegate, "delegate must not be null");
+    }
+
+    @Override
+    public boolean isSampling() {
+        if (!delegate.isSampling()) {
+            return false;
+        }
+        final int throttleRate = this.throttleRate;
+        if (throttleRate <= 1) {
+            return true;
+        }
+        if (System.currentTimeMillis() >= throttleEndTime) {
+            this.throttleRate = 1;
+            return true;
+        }
+        final int samplingCount = MathUtils.fastAbs(counter.getAndIncrement());
+        return samplingCount % throttleRate == 0;
+    }
+
+    /**
+     * @param throttleRate keep 1 out of throttleRate sampled transactions. 1 or less clears the throttle
+     * @param durationMillis how long the throttle lasts
+     */
+    public void throttle(int throttleRate, long durationMillis) {
+        if (throttleRate <= 1 || durationMillis <= 0) {
+            this.throttleRate = 1;
+            return;
+        }
+        this.throttleEndTime = System.currentTimeMillis() + durationMillis;
+        this.throttleRate = Math.min(throttleRate, MAX_THROTTLE_RATE);
+    }
+
+    public int getThrottleRate() {
+        return throttleRate;
+    }
+
+    @Override
+    public String toString() {
+        return "ThrottleSampler{" +
+                "delegate=" + delegate +
+                ", throttleRate=" + throttleRate +
+                ", throttleEndTime=" + throttleEndTime +
+                '}';
+    }
+}
@@ -24,6 +24,8 @@ import org.junit.Test;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.concurrent.atomic.AtomicInteger;
+
 /**
  * @author emeroad
  * @author jaehong.kim
@@ -137,4 +139,27 @@ public abstract class CallStackTest {
         assertNull(callStack.pop());
         assertNull(callStack.peek());
     }
+
+    @Test
+    public void overflowDummyIsNotPooled() {
+        final AtomicInteger newInstanceCount = new AtomicInteger();
+        factory = new SpanEventFactory() {
+            @Override
+            public SpanEvent newInstance() {
+                newInstanceCount.incrementAndGet();
+                return super.newInstance();
+            }
+        };
+        final int maxDepth = 1;
+        CallStack<SpanEvent> callStack = newCallStack(maxDepth);
+        callStack.push(getSpanEvent());
+        callStack.push(getSpanEvent());
+        assertTrue(callStack.isOverflow());
+        callStack.push(factory.dummyInstance());
+        assertEquals(2, newInstanceCount.get());
+
+        assertNotNull(callStack.peek());
+        assertNotNull(callStack.pop());
+        assertEquals(2, newInstanceCount.get());
+    }
 }
\ No newline at end of file
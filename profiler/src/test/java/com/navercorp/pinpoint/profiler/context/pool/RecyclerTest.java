@@ -0,0 +1,119 @@
+/*
+ * Copyright 2019 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.navercorp.pinpoint.profiler.context.pool;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+public class RecyclerTest {
+
+    @Test
+    public void reuse() {
+        Recycler<TestObject> recycler = new Recycler<TestObject>(new TestObjectFactory(), 4, true);
+
+        TestObject object = recycler.get();
+        object.value = 10;
+        Assert.assertTrue(recycler.recycle(object));
+
+        TestObject reused = recycler.get();
+        Assert.assertSame(object, reused);
+        Assert.assertEquals(0, reused.value);
+    }
+
+    @Test
+    public void recycleTwice() {
+        Recycler<TestObject> recycler = new Recycler<TestObject>(new TestObjectFactory(), 4, false);
+
+        TestObject object = recycler.get();
+        Assert.assertTrue(recycler.recycle(object));
+        Assert.assertFalse(recycler.recycle(object));
+
+        Assert.assertSame(object, recycler.get());
+        Assert.assertNotSame(object, recycler.get());
+    }
+
+    @Test
+    public void recycleUnpooledObject() {
+        Recycler<TestObject> recycler = new Recycler<TestObject>(new TestObjectFactory(), 4, false);
+
+        Assert.assertFalse(recycler.recycle(new TestObject()));
+        Assert.assertFalse(recycler.recycle(null));
+    }
+
+    @Test
+    public void maxCapacity() {
+        Recycler<TestObject> recycler = new Recycler<TestObject>(new TestObjectFactory(), 1, false);
+
+        TestObject object1 = recycler.get();
+        TestObject object2 = recycler.get();
+        Assert.assertTrue(recycler.recycle(object1));
+        Assert.assertFalse(recycler.recycle(object2));
+    }
+
+    @Test
+    public void recycleFromOtherThread() throws InterruptedException {
+        final Recycler<TestObject> recycler = new Recycler<TestObject>(new TestObjectFactory(), 4, false);
+        final TestObject object = recycler.get();
+        final AtomicBoolean recycled = new AtomicBoolean();
+        final AtomicBoolean reusedByOtherThread = new AtomicBoolean();
+
+        Thread thread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                recycled.set(recycler.recycle(object));
+                // the object belongs to the arena of the allocating thread
+                reusedByOtherThread.set(object == recycler.get());
+            }
+        });
+        thread.start();
+        thread.join();
+
+        Assert.assertTrue(recycled.get());
+        Assert.assertFalse(reusedByOtherThread.get());
+        Assert.assertSame(object, recycler.get());
+    }
+
+    private static class TestObject implements Recyclable {
+        private Recycler.Handle recycleHandle;
+        private int value;
+
+        @Override
+        public Recycler.Handle getRecycleHandle() {
+            return recycleHandle;
+        }
+
+        @Override
+        public void setRecycleHandle(Recycler.Handle recycleHandle) {
+            this.recycleHandle = recycleHandle;
+        }
+    }
+
+    private static class TestObjectFactory implements Recycler.ObjectFactory<TestObject> {
+        @Override
+        public TestObject newObject() {
+            return new TestObject();
+        }
+
+        @Override
+        public void reset(TestObject object) {
+            object.value = 0;
+        }
+    }
+}
@@ -0,0 +1,55 @@
+/*
+ * Copyright 2019 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.navercorp.pinpoint.profiler.context.pool;
+
+import com.navercorp.pinpoint.common.trace.AnnotationKey;
+import com.navercorp.pinpoint.profiler.context.Annotation;
+import com.navercorp.pinpoint.profiler.context.SpanEvent;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.List;
+
+public class ThreadLocalSpanObjectPoolTest {
+
+    @Test
+    public void release() {
+        SpanObjectPool pool = new ThreadLocalSpanObjectPool(16);
+
+        List<SpanEvent> spanEventList = pool.newSpanEventList(20);
+        SpanEvent spanEvent = pool.newSpanEvent();
+        spanEvent.setStackId(3);
+        spanEvent.setDepth(2);
+        spanEvent.setEndPoint("endPoint");
+        spanEvent.addAnnotation(new Annotation(AnnotationKey.API.getCode(), "value"));
+        spanEventList.add(spanEvent);
+
+        pool.release(spanEventList);
+
+        List<SpanEvent> reusedList = pool.newSpanEventList(20);
+        Assert.assertSame(spanEventList, reusedList);
+        Assert.assertTrue(reusedList.isEmpty());
+
+        SpanEvent reused = pool.newSpanEvent();
+        Assert.assertSame(spanEvent, reused);
+        Assert.assertEquals(0, reused.getStackId());
+        Assert.assertEquals(-1, reused.getDepth());
+        Assert.assertNull(reused.getEndPoint());
+        Assert.assertTrue(reused.getAnnotations().isEmpty());
+    }
+}
@@ -0,0 +1,109 @@
+/*
+ * Copyright 2019 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.navercorp.pinpoint.profiler.instrument.classloading;
+
+import com.navercorp.pinpoint.common.util.IOUtils;
+import com.navercorp.pinpoint.profiler.instrument.classreading.SimpleClassMetadata;
+import com.navercorp.pinpoint.profiler.plugin.ClassNameFilter;
+import com.navercorp.pinpoint.profiler.util.ExtensionFilter;
+import com.navercorp.pinpoint.profiler.util.FileBinary;
+import com.navercorp.pinpoint.profiler.util.JarReader;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+import java.util.jar.JarOutputStream;
+
+public class PluginClassIndexTest {
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void dependencyOrder() throws Exception {
+        // subclasses are written to the jar before their super types
+        File jar = createJar(Child.class, Parent.class, Marker.class);
+        JarFile jarFile = new JarFile(jar);
+        try {
+            List<FileBinary> fileBinaryList = new JarReader(jarFile).read(ExtensionFilter.CLASS_FILTER);
+            PluginClassIndex index = PluginClassIndex.build(fileBinaryList, acceptAll());
+
+            Assert.assertEquals(3, index.getClassCount());
+            List<String> classNames = getClassNames(index.getClassList());
+            Assert.assertTrue(classNames.indexOf(Parent.class.getName()) < classNames.indexOf(Child.class.getName()));
+            Assert.assertTrue(classNames.indexOf(Marker.class.getName()) < classNames.indexOf(Child.class.getName()));
+        } finally {
+            jarFile.close();
+        }
+    }
+
+    private ClassNameFilter acceptAll() {
+        return new ClassNameFilter() {
+            @Override
+            public boolean accept(String className) {
+                return ClassNameFilter.ACCEPT;
+            }
+        };
+    }
+
+    private List<String> getClassNames(List<SimpleClassMetadata> classList) {
+        List<String> classNames = new ArrayList<String>(classList.size());
+        for (SimpleClassMetadata classMetadata : classList) {
+            classNames.add(classMetadata.getClassName());
+        }
+        return classNames;
+    }
+
+    private File createJar(Class<?>... classes) throws Exception {
+        File jar = temporaryFolder.newFile("plugin.jar");
+        JarOutputStream jarOutputStream = new JarOutputStream(new FileOutputStream(jar));
+        try {
+            for (Class<?> clazz : classes) {
+                String classPath = clazz.getName().replace('.', '/') + ".class";
+                jarOutputStream.putNextEntry(new JarEntry(classPath));
+                InputStream inputStream = clazz.getClassLoader().getResourceAsStream(classPath);
+                try {
+                    jarOutputStream.write(IOUtils.toByteArray(inputStream));
+                } finally {
+                    inputStream.close();
+                }
+                jarOutputStream.closeEntry();
+            }
+        } finally {
+            jarOutputStream.close();
+        }
+        return jar;
+    }
+
+    public interface Marker {
+    }
+
+    public static class Parent {
+    }
+
+    public static class Child extends Parent implements Marker {
+    }
+}
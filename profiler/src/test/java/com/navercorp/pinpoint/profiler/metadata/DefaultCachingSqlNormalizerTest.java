@@ -17,6 +17,8 @@
 package com.navercorp.pinpoint.profiler.metadata;
 
 import com.navercorp.pinpoint.bootstrap.context.ParsingResult;
+import com.navercorp.pinpoint.common.util.DefaultNormalizedSql;
+import com.navercorp.pinpoint.common.util.NormalizedSql;
 import com.navercorp.pinpoint.profiler.metadata.CachingSqlNormalizer;
 import com.navercorp.pinpoint.profiler.metadata.DefaultCachingSqlNormalizer;
 import org.junit.Assert;
@@ -60,4 +62,69 @@ public class DefaultCachingSqlNormalizerTest {
         boolean newCache_parsingResult1_recached = normalizer.normalizedSql(parsingResult1_recached);
         Assert.assertTrue(newCache_parsingResult1_recached);
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testNormalizedSql_parsingCacheHit() throws Exception {
+        DefaultCachingSqlNormalizer normalizer = new DefaultCachingSqlNormalizer(10);
+        normalizer.normalizedSql(normalizer.wrapSql("select * from table1 where id = 1"));
+        Assert.assertEquals(0, normalizer.getHitCount());
+        Assert.assertEquals(1, normalizer.getMissCount());
+
+        ParsingResult parsingResult = normalizer.wrapSql("select * from table1 where id = 1");
+        boolean newCache = normalizer.normalizedSql(parsingResult);
+        Assert.assertFalse(newCache);
+        Assert.assertEquals(1, normalizer.getHitCount());
+        Assert.assertEquals("select * from table1 where id = 0#", parsingResult.getSql());
+        Assert.assertEquals("1", parsingResult.getOutput());
+    }
+
+    @Test
+    public void testNormalizedSql_collapseInList() throws Exception {
+        CachingSqlNormalizer normalizer = new DefaultCachingSqlNormalizer(10, true);
+        ParsingResult parsingResult1 = normalizer.wrapSql("select * from table1 where id in (?, ?)");
+        Assert.assertTrue(normalizer.normalizedSql(parsingResult1));
+
+        ParsingResult parsingResult2 = normalizer.wrapSql("select * from table1 where id IN(?,?,?)");
+        Assert.assertTrue(normalizer.normalizedSql(parsingResult2));
+
+        ParsingResult parsingResult3 = normalizer.wrapSql("select * from table1 where id in (?,?,?,?)");
+        Assert.assertFalse(normalizer.normalizedSql(parsingResult3));
+        Assert.assertEquals(parsingResult1.getId(), parsingResult3.getId());
+        Assert.assertEquals("select * from table1 where id in (?, ...)", parsingResult3.getSql());
+    }
+
+    @Test
+    public void testCollapseInList() {
+        Assert.assertEquals("a in (?, ...) and b IN (?, ...)", DefaultCachingSqlNormalizer.collapseInList("a in (?, ?) and b IN (? , ?,?)"));
+        Assert.assertEquals("a in (?)", DefaultCachingSqlNormalizer.collapseInList("a in (?)"));
+        Assert.assertEquals("a in (0#, 1#)", DefaultCachingSqlNormalizer.collapseInList("a in (0#, 1#)"));
+        Assert.assertEquals("join (?, ?)", DefaultCachingSqlNormalizer.collapseInList("join (?, ?)"));
+    }
+
+    @Test
+    public void testNormalizedSql_collapseLiteralInList() throws Exception {
+        CachingSqlNormalizer normalizer = new DefaultCachingSqlNormalizer(10, true);
+        ParsingResult parsingResult1 = normalizer.wrapSql("select * from table1 where id in (1, 2) and name = 'a,b'");
+        Assert.assertTrue(normalizer.normalizedSql(parsingResult1));
+        Assert.assertEquals("select * from table1 where id in (0#, ...) and name = '1$'", parsingResult1.getSql());
+        Assert.assertEquals("1,a,,b", parsingResult1.getOutput());
+
+        ParsingResult parsingResult2 = normalizer.wrapSql("select * from table1 where id in (3, 4, 5) and name = 'c'");
+        Assert.assertFalse(normalizer.normalizedSql(parsingResult2));
+        Assert.assertEquals(parsingResult1.getId(), parsingResult2.getId());
+        Assert.assertEquals("3,c", parsingResult2.getOutput());
+    }
+
+    @Test
+    public void testCollapseLiteralInList() {
+        NormalizedSql collapsed = DefaultCachingSqlNormalizer.collapseLiteralInList("a in ('0$', '1$') and b = 2# and c IN (3#,4#)", "x,y,1,2,3");
+        Assert.assertEquals("a in ('0$', ...) and b = 1# and c IN (2#, ...)", collapsed.getNormalizedSql());
+        Assert.assertEquals("x,1,2", collapsed.getParseParameter());
+
+        Assert.assertNull(DefaultCachingSqlNormalizer.collapseLiteralInList("a in (0#)", "1"));
+        Assert.assertNull(DefaultCachingSqlNormalizer.collapseLiteralInList("a in (?, ?)", ""));
+        // the sql is returned as is if nothing was collapsed
+        NormalizedSql normalizedSql = new DefaultNormalizedSql("a = 0#", "1");
+        Assert.assertSame(normalizedSql, DefaultCachingSqlNormalizer.collapseInList(normalizedSql));
+    }
+}
@@ -0,0 +1,67 @@
+/*
+ * Copyright 2019 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.navercorp.pinpoint.profiler.sampler;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class ThrottleSamplerTest {
+
+    @Test
+    public void throttle() {
+        ThrottleSampler sampler = new ThrottleSampler(new TrueSampler());
+        Assert.assertTrue(sampler.isSampling());
+        Assert.assertTrue(sampler.isSampling());
+
+        sampler.throttle(2, 60000);
+        Assert.assertTrue(sampler.isSampling());
+        Assert.assertFalse(sampler.isSampling());
+        Assert.assertTrue(sampler.isSampling());
+        Assert.assertFalse(sampler.isSampling());
+
+        sampler.throttle(1, 60000);
+        Assert.assertTrue(sampler.isSampling());
+        Assert.assertTrue(sampler.isSampling());
+    }
+
+    @Test
+    public void notSampledByDelegate() {
+        ThrottleSampler sampler = new ThrottleSampler(new FalseSampler());
+        sampler.throttle(2, 60000);
+        Assert.assertFalse(sampler.isSampling());
+        Assert.assertFalse(sampler.isSampling());
+    }
+
+    @Test
+    public void maxThrottleRate() {
+        ThrottleSampler sampler = new ThrottleSampler(new TrueSampler());
+        sampler.throttle(Integer.MAX_VALUE, 60000);
+        Assert.assertEquals(ThrottleSampler.MAX_THROTTLE_RATE, sampler.getThrottleRate());
+    }
+
+    @Test
+    public void expire() throws InterruptedException {
+        ThrottleSampler sampler = new ThrottleSampler(new TrueSampler());
+        sampler.throttle(2, 1);
+        Thread.sleep(10);
+
+        Assert.assertTrue(sampler.isSampling());
+        Assert.assertTrue(sampler.isSampling());
+        Assert.assertEquals(1, sampler.getThrottleRate());
+    }
+}
@@ -110,6 +110,13 @@ public enum TCommandType {
         public TBase<?, ?> getObject() {
             return new TCmdActiveThreadLightDumpRes();
         }
+    }),
+
+    SAMPLING_HINT((short) 760, new BodyFactory<TBase<?, ?>>() {
+        @Override
+        public TBase<?, ?> getObject() {
+            return new TCmdSamplingHint();
+        }
     });
 
     private final short code;
@@ -112,6 +112,11 @@ struct TCommandEcho {
     1: string	message
 }
 
+struct TCmdSamplingHint {
+    1: i32  throttleRate
+    2: i64  durationMillis
+}
+
 enum TRouteResult {
     OK = 0,
 
@@ -125,6 +125,10 @@ struct TFAgentStatBatch {
     10: list<TFAgentStat>        agentStats
 }
 
+struct TFAgentStatBatchList {
+    1: list<TFAgentStatBatch>   agentStatBatchList
+}
+
 struct TFDataSource {
     1: i32                      id
     2: optional i16             serviceTypeCode
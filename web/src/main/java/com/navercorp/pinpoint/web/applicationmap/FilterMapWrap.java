@@ -26,6 +26,7 @@ import com.navercorp.pinpoint.web.view.FilterMapWrapSerializer;
 public class FilterMapWrap {
     private final ApplicationMap applicationMap;
     private Long lastFetchedTimestamp;
+    private String cursor;
 
     public FilterMapWrap(ApplicationMap applicationMap) {
         this.applicationMap = applicationMap;
@@ -44,4 +45,12 @@ public class FilterMapWrap {
         return lastFetchedTimestamp;
     }
 
+    public void setCursor(String cursor) {
+        this.cursor = cursor;
+    }
+
+    public String getCursor() {
+        return cursor;
+    }
+
 }
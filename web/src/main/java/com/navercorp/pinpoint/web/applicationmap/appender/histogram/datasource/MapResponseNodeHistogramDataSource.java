@@ -20,9 +20,7 @@ import com.navercorp.pinpoint.web.applicationmap.histogram.NodeHistogram;
 import com.navercorp.pinpoint.web.dao.MapResponseDao;
 import com.navercorp.pinpoint.web.vo.Application;
 import com.navercorp.pinpoint.web.vo.Range;
-import com.navercorp.pinpoint.web.vo.ResponseTime;
-
-import java.util.List;
+import com.navercorp.pinpoint.web.vo.ResponseTimeColumns;
 
 /**
  * @author HyunGil Jeong
@@ -40,8 +38,8 @@ public class MapResponseNodeHistogramDataSource implements WasNodeHistogramDataS
 
     @Override
     public NodeHistogram createNodeHistogram(Application application, Range range) {
-        List<ResponseTime> responseTimes = mapResponseDao.selectResponseTime(application, range);
-        final NodeHistogram nodeHistogram = new NodeHistogram(application, range, responseTimes);
+        ResponseTimeColumns responseTimeColumns = mapResponseDao.selectResponseTimeColumns(application, range);
+        final NodeHistogram nodeHistogram = new NodeHistogram(application, range, responseTimeColumns);
         return nodeHistogram;
     }
 }
@@ -215,6 +215,21 @@ public class Histogram {
         this.verySlowErrorCount += histogram.getVerySlowErrorCount();
     }
 
+    /**
+     * adds one histogram of a {@link ColumnarHistogram}, {@code offset} is the index of its first slot
+     */
+    void add(final long[] slotCounts, final int offset) {
+        this.fastCount += slotCounts[offset + ColumnarHistogram.FAST];
+        this.normalCount += slotCounts[offset + ColumnarHistogram.NORMAL];
+        this.slowCount += slotCounts[offset + ColumnarHistogram.SLOW];
+        this.verySlowCount += slotCounts[offset + ColumnarHistogram.VERY_SLOW];
+        this.errorCount += slotCounts[offset + ColumnarHistogram.ERROR];
+        this.fastErrorCount += slotCounts[offset + ColumnarHistogram.FAST_ERROR];
+        this.normalErrorCount += slotCounts[offset + ColumnarHistogram.NORMAL_ERROR];
+        this.slowErrorCount += slotCounts[offset + ColumnarHistogram.SLOW_ERROR];
+        this.verySlowErrorCount += slotCounts[offset + ColumnarHistogram.VERY_SLOW_ERROR];
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
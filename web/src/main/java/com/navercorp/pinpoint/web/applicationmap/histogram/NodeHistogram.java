@@ -16,6 +16,10 @@
 
 package com.navercorp.pinpoint.web.applicationmap.histogram;
 
+import com.navercorp.pinpoint.common.trace.HistogramSchema;
+import com.navercorp.pinpoint.web.applicationmap.rawdata.AgentHistogramList;
+import com.navercorp.pinpoint.web.util.TimeWindow;
+import com.navercorp.pinpoint.web.util.TimeWindowDownSampler;
 import com.navercorp.pinpoint.web.view.AgentResponseTimeViewModelList;
 import com.navercorp.pinpoint.web.view.ResponseTimeViewModel;
 import com.navercorp.pinpoint.web.vo.*;
@@ -90,6 +94,52 @@ public class NodeHistogram {
 
     }
 
+    /**
+     * same histograms as {@link #NodeHistogram(Application, Range, List)}, merged column by column
+     */
+    public NodeHistogram(Application application, Range range, ResponseTimeColumns responseTimeColumns) {
+        if (application == null) {
+            throw new NullPointerException("application must not be null");
+        }
+        if (range == null) {
+            throw new NullPointerException("range must not be null");
+        }
+        if (responseTimeColumns == null) {
+            throw new NullPointerException("responseTimeColumns must not be null");
+        }
+        this.application = application;
+        this.range = range;
+
+        final HistogramSchema schema = application.getServiceType().getHistogramSchema();
+        final List<String> agentIds = responseTimeColumns.getAgentIds();
+        final TimeWindow window = new TimeWindow(range, TimeWindowDownSampler.SAMPLER);
+
+        final ColumnarHistogram agentTotal = new ColumnarHistogram(schema, agentIds.size());
+        final Map<Long, ColumnarHistogram> windowRows = new HashMap<>();
+        for (Map.Entry<Long, ColumnarHistogram> entry : responseTimeColumns.getRows().entrySet()) {
+            final ColumnarHistogram row = entry.getValue();
+            agentTotal.add(row);
+            final long windowTime = window.refineTimestamp(entry.getKey());
+            windowRows.computeIfAbsent(windowTime, time -> new ColumnarHistogram(schema, agentIds.size())).add(row);
+        }
+
+        final Set<Long> windowTimes = new HashSet<>();
+        for (Long time : window) {
+            windowTimes.add(time);
+        }
+
+        this.agentTimeHistogram = createAgentLevelTimeSeriesResponseTime(agentIds, windowTimes, windowRows);
+        // rows refined out of the window are kept as extra points, like the builders do
+        windowTimes.addAll(windowRows.keySet());
+        this.applicationTimeHistogram = createApplicationLevelTimeSeriesResponseTime(windowTimes, windowRows);
+
+        this.agentHistogramMap = new HashMap<>();
+        for (int agentIndex = 0; agentIndex < agentIds.size(); agentIndex++) {
+            agentHistogramMap.put(agentIds.get(agentIndex), agentTotal.getHistogram(agentIndex));
+        }
+        this.applicationHistogram = agentTotal.mergeColumns();
+    }
+
 
     public Histogram getApplicationHistogram() {
         return applicationHistogram;
@@ -127,6 +177,44 @@ public class NodeHistogram {
         this.agentTimeHistogram = agentTimeHistogram;
     }
 
+    private ApplicationTimeHistogram createApplicationLevelTimeSeriesResponseTime(Set<Long> windowTimes, Map<Long, ColumnarHistogram> windowRows) {
+        final List<TimeHistogram> histogramList = new ArrayList<>(windowTimes.size());
+        for (Long time : windowTimes) {
+            final TimeHistogram timeHistogram = new TimeHistogram(application.getServiceType(), time);
+            final ColumnarHistogram windowRow = windowRows.get(time);
+            if (windowRow != null) {
+                timeHistogram.add(windowRow.mergeColumns());
+            }
+            histogramList.add(timeHistogram);
+        }
+        histogramList.sort(TimeHistogram.TIME_STAMP_ASC_COMPARATOR);
+        return new ApplicationTimeHistogram(application, range, histogramList);
+    }
+
+    private AgentTimeHistogram createAgentLevelTimeSeriesResponseTime(List<String> agentIds, Set<Long> windowTimes, Map<Long, ColumnarHistogram> windowRows) {
+        final AgentHistogramList agentHistogramList = new AgentHistogramList();
+        for (int agentIndex = 0; agentIndex < agentIds.size(); agentIndex++) {
+            final List<TimeHistogram> histogramList = new ArrayList<>(windowTimes.size());
+            for (Long time : windowTimes) {
+                final TimeHistogram timeHistogram = new TimeHistogram(application.getServiceType(), time);
+                final ColumnarHistogram windowRow = windowRows.get(time);
+                if (windowRow != null) {
+                    windowRow.addTo(agentIndex, timeHistogram);
+                }
+                histogramList.add(timeHistogram);
+            }
+            for (Map.Entry<Long, ColumnarHistogram> entry : windowRows.entrySet()) {
+                if (!windowTimes.contains(entry.getKey()) && entry.getValue().getTotalCount(agentIndex) > 0) {
+                    final TimeHistogram timeHistogram = new TimeHistogram(application.getServiceType(), entry.getKey());
+                    entry.getValue().addTo(agentIndex, timeHistogram);
+                    histogramList.add(timeHistogram);
+                }
+            }
+            agentHistogramList.addAgentHistogram(agentIds.get(agentIndex), application.getServiceType(), histogramList);
+        }
+        return new AgentTimeHistogram(application, range, agentHistogramList);
+    }
+
     private ApplicationTimeHistogram createApplicationLevelTimeSeriesResponseTime(List<ResponseTime> responseHistogramList) {
         ApplicationTimeHistogramBuilder builder = new ApplicationTimeHistogramBuilder(application, range);
         return builder.build(responseHistogramList);
@@ -40,6 +40,8 @@ public class CollectorClusterInfoRepository {
     static final String PROFILER_SEPARATOR = "\r\n";
 
     private final Map<String, Set<String>> repository = new HashMap<>();
+    // agents of each shard of the collectors writing the sharded registry
+    private final Map<String, Map<String, Set<String>>> shardRepository = new HashMap<>();
 
 
     private final Object lock = new Object();
@@ -49,6 +51,56 @@ public class CollectorClusterInfoRepository {
         final Set<String> profilerInfoSet = newProfilerInfo(bytes);
         synchronized (lock) {
             repository.put(id, profilerInfoSet);
+            shardRepository.remove(id);
+        }
+    }
+
+    /**
+     * Replaces the agents of one shard, applying only the difference to the agents of the collector.
+     */
+    public void putShard(String id, String shardName, Set<String> agentKeys) {
+        synchronized (lock) {
+            Map<String, Set<String>> shards = shardRepository.get(id);
+            if (shards == null) {
+                shards = new HashMap<>();
+                shardRepository.put(id, shards);
+                repository.put(id, new HashSet<String>());
+            }
+            final Set<String> profilerInfoSet = repository.get(id);
+
+            final Set<String> prevAgentKeys = shards.put(shardName, agentKeys);
+            if (prevAgentKeys != null) {
+                for (String prevAgentKey : prevAgentKeys) {
+                    if (!agentKeys.contains(prevAgentKey)) {
+                        profilerInfoSet.remove(prevAgentKey);
+                    }
+                }
+            }
+            profilerInfoSet.addAll(agentKeys);
+        }
+    }
+
+    public void removeShard(String id, String shardName) {
+        synchronized (lock) {
+            final Map<String, Set<String>> shards = shardRepository.get(id);
+            if (shards == null) {
+                return;
+            }
+            final Set<String> prevAgentKeys = shards.remove(shardName);
+            final Set<String> profilerInfoSet = repository.get(id);
+            if (prevAgentKeys != null && profilerInfoSet != null) {
+                profilerInfoSet.removeAll(prevAgentKeys);
+            }
+        }
+    }
+
+    public Set<String> getShardNames(String id) {
+        synchronized (lock) {
+            final Map<String, Set<String>> shards = shardRepository.get(id);
+            if (shards == null) {
+                return new HashSet<>();
+            }
+            return new HashSet<>(shards.keySet());
         }
     }
 
@@ -61,6 +113,7 @@ public class CollectorClusterInfoRepository {
     public void remove(String id) {
         synchronized (lock) {
             repository.remove(id);
+            shardRepository.remove(id);
         }
     }
 
@@ -85,6 +138,7 @@ public class CollectorClusterInfoRepository {
     public void clear() {
         synchronized (lock) {
             repository.clear();
+            shardRepository.clear();
         }
     }
 
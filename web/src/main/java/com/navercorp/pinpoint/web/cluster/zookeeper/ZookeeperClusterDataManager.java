@@ -16,6 +16,7 @@
 
 package com.navercorp.pinpoint.web.cluster.zookeeper;
 
+import com.navercorp.pinpoint.common.server.cluster.zookeeper.AgentShardCodec;
 import com.navercorp.pinpoint.common.server.cluster.zookeeper.ZookeeperConstatns;
 import com.navercorp.pinpoint.common.server.cluster.zookeeper.ZookeeperEventWatcher;
 import com.navercorp.pinpoint.common.server.cluster.zookeeper.exception.NoNodeException;
@@ -38,6 +39,7 @@ import org.slf4j.LoggerFactory;
 
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicReference;
@@ -50,6 +52,7 @@ public class ZookeeperClusterDataManager implements ClusterDataManager, Zookeepe
     private static final String PINPOINT_CLUSTER_PATH = "/pinpoint-cluster";
     private static final String PINPOINT_WEB_CLUSTER_PATH = PINPOINT_CLUSTER_PATH + "/web";
     private static final String PINPOINT_COLLECTOR_CLUSTER_PATH = PINPOINT_CLUSTER_PATH + "/collector";
+    private static final String AGENT_SHARD_PATH_PREFIX = AgentShardCodec.AGENT_SHARD_PATH + ZookeeperConstatns.PATH_SEPARATOR;
     private static final long SYNC_INTERVAL_TIME_MILLIS = 15 * 1000;
 
     private final Logger logger = LoggerFactory.getLogger(this.getClass());
@@ -143,6 +146,8 @@ public class ZookeeperClusterDataManager implements ClusterDataManager, Zookeepe
         } else if (state == KeeperState.SyncConnected || state == KeeperState.NoSyncConnected) {
             if (eventType == EventType.None) {
                 result = handleConnected();
+            } else if (path != null && path.startsWith(AGENT_SHARD_PATH_PREFIX)) {
+                result = handleAgentShardEvent(eventType, path);
             } else if (eventType == EventType.NodeChildrenChanged) {
                 result = handleNodeChildrenChanged(path);
             } else if (eventType == EventType.NodeDeleted) {
@@ -179,7 +184,7 @@ public class ZookeeperClusterDataManager implements ClusterDataManager, Zookeepe
                 }
             }
 
-            if (!syncPullCollectorCluster()) {
+            if (!syncPullCollectorCluster(true)) {
                 timer.newTimeout(new PullCollectorClusterJob(), SYNC_INTERVAL_TIME_MILLIS, TimeUnit.MILLISECONDS);
                 result = false;
             }
@@ -192,7 +197,8 @@ public class ZookeeperClusterDataManager implements ClusterDataManager, Zookeepe
 
     private boolean handleNodeChildrenChanged(String path) {
         if (PINPOINT_COLLECTOR_CLUSTER_PATH.equals(path)) {
-            if (syncPullCollectorCluster()) {
+            // the shards of the sharded collectors already known are watched one by one
+            if (syncPullCollectorCluster(false)) {
                 return true;
             }
             timer.newTimeout(new PullCollectorClusterJob(), SYNC_INTERVAL_TIME_MILLIS, TimeUnit.MILLISECONDS);
@@ -226,6 +232,32 @@ public class ZookeeperClusterDataManager implements ClusterDataManager, Zookeepe
         return false;
     }
 
+    private boolean handleAgentShardEvent(EventType eventType, String path) {
+        final String[] names = path.substring(AGENT_SHARD_PATH_PREFIX.length()).split(ZookeeperConstatns.PATH_SEPARATOR);
+        final String id = names[0];
+        if (names.length == 1) {
+            if (eventType == EventType.NodeChildrenChanged) {
+                if (syncAgentShards(id, false)) {
+                    return true;
+                }
+                timer.newTimeout(new PullCollectorClusterJob(), SYNC_INTERVAL_TIME_MILLIS, TimeUnit.MILLISECONDS);
+            }
+            return false;
+        }
+
+        final String shardName = names[1];
+        if (eventType == EventType.NodeDataChanged) {
+            if (pullAgentShard(id, shardName)) {
+                return true;
+            }
+            timer.newTimeout(new PullCollectorClusterJob(), SYNC_INTERVAL_TIME_MILLIS, TimeUnit.MILLISECONDS);
+        } else if (eventType == EventType.NodeDeleted) {
+            collectorClusterInfo.removeShard(id, shardName);
+            return true;
+        }
+        return false;
+    }
+
     @Override
     public List<String> getRegisteredAgentList(AgentInfo agentInfo) {
         return getRegisteredAgentList(agentInfo.getApplicationName(), agentInfo.getAgentId(), agentInfo.getStartTimestamp());
@@ -247,7 +279,7 @@ public class ZookeeperClusterDataManager implements ClusterDataManager, Zookeepe
         return connected.get();
     }
 
-    private boolean syncPullCollectorCluster() {
+    private boolean syncPullCollectorCluster(boolean reloadShards) {
         logger.info("syncPullCollectorCluster() started.");
         synchronized (this) {
             Map<String, byte[]> map = clusterDataManagerHelper.syncPullCollectorCluster(client, PINPOINT_COLLECTOR_CLUSTER_PATH);
@@ -256,8 +288,16 @@ public class ZookeeperClusterDataManager implements ClusterDataManager, Zookeepe
             }
 
             logger.info("Get collector({}) info.", map.keySet());
+            boolean result = true;
             for (Map.Entry<String, byte[]> entry : map.entrySet()) {
-                collectorClusterInfo.put(entry.getKey(), entry.getValue());
+                if (AgentShardCodec.isShardedMarker(entry.getValue())) {
+                    result &= syncAgentShards(entry.getKey(), reloadShards);
+                } else {
+                    collectorClusterInfo.put(entry.getKey(), entry.getValue());
+                }
+            }
+            if (!result) {
+                return false;
             }
 
             logger.info("syncPullCollectorCluster() completed.");
@@ -272,6 +312,9 @@ public class ZookeeperClusterDataManager implements ClusterDataManager, Zookeepe
             try {
                 byte[] data = client.getData(path, true);
 
+                if (AgentShardCodec.isShardedMarker(data)) {
+                    return syncAgentShards(id, false);
+                }
                 collectorClusterInfo.put(id, data);
                 logger.info("pushCollectorClusterData() completed.");
                 return true;
@@ -286,6 +329,56 @@ public class ZookeeperClusterDataManager implements ClusterDataManager, Zookeepe
         }
     }
 
+    /**
+     * Reads the shards of a collector that are not known yet and forgets the ones that are gone.
+     * The known shards keep their data watch, so they are only read again when they change.
+     */
+    private boolean syncAgentShards(String id, boolean reload) {
+        final String shardParentPath = clusterDataManagerHelper.bindingPathAndZNode(AgentShardCodec.AGENT_SHARD_PATH, id);
+        synchronized (this) {
+            try {
+                final List<String> shardNames = client.getChildren(shardParentPath, true);
+
+                final Set<String> knownShardNames = collectorClusterInfo.getShardNames(id);
+                for (String knownShardName : knownShardNames) {
+                    if (!shardNames.contains(knownShardName)) {
+                        collectorClusterInfo.removeShard(id, knownShardName);
+                    }
+                }
+
+                boolean result = true;
+                for (String shardName : shardNames) {
+                    if (reload || !knownShardNames.contains(shardName)) {
+                        result &= pullAgentShard(id, shardName);
+                    }
+                }
+                return result;
+            } catch (Exception e) {
+                logger.warn("syncAgentShards() failed. id:{}, caused:{}", id, e.getMessage(), e);
+            }
+            return false;
+        }
+    }
+
+    private boolean pullAgentShard(String id, String shardName) {
+        final String shardParentPath = clusterDataManagerHelper.bindingPathAndZNode(AgentShardCodec.AGENT_SHARD_PATH, id);
+        final String shardPath = clusterDataManagerHelper.bindingPathAndZNode(shardParentPath, shardName);
+        synchronized (this) {
+            try {
+                final byte[] data = client.getData(shardPath, true);
+                collectorClusterInfo.putShard(id, shardName, AgentShardCodec.decode(data));
+                return true;
+            } catch (NoNodeException e) {
+                logger.info("No agent shard path({}).", shardPath);
+                collectorClusterInfo.removeShard(id, shardName);
+                return true;
+            } catch (Exception e) {
+                logger.warn("pullAgentShard() failed. path:{}, caused:{}", shardPath, e.getMessage(), e);
+            }
+            return false;
+        }
+    }
+
     class PushWebClusterJob implements PushZnodeJob {
         private final String zNodeName;
         private final byte[] contents;
@@ -342,7 +435,7 @@ public class ZookeeperClusterDataManager implements ClusterDataManager, Zookeepe
                 return;
             }
 
-            if (!syncPullCollectorCluster()) {
+            if (!syncPullCollectorCluster(true)) {
                 timer.newTimeout(new PullCollectorClusterJob(), SYNC_INTERVAL_TIME_MILLIS, TimeUnit.MILLISECONDS);
             }
         }
@@ -16,6 +16,8 @@
 
 package com.navercorp.pinpoint.web.controller;
 
+import com.navercorp.pinpoint.web.dao.hbase.stat.v2.SampledAgentStatCache;
+import com.navercorp.pinpoint.web.service.AsyncQueryService;
 import com.navercorp.pinpoint.web.vo.Application;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -45,6 +47,12 @@ public class AdminController {
     @Autowired
     private AdminService adminService;
 
+    @Autowired
+    private SampledAgentStatCache sampledAgentStatCache;
+
+    @Autowired
+    private AsyncQueryService asyncQueryService;
+
     @RequestMapping(value = "/removeApplicationName")
     @ResponseBody
     public String removeApplicationName(@RequestParam("applicationName") String applicationName) {
@@ -107,4 +115,16 @@ public class AdminController {
         return this.adminService.getInactiveAgents(applicationName, durationDays);
     }
 
+    @RequestMapping(value = "/statChartCache")
+    @ResponseBody
+    public Map<String, Object> statChartCache() {
+        return this.sampledAgentStatCache.getStats();
+    }
+
+    @RequestMapping(value = "/asyncQuery")
+    @ResponseBody
+    public Map<String, Object> asyncQuery() {
+        return this.asyncQueryService.getStats();
+    }
+
 }
\ No newline at end of file
@@ -21,6 +21,7 @@ import com.navercorp.pinpoint.common.server.util.AgentLifeCycleState;
 import com.navercorp.pinpoint.common.util.IdValidateUtils;
 import com.navercorp.pinpoint.web.service.AgentEventService;
 import com.navercorp.pinpoint.web.service.AgentInfoService;
+import com.navercorp.pinpoint.web.vo.AgentDirectoryChanges;
 import com.navercorp.pinpoint.web.vo.AgentDownloadInfo;
 import com.navercorp.pinpoint.web.vo.AgentEvent;
 import com.navercorp.pinpoint.web.vo.AgentInfo;
@@ -39,6 +40,7 @@ import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseBody;
 
 import java.util.List;
+import java.util.Set;
 
 /**
  * @author HyunGil Jeong
@@ -124,6 +126,19 @@ public class AgentInfoController {
         return this.agentInfoService.getApplicationAgentsList(ApplicationAgentsList.GroupBy.HOST_NAME, runningContainerFilter, applicationName, timestamp);
     }
 
+    @RequestMapping(value = "/getAgentListChanges", method = RequestMethod.GET)
+    @ResponseBody
+    public AgentDirectoryChanges getAgentListChanges(@RequestParam(value = "version", defaultValue = "-1") long version) {
+        return this.agentInfoService.getAgentDirectoryChanges(version);
+    }
+
+    @RequestMapping(value = "/getHostAgentList", method = RequestMethod.GET)
+    @ResponseBody
+    public Set<AgentInfo> getHostAgentList(@RequestParam("host") String hostName) {
+        long timestamp = System.currentTimeMillis();
+        return this.agentInfoService.getAgentsByHostName(hostName, timestamp);
+    }
+
     @RequestMapping(value = "/getAgentInfo", method = RequestMethod.GET)
     @ResponseBody
     public AgentInfo getAgentInfo(
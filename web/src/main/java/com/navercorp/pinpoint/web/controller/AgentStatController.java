@@ -29,6 +29,7 @@ import com.navercorp.pinpoint.common.server.bo.stat.JvmGcBo;
 import com.navercorp.pinpoint.common.server.bo.stat.JvmGcDetailedBo;
 import com.navercorp.pinpoint.common.server.bo.stat.ResponseTimeBo;
 import com.navercorp.pinpoint.common.server.bo.stat.TransactionBo;
+import com.navercorp.pinpoint.web.service.AsyncQueryService;
 import com.navercorp.pinpoint.web.service.stat.ActiveTraceChartService;
 import com.navercorp.pinpoint.web.service.stat.ActiveTraceService;
 import com.navercorp.pinpoint.web.service.stat.AgentStatChartService;
@@ -65,6 +66,7 @@ import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseBody;
 
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * @author emeroad
@@ -77,6 +79,9 @@ public abstract class AgentStatController<T extends AgentStatDataPoint> {
 
     private final AgentStatChartService agentStatChartService;
 
+    @Autowired
+    private AsyncQueryService asyncQueryService;
+
     public AgentStatController(AgentStatService<T> agentStatService, AgentStatChartService agentStatChartService) {
         this.agentStatService = agentStatService;
         this.agentStatChartService = agentStatChartService;
@@ -96,19 +101,20 @@ public abstract class AgentStatController<T extends AgentStatDataPoint> {
     @PreAuthorize("hasPermission(new com.navercorp.pinpoint.web.vo.AgentParam(#agentId, #to), 'agentParam', 'inspector')")
     @RequestMapping(value = "/chart", method = RequestMethod.GET)
     @ResponseBody
-    public StatChart getAgentStatChart(
+    public CompletableFuture<StatChart> getAgentStatChart(
             @RequestParam("agentId") String agentId,
             @RequestParam("from") long from,
             @RequestParam("to") long to) {
         TimeWindowSampler sampler = new TimeWindowSlotCentricSampler();
         TimeWindow timeWindow = new TimeWindow(new Range(from, to), sampler);
-        return this.agentStatChartService.selectAgentChart(agentId, timeWindow);
+        return asyncQueryService.execute(() -> this.agentStatChartService.selectAgentChart(agentId, timeWindow),
+                getQueryName("chart"), agentId, from, to);
     }
 
     @PreAuthorize("hasPermission(new com.navercorp.pinpoint.web.vo.AgentParam(#agentId, #to), 'agentParam', 'inspector')")
     @RequestMapping(value = "/chart", method = RequestMethod.GET, params = {"interval"})
     @ResponseBody
-    public StatChart getAgentStatChart(
+    public CompletableFuture<StatChart> getAgentStatChart(
             @RequestParam("agentId") String agentId,
             @RequestParam("from") long from,
             @RequestParam("to") long to,
@@ -122,25 +128,27 @@ public abstract class AgentStatController<T extends AgentStatDataPoint> {
             }
         };
         TimeWindow timeWindow = new TimeWindow(new Range(from, to), sampler);
-        return this.agentStatChartService.selectAgentChart(agentId, timeWindow);
+        return asyncQueryService.execute(() -> this.agentStatChartService.selectAgentChart(agentId, timeWindow),
+                getQueryName("chart"), agentId, from, to, intervalMs);
     }
 
     @PreAuthorize("hasPermission(new com.navercorp.pinpoint.web.vo.AgentParam(#agentId, #to), 'agentParam', 'inspector')")
     @RequestMapping(value = "/chartList", method = RequestMethod.GET)
     @ResponseBody
-    public List<StatChart> getAgentStatChartList(
+    public CompletableFuture<List<StatChart>> getAgentStatChartList(
             @RequestParam("agentId") String agentId,
             @RequestParam("from") long from,
             @RequestParam("to") long to) {
         TimeWindowSampler sampler = new TimeWindowSlotCentricSampler();
         TimeWindow timeWindow = new TimeWindow(new Range(from, to), sampler);
-        return this.agentStatChartService.selectAgentChartList(agentId, timeWindow);
+        return asyncQueryService.execute(() -> this.agentStatChartService.selectAgentChartList(agentId, timeWindow),
+                getQueryName("chartList"), agentId, from, to);
     }
 
     @PreAuthorize("hasPermission(new com.navercorp.pinpoint.web.vo.AgentParam(#agentId, #to), 'agentParam', 'inspector')")
     @RequestMapping(value = "/chartList", method = RequestMethod.GET, params = {"interval"})
     @ResponseBody
-    public List<StatChart> getAgentStatChartList(
+    public CompletableFuture<List<StatChart>> getAgentStatChartList(
             @RequestParam("agentId") String agentId,
             @RequestParam("from") long from,
             @RequestParam("to") long to,
@@ -154,7 +162,12 @@ public abstract class AgentStatController<T extends AgentStatDataPoint> {
             }
         };
         TimeWindow timeWindow = new TimeWindow(new Range(from, to), sampler);
-        return this.agentStatChartService.selectAgentChartList(agentId, timeWindow);
+        return asyncQueryService.execute(() -> this.agentStatChartService.selectAgentChartList(agentId, timeWindow),
+                getQueryName("chartList"), agentId, from, to, intervalMs);
+    }
+
+    private String getQueryName(String chartName) {
+        return getClass().getSimpleName() + "." + chartName;
     }
 
     @Controller
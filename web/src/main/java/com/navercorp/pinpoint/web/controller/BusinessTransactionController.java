@@ -30,6 +30,7 @@ import com.navercorp.pinpoint.web.service.TransactionInfoService;
 import com.navercorp.pinpoint.web.util.DefaultMongoJsonParser;
 import com.navercorp.pinpoint.web.util.MongoJsonParser;
 import com.navercorp.pinpoint.web.util.OutputParameterMongoJsonParser;
+import com.navercorp.pinpoint.web.view.TransactionInfoStreamingViewModel;
 import com.navercorp.pinpoint.web.view.TransactionInfoViewModel;
 import com.navercorp.pinpoint.web.vo.callstacks.RecordSet;
 import org.apache.commons.lang3.StringEscapeUtils;
@@ -75,6 +76,9 @@ public class BusinessTransactionController {
     @Value("#{pinpointWebProps['log.button.disable.message'] ?: ''}")
     private String disableButtonMessage;
 
+    @Value("#{pinpointWebProps['web.transactioninfo.streaming.enable'] ?: false}")
+    private boolean streamingEnable;
+
     private SqlParser sqlParser = new DefaultSqlParser();
     private OutputParameterParser parameterParser = new OutputParameterParser();
 
@@ -86,11 +90,11 @@ public class BusinessTransactionController {
      *
      * @param traceIdParam
      * @param focusTimestamp
-     * @return
+     * @return {@link TransactionInfoViewModel}, or {@link TransactionInfoStreamingViewModel} if streaming is enabled
      */
     @RequestMapping(value = "/transactionInfo", method = RequestMethod.GET)
     @ResponseBody
-    public TransactionInfoViewModel transactionInfo(@RequestParam("traceId") String traceIdParam,
+    public Object transactionInfo(@RequestParam("traceId") String traceIdParam,
                                                     @RequestParam(value = "focusTimestamp", required = false, defaultValue = "0") long focusTimestamp,
                                                     @RequestParam(value = "agentId", required = false) String agentId,
                                                     @RequestParam(value = "spanId", required = false, defaultValue = "-1") long spanId,
@@ -105,6 +109,11 @@ public class BusinessTransactionController {
 
         // application map
         ApplicationMap map = filteredMapService.selectApplicationMap(transactionId, viewVersion);
+        if (streamingEnable) {
+            // the records are created while the response is written
+            return new TransactionInfoStreamingViewModel(transactionId, map.getNodes(), map.getLinks(), spanResult.getCompleteTypeString(), logLinkEnable, logButtonName, logPageUrl, disableButtonMessage,
+                    recordConsumer -> this.transactionInfoService.createRecordSet(callTreeIterator, focusTimestamp, agentId, spanId, recordConsumer));
+        }
         RecordSet recordSet = this.transactionInfoService.createRecordSet(callTreeIterator, focusTimestamp, agentId, spanId);
 
         TransactionInfoViewModel result = new TransactionInfoViewModel(transactionId, map.getNodes(), map.getLinks(), recordSet, spanResult.getCompleteTypeString(), logLinkEnable, logButtonName, logPageUrl, disableButtonMessage);
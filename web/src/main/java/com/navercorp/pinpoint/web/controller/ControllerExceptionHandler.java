@@ -23,8 +23,10 @@ import java.util.Enumeration;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.RejectedExecutionException;
 
 import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
 
 import com.navercorp.pinpoint.web.config.ConfigProperties;
 import org.slf4j.Logger;
@@ -33,6 +35,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.access.AccessDeniedException;
 import org.springframework.web.bind.annotation.ControllerAdvice;
 import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.context.request.async.AsyncRequestTimeoutException;
 import org.springframework.web.servlet.ModelAndView;
 
 /**
@@ -61,6 +64,21 @@ public class ControllerExceptionHandler {
         return mav;
     }
     
+    /**
+     * queries rejected by a full query executor, or not answered in time
+     */
+    @ExceptionHandler(value = {RejectedExecutionException.class, AsyncRequestTimeoutException.class})
+    public ModelAndView serviceUnavailableHandler(HttpServletRequest request, HttpServletResponse response, Exception exception) throws Exception {
+        Map<String, Object> requestResource = createRequestResource(request);
+        logger.warn("Service unavailable. exception:{}, request:{}.", exception.getClass().getSimpleName(), requestResource);
+
+        response.setStatus(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+        ModelAndView mav = new ModelAndView();
+        mav.addObject("exception", createExceptionResource(request, exception));
+        mav.setViewName(DEFAULT_ERROR_VIEW);
+        return mav;
+    }
+
     @ExceptionHandler(value = AccessDeniedException.class)
     public ModelAndView accessDeniedExceptionHandler(HttpServletRequest request, Exception exception) throws Exception {
         throw exception;
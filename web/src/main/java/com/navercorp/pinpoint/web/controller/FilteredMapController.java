@@ -38,6 +38,7 @@ import com.navercorp.pinpoint.web.service.FilteredMapService;
 import com.navercorp.pinpoint.web.util.LimitUtils;
 import com.navercorp.pinpoint.web.vo.LimitedScanResult;
 import com.navercorp.pinpoint.web.vo.Range;
+import com.navercorp.pinpoint.web.vo.TraceIndexCursor;
 
 /**
  *
@@ -71,9 +72,10 @@ public class FilteredMapController {
             @RequestParam(value = "filter", required = false) String filterText,
             @RequestParam(value = "hint", required = false) String filterHint,
             @RequestParam(value = "limit", required = false, defaultValue = "10000") int limit,
+            @RequestParam(value = "cursor", required = false) String cursor,
             @RequestParam(value = "v", required = false, defaultValue = "0") int viewVersion) {
         String serviceTypeName = registry.findServiceType(serviceTypeCode).getName();
-        return getFilteredServerMapDataMadeOfDotGroup(applicationName, serviceTypeName, from, to, originTo, xGroupUnit, yGroupUnit, filterText, filterHint, limit, viewVersion);
+        return getFilteredServerMapDataMadeOfDotGroup(applicationName, serviceTypeName, from, to, originTo, xGroupUnit, yGroupUnit, filterText, filterHint, limit, cursor, viewVersion);
     }
 
 
@@ -90,6 +92,7 @@ public class FilteredMapController {
             @RequestParam(value = "filter", required = false) String filterText,
             @RequestParam(value = "hint", required = false) String filterHint,
             @RequestParam(value = "limit", required = false, defaultValue = "10000") int limit,
+            @RequestParam(value = "cursor", required = false) String cursor,
             @RequestParam(value = "v", required = false, defaultValue = "0") int viewVersion) {
         if (xGroupUnit <= 0) {
             throw new IllegalArgumentException("xGroupUnit(" + xGroupUnit + ") must be positive number");
@@ -101,7 +104,9 @@ public class FilteredMapController {
         limit = LimitUtils.checkRange(limit);
         final Filter filter = filterBuilder.build(filterText, filterHint);
         final Range range = new Range(from, to);
-        final LimitedScanResult<List<TransactionId>> limitedScanResult = filteredMapService.selectTraceIdsFromApplicationTraceIndex(applicationName, range, limit);
+        // resume right after the last transaction of the previous page instead of rescanning its last timestamp
+        final TraceIndexCursor traceIndexCursor = cursor == null ? null : TraceIndexCursor.decode(cursor);
+        final LimitedScanResult<List<TransactionId>> limitedScanResult = filteredMapService.selectTraceIdsFromApplicationTraceIndex(applicationName, range, traceIndexCursor, limit, true);
 
         final long lastScanTime = limitedScanResult.getLimitedTime();
         // original range: needed for visual chart data sampling
@@ -117,6 +122,9 @@ public class FilteredMapController {
 
         FilterMapWrap mapWrap = new FilterMapWrap(map);
         mapWrap.setLastFetchedTimestamp(lastScanTime);
+        if (limitedScanResult.getCursor() != null) {
+            mapWrap.setCursor(limitedScanResult.getCursor().encode());
+        }
         return mapWrap;
     }
 }
@@ -23,6 +23,7 @@ import com.navercorp.pinpoint.web.applicationmap.link.LinkHistogramSummary;
 import com.navercorp.pinpoint.web.applicationmap.link.LinkType;
 import com.navercorp.pinpoint.web.applicationmap.nodes.NodeType;
 import com.navercorp.pinpoint.web.service.ApplicationFactory;
+import com.navercorp.pinpoint.web.service.AsyncQueryService;
 import com.navercorp.pinpoint.web.service.MapService;
 import com.navercorp.pinpoint.web.service.ResponseTimeHistogramService;
 import com.navercorp.pinpoint.web.util.Limiter;
@@ -48,6 +49,7 @@ import org.springframework.web.bind.annotation.ResponseBody;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * @author emeroad
@@ -75,6 +77,9 @@ public class MapController {
     @Autowired
     private ApplicationFactory applicationFactory;
 
+    @Autowired
+    private AsyncQueryService asyncQueryService;
+
     private static final String DEFAULT_SEARCH_DEPTH = "8";
     private static final int DEFAULT_MAX_SEARCH_DEPTH = 8;
 
@@ -89,7 +94,7 @@ public class MapController {
      */
     @RequestMapping(value = "/getServerMapData", method = RequestMethod.GET, params="serviceTypeCode")
     @ResponseBody
-    public MapWrap getServerMapData(
+    public CompletableFuture<MapWrap> getServerMapData(
                                     @RequestParam("applicationName") String applicationName,
                                     @RequestParam("serviceTypeCode") short serviceTypeCode,
                                     @RequestParam("from") long from,
@@ -120,7 +125,7 @@ public class MapController {
      */
     @RequestMapping(value = "/getServerMapData", method = RequestMethod.GET, params="serviceTypeName")
     @ResponseBody
-    public MapWrap getServerMapData(
+    public CompletableFuture<MapWrap> getServerMapData(
                                     @RequestParam("applicationName") String applicationName,
                                     @RequestParam("serviceTypeName") String serviceTypeName,
                                     @RequestParam("from") long from,
@@ -151,7 +156,7 @@ public class MapController {
      */
     @RequestMapping(value = "/getServerMapDataV2", method = RequestMethod.GET, params="serviceTypeCode")
     @ResponseBody
-    public MapWrap getServerMapDataV2(
+    public CompletableFuture<MapWrap> getServerMapDataV2(
             @RequestParam("applicationName") String applicationName,
             @RequestParam("serviceTypeCode") short serviceTypeCode,
             @RequestParam("from") long from,
@@ -182,7 +187,7 @@ public class MapController {
      */
     @RequestMapping(value = "/getServerMapDataV2", method = RequestMethod.GET, params="serviceTypeName")
     @ResponseBody
-    public MapWrap getServerMapDataV2(
+    public CompletableFuture<MapWrap> getServerMapDataV2(
             @RequestParam("applicationName") String applicationName,
             @RequestParam("serviceTypeName") String serviceTypeName,
             @RequestParam("from") long from,
@@ -202,7 +207,7 @@ public class MapController {
         return selectApplicationMap(application, range, searchOption, NodeType.BASIC, LinkType.BASIC);
     }
 
-    private MapWrap selectApplicationMap(Application application, Range range, SearchOption searchOption, NodeType nodeType, LinkType linkType) {
+    private CompletableFuture<MapWrap> selectApplicationMap(Application application, Range range, SearchOption searchOption, NodeType nodeType, LinkType linkType) {
         if (application == null) {
             throw new NullPointerException("application must not be null");
         }
@@ -215,9 +220,11 @@ public class MapController {
 
         logger.info("getServerMap() application:{} range:{} searchOption:{}", application, range, searchOption);
 
-        ApplicationMap map = mapService.selectApplicationMap(application, range, searchOption, nodeType, linkType);
-        
-        return new MapWrap(map);
+        return asyncQueryService.execute(() -> {
+            ApplicationMap map = mapService.selectApplicationMap(application, range, searchOption, nodeType, linkType);
+            return new MapWrap(map);
+        }, "serverMap", application, range, searchOption.getCallerSearchDepth(), searchOption.getCalleeSearchDepth(),
+                searchOption.getLinkSelectorType(), searchOption.isWasOnly(), nodeType, linkType);
     }
 
     private void assertSearchOption(SearchOption searchOption) {
@@ -239,7 +246,7 @@ public class MapController {
 
     @RequestMapping(value = "/getResponseTimeHistogramData", method = RequestMethod.GET, params = "serviceTypeName")
     @ResponseBody
-    public ApplicationTimeHistogramViewModel getResponseTimeHistogramData(
+    public CompletableFuture<ApplicationTimeHistogramViewModel> getResponseTimeHistogramData(
             @RequestParam("applicationName") String applicationName,
             @RequestParam("serviceTypeName") String serviceTypeName,
             @RequestParam("from") long from,
@@ -249,15 +256,13 @@ public class MapController {
 
         Application application = applicationFactory.createApplicationByTypeName(applicationName, serviceTypeName);
 
-        ApplicationTimeHistogramViewModel applicationTimeHistogramViewModel = responseTimeHistogramService.selectResponseTimeHistogramData(application, range);
-
-        return applicationTimeHistogramViewModel;
-
+        return asyncQueryService.execute(() -> responseTimeHistogramService.selectResponseTimeHistogramData(application, range),
+                "responseTimeHistogram", application, range);
     }
 
     @RequestMapping(value = "/getResponseTimeHistogramDataV2", method = RequestMethod.POST)
     @ResponseBody
-    public NodeHistogramSummary postResponseTimeHistogramDataV2(
+    public CompletableFuture<NodeHistogramSummary> postResponseTimeHistogramDataV2(
             @RequestParam("applicationName") String applicationName,
             @RequestParam("serviceTypeCode") Short serviceTypeCode,
             @RequestParam("from") long from,
@@ -271,12 +276,12 @@ public class MapController {
         List<Application> fromApplications = mapApplicationPairsToApplications(applicationPairs.getFromApplications());
         List<Application> toApplications = mapApplicationPairsToApplications(applicationPairs.getToApplications());
 
-        return responseTimeHistogramService.selectNodeHistogramData(application, range, fromApplications, toApplications);
+        return selectNodeHistogramData(application, range, fromApplications, toApplications);
     }
 
     @RequestMapping(value = "/getResponseTimeHistogramDataV2", method = RequestMethod.GET)
     @ResponseBody
-    public NodeHistogramSummary getResponseTimeHistogramDataV2(
+    public CompletableFuture<NodeHistogramSummary> getResponseTimeHistogramDataV2(
             @RequestParam("applicationName") String applicationName,
             @RequestParam("serviceTypeCode") Short serviceTypeCode,
             @RequestParam("from") long from,
@@ -308,7 +313,12 @@ public class MapController {
             toApplications.add(toApplication);
         }
 
-        return responseTimeHistogramService.selectNodeHistogramData(application, range, fromApplications, toApplications);
+        return selectNodeHistogramData(application, range, fromApplications, toApplications);
+    }
+
+    private CompletableFuture<NodeHistogramSummary> selectNodeHistogramData(Application application, Range range, List<Application> fromApplications, List<Application> toApplications) {
+        return asyncQueryService.execute(() -> responseTimeHistogramService.selectNodeHistogramData(application, range, fromApplications, toApplications),
+                "nodeHistogram", application, range, fromApplications, toApplications);
     }
 
     private List<Application> mapApplicationPairsToApplications(List<ApplicationPair> applicationPairs) {
@@ -327,7 +337,7 @@ public class MapController {
 
     @RequestMapping(value = "/getLinkTimeHistogramData", method = RequestMethod.GET)
     @ResponseBody
-    public LinkHistogramSummary getLinkTimeHistogramData(
+    public CompletableFuture<LinkHistogramSummary> getLinkTimeHistogramData(
             @RequestParam(value = "fromApplicationName", required = false) String fromApplicationName,
             @RequestParam(value = "fromServiceTypeCode", required = false) Short fromServiceTypeCode,
             @RequestParam(value = "toApplicationName", required = false) String toApplicationName,
@@ -347,6 +357,9 @@ public class MapController {
             toApplication = applicationFactory.createApplication(toApplicationName, toServiceTypeCode);
         }
 
-        return responseTimeHistogramService.selectLinkHistogramData(fromApplication, toApplication, range);
+        final Application linkFromApplication = fromApplication;
+        final Application linkToApplication = toApplication;
+        return asyncQueryService.execute(() -> responseTimeHistogramService.selectLinkHistogramData(linkFromApplication, linkToApplication, range),
+                "linkHistogram", fromApplication, toApplication, range);
     }
 }
@@ -23,6 +23,7 @@ import com.navercorp.pinpoint.common.util.TransactionIdComparator;
 import com.navercorp.pinpoint.web.filter.Filter;
 import com.navercorp.pinpoint.web.filter.FilterBuilder;
 import com.navercorp.pinpoint.web.scatter.ScatterData;
+import com.navercorp.pinpoint.web.service.AsyncQueryService;
 import com.navercorp.pinpoint.web.service.FilteredMapService;
 import com.navercorp.pinpoint.web.service.ScatterChartService;
 import com.navercorp.pinpoint.web.util.LimitUtils;
@@ -30,6 +31,7 @@ import com.navercorp.pinpoint.web.view.ServerTime;
 import com.navercorp.pinpoint.web.view.TransactionMetaDataViewModel;
 import com.navercorp.pinpoint.web.vo.LimitedScanResult;
 import com.navercorp.pinpoint.web.vo.Range;
+import com.navercorp.pinpoint.web.vo.TraceIndexCursor;
 import com.navercorp.pinpoint.web.vo.TransactionMetadataQuery;
 import org.apache.commons.lang3.StringUtils;
 import org.slf4j.Logger;
@@ -46,6 +48,7 @@ import org.springframework.web.servlet.ModelAndView;
 
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * @author netspider
@@ -66,6 +69,9 @@ public class ScatterChartController {
     @Autowired
     private FilterBuilder filterBuilder;
 
+    @Autowired
+    private AsyncQueryService asyncQueryService;
+
     private static final String PREFIX_TRANSACTION_ID = "I";
     private static final String PREFIX_TIME = "T";
     private static final String PREFIX_RESPONSE_TIME = "R";
@@ -133,10 +139,13 @@ public class ScatterChartController {
      * @param to
      * @param limit           max number of data return. if the requested data exceed this limit, we need additional calls to
      *                        fetch the rest of the data
+     * @param cursor          with a filter, the "cursor" of the previous response. the next page starts right after the last
+     *                        transaction of the previous page, within the same from ~ to range.
+     *                        without a filter, pages are still requested by narrowing from ~ to
      * @return
      */
     @RequestMapping(value = "/getScatterData", method = RequestMethod.GET)
-    public ModelAndView getScatterData(
+    public CompletableFuture<ModelAndView> getScatterData(
             @RequestParam("application") String applicationName,
             @RequestParam("from") long from,
             @RequestParam("to") long to,
@@ -145,6 +154,7 @@ public class ScatterChartController {
             @RequestParam("limit") int limit,
             @RequestParam(value = "backwardDirection", required = false, defaultValue = "true") boolean backwardDirection,
             @RequestParam(value = "filter", required = false) String filterText,
+            @RequestParam(value = "cursor", required = false) String cursor,
             @RequestParam(value = "_callback", required = false) String jsonpCallback,
             @RequestParam(value = "v", required = false, defaultValue = "1") int version) {
         if (xGroupUnit <= 0) {
@@ -154,33 +164,32 @@ public class ScatterChartController {
             throw new IllegalArgumentException("yGroupUnit(" + yGroupUnit + ") may not be negative number");
         }
 
-        limit = LimitUtils.checkRange(limit);
-
-        StopWatch watch = new StopWatch();
-        watch.start("getScatterData");
+        final int scanLimit = LimitUtils.checkRange(limit);
 
         // TODO range check verification exception occurs. "from" is bigger than "to"
         final Range range = Range.createUncheckedRange(from, to);
-        logger.debug("fetch scatter data. RANGE={}, X-Group-Unit:{}, Y-Group-Unit:{}, LIMIT={}, BACKWARD_DIRECTION:{}, FILTER:{}", range, xGroupUnit, yGroupUnit, limit, backwardDirection, filterText);
+        logger.debug("fetch scatter data. RANGE={}, X-Group-Unit:{}, Y-Group-Unit:{}, LIMIT={}, BACKWARD_DIRECTION:{}, FILTER:{}", range, xGroupUnit, yGroupUnit, scanLimit, backwardDirection, filterText);
 
-        ModelAndView mv = null;
-        if (StringUtils.isEmpty(filterText)) {
-            mv = selectScatterData(applicationName, range, xGroupUnit, Math.max(yGroupUnit, 1), limit, backwardDirection, version);
-        } else {
-            mv = selectFilterScatterData(applicationName, range, xGroupUnit, Math.max(yGroupUnit, 1), limit, backwardDirection, filterText, version);
-        }
+        CompletableFuture<ModelAndView> scatterData = asyncQueryService.execute(() -> {
+            StopWatch watch = new StopWatch();
+            watch.start("getScatterData");
 
-        if (jsonpCallback == null) {
-            mv.setViewName("jsonView");
-        } else {
-            mv.setViewName("jsonpView");
-        }
+            ModelAndView mv;
+            if (StringUtils.isEmpty(filterText)) {
+                mv = selectScatterData(applicationName, range, xGroupUnit, Math.max(yGroupUnit, 1), scanLimit, backwardDirection, version);
+            } else {
+                mv = selectFilterScatterData(applicationName, range, xGroupUnit, Math.max(yGroupUnit, 1), scanLimit, backwardDirection, filterText, cursor, version);
+            }
 
-        watch.stop();
+            watch.stop();
 
-        logger.info("Fetch scatterData time : {}ms", watch.getLastTaskTimeMillis());
+            logger.info("Fetch scatterData time : {}ms", watch.getLastTaskTimeMillis());
+            return mv;
+        }, "scatterData", applicationName, range, xGroupUnit, yGroupUnit, scanLimit, backwardDirection, filterText, cursor, version);
 
-        return mv;
+        final String viewName = jsonpCallback == null ? "jsonView" : "jsonpView";
+        // the model may be shared with other requests of the same scatter data
+        return AsyncQueryService.thenApply(scatterData, mv -> new ModelAndView(viewName, mv.getModel()));
     }
 
     private ModelAndView selectScatterData(String applicationName, Range range, int xGroupUnit, int yGroupUnit, int limit, boolean backwardDirection, int version) {
@@ -200,8 +209,9 @@ public class ScatterChartController {
         return mv;
     }
 
-    private ModelAndView selectFilterScatterData(String applicationName, Range range, int xGroupUnit, int yGroupUnit, int limit, boolean backwardDirection, String filterText, int version) {
-        final LimitedScanResult<List<TransactionId>> limitedScanResult = flow.selectTraceIdsFromApplicationTraceIndex(applicationName, range, limit, backwardDirection);
+    private ModelAndView selectFilterScatterData(String applicationName, Range range, int xGroupUnit, int yGroupUnit, int limit, boolean backwardDirection, String filterText, String cursor, int version) {
+        final TraceIndexCursor traceIndexCursor = cursor == null ? null : TraceIndexCursor.decode(cursor);
+        final LimitedScanResult<List<TransactionId>> limitedScanResult = flow.selectTraceIdsFromApplicationTraceIndex(applicationName, range, traceIndexCursor, limit, backwardDirection);
 
         final List<TransactionId> transactionIdList = limitedScanResult.getScanData();
         logger.trace("submitted transactionId count={}", transactionIdList.size());
@@ -224,6 +234,9 @@ public class ScatterChartController {
             mv = new ModelAndView();
         }
 
+        if (limitedScanResult.getCursor() != null) {
+            mv.addObject("cursor", limitedScanResult.getCursor().encode());
+        }
         mv.addObject("currentServerTime", new ServerTime().getCurrentServerTime());
         mv.addObject("from", range.getFrom());
         mv.addObject("to", range.getTo());
@@ -16,10 +16,12 @@
 
 package com.navercorp.pinpoint.web.dao;
 
+import com.navercorp.pinpoint.common.server.bo.AgentLifeCycleBo;
 import com.navercorp.pinpoint.web.vo.AgentInfo;
 import com.navercorp.pinpoint.web.vo.AgentStatus;
 
 import java.util.Collection;
+import java.util.List;
 
 /**
  * @author HyunGil Jeong
@@ -32,4 +34,9 @@ public interface AgentLifeCycleDao {
 
     void populateAgentStatuses(Collection<AgentInfo> agentInfos, long timestamp);
 
+    /**
+     * @return the life cycle events of every agent stored between fromTimestamp (inclusive) and toTimestamp (exclusive)
+     */
+    List<AgentLifeCycleBo> getAgentLifeCycles(long fromTimestamp, long toTimestamp);
+
 }
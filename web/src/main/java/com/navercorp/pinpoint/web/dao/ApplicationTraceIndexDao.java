@@ -21,6 +21,7 @@ import com.navercorp.pinpoint.web.scatter.ScatterData;
 import com.navercorp.pinpoint.web.vo.LimitedScanResult;
 import com.navercorp.pinpoint.web.vo.Range;
 import com.navercorp.pinpoint.web.vo.SelectedScatterArea;
+import com.navercorp.pinpoint.web.vo.TraceIndexCursor;
 import com.navercorp.pinpoint.web.vo.scatter.Dot;
 
 import java.util.List;
@@ -35,6 +36,19 @@ public interface ApplicationTraceIndexDao {
 
     LimitedScanResult<List<TransactionId>> scanTraceIndex(String applicationName, SelectedScatterArea range, int limit);
 
+    /**
+     * scan transaction ids in time order, merging all partitions of the index.
+     * the returned cursor points at the last transaction id, and passing it back resumes the scan right after it.
+     *
+     * @param applicationName
+     * @param range
+     * @param cursor position to resume from, or {@code null} to start from the beginning of the range
+     * @param limit
+     * @param backwardDirection
+     * @return
+     */
+    LimitedScanResult<List<TransactionId>> scanTraceIndex(String applicationName, Range range, TraceIndexCursor cursor, int limit, boolean backwardDirection);
+
     /**
      *
      * select transactions in a selection range(box) in the scatter chart.
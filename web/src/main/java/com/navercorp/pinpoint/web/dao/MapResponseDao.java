@@ -19,6 +19,7 @@ package com.navercorp.pinpoint.web.dao;
 import com.navercorp.pinpoint.web.vo.Application;
 import com.navercorp.pinpoint.web.vo.Range;
 import com.navercorp.pinpoint.web.vo.ResponseTime;
+import com.navercorp.pinpoint.web.vo.ResponseTimeColumns;
 
 import java.util.List;
 
@@ -30,4 +31,12 @@ import java.util.List;
 public interface MapResponseDao {
     List<ResponseTime> selectResponseTime(Application application, Range range);
 
+    default ResponseTimeColumns selectResponseTimeColumns(Application application, Range range) {
+        final ResponseTimeColumns responseTimeColumns = new ResponseTimeColumns(application.getServiceType());
+        for (ResponseTime responseTime : selectResponseTime(application, range)) {
+            responseTimeColumns.addResponseTime(responseTime);
+        }
+        return responseTimeColumns;
+    }
+
 }
@@ -28,4 +28,12 @@ import com.navercorp.pinpoint.web.vo.Range;
 public interface MapStatisticsCallerDao {
     LinkDataMap selectCaller(Application callerApplication, Range range);
 
+    /**
+     * Same as {@link #selectCaller(Application, Range)}, with the links of every caller agent merged into a single
+     * link data whose agent id is empty.
+     */
+    default LinkDataMap selectCallerSummary(Application callerApplication, Range range) {
+        return selectCaller(callerApplication, range);
+    }
+
 }
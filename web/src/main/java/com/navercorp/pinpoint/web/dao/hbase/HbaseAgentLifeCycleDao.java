@@ -16,9 +16,12 @@
 
 package com.navercorp.pinpoint.web.dao.hbase;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
+import java.util.Objects;
 
 import com.navercorp.pinpoint.common.hbase.TableNameProvider;
 import com.navercorp.pinpoint.common.server.util.AgentLifeCycleState;
@@ -52,6 +55,8 @@ public class HbaseAgentLifeCycleDao implements AgentLifeCycleDao {
 
     private static final int SCANNER_CACHING = 20;
 
+    private static final int EVENT_SCANNER_CACHING = 256;
+
     @Autowired
     private HbaseOperations2 hbaseOperations2;
 
@@ -119,6 +124,28 @@ public class HbaseAgentLifeCycleDao implements AgentLifeCycleDao {
         }
     }
 
+    @Override
+    public List<AgentLifeCycleBo> getAgentLifeCycles(long fromTimestamp, long toTimestamp) {
+        Assert.isTrue(fromTimestamp >= 0, "fromTimestamp must not be less than 0");
+        Assert.isTrue(fromTimestamp <= toTimestamp, "fromTimestamp must not be greater than toTimestamp");
+
+        // the rows are keyed by agent id, the events of a period are found by the cell timestamp
+        Scan scan = new Scan();
+        scan.addColumn(HBaseTables.AGENT_LIFECYCLE_CF_STATUS, HBaseTables.AGENT_LIFECYCLE_CF_STATUS_QUALI_STATES);
+        scan.setMaxVersions(1);
+        scan.setCaching(EVENT_SCANNER_CACHING);
+        try {
+            scan.setTimeRange(fromTimestamp, toTimestamp);
+        } catch (IOException e) {
+            throw new UncheckedIOException("invalid time range. from:" + fromTimestamp + ", to:" + toTimestamp, e);
+        }
+
+        TableName agentLifeCycleTableName = tableNameProvider.getTableName(HBaseTables.AGENT_LIFECYCLE_STR);
+        List<AgentLifeCycleBo> agentLifeCycles = this.hbaseOperations2.find(agentLifeCycleTableName, scan, this.agentLifeCycleMapper);
+        agentLifeCycles.removeIf(Objects::isNull);
+        return agentLifeCycles;
+    }
+
     private Scan createScan(String agentId, long fromTimestamp, long toTimestamp) {
         byte[] agentIdBytes = Bytes.toBytes(agentId);
         long reverseFromTimestamp = TimeUtils.reverseTimeMillis(fromTimestamp);
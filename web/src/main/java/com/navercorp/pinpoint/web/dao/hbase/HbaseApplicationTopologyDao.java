@@ -0,0 +1,91 @@
+/*
+ * Copyright 2019 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.navercorp.pinpoint.web.dao.hbase;
+
+import com.navercorp.pinpoint.common.hbase.HBaseTables;
+import com.navercorp.pinpoint.common.hbase.HbaseOperations2;
+import com.navercorp.pinpoint.common.hbase.RowMapper;
+import com.navercorp.pinpoint.common.hbase.TableNameProvider;
+import com.navercorp.pinpoint.common.server.bo.TopologyEdgeBo;
+import com.navercorp.pinpoint.web.dao.ApplicationTopologyDao;
+import com.navercorp.pinpoint.web.vo.Range;
+import org.apache.hadoop.hbase.Cell;
+import org.apache.hadoop.hbase.TableName;
+import org.apache.hadoop.hbase.client.Scan;
+import org.apache.hadoop.hbase.util.Bytes;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Repository;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Reads the topology edges of every bucket of a range in one scan.
+ */
+@Repository
+public class HbaseApplicationTopologyDao implements ApplicationTopologyDao {
+
+    private static final int SCAN_CACHE_SIZE = 24;
+
+    private final Logger logger = LoggerFactory.getLogger(this.getClass());
+
+    private final RowMapper<List<TopologyEdgeBo>> edgeMapper = (result, rowNum) -> {
+        if (result.isEmpty()) {
+            return Collections.emptyList();
+        }
+        final List<TopologyEdgeBo> edges = new ArrayList<>(result.size());
+        for (Cell cell : result.rawCells()) {
+            edges.add(TopologyEdgeBo.readQualifier(cell.getQualifierArray(), cell.getQualifierOffset(), cell.getQualifierLength()));
+        }
+        return edges;
+    };
+
+    @Autowired
+    private HbaseOperations2 hbaseOperations2;
+
+    @Autowired
+    private TableNameProvider tableNameProvider;
+
+    @Override
+    public Set<TopologyEdgeBo> getEdges(Range range) {
+        if (range == null) {
+            throw new NullPointerException("range must not be null");
+        }
+        final Scan scan = new Scan();
+        scan.setCaching(SCAN_CACHE_SIZE);
+        scan.setStartRow(Bytes.toBytes(TopologyEdgeBo.getBucket(range.getFrom())));
+        scan.setStopRow(Bytes.toBytes(TopologyEdgeBo.getBucket(range.getTo()) + 1));
+        scan.addFamily(HBaseTables.APPLICATION_TOPOLOGY_CF_EDGE);
+        scan.setId("ApplicationTopologyScan");
+
+        final TableName applicationTopologyTableName = tableNameProvider.getTableName(HBaseTables.APPLICATION_TOPOLOGY_STR);
+        final List<List<TopologyEdgeBo>> result = hbaseOperations2.find(applicationTopologyTableName, scan, edgeMapper);
+
+        final Set<TopologyEdgeBo> edges = new HashSet<>();
+        for (List<TopologyEdgeBo> bucketEdges : result) {
+            edges.addAll(bucketEdges);
+        }
+        logger.debug("getEdges range:{}, edges:{}", range, edges.size());
+        return edges;
+    }
+}
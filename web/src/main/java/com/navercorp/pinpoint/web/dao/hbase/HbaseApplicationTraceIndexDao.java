@@ -23,6 +23,7 @@ import com.navercorp.pinpoint.common.hbase.HBaseTables;
 import com.navercorp.pinpoint.common.hbase.HbaseOperations2;
 import com.navercorp.pinpoint.common.hbase.LimitEventHandler;
 import com.navercorp.pinpoint.common.hbase.RowMapper;
+import com.navercorp.pinpoint.common.hbase.TableCallback;
 import com.navercorp.pinpoint.common.hbase.TableNameProvider;
 import com.navercorp.pinpoint.common.util.BytesUtils;
 import com.navercorp.pinpoint.common.util.DateUtils;
@@ -38,6 +39,7 @@ import com.navercorp.pinpoint.web.vo.LimitedScanResult;
 import com.navercorp.pinpoint.web.vo.Range;
 import com.navercorp.pinpoint.web.vo.ResponseTimeRange;
 import com.navercorp.pinpoint.web.vo.SelectedScatterArea;
+import com.navercorp.pinpoint.web.vo.TraceIndexCursor;
 import com.navercorp.pinpoint.web.vo.scatter.Dot;
 import com.sematext.hbase.wd.AbstractRowKeyDistributor;
 import org.apache.commons.collections.CollectionUtils;
@@ -45,7 +47,9 @@ import org.apache.hadoop.hbase.Cell;
 import org.apache.hadoop.hbase.CellUtil;
 import org.apache.hadoop.hbase.TableName;
 import org.apache.hadoop.hbase.client.Result;
+import org.apache.hadoop.hbase.client.ResultScanner;
 import org.apache.hadoop.hbase.client.Scan;
+import org.apache.hadoop.hbase.client.Table;
 import org.apache.hadoop.hbase.filter.BinaryPrefixComparator;
 import org.apache.hadoop.hbase.filter.CompareFilter.CompareOp;
 import org.apache.hadoop.hbase.filter.Filter;
@@ -59,6 +63,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.stereotype.Repository;
 
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -183,6 +188,88 @@ public class HbaseApplicationTraceIndexDao implements ApplicationTraceIndexDao {
         return limitedScanResult;
     }
 
+    @Override
+    public LimitedScanResult<List<TransactionId>> scanTraceIndex(final String applicationName, final Range range, final TraceIndexCursor cursor, final int limit, final boolean scanBackward) {
+        if (applicationName == null) {
+            throw new NullPointerException("applicationName must not be null");
+        }
+        if (range == null) {
+            throw new NullPointerException("range must not be null");
+        }
+        if (limit < 0) {
+            throw new IllegalArgumentException("negative limit:" + limit);
+        }
+        if (cursor != null && (cursor.getTimestamp() < range.getFrom() || cursor.getTimestamp() > range.getTo())) {
+            throw new IllegalArgumentException("cursor out of range. cursor:" + cursor + " range:" + range);
+        }
+        logger.debug("scanTraceIndex cursor:{}", cursor);
+
+        final Scan scan = createScan(applicationName, range, scanBackward);
+        if (cursor != null) {
+            // the row of the cursor is scanned again, transactions up to the cursor are skipped below
+            scan.setStartRow(SpanUtils.getApplicationTraceIndexRowKey(applicationName, cursor.getTimestamp()));
+        }
+        // rows are pulled from each partition on demand, so don't fetch more than a page in advance
+        scan.setCaching(Math.max(1, Math.min(this.scanCacheSize, limit)));
+
+        TableName applicationTraceIndexTableName = tableNameProvider.getTableName(HBaseTables.APPLICATION_TRACE_INDEX_STR);
+        return hbaseOperations2.execute(applicationTraceIndexTableName, new TableCallback<LimitedScanResult<List<TransactionId>>>() {
+            @Override
+            public LimitedScanResult<List<TransactionId>> doInTable(Table table) throws Throwable {
+                final Scan[] scans = traceIdRowKeyDistributor.getDistributedScans(scan);
+                final ResultScanner[] scanners = new ResultScanner[scans.length];
+                // a backward scan reads reversed timestamps in ascending row key order
+                try (TraceIndexMergeScanner mergeScanner = new TraceIndexMergeScanner(traceIdRowKeyDistributor, scanners, scanBackward)) {
+                    for (int i = 0; i < scans.length; i++) {
+                        scans[i].setId(scan.getId() + "-" + i);
+                        scanners[i] = table.getScanner(scans[i]);
+                    }
+                    return mergeTraceIndex(mergeScanner, range, cursor, limit);
+                }
+            }
+        });
+    }
+
+    private LimitedScanResult<List<TransactionId>> mergeTraceIndex(TraceIndexMergeScanner scanner, Range range, TraceIndexCursor cursor, int limit) throws IOException {
+        final List<TransactionId> transactionIdList = new ArrayList<>(Math.min(limit, 128));
+        TraceIndexCursor nextCursor = null;
+
+        Result result;
+        while (transactionIdList.size() < limit && (result = scanner.next()) != null) {
+            final long timestamp = getRowTimestamp(scanner.getOriginalRow(result));
+            final boolean cursorRow = cursor != null && cursor.getTimestamp() == timestamp;
+            for (Cell cell : result.rawCells()) {
+                final byte[] qualifier = CellUtil.cloneQualifier(cell);
+                if (cursorRow && Bytes.compareTo(qualifier, cursor.getQualifier()) <= 0) {
+                    continue;
+                }
+                transactionIdList.add(TransactionIdMapper.parseVarTransactionId(qualifier, 0, qualifier.length));
+                if (transactionIdList.size() >= limit) {
+                    nextCursor = new TraceIndexCursor(timestamp, qualifier);
+                    break;
+                }
+            }
+        }
+
+        final LimitedScanResult<List<TransactionId>> limitedScanResult = new LimitedScanResult<>();
+        limitedScanResult.setScanData(transactionIdList);
+        limitedScanResult.setCursor(nextCursor);
+        if (nextCursor != null) {
+            limitedScanResult.setLimitedTime(nextCursor.getTimestamp());
+        } else {
+            limitedScanResult.setLimitedTime(range.getFrom());
+        }
+        if (logger.isDebugEnabled()) {
+            logger.debug("scanTraceIndex size:{} lastTime:{}", transactionIdList.size(), DateUtils.longToDateStr(limitedScanResult.getLimitedTime()));
+        }
+        return limitedScanResult;
+    }
+
+    private long getRowTimestamp(byte[] originalRow) {
+        long reverseStartTime = BytesUtils.bytesToLong(originalRow, PinpointConstants.APPLICATION_NAME_MAX_LEN);
+        return TimeUtils.recoveryTimeMillis(reverseStartTime);
+    }
+
     private class LastRowAccessor implements LimitEventHandler {
         private Long lastRowTimestamp = -1L;
         private TransactionId lastTransactionId = null;
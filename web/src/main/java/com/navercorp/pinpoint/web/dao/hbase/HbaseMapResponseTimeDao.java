@@ -22,10 +22,12 @@ import com.navercorp.pinpoint.common.hbase.RowMapper;
 import com.navercorp.pinpoint.common.hbase.TableNameProvider;
 import com.navercorp.pinpoint.common.util.ApplicationMapStatisticsUtils;
 import com.navercorp.pinpoint.web.dao.MapResponseDao;
+import com.navercorp.pinpoint.web.mapper.ResponseTimeColumnsResultsExtractor;
 import com.navercorp.pinpoint.web.vo.Application;
 import com.navercorp.pinpoint.web.vo.Range;
 import com.navercorp.pinpoint.web.vo.RangeFactory;
 import com.navercorp.pinpoint.web.vo.ResponseTime;
+import com.navercorp.pinpoint.web.vo.ResponseTimeColumns;
 
 import com.sematext.hbase.wd.RowKeyDistributorByHashPrefix;
 import org.apache.hadoop.hbase.TableName;
@@ -94,6 +96,26 @@ public class HbaseMapResponseTimeDao implements MapResponseDao {
         return new ArrayList<>();
     }
 
+    @Override
+    public ResponseTimeColumns selectResponseTimeColumns(Application application, Range range) {
+        if (application == null) {
+            throw new NullPointerException("application must not be null");
+        }
+        if (logger.isDebugEnabled()) {
+            logger.debug("selectResponseTimeColumns applicationName:{}, {}", application, range);
+        }
+
+        Scan scan = createScan(application, range, HBaseTables.MAP_STATISTICS_SELF_VER2_CF_COUNTER);
+
+        TableName mapStatisticsSelfTableName = tableNameProvider.getTableName(HBaseTables.MAP_STATISTICS_SELF_VER2_STR);
+        ResponseTimeColumnsResultsExtractor resultsExtractor = new ResponseTimeColumnsResultsExtractor(application.getServiceType(), rowKeyDistributorByHashPrefix);
+        ResponseTimeColumns responseTimeColumns = hbaseOperations2.findParallel(mapStatisticsSelfTableName, scan, rowKeyDistributorByHashPrefix, resultsExtractor, MAP_STATISTICS_SELF_VER2_NUM_PARTITIONS);
+        if (logger.isDebugEnabled()) {
+            logger.debug("Self data {}", responseTimeColumns);
+        }
+        return responseTimeColumns;
+    }
+
     private Scan createScan(Application application, Range range, byte[] family) {
         range = rangeFactory.createStatisticsRange(range);
         if (logger.isDebugEnabled()) {
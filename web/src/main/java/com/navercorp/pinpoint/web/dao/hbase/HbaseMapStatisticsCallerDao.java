@@ -21,6 +21,7 @@ import com.navercorp.pinpoint.common.hbase.HbaseOperations2;
 import com.navercorp.pinpoint.common.hbase.ResultsExtractor;
 import com.navercorp.pinpoint.common.hbase.RowMapper;
 import com.navercorp.pinpoint.common.hbase.TableNameProvider;
+import com.navercorp.pinpoint.common.hbase.filter.CallerAgentAggregationFilter;
 import com.navercorp.pinpoint.common.util.ApplicationMapStatisticsUtils;
 import com.navercorp.pinpoint.web.applicationmap.rawdata.LinkDataMap;
 import com.navercorp.pinpoint.web.dao.MapStatisticsCallerDao;
@@ -32,14 +33,20 @@ import com.navercorp.pinpoint.web.vo.Range;
 import com.navercorp.pinpoint.web.vo.RangeFactory;
 
 import com.sematext.hbase.wd.RowKeyDistributorByHashPrefix;
+import org.apache.hadoop.hbase.Cell;
 import org.apache.hadoop.hbase.TableName;
+import org.apache.hadoop.hbase.client.Result;
 import org.apache.hadoop.hbase.client.Scan;
+import org.apache.hadoop.hbase.filter.Filter;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Repository;
 
+import java.util.Arrays;
+import java.util.List;
 import java.util.Objects;
 
 /**
@@ -65,6 +72,9 @@ public class HbaseMapStatisticsCallerDao implements MapStatisticsCallerDao {
 
     private final RowKeyDistributorByHashPrefix rowKeyDistributorByHashPrefix;
 
+    @Value("#{pinpointWebProps['web.mapstatistics.aggregation.serverside.enable'] ?: false}")
+    private boolean serverSideAggregation = false;
+
     @Autowired
     public HbaseMapStatisticsCallerDao(
             HbaseOperations2 hbaseTemplate,
@@ -81,6 +91,23 @@ public class HbaseMapStatisticsCallerDao implements MapStatisticsCallerDao {
 
     @Override
     public LinkDataMap selectCaller(Application callerApplication, Range range) {
+        return selectCaller(callerApplication, range, mapStatisticsCallerMapper, null);
+    }
+
+    @Override
+    public LinkDataMap selectCallerSummary(Application callerApplication, Range range) {
+        if (serverSideAggregation) {
+            return selectCaller(callerApplication, range, mapStatisticsCallerMapper, new CallerAgentAggregationFilter());
+        }
+        // merge on the client if the filter is not deployed on the region servers
+        final RowMapper<LinkDataMap> aggregationMapper = (result, rowNum) -> {
+            final List<Cell> cells = CallerAgentAggregationFilter.aggregate(Arrays.asList(result.rawCells()));
+            return mapStatisticsCallerMapper.mapRow(Result.create(cells), rowNum);
+        };
+        return selectCaller(callerApplication, range, aggregationMapper, null);
+    }
+
+    private LinkDataMap selectCaller(Application callerApplication, Range range, RowMapper<LinkDataMap> rowMapper, Filter filter) {
         if (callerApplication == null) {
             throw new NullPointerException("callerApplication must not be null");
         }
@@ -91,7 +118,10 @@ public class HbaseMapStatisticsCallerDao implements MapStatisticsCallerDao {
         final TimeWindow timeWindow = new TimeWindow(range, TimeWindowDownSampler.SAMPLER);
         // find distributed key.
         final Scan scan = createScan(callerApplication, range, HBaseTables.MAP_STATISTICS_CALLEE_VER2_CF_COUNTER);
-        ResultsExtractor<LinkDataMap> resultExtractor = new RowMapReduceResultExtractor<>(mapStatisticsCallerMapper, new MapStatisticsTimeWindowReducer(timeWindow));
+        if (filter != null) {
+            scan.setFilter(filter);
+        }
+        ResultsExtractor<LinkDataMap> resultExtractor = new RowMapReduceResultExtractor<>(rowMapper, new MapStatisticsTimeWindowReducer(timeWindow));
 
         TableName mapStatisticsCalleeTableName = tableNameProvider.getTableName(HBaseTables.MAP_STATISTICS_CALLEE_VER2_STR);
         LinkDataMap linkDataMap = this.hbaseTemplate.findParallel(mapStatisticsCalleeTableName, scan, rowKeyDistributorByHashPrefix, resultExtractor, MAP_STATISTICS_CALLEE_VER2_NUM_PARTITIONS);
@@ -0,0 +1,123 @@
+/*
+ * Copyright 2019 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.navercorp.pinpoint.web.dao.hbase;
+
+import com.sematext.hbase.wd.AbstractRowKeyDistributor;
+import org.apache.hadoop.hbase.client.Result;
+import org.apache.hadoop.hbase.client.ResultScanner;
+import org.apache.hadoop.hbase.util.Bytes;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.Comparator;
+import java.util.PriorityQueue;
+
+/**
+ * Merges the scanners of salted partitions into a single stream of rows ordered by their original (unsalted) row key.
+ * Only the head row of each partition is held in memory, and a partition is only read further when its head is consumed.
+ */
+class TraceIndexMergeScanner implements Closeable {
+
+    private final Logger logger = LoggerFactory.getLogger(this.getClass());
+
+    private final AbstractRowKeyDistributor rowKeyDistributor;
+    private final ResultScanner[] scanners;
+    private final PriorityQueue<Head> heads;
+    private boolean initialized = false;
+
+    /**
+     * @param ascending {@code true} if the partitions are scanned forward, {@code false} for reversed scans
+     */
+    TraceIndexMergeScanner(AbstractRowKeyDistributor rowKeyDistributor, ResultScanner[] scanners, boolean ascending) {
+        if (rowKeyDistributor == null) {
+            throw new NullPointerException("rowKeyDistributor must not be null");
+        }
+        if (scanners == null) {
+            throw new NullPointerException("scanners must not be null");
+        }
+        this.rowKeyDistributor = rowKeyDistributor;
+        this.scanners = scanners;
+
+        final Comparator<Head> comparator = ascending ? Head.ORIGINAL_ROW_COMPARATOR : Head.ORIGINAL_ROW_COMPARATOR.reversed();
+        this.heads = new PriorityQueue<>(Math.max(1, scanners.length), comparator);
+    }
+
+    /**
+     * Returns the next row across all partitions, or {@code null} if every partition is exhausted.
+     */
+    Result next() throws IOException {
+        if (!initialized) {
+            for (ResultScanner scanner : scanners) {
+                advance(scanner);
+            }
+            initialized = true;
+        }
+
+        final Head head = heads.poll();
+        if (head == null) {
+            return null;
+        }
+        advance(head.scanner);
+        return head.result;
+    }
+
+    byte[] getOriginalRow(Result result) {
+        return rowKeyDistributor.getOriginalKey(result.getRow());
+    }
+
+    private void advance(ResultScanner scanner) throws IOException {
+        final Result result = scanner.next();
+        if (result != null) {
+            heads.add(new Head(scanner, result, getOriginalRow(result)));
+        }
+    }
+
+    @Override
+    public void close() {
+        for (ResultScanner scanner : scanners) {
+            if (scanner != null) {
+                try {
+                    scanner.close();
+                } catch (Exception e) {
+                    logger.warn("Scanner.close() error Caused:{}", e.getMessage(), e);
+                }
+            }
+        }
+    }
+
+    private static class Head {
+        private static final Comparator<Head> ORIGINAL_ROW_COMPARATOR = new Comparator<Head>() {
+            @Override
+            public int compare(Head o1, Head o2) {
+                return Bytes.compareTo(o1.originalRow, o2.originalRow);
+            }
+        };
+
+        private final ResultScanner scanner;
+        private final Result result;
+        private final byte[] originalRow;
+
+        private Head(ResultScanner scanner, Result result, byte[] originalRow) {
+            this.scanner = scanner;
+            this.result = result;
+            this.originalRow = originalRow;
+        }
+    }
+}
@@ -24,10 +24,16 @@ import com.navercorp.pinpoint.common.server.bo.codec.stat.AgentStatDecoder;
 import com.navercorp.pinpoint.common.server.bo.serializer.stat.AgentStatHbaseOperationFactory;
 import com.navercorp.pinpoint.common.server.bo.serializer.stat.AgentStatUtils;
 import com.navercorp.pinpoint.common.server.bo.stat.AgentStatDataPoint;
+import com.navercorp.pinpoint.common.server.bo.stat.AgentStatRollupResolution;
 import com.navercorp.pinpoint.common.server.bo.stat.AgentStatType;
 import com.navercorp.pinpoint.web.mapper.RangeTimestampFilter;
 import com.navercorp.pinpoint.web.mapper.TimestampFilter;
 import com.navercorp.pinpoint.web.mapper.stat.AgentStatMapperV2;
+import com.navercorp.pinpoint.web.mapper.stat.SampledAgentStatResultExtractor;
+import com.navercorp.pinpoint.web.mapper.stat.sampling.AgentStatSamplingHandler;
+import com.navercorp.pinpoint.web.mapper.stat.sampling.EagerSamplingHandler;
+import com.navercorp.pinpoint.web.mapper.stat.sampling.sampler.AgentStatSampler;
+import com.navercorp.pinpoint.web.util.TimeWindow;
 import com.navercorp.pinpoint.web.vo.Range;
 import com.navercorp.pinpoint.web.vo.stat.SampledAgentStatDataPoint;
 import org.apache.hadoop.hbase.TableName;
@@ -35,10 +41,12 @@ import org.apache.hadoop.hbase.client.Scan;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
 
 /**
  * @author HyunGil Jeong
@@ -48,6 +56,8 @@ public class HbaseAgentStatDaoOperationsV2 {
 
     private static final int AGENT_STAT_VER2_NUM_PARTITIONS = 32;
     private static final int MAX_SCAN_CACHE_SIZE = 256;
+    // collectors keep a rollup interval open for up to 2 minutes after it ends
+    private static final long ROLLUP_DELAY_MS = TimeUnit.MINUTES.toMillis(3);
 
     private final Logger logger = LoggerFactory.getLogger(this.getClass());
 
@@ -60,6 +70,12 @@ public class HbaseAgentStatDaoOperationsV2 {
     @Autowired
     private AgentStatHbaseOperationFactory operationFactory;
 
+    @Autowired
+    private SampledAgentStatCache sampledAgentStatCache;
+
+    @Value("#{pinpointWebProps['web.stat.rollup.enable'] ?: false}")
+    private boolean rollupEnable;
+
     <T extends AgentStatDataPoint> List<T> getAgentStatList(AgentStatType agentStatType, AgentStatMapperV2<T> mapper, String agentId, Range range) {
         if (agentId == null) {
             throw new NullPointerException("agentId must not be null");
@@ -120,6 +136,66 @@ public class HbaseAgentStatDaoOperationsV2 {
         return hbaseOperations2.findParallel(agentStatTableName, scan, this.operationFactory.getRowKeyDistributor(), resultExtractor, AGENT_STAT_VER2_NUM_PARTITIONS);
     }
 
+    /**
+     * Samples agent statistics for the given time window, reading the coarsest rollup that fits the window slot size when rollups are enabled.
+     * The trailing intervals whose rollups may not have been written yet are read from the raw table.
+     * Elapsed time slots are taken from the {@link SampledAgentStatCache} when it is enabled.
+     */
+    <T extends AgentStatDataPoint, S extends SampledAgentStatDataPoint> List<S> getSampledAgentStatList(AgentStatType agentStatType, AgentStatDecoder<T> decoder, AgentStatSampler<T, S> sampler, String agentId, TimeWindow timeWindow) {
+        if (agentId == null) {
+            throw new NullPointerException("agentId must not be null");
+        }
+        if (timeWindow == null) {
+            throw new NullPointerException("timeWindow must not be null");
+        }
+        return sampledAgentStatCache.getSampledAgentStatList(agentStatType, agentId, timeWindow,
+                window -> sampleAgentStatList(agentStatType, decoder, sampler, agentId, window));
+    }
+
+    private <T extends AgentStatDataPoint, S extends SampledAgentStatDataPoint> List<S> sampleAgentStatList(AgentStatType agentStatType, AgentStatDecoder<T> decoder, AgentStatSampler<T, S> sampler, String agentId, TimeWindow timeWindow) {
+        long scanFrom = timeWindow.getWindowRange().getFrom();
+        long scanTo = timeWindow.getWindowRange().getTo() + timeWindow.getWindowSlotSize();
+        Range range = new Range(scanFrom, scanTo);
+
+        AgentStatRollupResolution resolution = null;
+        if (rollupEnable) {
+            resolution = AgentStatRollupResolution.findCoarsest(timeWindow.getWindowSlotSize());
+        }
+        if (resolution == null) {
+            AgentStatMapperV2<T> mapper = createRowMapper(decoder, range);
+            SampledAgentStatResultExtractor<T, S> resultExtractor = new SampledAgentStatResultExtractor<>(timeWindow, mapper, sampler);
+            return getSampledAgentStatList(agentStatType, resultExtractor, agentId, range);
+        }
+
+        // intervals starting before rollupTo have been closed by the collector
+        long rollupTo = Math.min(scanTo + 1, resolution.refineTimestamp(System.currentTimeMillis() - ROLLUP_DELAY_MS));
+        List<T> dataPoints = new ArrayList<>();
+        if (rollupTo > scanFrom) {
+            Range rollupRange = new Range(scanFrom, rollupTo - 1);
+            if (logger.isDebugEnabled()) {
+                logger.debug("reading {} rollup : agentId={}, {}, {}", resolution, agentId, agentStatType, rollupRange);
+            }
+            Scan scan = createRollupScan(agentStatType, resolution, agentId, rollupRange);
+            TableName rollupTableName = tableNameProvider.getTableName(resolution.getTableName());
+            List<List<T>> intermediate = hbaseOperations2.findParallel(rollupTableName, scan, this.operationFactory.getRowKeyDistributor(), createRowMapper(decoder, rollupRange), AGENT_STAT_VER2_NUM_PARTITIONS);
+            for (List<T> each : intermediate) {
+                dataPoints.addAll(each);
+            }
+        }
+        if (rollupTo <= scanTo) {
+            Range rawRange = new Range(Math.max(scanFrom, rollupTo), scanTo);
+            dataPoints.addAll(getAgentStatList(agentStatType, createRowMapper(decoder, rawRange), agentId, rawRange));
+        }
+
+        // sampling handler expects data points in a descending order of their timestamps
+        dataPoints.sort(AgentStatMapperV2.REVERSE_TIMESTAMP_COMPARATOR);
+        AgentStatSamplingHandler<T, S> samplingHandler = new EagerSamplingHandler<>(timeWindow, sampler);
+        for (T dataPoint : dataPoints) {
+            samplingHandler.addDataPoint(dataPoint);
+        }
+        return samplingHandler.getSampledDataPoints();
+    }
+
     <T extends AgentStatDataPoint> AgentStatMapperV2<T> createRowMapper(AgentStatDecoder<T> decoder, Range range) {
         TimestampFilter filter = new RangeTimestampFilter(range);
         return new AgentStatMapperV2<>(this.operationFactory, decoder, filter);
@@ -139,6 +215,15 @@ public class HbaseAgentStatDaoOperationsV2 {
         }
     }
 
+    private Scan createRollupScan(AgentStatType agentStatType, AgentStatRollupResolution resolution, String agentId, Range range) {
+        long expectedNumRows = (range.getRange() / resolution.getRowTimespan()) + 2;
+        Scan scan = this.operationFactory.createRollupScan(agentId, agentStatType, resolution, range.getFrom(), range.getTo());
+        scan.setCaching((int) Math.min(expectedNumRows, MAX_SCAN_CACHE_SIZE));
+        scan.setId("AgentStatRollup_" + resolution + "_" + agentStatType);
+        scan.addFamily(HBaseTables.AGENT_STAT_CF_STATISTICS);
+        return scan;
+    }
+
     private Scan createScan(AgentStatType agentStatType, String agentId, Range range, int scanCacheSize) {
         Scan scan = this.operationFactory.createScan(agentId, agentStatType, range.getFrom(), range.getTo());
         scan.setCaching(scanCacheSize);
@@ -0,0 +1,358 @@
+/*
+ * Copyright 2019 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.navercorp.pinpoint.web.dao.hbase.stat.v2;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.RemovalCause;
+import com.google.common.cache.RemovalNotification;
+import com.google.common.io.BaseEncoding;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+import com.navercorp.pinpoint.common.server.bo.stat.AgentStatType;
+import com.navercorp.pinpoint.web.util.TimeWindow;
+import com.navercorp.pinpoint.web.vo.Range;
+import com.navercorp.pinpoint.web.vo.stat.SampledAgentStatDataPoint;
+import org.apache.commons.lang3.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+
+/**
+ * Keeps the sampled agent stats of elapsed time, so that every chart of the same agent, stat and slot size samples a time slot once.
+ * <p>
+ * Time is cut into blocks of {@code slotsPerBlock} slots, aligned to the block size. A block is sampled as a whole and kept in a
+ * {@link SampledPointBlock} once it ended {@code closeDelayMillis} ago, when the collectors have written its last stats.
+ * Cached blocks are never sampled again. The slots of the blocks still open are sampled on every request.
+ * Every block and the open slots are sampled with the slot before them, like the slots in the middle of a window.
+ * <p>
+ * Blocks are evicted least recently used first once they weigh more than {@code maxBytes}. With a spill directory, an
+ * evicted block is written to a file and read back on its next request, up to {@code spillMaxBytes} of files.
+ * Stats without a {@link SampledPointCodec}, like data sources, are not cached.
+ */
+@Component
+public class SampledAgentStatCache {
+
+    private static final String SPILL_FILE_SUFFIX = ".block";
+
+    private final Logger logger = LoggerFactory.getLogger(this.getClass());
+
+    private final boolean enable;
+    private final int slotsPerBlock;
+    private final long closeDelayMillis;
+    private final File spillDirectory;
+    private final long spillMaxBytes;
+    private final LongSupplier clock;
+
+    private final Cache<BlockKey, SampledPointBlock> blocks;
+
+    private final LongAdder requestCount = new LongAdder();
+    private final LongAdder missCount = new LongAdder();
+    private final LongAdder spillHitCount = new LongAdder();
+    private final LongAdder evictionCount = new LongAdder();
+    private final AtomicLong spilledBytes = new AtomicLong();
+
+    @Autowired
+    public SampledAgentStatCache(@Value("#{pinpointWebProps['web.stat.chart.cache.enable'] ?: false}") boolean enable,
+                                 @Value("#{pinpointWebProps['web.stat.chart.cache.maxBytes'] ?: 67108864}") long maxBytes,
+                                 @Value("#{pinpointWebProps['web.stat.chart.cache.slotsPerBlock'] ?: 60}") int slotsPerBlock,
+                                 @Value("#{pinpointWebProps['web.stat.chart.cache.closeDelayMillis'] ?: 300000}") long closeDelayMillis,
+                                 @Value("#{pinpointWebProps['web.stat.chart.cache.spill.directory'] ?: ''}") String spillDirectory,
+                                 @Value("#{pinpointWebProps['web.stat.chart.cache.spill.maxBytes'] ?: 1073741824}") long spillMaxBytes) {
+        this(enable, maxBytes, slotsPerBlock, closeDelayMillis, StringUtils.isEmpty(spillDirectory) ? null : new File(spillDirectory), spillMaxBytes, System::currentTimeMillis);
+    }
+
+    SampledAgentStatCache(boolean enable, long maxBytes, int slotsPerBlock, long closeDelayMillis, File spillDirectory, long spillMaxBytes, LongSupplier clock) {
+        if (maxBytes <= 0) {
+            throw new IllegalArgumentException("maxBytes must be greater than 0");
+        }
+        if (slotsPerBlock <= 0) {
+            throw new IllegalArgumentException("slotsPerBlock must be greater than 0");
+        }
+        if (closeDelayMillis < 0) {
+            throw new IllegalArgumentException("negative closeDelayMillis:" + closeDelayMillis);
+        }
+        this.enable = enable;
+        this.slotsPerBlock = slotsPerBlock;
+        this.closeDelayMillis = closeDelayMillis;
+        this.spillDirectory = enable ? prepareSpillDirectory(spillDirectory) : null;
+        this.spillMaxBytes = spillMaxBytes;
+        this.clock = clock;
+        this.blocks = CacheBuilder.newBuilder()
+                .maximumWeight(maxBytes)
+                .weigher((BlockKey key, SampledPointBlock block) -> (int) Math.min(Integer.MAX_VALUE, block.getWeight()))
+                .removalListener(this::onRemoval)
+                .build();
+        if (enable) {
+            logger.info("SampledAgentStatCache maxBytes:{}, slotsPerBlock:{}, closeDelayMillis:{}, spillDirectory:{}", maxBytes, slotsPerBlock, closeDelayMillis, this.spillDirectory);
+        }
+    }
+
+    private File prepareSpillDirectory(File spillDirectory) {
+        if (spillDirectory == null) {
+            return null;
+        }
+        if (!spillDirectory.isDirectory() && !spillDirectory.mkdirs()) {
+            logger.warn("can not create spill directory:{}, spill disabled", spillDirectory.getAbsolutePath());
+            return null;
+        }
+        // blocks of a previous run may be stale
+        deleteSpillFiles(spillDirectory);
+        return spillDirectory;
+    }
+
+    public boolean isEnable() {
+        return enable;
+    }
+
+    /**
+     * @param loader samples the stats of a time window, as {@link HbaseAgentStatDaoOperationsV2} does
+     */
+    public <S extends SampledAgentStatDataPoint> List<S> getSampledAgentStatList(AgentStatType agentStatType, String agentId, TimeWindow timeWindow, Function<TimeWindow, List<S>> loader) {
+        final SampledPointCodec<S> codec = SampledPointCodec.getCodec(agentStatType);
+        if (!enable || codec == null) {
+            return loader.apply(timeWindow);
+        }
+        final long slotSize = timeWindow.getWindowSlotSize();
+        final long blockSize = slotSize * slotsPerBlock;
+        final long from = timeWindow.getWindowRange().getFrom();
+        final long to = timeWindow.getWindowRange().getTo();
+        final long closedBefore = clock.getAsLong() - closeDelayMillis;
+
+        final List<S> result = new ArrayList<>((int) timeWindow.getWindowRangeCount());
+        long blockStart = (from / blockSize) * blockSize;
+        for (; blockStart <= to && blockStart + blockSize <= closedBefore; blockStart += blockSize) {
+            final BlockKey blockKey = new BlockKey(agentId, agentStatType, slotSize, blockStart);
+            final SampledPointBlock block = getBlock(blockKey, codec, loader, blockSize);
+            block.decode(codec, from, to, result);
+        }
+        if (blockStart <= to) {
+            result.addAll(sample(codec, loader, Math.max(from, blockStart), to, slotSize));
+        }
+        return result;
+    }
+
+    private <S extends SampledAgentStatDataPoint> SampledPointBlock getBlock(BlockKey blockKey, SampledPointCodec<S> codec, Function<TimeWindow, List<S>> loader, long blockSize) {
+        requestCount.increment();
+        try {
+            return blocks.get(blockKey, () -> {
+                final SampledPointBlock spilled = readSpill(blockKey);
+                if (spilled != null) {
+                    spillHitCount.increment();
+                    return spilled;
+                }
+                missCount.increment();
+                final long slotSize = blockKey.slotSize;
+                final List<S> sampledList = sample(codec, loader, blockKey.blockStart, blockKey.blockStart + blockSize - slotSize, slotSize);
+                return SampledPointBlock.encode(codec, sampledList);
+            });
+        } catch (ExecutionException | UncheckedExecutionException e) {
+            final Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new IllegalStateException("sampling failed. " + blockKey, cause);
+        }
+    }
+
+    /**
+     * Samples the slots from from to to with the slot before them, and drops the points of that slot.
+     */
+    private <S extends SampledAgentStatDataPoint> List<S> sample(SampledPointCodec<S> codec, Function<TimeWindow, List<S>> loader, long from, long to, long slotSize) {
+        final TimeWindow timeWindow = new TimeWindow(new Range(from - slotSize, to), range -> slotSize);
+        final List<S> sampledList = loader.apply(timeWindow);
+        final List<S> result = new ArrayList<>(sampledList.size());
+        for (S sampled : sampledList) {
+            if (codec.getPoints(sampled)[0].getXVal() >= from) {
+                result.add(sampled);
+            }
+        }
+        return result;
+    }
+
+    private void onRemoval(RemovalNotification<BlockKey, SampledPointBlock> notification) {
+        if (notification.getCause() != RemovalCause.SIZE) {
+            return;
+        }
+        evictionCount.increment();
+        if (spillDirectory != null) {
+            spill(notification.getKey(), notification.getValue());
+        }
+    }
+
+    private void spill(BlockKey blockKey, SampledPointBlock block) {
+        final long weight = block.getWeight();
+        if (spilledBytes.addAndGet(weight) > spillMaxBytes) {
+            spilledBytes.addAndGet(-weight);
+            logger.debug("spill full, drop {}", blockKey);
+            return;
+        }
+        final File file = new File(spillDirectory, blockKey.toFileName());
+        final File tempFile = new File(spillDirectory, blockKey.toFileName() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tempFile)))) {
+            out.writeUTF(blockKey.agentId);
+            block.writeTo(out);
+        } catch (IOException e) {
+            spilledBytes.addAndGet(-weight);
+            logger.warn("spill failed. {}", blockKey, e);
+            tempFile.delete();
+            return;
+        }
+        try {
+            Files.move(tempFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            spilledBytes.addAndGet(-weight);
+            logger.warn("spill failed. {}", blockKey, e);
+            tempFile.delete();
+        }
+    }
+
+    private SampledPointBlock readSpill(BlockKey blockKey) {
+        if (spillDirectory == null) {
+            return null;
+        }
+        final File file = new File(spillDirectory, blockKey.toFileName());
+        if (!file.exists()) {
+            return null;
+        }
+        SampledPointBlock block = null;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+            if (blockKey.agentId.equals(in.readUTF())) {
+                block = SampledPointBlock.readFrom(in);
+            }
+        } catch (IOException e) {
+            logger.warn("read spill failed. {}", blockKey, e);
+        }
+        // the block moves back to memory, or is sampled again
+        if (file.delete() && block != null) {
+            spilledBytes.addAndGet(-block.getWeight());
+        }
+        return block;
+    }
+
+    public Map<String, Object> getStats() {
+        final long requests = requestCount.sum();
+        final long misses = missCount.sum();
+        final long spillHits = spillHitCount.sum();
+        final Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enable", enable);
+        stats.put("blocks", blocks.size());
+        stats.put("requests", requests);
+        stats.put("hits", requests - misses - spillHits);
+        stats.put("spillHits", spillHits);
+        stats.put("misses", misses);
+        stats.put("hitRate", requests == 0 ? 0D : (double) (requests - misses) / requests);
+        stats.put("evictions", evictionCount.sum());
+        stats.put("spilledBytes", spilledBytes.get());
+        return stats;
+    }
+
+    @PreDestroy
+    public void destroy() {
+        blocks.invalidateAll();
+        if (spillDirectory != null) {
+            deleteSpillFiles(spillDirectory);
+        }
+    }
+
+    private void deleteSpillFiles(File directory) {
+        final File[] files = directory.listFiles((dir, name) -> name.contains(SPILL_FILE_SUFFIX));
+        if (files == null) {
+            return;
+        }
+        for (File file : files) {
+            if (!file.delete()) {
+                logger.warn("can not delete spill file:{}", file.getAbsolutePath());
+            }
+        }
+    }
+
+    private static final class BlockKey {
+        private final String agentId;
+        private final AgentStatType agentStatType;
+        private final long slotSize;
+        private final long blockStart;
+
+        private BlockKey(String agentId, AgentStatType agentStatType, long slotSize, long blockStart) {
+            this.agentId = agentId;
+            this.agentStatType = agentStatType;
+            this.slotSize = slotSize;
+            this.blockStart = blockStart;
+        }
+
+        private String toFileName() {
+            final String encodedAgentId = BaseEncoding.base16().encode(agentId.getBytes(StandardCharsets.UTF_8));
+            return agentStatType.name() + '_' + slotSize + '_' + blockStart + '_' + encodedAgentId + SPILL_FILE_SUFFIX;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+
+            BlockKey blockKey = (BlockKey) o;
+
+            if (slotSize != blockKey.slotSize) return false;
+            if (blockStart != blockKey.blockStart) return false;
+            if (!agentId.equals(blockKey.agentId)) return false;
+            return agentStatType == blockKey.agentStatType;
+        }
+
+        @Override
+        public int hashCode() {
+            int result = agentId.hashCode();
+            result = 31 * result + agentStatType.hashCode();
+            result = 31 * result + (int) (slotSize ^ (slotSize >>> 32));
+            result = 31 * result + (int) (blockStart ^ (blockStart >>> 32));
+            return result;
+        }
+
+        @Override
+        public String toString() {
+            return "BlockKey{" +
+                    "agentId='" + agentId + '\'' +
+                    ", agentStatType=" + agentStatType +
+                    ", slotSize=" + slotSize +
+                    ", blockStart=" + blockStart +
+                    '}';
+        }
+    }
+}
@@ -0,0 +1,164 @@
+/*
+ * Copyright 2019 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.navercorp.pinpoint.web.dao.hbase.stat.v2;
+
+import com.navercorp.pinpoint.web.vo.stat.SampledAgentStatDataPoint;
+import com.navercorp.pinpoint.web.vo.stat.chart.agent.AgentStatPoint;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * The sampled stats of a run of time slots, in primitive arrays.
+ * <p>
+ * A sampled stat takes one x value, one tag, and the min, max, avg and sum of each of its points in that order.
+ * A null value is kept as NaN. Blocks are immutable.
+ */
+final class SampledPointBlock {
+
+    private static final int VALUES_PER_POINT = 4;
+    // array headers and references
+    private static final int BASE_WEIGHT = 64;
+
+    private final int pointCount;
+    private final long[] xVals;
+    private final int[] tags;
+    private final double[] values;
+
+    private SampledPointBlock(int pointCount, long[] xVals, int[] tags, double[] values) {
+        if (tags.length != xVals.length || values.length != xVals.length * pointCount * VALUES_PER_POINT) {
+            throw new IllegalArgumentException("array length mismatch. xVals:" + xVals.length + ", tags:" + tags.length + ", values:" + values.length);
+        }
+        this.pointCount = pointCount;
+        this.xVals = xVals;
+        this.tags = tags;
+        this.values = values;
+    }
+
+    static <S extends SampledAgentStatDataPoint> SampledPointBlock encode(SampledPointCodec<S> codec, List<S> sampledList) {
+        final int pointCount = codec.getPointCount();
+        final int size = sampledList.size();
+        final long[] xVals = new long[size];
+        final int[] tags = new int[size];
+        final double[] values = new double[size * pointCount * VALUES_PER_POINT];
+        int offset = 0;
+        for (int i = 0; i < size; i++) {
+            final S sampled = sampledList.get(i);
+            final AgentStatPoint<?>[] points = codec.getPoints(sampled);
+            xVals[i] = points[0].getXVal();
+            tags[i] = codec.getTag(sampled);
+            for (AgentStatPoint<?> point : points) {
+                values[offset++] = toDouble(point.getMinYVal());
+                values[offset++] = toDouble(point.getMaxYVal());
+                values[offset++] = toDouble(point.getAvgYVal());
+                values[offset++] = toDouble(point.getSumYVal());
+            }
+        }
+        return new SampledPointBlock(pointCount, xVals, tags, values);
+    }
+
+    /**
+     * Adds the sampled stats with an x value between from and to, both inclusive, to result.
+     */
+    <S extends SampledAgentStatDataPoint> void decode(SampledPointCodec<S> codec, long from, long to, List<S> result) {
+        if (codec.getPointCount() != pointCount) {
+            throw new IllegalArgumentException("point count mismatch. expected:" + pointCount + ", codec:" + codec.getPointCount());
+        }
+        for (int i = 0; i < xVals.length; i++) {
+            final long xVal = xVals[i];
+            if (xVal < from || xVal > to) {
+                continue;
+            }
+            final AgentStatPoint<?>[] points = new AgentStatPoint<?>[pointCount];
+            int offset = i * pointCount * VALUES_PER_POINT;
+            for (int j = 0; j < pointCount; j++) {
+                final SampledPointCodec.ValueType valueType = codec.getValueType(j);
+                final Double avgYVal = Double.isNaN(values[offset + 2]) ? null : values[offset + 2];
+                points[j] = new AgentStatPoint<>(xVal, toNumber(valueType, values[offset]), toNumber(valueType, values[offset + 1]),
+                        avgYVal, toNumber(valueType, values[offset + 3]));
+                offset += VALUES_PER_POINT;
+            }
+            result.add(codec.newSampled(points, tags[i]));
+        }
+    }
+
+    int size() {
+        return xVals.length;
+    }
+
+    /**
+     * @return the approximate heap size of the block in bytes
+     */
+    long getWeight() {
+        return BASE_WEIGHT + xVals.length * 8L + tags.length * 4L + values.length * 8L;
+    }
+
+    void writeTo(DataOutput out) throws IOException {
+        out.writeInt(pointCount);
+        out.writeInt(xVals.length);
+        for (int i = 0; i < xVals.length; i++) {
+            out.writeLong(xVals[i]);
+            out.writeInt(tags[i]);
+        }
+        for (double value : values) {
+            out.writeDouble(value);
+        }
+    }
+
+    static SampledPointBlock readFrom(DataInput in) throws IOException {
+        final int pointCount = in.readInt();
+        final int size = in.readInt();
+        if (pointCount <= 0 || size < 0) {
+            throw new IOException("corrupted block. pointCount:" + pointCount + ", size:" + size);
+        }
+        final long[] xVals = new long[size];
+        final int[] tags = new int[size];
+        for (int i = 0; i < size; i++) {
+            xVals[i] = in.readLong();
+            tags[i] = in.readInt();
+        }
+        final double[] values = new double[size * pointCount * VALUES_PER_POINT];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = in.readDouble();
+        }
+        return new SampledPointBlock(pointCount, xVals, tags, values);
+    }
+
+    private static double toDouble(Number value) {
+        if (value == null) {
+            return Double.NaN;
+        }
+        return value.doubleValue();
+    }
+
+    private static Number toNumber(SampledPointCodec.ValueType valueType, double value) {
+        if (Double.isNaN(value)) {
+            return null;
+        }
+        switch (valueType) {
+            case INTEGER:
+                return (int) value;
+            case LONG:
+                return (long) value;
+            default:
+                return value;
+        }
+    }
+}
@@ -0,0 +1,213 @@
+/*
+ * Copyright 2019 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.navercorp.pinpoint.web.dao.hbase.stat.v2;
+
+import com.navercorp.pinpoint.common.server.bo.JvmGcType;
+import com.navercorp.pinpoint.common.server.bo.stat.AgentStatType;
+import com.navercorp.pinpoint.web.vo.stat.SampledActiveTrace;
+import com.navercorp.pinpoint.web.vo.stat.SampledAgentStatDataPoint;
+import com.navercorp.pinpoint.web.vo.stat.SampledCpuLoad;
+import com.navercorp.pinpoint.web.vo.stat.SampledDeadlock;
+import com.navercorp.pinpoint.web.vo.stat.SampledDirectBuffer;
+import com.navercorp.pinpoint.web.vo.stat.SampledFileDescriptor;
+import com.navercorp.pinpoint.web.vo.stat.SampledJvmGc;
+import com.navercorp.pinpoint.web.vo.stat.SampledJvmGcDetailed;
+import com.navercorp.pinpoint.web.vo.stat.SampledResponseTime;
+import com.navercorp.pinpoint.web.vo.stat.SampledTransaction;
+import com.navercorp.pinpoint.web.vo.stat.chart.agent.AgentStatPoint;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Takes a sampled agent stat apart into its {@link AgentStatPoint}s and puts it back together.
+ * <p>
+ * Every point of a sampled stat shares the x value of its time slot. A point value is one of {@link ValueType},
+ * so that {@link SampledPointBlock} can keep it as a double and give back the same number.
+ * Stats holding anything else, like the data source names, have no codec.
+ */
+abstract class SampledPointCodec<S extends SampledAgentStatDataPoint> {
+
+    enum ValueType {
+        INTEGER, LONG, DOUBLE
+    }
+
+    private static final Map<AgentStatType, SampledPointCodec<?>> CODECS = new EnumMap<>(AgentStatType.class);
+
+    static {
+        CODECS.put(AgentStatType.CPU_LOAD, new SampledPointCodec<SampledCpuLoad>(ValueType.DOUBLE, ValueType.DOUBLE) {
+            @Override
+            AgentStatPoint<?>[] getPoints(SampledCpuLoad sampled) {
+                return new AgentStatPoint<?>[]{sampled.getJvmCpuLoad(), sampled.getSystemCpuLoad()};
+            }
+
+            @Override
+            SampledCpuLoad newSampled(AgentStatPoint<?>[] points, int tag) {
+                return new SampledCpuLoad(cast(points[0]), cast(points[1]));
+            }
+        });
+        CODECS.put(AgentStatType.ACTIVE_TRACE, new SampledPointCodec<SampledActiveTrace>(ValueType.INTEGER, ValueType.INTEGER, ValueType.INTEGER, ValueType.INTEGER) {
+            @Override
+            AgentStatPoint<?>[] getPoints(SampledActiveTrace sampled) {
+                return new AgentStatPoint<?>[]{sampled.getFastCounts(), sampled.getNormalCounts(), sampled.getSlowCounts(), sampled.getVerySlowCounts()};
+            }
+
+            @Override
+            SampledActiveTrace newSampled(AgentStatPoint<?>[] points, int tag) {
+                return new SampledActiveTrace(cast(points[0]), cast(points[1]), cast(points[2]), cast(points[3]));
+            }
+        });
+        CODECS.put(AgentStatType.DEADLOCK, new SampledPointCodec<SampledDeadlock>(ValueType.INTEGER) {
+            @Override
+            AgentStatPoint<?>[] getPoints(SampledDeadlock sampled) {
+                return new AgentStatPoint<?>[]{sampled.getDeadlockedThreadCount()};
+            }
+
+            @Override
+            SampledDeadlock newSampled(AgentStatPoint<?>[] points, int tag) {
+                return new SampledDeadlock(cast(points[0]));
+            }
+        });
+        CODECS.put(AgentStatType.DIRECT_BUFFER, new SampledPointCodec<SampledDirectBuffer>(ValueType.LONG, ValueType.LONG, ValueType.LONG, ValueType.LONG) {
+            @Override
+            AgentStatPoint<?>[] getPoints(SampledDirectBuffer sampled) {
+                return new AgentStatPoint<?>[]{sampled.getDirectCount(), sampled.getDirectMemoryUsed(), sampled.getMappedCount(), sampled.getMappedMemoryUsed()};
+            }
+
+            @Override
+            SampledDirectBuffer newSampled(AgentStatPoint<?>[] points, int tag) {
+                return new SampledDirectBuffer(cast(points[0]), cast(points[1]), cast(points[2]), cast(points[3]));
+            }
+        });
+        CODECS.put(AgentStatType.FILE_DESCRIPTOR, new SampledPointCodec<SampledFileDescriptor>(ValueType.LONG) {
+            @Override
+            AgentStatPoint<?>[] getPoints(SampledFileDescriptor sampled) {
+                return new AgentStatPoint<?>[]{sampled.getOpenFileDescriptorCount()};
+            }
+
+            @Override
+            SampledFileDescriptor newSampled(AgentStatPoint<?>[] points, int tag) {
+                return new SampledFileDescriptor(cast(points[0]));
+            }
+        });
+        CODECS.put(AgentStatType.JVM_GC, new SampledPointCodec<SampledJvmGc>(ValueType.LONG, ValueType.LONG, ValueType.LONG, ValueType.LONG, ValueType.LONG, ValueType.LONG) {
+            @Override
+            AgentStatPoint<?>[] getPoints(SampledJvmGc sampled) {
+                return new AgentStatPoint<?>[]{sampled.getHeapUsed(), sampled.getHeapMax(), sampled.getNonHeapUsed(), sampled.getNonHeapMax(), sampled.getGcOldCount(), sampled.getGcOldTime()};
+            }
+
+            @Override
+            int getTag(SampledJvmGc sampled) {
+                final JvmGcType jvmGcType = sampled.getJvmGcType();
+                return jvmGcType == null ? -1 : jvmGcType.getTypeCode();
+            }
+
+            @Override
+            SampledJvmGc newSampled(AgentStatPoint<?>[] points, int tag) {
+                final SampledJvmGc sampledJvmGc = new SampledJvmGc();
+                if (tag != -1) {
+                    sampledJvmGc.setJvmGcType(JvmGcType.getTypeByCode(tag));
+                }
+                sampledJvmGc.setHeapUsed(cast(points[0]));
+                sampledJvmGc.setHeapMax(cast(points[1]));
+                sampledJvmGc.setNonHeapUsed(cast(points[2]));
+                sampledJvmGc.setNonHeapMax(cast(points[3]));
+                sampledJvmGc.setGcOldCount(cast(points[4]));
+                sampledJvmGc.setGcOldTime(cast(points[5]));
+                return sampledJvmGc;
+            }
+        });
+        CODECS.put(AgentStatType.JVM_GC_DETAILED, new SampledPointCodec<SampledJvmGcDetailed>(ValueType.LONG, ValueType.LONG,
+                ValueType.DOUBLE, ValueType.DOUBLE, ValueType.DOUBLE, ValueType.DOUBLE, ValueType.DOUBLE, ValueType.DOUBLE) {
+            @Override
+            AgentStatPoint<?>[] getPoints(SampledJvmGcDetailed sampled) {
+                return new AgentStatPoint<?>[]{sampled.getGcNewCount(), sampled.getGcNewTime(), sampled.getCodeCacheUsed(), sampled.getNewGenUsed(),
+                        sampled.getOldGenUsed(), sampled.getSurvivorSpaceUsed(), sampled.getPermGenUsed(), sampled.getMetaspaceUsed()};
+            }
+
+            @Override
+            SampledJvmGcDetailed newSampled(AgentStatPoint<?>[] points, int tag) {
+                return new SampledJvmGcDetailed(cast(points[0]), cast(points[1]), cast(points[2]), cast(points[3]),
+                        cast(points[4]), cast(points[5]), cast(points[6]), cast(points[7]));
+            }
+        });
+        CODECS.put(AgentStatType.RESPONSE_TIME, new SampledPointCodec<SampledResponseTime>(ValueType.LONG, ValueType.LONG) {
+            @Override
+            AgentStatPoint<?>[] getPoints(SampledResponseTime sampled) {
+                return new AgentStatPoint<?>[]{sampled.getAvg(), sampled.getMax()};
+            }
+
+            @Override
+            SampledResponseTime newSampled(AgentStatPoint<?>[] points, int tag) {
+                return new SampledResponseTime(cast(points[0]), cast(points[1]));
+            }
+        });
+        CODECS.put(AgentStatType.TRANSACTION, new SampledPointCodec<SampledTransaction>(ValueType.DOUBLE, ValueType.DOUBLE, ValueType.DOUBLE, ValueType.DOUBLE, ValueType.DOUBLE) {
+            @Override
+            AgentStatPoint<?>[] getPoints(SampledTransaction sampled) {
+                return new AgentStatPoint<?>[]{sampled.getSampledNew(), sampled.getSampledContinuation(), sampled.getUnsampledNew(), sampled.getUnsampledContinuation(), sampled.getTotal()};
+            }
+
+            @Override
+            SampledTransaction newSampled(AgentStatPoint<?>[] points, int tag) {
+                return new SampledTransaction(cast(points[0]), cast(points[1]), cast(points[2]), cast(points[3]), cast(points[4]));
+            }
+        });
+    }
+
+    /**
+     * @return the codec of the sampled stats of agentStatType, or null if they can not be kept in a {@link SampledPointBlock}
+     */
+    @SuppressWarnings("unchecked")
+    static <S extends SampledAgentStatDataPoint> SampledPointCodec<S> getCodec(AgentStatType agentStatType) {
+        return (SampledPointCodec<S>) CODECS.get(agentStatType);
+    }
+
+    private final ValueType[] valueTypes;
+
+    SampledPointCodec(ValueType... valueTypes) {
+        this.valueTypes = valueTypes;
+    }
+
+    int getPointCount() {
+        return valueTypes.length;
+    }
+
+    ValueType getValueType(int index) {
+        return valueTypes[index];
+    }
+
+    /**
+     * @return the points of sampled, in the order of the value types
+     */
+    abstract AgentStatPoint<?>[] getPoints(S sampled);
+
+    /**
+     * @return an int kept next to the points, for what a sampled stat holds besides its points
+     */
+    int getTag(S sampled) {
+        return 0;
+    }
+
+    abstract S newSampled(AgentStatPoint<?>[] points, int tag);
+
+    @SuppressWarnings("unchecked")
+    private static <Y extends Number> AgentStatPoint<Y> cast(AgentStatPoint<?> point) {
+        return (AgentStatPoint<Y>) point;
+    }
+}
@@ -20,8 +20,6 @@ import com.navercorp.pinpoint.common.PinpointConstants;
 import com.navercorp.pinpoint.common.server.bo.AgentInfoBo;
 import com.navercorp.pinpoint.common.server.bo.JvmInfoBo;
 import com.navercorp.pinpoint.common.server.bo.ServerMetaDataBo;
-import com.navercorp.pinpoint.common.buffer.Buffer;
-import com.navercorp.pinpoint.common.buffer.FixedBuffer;
 import com.navercorp.pinpoint.common.hbase.HBaseTables;
 import com.navercorp.pinpoint.common.hbase.RowMapper;
 import com.navercorp.pinpoint.common.util.BytesUtils;
@@ -48,7 +46,7 @@ public class AgentInfoMapper implements RowMapper<AgentInfo> {
         byte[] serializedServerMetaData = result.getValue(HBaseTables.AGENTINFO_CF_INFO, HBaseTables.AGENTINFO_CF_INFO_SERVER_META_DATA);
         byte[] serializedJvmInfo = result.getValue(HBaseTables.AGENTINFO_CF_INFO, HBaseTables.AGENTINFO_CF_INFO_JVM);
 
-        final AgentInfoBo.Builder agentInfoBoBuilder = createBuilderFromValue(serializedAgentInfo);
+        final AgentInfoBo.Builder agentInfoBoBuilder = new AgentInfoBo.Builder(serializedAgentInfo);
         agentInfoBoBuilder.setAgentId(agentId);
         agentInfoBoBuilder.setStartTime(startTime);
 
@@ -61,27 +59,4 @@ public class AgentInfoMapper implements RowMapper<AgentInfo> {
         return new AgentInfo(agentInfoBoBuilder.build());
     }
 
-    private AgentInfoBo.Builder createBuilderFromValue(byte[] serializedAgentInfo) {
-        final Buffer buffer = new FixedBuffer(serializedAgentInfo);
-        final AgentInfoBo.Builder builder = new AgentInfoBo.Builder();
-        builder.setHostName(buffer.readPrefixedString());
-        builder.setIp(buffer.readPrefixedString());
-        builder.setPorts(buffer.readPrefixedString());
-        builder.setApplicationName(buffer.readPrefixedString());
-        builder.setServiceTypeCode(buffer.readShort());
-        builder.setPid(buffer.readInt());
-        builder.setAgentVersion(buffer.readPrefixedString());
-        builder.setStartTime(buffer.readLong());
-        builder.setEndTimeStamp(buffer.readLong());
-        builder.setEndStatus(buffer.readInt());
-        // FIXME - 2015.09 v1.5.0 added vmVersion (check for compatibility)
-        if (buffer.hasRemaining()) {
-            builder.setVmVersion(buffer.readPrefixedString());
-        }
-        // FIXME - 2018.06 v1.8.0 added container (check for compatibility)
-        if (buffer.hasRemaining()) {
-            builder.isContainer(buffer.readBoolean());
-        }
-        return builder;
-    }
 }
@@ -0,0 +1,85 @@
+/*
+ * Copyright 2019 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.navercorp.pinpoint.web.mapper;
+
+import com.navercorp.pinpoint.common.buffer.Buffer;
+import com.navercorp.pinpoint.common.buffer.FixedBuffer;
+import com.navercorp.pinpoint.common.hbase.HBaseTables;
+import com.navercorp.pinpoint.common.hbase.ResultsExtractor;
+import com.navercorp.pinpoint.common.trace.ServiceType;
+import com.navercorp.pinpoint.common.util.BytesUtils;
+import com.navercorp.pinpoint.common.util.TimeUtils;
+import com.navercorp.pinpoint.web.vo.ResponseTimeColumns;
+import com.sematext.hbase.wd.RowKeyDistributorByHashPrefix;
+import org.apache.hadoop.hbase.Cell;
+import org.apache.hadoop.hbase.CellUtil;
+import org.apache.hadoop.hbase.client.Result;
+import org.apache.hadoop.hbase.client.ResultScanner;
+import org.apache.hadoop.hbase.util.Bytes;
+
+import java.util.Objects;
+
+/**
+ * Decodes the ApplicationMapStatisticsSelf rows of one application straight into {@link ResponseTimeColumns},
+ * same columns as {@link ResponseTimeMapper} without a {@code ResponseTime} per row.
+ */
+public class ResponseTimeColumnsResultsExtractor implements ResultsExtractor<ResponseTimeColumns> {
+
+    private final ServiceType applicationServiceType;
+
+    private final RowKeyDistributorByHashPrefix rowKeyDistributorByHashPrefix;
+
+    public ResponseTimeColumnsResultsExtractor(ServiceType applicationServiceType, RowKeyDistributorByHashPrefix rowKeyDistributorByHashPrefix) {
+        this.applicationServiceType = Objects.requireNonNull(applicationServiceType, "applicationServiceType must not be null");
+        this.rowKeyDistributorByHashPrefix = Objects.requireNonNull(rowKeyDistributorByHashPrefix, "rowKeyDistributorByHashPrefix must not be null");
+    }
+
+    @Override
+    public ResponseTimeColumns extractData(ResultScanner results) throws Exception {
+        final ResponseTimeColumns responseTimeColumns = new ResponseTimeColumns(applicationServiceType);
+        for (Result result : results) {
+            if (result.isEmpty()) {
+                continue;
+            }
+            final long timeStamp = readTimeStamp(rowKeyDistributorByHashPrefix.getOriginalKey(result.getRow()));
+            for (Cell cell : result.rawCells()) {
+                if (CellUtil.matchingFamily(cell, HBaseTables.MAP_STATISTICS_SELF_VER2_CF_COUNTER)) {
+                    recordColumn(responseTimeColumns, timeStamp, cell);
+                }
+            }
+        }
+        return responseTimeColumns;
+    }
+
+    private void recordColumn(ResponseTimeColumns responseTimeColumns, long timeStamp, Cell cell) {
+        final byte[] qArray = cell.getQualifierArray();
+        final int qOffset = cell.getQualifierOffset();
+        final short slotNumber = Bytes.toShort(qArray, qOffset);
+
+        final String agentId = Bytes.toString(qArray, qOffset + BytesUtils.SHORT_BYTE_LENGTH, cell.getQualifierLength() - BytesUtils.SHORT_BYTE_LENGTH);
+        final long count = Bytes.toLong(cell.getValueArray(), cell.getValueOffset());
+        responseTimeColumns.addResponseTime(timeStamp, agentId, slotNumber, count);
+    }
+
+    private long readTimeStamp(byte[] rowKey) {
+        final Buffer row = new FixedBuffer(rowKey);
+        row.read2PrefixedString();
+        row.readShort();
+        return TimeUtils.recoveryTimeMillis(row.readLong());
+    }
+}
@@ -31,7 +31,9 @@ import com.navercorp.pinpoint.common.server.bo.SpanEventComparator;
 import com.navercorp.pinpoint.common.server.bo.serializer.RowKeyDecoder;
 import com.navercorp.pinpoint.common.server.bo.serializer.trace.v2.SpanDecoder;
 import com.navercorp.pinpoint.common.server.bo.serializer.trace.v2.SpanDecoderV0;
+import com.navercorp.pinpoint.common.server.bo.serializer.trace.v2.SpanDecoderV1;
 import com.navercorp.pinpoint.common.server.bo.serializer.trace.v2.SpanDecodingContext;
+import com.navercorp.pinpoint.common.server.bo.serializer.trace.v2.SpanEncoderV1;
 import com.navercorp.pinpoint.common.util.TransactionId;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.hadoop.hbase.Cell;
@@ -58,6 +60,8 @@ public class SpanMapperV2 implements RowMapper<List<SpanBo>> {
 
     private final SpanDecoder spanDecoder = new SpanDecoderV0();
 
+    private final SpanDecoder spanDecoderV1 = new SpanDecoderV1();
+
     private final RowKeyDecoder<TransactionId> rowKeyDecoder;
 
     @Autowired
@@ -138,8 +142,10 @@ public class SpanMapperV2 implements RowMapper<List<SpanBo>> {
         final byte version = columnValue.getByte(0);
         if (version == 0) {
             return this.spanDecoder;
+        } else if (version == SpanEncoderV1.ENCODING_VERSION) {
+            return this.spanDecoderV1;
         } else {
-            throw new IllegalStateException("unsupported version");
+            throw new IllegalStateException("unsupported version :" + version);
         }
     }
 
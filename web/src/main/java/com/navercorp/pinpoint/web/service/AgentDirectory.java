@@ -0,0 +1,368 @@
+/*
+ * Copyright 2019 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.navercorp.pinpoint.web.service;
+
+import com.navercorp.pinpoint.common.server.bo.AgentLifeCycleBo;
+import com.navercorp.pinpoint.common.server.util.AgentLifeCycleState;
+import com.navercorp.pinpoint.web.vo.AgentDirectoryChanges;
+import com.navercorp.pinpoint.web.vo.AgentInfo;
+import com.navercorp.pinpoint.web.vo.AgentStatus;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * In-memory directory of the current agents, indexed by application name and host name.
+ * <p>
+ * An agent is keyed by its application name and agent id, so agents of two applications using the same agent id
+ * are kept apart. A life cycle event only holds the agent id, it applies to the agents of that id and run.
+ * <p>
+ * Every change of an agent takes the next directory version, so a client holding a version can ask for the
+ * changes after it only (see {@link #getChanges(long)}). The first version is given at creation, versions of a
+ * previous directory are answered with every agent. Removed agents are remembered up to {@code maxRemovedAgents},
+ * versions older than the oldest forgotten removal are answered with every agent as well.
+ * <p>
+ * Agents are copied in and out, so the returned {@link AgentInfo}s can be changed by the caller.
+ */
+public class AgentDirectory {
+
+    private final int maxRemovedAgents;
+
+    private final Map<AgentKey, Entry> agents = new HashMap<>();
+    private final Map<String, Set<AgentKey>> agentIdIndex = new HashMap<>();
+    private final Map<String, Set<AgentKey>> applicationIndex = new HashMap<>();
+    private final Map<String, Set<AgentKey>> hostIndex = new HashMap<>();
+    // agent -> version of the removal, oldest first
+    private final LinkedHashMap<AgentKey, Long> removedAgents = new LinkedHashMap<>();
+
+    private long version;
+    private long oldestVersion;
+    private long timestamp;
+
+    public AgentDirectory(long initialVersion, int maxRemovedAgents) {
+        if (maxRemovedAgents < 0) {
+            throw new IllegalArgumentException("negative maxRemovedAgents:" + maxRemovedAgents);
+        }
+        this.version = initialVersion;
+        this.oldestVersion = initialVersion;
+        this.maxRemovedAgents = maxRemovedAgents;
+    }
+
+    public synchronized long getVersion() {
+        return version;
+    }
+
+    /**
+     * @return the time the directory is up to date with
+     */
+    public synchronized long getTimestamp() {
+        return timestamp;
+    }
+
+    public synchronized void setTimestamp(long timestamp) {
+        this.timestamp = timestamp;
+    }
+
+    public synchronized int size() {
+        return agents.size();
+    }
+
+    /**
+     * @return the latest start timestamp of the agents of agentId, or -1 if no agent of agentId is in the directory
+     */
+    public synchronized long getLatestStartTimestamp(String agentId) {
+        long startTimestamp = -1;
+        for (AgentKey agentKey : getKeys(agentIdIndex, agentId)) {
+            startTimestamp = Math.max(startTimestamp, agents.get(agentKey).agentInfo.getStartTimestamp());
+        }
+        return startTimestamp;
+    }
+
+    /**
+     * Adds the agent, or replaces it if anything but its status events changed.
+     */
+    public synchronized void put(AgentInfo agentInfo) {
+        Objects.requireNonNull(agentInfo, "agentInfo must not be null");
+        final AgentKey agentKey = new AgentKey(agentInfo);
+        final Entry prevEntry = agents.get(agentKey);
+        if (prevEntry != null && prevEntry.isSame(agentInfo)) {
+            return;
+        }
+        if (prevEntry != null) {
+            unindex(agentKey, prevEntry.agentInfo);
+        }
+        final AgentInfo copy = copy(agentInfo);
+        agents.put(agentKey, new Entry(copy, -1, nextVersion()));
+        removedAgents.remove(agentKey);
+        index(agentKey, copy);
+    }
+
+    /**
+     * Applies a life cycle event to the agents of its agent id and run. The latest event by event timestamp, then event
+     * identifier, stays.
+     *
+     * @return false if no agent of the event's agent id and run is in the directory
+     */
+    public synchronized boolean updateStatus(AgentLifeCycleBo agentLifeCycleBo) {
+        Objects.requireNonNull(agentLifeCycleBo, "agentLifeCycleBo must not be null");
+        boolean updated = false;
+        for (AgentKey agentKey : getKeys(agentIdIndex, agentLifeCycleBo.getAgentId())) {
+            final Entry entry = agents.get(agentKey);
+            if (entry.agentInfo.getStartTimestamp() != agentLifeCycleBo.getStartTimestamp()) {
+                continue;
+            }
+            if (entry.isOlderThan(agentLifeCycleBo)) {
+                final AgentInfo agentInfo = copy(entry.agentInfo);
+                agentInfo.setStatus(new AgentStatus(agentLifeCycleBo));
+                agents.put(agentKey, new Entry(agentInfo, agentLifeCycleBo.getEventIdentifier(), nextVersion()));
+            }
+            updated = true;
+        }
+        return updated;
+    }
+
+    public synchronized void remove(String applicationName, String agentId) {
+        remove(new AgentKey(applicationName, agentId));
+    }
+
+    private void remove(AgentKey agentKey) {
+        final Entry entry = agents.remove(agentKey);
+        if (entry == null) {
+            return;
+        }
+        unindex(agentKey, entry.agentInfo);
+        removedAgents.put(agentKey, nextVersion());
+
+        final Iterator<Map.Entry<AgentKey, Long>> iterator = removedAgents.entrySet().iterator();
+        while (removedAgents.size() > maxRemovedAgents) {
+            final Map.Entry<AgentKey, Long> eldest = iterator.next();
+            oldestVersion = eldest.getValue();
+            iterator.remove();
+        }
+    }
+
+    /**
+     * Removes every agent not in agentInfos, compared by application name and agent id.
+     */
+    public synchronized void retainAll(Collection<AgentInfo> agentInfos) {
+        Objects.requireNonNull(agentInfos, "agentInfos must not be null");
+        final Set<AgentKey> retainKeys = new HashSet<>(agentInfos.size());
+        for (AgentInfo agentInfo : agentInfos) {
+            retainKeys.add(new AgentKey(agentInfo));
+        }
+        final List<AgentKey> removeKeys = new ArrayList<>();
+        for (AgentKey agentKey : agents.keySet()) {
+            if (!retainKeys.contains(agentKey)) {
+                removeKeys.add(agentKey);
+            }
+        }
+        for (AgentKey agentKey : removeKeys) {
+            remove(agentKey);
+        }
+    }
+
+    public synchronized List<AgentInfo> getAgents() {
+        final List<AgentInfo> agentInfos = new ArrayList<>(agents.size());
+        for (Entry entry : agents.values()) {
+            agentInfos.add(copy(entry.agentInfo));
+        }
+        return agentInfos;
+    }
+
+    public synchronized Set<AgentInfo> getAgentsByApplicationName(String applicationName) {
+        return getAgents(getKeys(applicationIndex, applicationName));
+    }
+
+    public synchronized Set<AgentInfo> getAgentsByHostName(String hostName) {
+        return getAgents(getKeys(hostIndex, hostName));
+    }
+
+    private Set<AgentInfo> getAgents(Set<AgentKey> agentKeys) {
+        final Set<AgentInfo> agentInfos = new HashSet<>(agentKeys.size());
+        for (AgentKey agentKey : agentKeys) {
+            agentInfos.add(copy(agents.get(agentKey).agentInfo));
+        }
+        return agentInfos;
+    }
+
+    public synchronized AgentDirectoryChanges getChanges(long sinceVersion) {
+        if (sinceVersion < oldestVersion || sinceVersion > version) {
+            return new AgentDirectoryChanges(version, true, getAgents(), Collections.emptyList());
+        }
+        final List<AgentInfo> changedAgents = new ArrayList<>();
+        for (Entry entry : agents.values()) {
+            if (entry.version > sinceVersion) {
+                changedAgents.add(copy(entry.agentInfo));
+            }
+        }
+        final List<AgentDirectoryChanges.RemovedAgent> removedAgentList = new ArrayList<>();
+        for (Map.Entry<AgentKey, Long> removedAgent : removedAgents.entrySet()) {
+            if (removedAgent.getValue() > sinceVersion) {
+                final AgentKey agentKey = removedAgent.getKey();
+                removedAgentList.add(new AgentDirectoryChanges.RemovedAgent(agentKey.applicationName, agentKey.agentId));
+            }
+        }
+        return new AgentDirectoryChanges(version, false, changedAgents, removedAgentList);
+    }
+
+    private long nextVersion() {
+        return ++version;
+    }
+
+    private void index(AgentKey agentKey, AgentInfo agentInfo) {
+        addIndex(agentIdIndex, agentInfo.getAgentId(), agentKey);
+        addIndex(applicationIndex, agentInfo.getApplicationName(), agentKey);
+        addIndex(hostIndex, agentInfo.getHostName(), agentKey);
+    }
+
+    private void unindex(AgentKey agentKey, AgentInfo agentInfo) {
+        removeIndex(agentIdIndex, agentInfo.getAgentId(), agentKey);
+        removeIndex(applicationIndex, agentInfo.getApplicationName(), agentKey);
+        removeIndex(hostIndex, agentInfo.getHostName(), agentKey);
+    }
+
+    private static Set<AgentKey> getKeys(Map<String, Set<AgentKey>> index, String key) {
+        final Set<AgentKey> agentKeys = index.get(key);
+        if (agentKeys == null) {
+            return Collections.emptySet();
+        }
+        return agentKeys;
+    }
+
+    private static void addIndex(Map<String, Set<AgentKey>> index, String key, AgentKey agentKey) {
+        if (key == null) {
+            return;
+        }
+        index.computeIfAbsent(key, k -> new HashSet<>()).add(agentKey);
+    }
+
+    private static void removeIndex(Map<String, Set<AgentKey>> index, String key, AgentKey agentKey) {
+        if (key == null) {
+            return;
+        }
+        final Set<AgentKey> agentKeys = index.get(key);
+        if (agentKeys != null && agentKeys.remove(agentKey) && agentKeys.isEmpty()) {
+            index.remove(key);
+        }
+    }
+
+    private static AgentInfo copy(AgentInfo agentInfo) {
+        final AgentInfo copy = new AgentInfo();
+        copy.setApplicationName(agentInfo.getApplicationName());
+        copy.setAgentId(agentInfo.getAgentId());
+        copy.setStartTimestamp(agentInfo.getStartTimestamp());
+        copy.setHostName(agentInfo.getHostName());
+        copy.setIp(agentInfo.getIp());
+        copy.setPorts(agentInfo.getPorts());
+        copy.setServiceTypeCode(agentInfo.getServiceTypeCode());
+        copy.setPid(agentInfo.getPid());
+        copy.setVmVersion(agentInfo.getVmVersion());
+        copy.setAgentVersion(agentInfo.getAgentVersion());
+        copy.setServerMetaData(agentInfo.getServerMetaData());
+        copy.setJvmInfo(agentInfo.getJvmInfo());
+        copy.setInitialStartTimestamp(agentInfo.getInitialStartTimestamp());
+        copy.setContainer(agentInfo.isContainer());
+
+        final AgentStatus status = agentInfo.getStatus();
+        if (status != null) {
+            final AgentStatus statusCopy = new AgentStatus(status.getAgentId());
+            statusCopy.setEventTimestamp(status.getEventTimestamp());
+            statusCopy.setState(status.getState());
+            copy.setStatus(statusCopy);
+        }
+        return copy;
+    }
+
+    private static final class AgentKey {
+        private final String applicationName;
+        private final String agentId;
+
+        private AgentKey(AgentInfo agentInfo) {
+            this(agentInfo.getApplicationName(), agentInfo.getAgentId());
+        }
+
+        private AgentKey(String applicationName, String agentId) {
+            this.applicationName = applicationName;
+            this.agentId = agentId;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+
+            AgentKey agentKey = (AgentKey) o;
+
+            if (applicationName != null ? !applicationName.equals(agentKey.applicationName) : agentKey.applicationName != null) return false;
+            return agentId != null ? agentId.equals(agentKey.agentId) : agentKey.agentId == null;
+        }
+
+        @Override
+        public int hashCode() {
+            int result = applicationName != null ? applicationName.hashCode() : 0;
+            result = 31 * result + (agentId != null ? agentId.hashCode() : 0);
+            return result;
+        }
+    }
+
+    private static class Entry {
+        private final AgentInfo agentInfo;
+        // -1 if the status was not read from an event
+        private final long eventIdentifier;
+        private final long version;
+
+        private Entry(AgentInfo agentInfo, long eventIdentifier, long version) {
+            this.agentInfo = agentInfo;
+            this.eventIdentifier = eventIdentifier;
+            this.version = version;
+        }
+
+        private boolean isSame(AgentInfo agentInfo) {
+            final AgentInfo current = this.agentInfo;
+            return current.getStartTimestamp() == agentInfo.getStartTimestamp()
+                    && Objects.equals(current.getApplicationName(), agentInfo.getApplicationName())
+                    && Objects.equals(current.getHostName(), agentInfo.getHostName())
+                    && Objects.equals(current.getIp(), agentInfo.getIp())
+                    && Objects.equals(current.getPorts(), agentInfo.getPorts())
+                    && Objects.equals(current.getAgentVersion(), agentInfo.getAgentVersion())
+                    && Objects.equals(current.getServerMetaData(), agentInfo.getServerMetaData())
+                    && current.isContainer() == agentInfo.isContainer()
+                    && Objects.equals(current.getStatus(), agentInfo.getStatus());
+        }
+
+        private boolean isOlderThan(AgentLifeCycleBo agentLifeCycleBo) {
+            final AgentStatus status = agentInfo.getStatus();
+            if (status == null || status.getState() == AgentLifeCycleState.UNKNOWN) {
+                return true;
+            }
+            if (status.getEventTimestamp() != agentLifeCycleBo.getEventTimestamp()) {
+                return status.getEventTimestamp() < agentLifeCycleBo.getEventTimestamp();
+            }
+            return eventIdentifier < agentLifeCycleBo.getEventIdentifier();
+        }
+    }
+}
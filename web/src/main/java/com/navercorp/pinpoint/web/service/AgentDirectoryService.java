@@ -0,0 +1,190 @@
+/*
+ * Copyright 2019 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.navercorp.pinpoint.web.service;
+
+import com.navercorp.pinpoint.common.server.bo.AgentLifeCycleBo;
+import com.navercorp.pinpoint.common.util.PinpointThreadFactory;
+import com.navercorp.pinpoint.web.dao.AgentInfoDao;
+import com.navercorp.pinpoint.web.dao.AgentLifeCycleDao;
+import com.navercorp.pinpoint.web.dao.ApplicationIndexDao;
+import com.navercorp.pinpoint.web.vo.AgentInfo;
+import com.navercorp.pinpoint.web.vo.Application;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps an {@link AgentDirectory} of the current agents.
+ * <p>
+ * The directory is loaded once from the application index, the agent infos and their statuses, like
+ * {@link AgentInfoService#getAllApplicationAgentsList} does. It is then kept current with the events written to the
+ * AgentLifeCycle table since the last refresh, found by their cell timestamp. An event of a new agent or of a new run of
+ * an agent reads that agent's info again. Agents removed from the application index are only noticed by the full reload
+ * every {@code reloadIntervalMillis}.
+ * <p>
+ * The AgentLifeCycle rows are keyed by agent id, so every refresh scans every region of the table for the cells of
+ * the period, and every web node does so. hbase skips the store files outside of the period, but the scan cost still
+ * grows with the number of web nodes. The default {@code refreshIntervalMillis} is one minute for this reason.
+ */
+@Service
+public class AgentDirectoryService {
+
+    private final Logger logger = LoggerFactory.getLogger(this.getClass());
+
+    private final boolean enable;
+    private final long refreshIntervalMillis;
+    private final long reloadIntervalMillis;
+
+    private final ApplicationIndexDao applicationIndexDao;
+    private final AgentInfoDao agentInfoDao;
+    private final AgentLifeCycleDao agentLifeCycleDao;
+
+    private final AgentDirectory agentDirectory;
+
+    private volatile boolean loaded;
+    private long lastReloadTime;
+
+    private ScheduledExecutorService refreshScheduler;
+
+    @Autowired
+    public AgentDirectoryService(@Value("#{pinpointWebProps['web.agent.directory.enable'] ?: false}") boolean enable,
+                                 @Value("#{pinpointWebProps['web.agent.directory.refreshIntervalMillis'] ?: 60000}") long refreshIntervalMillis,
+                                 @Value("#{pinpointWebProps['web.agent.directory.reloadIntervalMillis'] ?: 600000}") long reloadIntervalMillis,
+                                 @Value("#{pinpointWebProps['web.agent.directory.maxRemovedAgents'] ?: 10000}") int maxRemovedAgents,
+                                 ApplicationIndexDao applicationIndexDao, AgentInfoDao agentInfoDao, AgentLifeCycleDao agentLifeCycleDao) {
+        if (refreshIntervalMillis <= 0) {
+            throw new IllegalArgumentException("refreshIntervalMillis must be greater than 0");
+        }
+        this.enable = enable;
+        this.refreshIntervalMillis = refreshIntervalMillis;
+        this.reloadIntervalMillis = reloadIntervalMillis;
+        this.applicationIndexDao = Objects.requireNonNull(applicationIndexDao, "applicationIndexDao must not be null");
+        this.agentInfoDao = Objects.requireNonNull(agentInfoDao, "agentInfoDao must not be null");
+        this.agentLifeCycleDao = Objects.requireNonNull(agentLifeCycleDao, "agentLifeCycleDao must not be null");
+        this.agentDirectory = new AgentDirectory(System.currentTimeMillis(), maxRemovedAgents);
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!enable) {
+            logger.info("AgentDirectoryService disabled");
+            return;
+        }
+        logger.info("AgentDirectoryService start. refreshIntervalMillis:{}, reloadIntervalMillis:{}", refreshIntervalMillis, reloadIntervalMillis);
+        this.refreshScheduler = Executors.newSingleThreadScheduledExecutor(new PinpointThreadFactory("Pinpoint-AgentDirectory-Refresh", true));
+        // the first load runs in the background, queries use the dao until it completes
+        this.refreshScheduler.scheduleWithFixedDelay(this::refresh, 0, refreshIntervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (refreshScheduler != null) {
+            refreshScheduler.shutdownNow();
+        }
+    }
+
+    /**
+     * @return the directory if it can answer a query at timestamp, or null.
+     * The directory answers queries from one refresh interval before its last refresh on.
+     */
+    public AgentDirectory getAgentDirectory(long timestamp) {
+        if (!loaded) {
+            return null;
+        }
+        if (timestamp < agentDirectory.getTimestamp() - refreshIntervalMillis) {
+            return null;
+        }
+        return agentDirectory;
+    }
+
+    void refresh() {
+        try {
+            final long currentTime = System.currentTimeMillis();
+            if (!loaded || (reloadIntervalMillis > 0 && currentTime - lastReloadTime >= reloadIntervalMillis)) {
+                reload(currentTime);
+                lastReloadTime = currentTime;
+                loaded = true;
+            } else {
+                applyEvents(currentTime);
+            }
+        } catch (Exception e) {
+            logger.warn("agent directory refresh failed. message:{}", e.getMessage(), e);
+        }
+    }
+
+    private void reload(long currentTime) {
+        final List<AgentInfo> agentInfos = new ArrayList<>();
+        for (Application application : applicationIndexDao.selectAllApplicationNames()) {
+            final List<String> agentIds = applicationIndexDao.selectAgentIds(application.getName());
+            for (AgentInfo agentInfo : agentInfoDao.getAgentInfos(agentIds, currentTime)) {
+                if (agentInfo != null) {
+                    agentInfos.add(agentInfo);
+                }
+            }
+        }
+        agentLifeCycleDao.populateAgentStatuses(agentInfos, currentTime);
+
+        for (AgentInfo agentInfo : agentInfos) {
+            agentDirectory.put(agentInfo);
+        }
+        agentDirectory.retainAll(agentInfos);
+        agentDirectory.setTimestamp(currentTime);
+        logger.info("agent directory reloaded. agents:{}, version:{}", agentDirectory.size(), agentDirectory.getVersion());
+    }
+
+    private void applyEvents(long currentTime) {
+        // events stored a little late are read again from the previous refresh, applying an event twice changes nothing
+        final long fromTimestamp = Math.max(0, agentDirectory.getTimestamp() - refreshIntervalMillis);
+        final List<AgentLifeCycleBo> agentLifeCycles = agentLifeCycleDao.getAgentLifeCycles(fromTimestamp, currentTime);
+        agentLifeCycles.sort(Comparator.comparingLong(AgentLifeCycleBo::getEventTimestamp));
+
+        for (AgentLifeCycleBo agentLifeCycle : agentLifeCycles) {
+            if (agentDirectory.updateStatus(agentLifeCycle)) {
+                continue;
+            }
+            if (agentDirectory.getLatestStartTimestamp(agentLifeCycle.getAgentId()) > agentLifeCycle.getStartTimestamp()) {
+                // event of a previous run
+                continue;
+            }
+            // new agent, or new run of the agent
+            final AgentInfo agentInfo = agentInfoDao.getAgentInfo(agentLifeCycle.getAgentId(), currentTime);
+            if (agentInfo == null) {
+                logger.debug("agent info not found. agentId:{}", agentLifeCycle.getAgentId());
+                continue;
+            }
+            agentLifeCycleDao.populateAgentStatus(agentInfo, currentTime);
+            agentDirectory.put(agentInfo);
+        }
+        agentDirectory.setTimestamp(currentTime);
+        if (logger.isDebugEnabled()) {
+            logger.debug("agent directory refreshed. events:{}, version:{}", agentLifeCycles.size(), agentDirectory.getVersion());
+        }
+    }
+}
@@ -27,6 +27,7 @@ import com.navercorp.pinpoint.web.dao.AgentLifeCycleDao;
 import com.navercorp.pinpoint.web.dao.ApplicationIndexDao;
 import com.navercorp.pinpoint.web.filter.agent.AgentEventFilter;
 import com.navercorp.pinpoint.web.service.stat.AgentWarningStatService;
+import com.navercorp.pinpoint.web.vo.AgentDirectoryChanges;
 import com.navercorp.pinpoint.web.vo.AgentDownloadInfo;
 import com.navercorp.pinpoint.web.vo.AgentEvent;
 import com.navercorp.pinpoint.web.vo.AgentInfo;
@@ -84,10 +85,18 @@ public class AgentInfoServiceImpl implements AgentInfoService {
     @Autowired
     private AgentDownloadInfoDao agentDownloadInfoDao;
 
+    @Autowired
+    private AgentDirectoryService agentDirectoryService;
+
     @Override
     public ApplicationAgentsList getAllApplicationAgentsList(ApplicationAgentsList.Filter filter, long timestamp) {
         ApplicationAgentsList.GroupBy groupBy = ApplicationAgentsList.GroupBy.APPLICATION_NAME;
         ApplicationAgentsList applicationAgentList = new ApplicationAgentsList(groupBy, filter);
+        AgentDirectory agentDirectory = agentDirectoryService.getAgentDirectory(timestamp);
+        if (agentDirectory != null) {
+            applicationAgentList.addAll(agentDirectory.getAgents());
+            return applicationAgentList;
+        }
         List<Application> applications = applicationIndexDao.selectAllApplicationNames();
         for (Application application : applications) {
             applicationAgentList.merge(getApplicationAgentsList(groupBy, filter, application.getName(), timestamp));
@@ -156,6 +165,10 @@ public class AgentInfoServiceImpl implements AgentInfoService {
 
     @Override
     public Set<AgentInfo> getAgentsByApplicationName(String applicationName, long timestamp) {
+        AgentDirectory agentDirectory = agentDirectoryService.getAgentDirectory(timestamp);
+        if (agentDirectory != null && applicationName != null) {
+            return agentDirectory.getAgentsByApplicationName(applicationName);
+        }
         Set<AgentInfo> agentInfos = this.getAgentsByApplicationNameWithoutStatus(applicationName, timestamp);
         this.agentLifeCycleDao.populateAgentStatuses(agentInfos, timestamp);
         return agentInfos;
@@ -199,6 +212,44 @@ public class AgentInfoServiceImpl implements AgentInfoService {
         return filteredAgentInfos;
     }
 
+    @Override
+    public Set<AgentInfo> getAgentsByHostName(String hostName, long timestamp) {
+        if (hostName == null) {
+            throw new NullPointerException("hostName must not be null");
+        }
+        AgentDirectory agentDirectory = agentDirectoryService.getAgentDirectory(timestamp);
+        if (agentDirectory != null) {
+            return agentDirectory.getAgentsByHostName(hostName);
+        }
+
+        Set<AgentInfo> agentInfos = new HashSet<>();
+        for (String applicationName : getApplicationNameList(applicationIndexDao.selectAllApplicationNames())) {
+            for (AgentInfo agentInfo : getAgentsByApplicationNameWithoutStatus(applicationName, timestamp)) {
+                if (hostName.equals(agentInfo.getHostName())) {
+                    agentInfos.add(agentInfo);
+                }
+            }
+        }
+        this.agentLifeCycleDao.populateAgentStatuses(agentInfos, timestamp);
+        return agentInfos;
+    }
+
+    @Override
+    public AgentDirectoryChanges getAgentDirectoryChanges(long sinceVersion) {
+        long timestamp = System.currentTimeMillis();
+        AgentDirectory agentDirectory = agentDirectoryService.getAgentDirectory(timestamp);
+        if (agentDirectory != null) {
+            return agentDirectory.getChanges(sinceVersion);
+        }
+
+        // without the directory every agent is sent, with a version no directory has
+        Set<AgentInfo> agentInfos = new HashSet<>();
+        for (String applicationName : getApplicationNameList(applicationIndexDao.selectAllApplicationNames())) {
+            agentInfos.addAll(getAgentsByApplicationName(applicationName, timestamp));
+        }
+        return new AgentDirectoryChanges(-1, true, new ArrayList<>(agentInfos), Collections.emptyList());
+    }
+
     @Override
     public AgentInfo getAgentInfo(String agentId, long timestamp) {
         if (agentId == null) {
@@ -0,0 +1,225 @@
+/*
+ * Copyright 2019 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.navercorp.pinpoint.web.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Runs the queries of the web controllers on the query executor, so that a servlet thread is not held while hbase is scanned.
+ * <p>
+ * A query is identified by its name, its key parts and the user asking, as results may be filtered by user.
+ * A query asked again while the same query is running gets the result of the running one instead of running twice.
+ * Key parts must implement equals and hashCode.
+ * <p>
+ * The executor has a bounded queue. A query it rejects completes with a {@link RejectedExecutionException} at once,
+ * and the request is answered with 503.
+ * With {@code web.query.async.enable=false} the query runs on the calling thread, and the executor is not used.
+ * Futures fail with the exception of the query itself, never a {@link CompletionException}, so the controller exception
+ * handlers see it. Use {@link #thenApply(CompletableFuture, Function)} to transform a result.
+ */
+@Service
+public class AsyncQueryService {
+
+    private final Logger logger = LoggerFactory.getLogger(this.getClass());
+
+    private final Executor executor;
+    private final boolean asyncEnable;
+    private final boolean coalesceEnable;
+
+    private final ConcurrentMap<QueryKey, CompletableFuture<?>> inFlightQueries = new ConcurrentHashMap<>();
+
+    private final LongAdder requestCount = new LongAdder();
+    private final LongAdder coalescedCount = new LongAdder();
+    private final LongAdder rejectedCount = new LongAdder();
+
+    @Autowired
+    public AsyncQueryService(@Qualifier("webQueryExecutor") Executor executor,
+                             @Value("#{pinpointWebProps['web.query.async.enable'] ?: false}") boolean asyncEnable,
+                             @Value("#{pinpointWebProps['web.query.coalesce.enable'] ?: false}") boolean coalesceEnable) {
+        this.executor = Objects.requireNonNull(executor, "executor must not be null");
+        this.asyncEnable = asyncEnable;
+        this.coalesceEnable = coalesceEnable;
+    }
+
+    /**
+     * @return the result of query, shared with the callers of the same query while it runs
+     */
+    public <T> CompletableFuture<T> execute(Supplier<T> query, String queryName, Object... keyParts) {
+        Objects.requireNonNull(query, "query must not be null");
+        Objects.requireNonNull(queryName, "queryName must not be null");
+        requestCount.increment();
+
+        final QueryKey queryKey = new QueryKey(queryName, keyParts, getUserName());
+        final CompletableFuture<T> future = new CompletableFuture<>();
+        if (!coalesceEnable) {
+            submit(query, future, queryKey);
+            return future;
+        }
+
+        @SuppressWarnings("unchecked")
+        final CompletableFuture<T> inFlight = (CompletableFuture<T>) inFlightQueries.putIfAbsent(queryKey, future);
+        if (inFlight != null) {
+            coalescedCount.increment();
+            logger.debug("join in-flight query. {}", queryKey);
+            // a caller can not complete the shared future
+            return thenApply(inFlight, Function.identity());
+        }
+        submit(query, future, queryKey);
+        return future;
+    }
+
+    private <T> void submit(Supplier<T> query, CompletableFuture<T> future, QueryKey queryKey) {
+        final Runnable task = () -> {
+            try {
+                final T result = query.get();
+                removeInFlight(queryKey, future);
+                future.complete(result);
+            } catch (Throwable th) {
+                removeInFlight(queryKey, future);
+                future.completeExceptionally(th);
+            }
+        };
+        if (!asyncEnable) {
+            task.run();
+            return;
+        }
+        try {
+            executor.execute(task);
+        } catch (RejectedExecutionException e) {
+            rejectedCount.increment();
+            logger.warn("query rejected. {}", queryKey);
+            removeInFlight(queryKey, future);
+            future.completeExceptionally(e);
+        }
+    }
+
+    private void removeInFlight(QueryKey queryKey, CompletableFuture<?> future) {
+        // later callers run the query again rather than get a completed result
+        inFlightQueries.remove(queryKey, future);
+    }
+
+    /**
+     * {@link CompletableFuture#thenApply(Function)} that fails with the cause of a {@link CompletionException}.
+     */
+    public static <T, R> CompletableFuture<R> thenApply(CompletableFuture<T> future, Function<? super T, ? extends R> function) {
+        Objects.requireNonNull(future, "future must not be null");
+        Objects.requireNonNull(function, "function must not be null");
+
+        final CompletableFuture<R> result = new CompletableFuture<>();
+        future.whenComplete((value, throwable) -> {
+            if (throwable != null) {
+                result.completeExceptionally(unwrap(throwable));
+                return;
+            }
+            try {
+                result.complete(function.apply(value));
+            } catch (Throwable th) {
+                result.completeExceptionally(th);
+            }
+        });
+        return result;
+    }
+
+    private static Throwable unwrap(Throwable throwable) {
+        if (throwable instanceof CompletionException && throwable.getCause() != null) {
+            return throwable.getCause();
+        }
+        return throwable;
+    }
+
+    private String getUserName() {
+        final Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null) {
+            return null;
+        }
+        return authentication.getName();
+    }
+
+    public Map<String, Object> getStats() {
+        final Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("asyncEnable", asyncEnable);
+        stats.put("coalesceEnable", coalesceEnable);
+        stats.put("requests", requestCount.sum());
+        stats.put("coalesced", coalescedCount.sum());
+        stats.put("rejected", rejectedCount.sum());
+        stats.put("inFlight", inFlightQueries.size());
+        return stats;
+    }
+
+    private static final class QueryKey {
+        private final String queryName;
+        private final Object[] keyParts;
+        private final String userName;
+
+        private QueryKey(String queryName, Object[] keyParts, String userName) {
+            this.queryName = queryName;
+            this.keyParts = keyParts;
+            this.userName = userName;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+
+            QueryKey queryKey = (QueryKey) o;
+
+            if (!queryName.equals(queryKey.queryName)) return false;
+            if (!Arrays.equals(keyParts, queryKey.keyParts)) return false;
+            return userName != null ? userName.equals(queryKey.userName) : queryKey.userName == null;
+        }
+
+        @Override
+        public int hashCode() {
+            int result = queryName.hashCode();
+            result = 31 * result + Arrays.hashCode(keyParts);
+            result = 31 * result + (userName != null ? userName.hashCode() : 0);
+            return result;
+        }
+
+        @Override
+        public String toString() {
+            return "QueryKey{" +
+                    "queryName='" + queryName + '\'' +
+                    ", keyParts=" + Arrays.toString(keyParts) +
+                    ", userName='" + userName + '\'' +
+                    '}';
+        }
+    }
+}
@@ -17,12 +17,14 @@
 package com.navercorp.pinpoint.web.service;
 
 import java.util.List;
+import java.util.function.Consumer;
 
 import com.navercorp.pinpoint.common.util.TransactionId;
 import com.navercorp.pinpoint.web.calltree.span.CallTreeIterator;
 import com.navercorp.pinpoint.web.filter.Filter;
 import com.navercorp.pinpoint.web.vo.BusinessTransactions;
 import com.navercorp.pinpoint.web.vo.Range;
+import com.navercorp.pinpoint.web.vo.callstacks.Record;
 import com.navercorp.pinpoint.web.vo.callstacks.RecordSet;
 
 /**
@@ -31,5 +33,12 @@ import com.navercorp.pinpoint.web.vo.callstacks.RecordSet;
 public interface TransactionInfoService {
     RecordSet createRecordSet(CallTreeIterator callTreeIterator, long focusTimestamp, String agentId, long spanId);
 
+    /**
+     * Hands every record to recordConsumer in call stack order instead of collecting them.
+     *
+     * @return the record set without a record list
+     */
+    RecordSet createRecordSet(CallTreeIterator callTreeIterator, long focusTimestamp, String agentId, long spanId, Consumer<Record> recordConsumer);
+
     BusinessTransactions selectBusinessTransactions(List<TransactionId> traceIds, String applicationName, Range range, Filter filter);
 }
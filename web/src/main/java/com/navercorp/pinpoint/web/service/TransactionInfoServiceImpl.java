@@ -19,6 +19,7 @@ package com.navercorp.pinpoint.web.service;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Objects;
+import java.util.function.Consumer;
 
 import com.navercorp.pinpoint.common.server.bo.AnnotationBo;
 import com.navercorp.pinpoint.common.server.bo.Event;
@@ -130,6 +131,21 @@ public class TransactionInfoServiceImpl implements TransactionInfoService {
             throw new NullPointerException("callTreeIterator must not be null");
         }
 
+        final List<Record> recordList = new ArrayList<>(callTreeIterator.size() * 2);
+        RecordSet recordSet = createRecordSet(callTreeIterator, focusTimestamp, agentId, spanId, recordList::add);
+        recordSet.setRecordList(recordList);
+        return recordSet;
+    }
+
+    @Override
+    public RecordSet createRecordSet(CallTreeIterator callTreeIterator, long focusTimestamp, String agentId, long spanId, Consumer<Record> recordConsumer) {
+        if (callTreeIterator == null) {
+            throw new NullPointerException("callTreeIterator must not be null");
+        }
+        if (recordConsumer == null) {
+            throw new NullPointerException("recordConsumer must not be null");
+        }
+
         RecordSet recordSet = new RecordSet();
         final List<SpanAlign> spanAlignList = callTreeIterator.values();
 
@@ -157,17 +173,17 @@ public class TransactionInfoServiceImpl implements TransactionInfoService {
 
         recordSet.setLoggingTransactionInfo(findIsLoggingTransactionInfo(spanAlignList));
 
-        final SpanAlignPopulate spanAlignPopulate = new SpanAlignPopulate();
-        List<Record> recordList = spanAlignPopulate.populateSpanRecord(callTreeIterator);
+        Consumer<Record> populateConsumer = recordConsumer;
         if (viewPointSpanAlign != null) {
             // mark the record to be used as focus
             long beginTimeStamp = viewPointSpanAlign.getStartTime();
 
-            markFocusRecord(recordList, viewPointSpanAlign);
+            populateConsumer = new FocusRecordMarker(viewPointSpanAlign, recordConsumer);
             recordSet.setBeginTimestamp(beginTimeStamp);
         }
 
-        recordSet.setRecordList(recordList);
+        final SpanAlignPopulate spanAlignPopulate = new SpanAlignPopulate();
+        spanAlignPopulate.populateSpanRecord(callTreeIterator, populateConsumer);
 
         return recordSet;
     }
@@ -184,22 +200,37 @@ public class TransactionInfoServiceImpl implements TransactionInfoService {
         return false;
     }
 
-    private void markFocusRecord(List<Record> recordList, final SpanAlign viewPointTimeSpanAlign) {
-        final String agentId = viewPointTimeSpanAlign.getAgentId();
-        for (Record record : recordList) {
-            if (viewPointTimeSpanAlign.getSpanId() == record.getSpanId() && record.getBegin() == viewPointTimeSpanAlign.getStartTime()) {
-                if (agentId == null) {
-                    if (record.getAgent() == null) {
-                        record.setFocused(true);
-                        break;
-                    }
-                } else {
-                    if (record.getAgent() != null && agentId.equals(record.getAgent())) {
-                        record.setFocused(true);
-                        break;
-                    }
-                }
+    /**
+     * Marks the first record of the view point span as focused, on the way to the record consumer.
+     */
+    private static class FocusRecordMarker implements Consumer<Record> {
+        private final SpanAlign viewPointTimeSpanAlign;
+        private final Consumer<Record> recordConsumer;
+        private boolean marked;
+
+        private FocusRecordMarker(SpanAlign viewPointTimeSpanAlign, Consumer<Record> recordConsumer) {
+            this.viewPointTimeSpanAlign = viewPointTimeSpanAlign;
+            this.recordConsumer = recordConsumer;
+        }
+
+        @Override
+        public void accept(Record record) {
+            if (!marked && isFocusRecord(record)) {
+                record.setFocused(true);
+                marked = true;
             }
+            recordConsumer.accept(record);
+        }
+
+        private boolean isFocusRecord(Record record) {
+            if (viewPointTimeSpanAlign.getSpanId() != record.getSpanId() || record.getBegin() != viewPointTimeSpanAlign.getStartTime()) {
+                return false;
+            }
+            final String agentId = viewPointTimeSpanAlign.getAgentId();
+            if (agentId == null) {
+                return record.getAgent() == null;
+            }
+            return record.getAgent() != null && agentId.equals(record.getAgent());
         }
     }
 
@@ -331,12 +362,11 @@ public class TransactionInfoServiceImpl implements TransactionInfoService {
     }
 
     private class SpanAlignPopulate {
-        private List<Record> populateSpanRecord(CallTreeIterator callTreeIterator) {
+        private void populateSpanRecord(CallTreeIterator callTreeIterator, Consumer<Record> recordConsumer) {
             if (callTreeIterator == null) {
                 throw new NullPointerException("callTreeIterator must not be null");
             }
 
-            final List<Record> recordList = new ArrayList<>(callTreeIterator.size() * 2);
             final RecordFactory factory = new RecordFactory(annotationKeyMatcherService, registry, annotationKeyRegistryService);
 
             // annotation id has nothing to do with spanAlign's seq and thus may be incremented as long as they don't overlap.
@@ -351,7 +381,7 @@ public class TransactionInfoServiceImpl implements TransactionInfoService {
                 if (metaDataFilter != null && metaDataFilter.filter(align, MetaData.API)) {
                     if (align.isSpan()) {
                         Record record = metaDataFilter.createRecord(node, factory);
-                        recordList.add(record);
+                        recordConsumer.accept(record);
                     }
                     continue;
                 }
@@ -361,30 +391,28 @@ public class TransactionInfoServiceImpl implements TransactionInfoService {
                 }
 
                 final Record record = factory.get(node);
-                recordList.add(record);
+                recordConsumer.accept(record);
 
                 // add exception record.
                 if (align.hasException()) {
                     final Record exceptionRecord = factory.getException(record.getTab() + 1, record.getId(), align);
                     if(exceptionRecord != null) {
-                        recordList.add(exceptionRecord);
+                        recordConsumer.accept(exceptionRecord);
                     }
                 }
 
                 // add annotation record.
                 if (!align.getAnnotationBoList().isEmpty()) {
                     final List<Record> annotations = factory.getAnnotations(record.getTab() + 1, record.getId(), align);
-                    recordList.addAll(annotations);
+                    annotations.forEach(recordConsumer);
                 }
 
                 // add remote record.(span only)
                 if (align.getRemoteAddr() != null) {
                     final Record remoteAddressRecord = factory.getParameter(record.getTab() + 1, record.getId(), "REMOTE_ADDRESS", align.getRemoteAddr());
-                    recordList.add(remoteAddressRecord);
+                    recordConsumer.accept(remoteAddressRecord);
                 }
             }
-
-            return recordList;
         }
     }
 }
@@ -17,7 +17,9 @@
 package com.navercorp.pinpoint.web.service.map;
 
 import com.navercorp.pinpoint.web.applicationmap.rawdata.LinkDataDuplexMap;
+import com.navercorp.pinpoint.web.applicationmap.rawdata.LinkDataMap;
 import com.navercorp.pinpoint.web.vo.Application;
+import com.navercorp.pinpoint.web.vo.Range;
 
 /**
  * @author HyunGil Jeong
@@ -26,4 +28,14 @@ public interface ApplicationMapCreator {
 
     LinkDataDuplexMap createMap(Application application, LinkSelectContext linkSelectContext);
 
+    /**
+     * processed caller links of the application, without any depth or visit check
+     */
+    LinkDataMap createCallerLinkDataMap(Application application, Range range);
+
+    /**
+     * processed callee links of the application, without any depth or visit check
+     */
+    LinkDataMap createCalleeLinkDataMap(Application application, Range range);
+
 }
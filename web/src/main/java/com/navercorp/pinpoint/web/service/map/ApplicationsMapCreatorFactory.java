@@ -16,12 +16,15 @@
 
 package com.navercorp.pinpoint.web.service.map;
 
+import com.navercorp.pinpoint.web.security.ServerMapDataFilter;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 import java.util.Objects;
 import java.util.concurrent.Executor;
+import java.util.concurrent.Semaphore;
 
 /**
  * @author HyunGil Jeong
@@ -31,12 +34,45 @@ public class ApplicationsMapCreatorFactory {
 
     private final Executor executor;
 
+    private final boolean pipelineEnable;
+
+    // shared by every pipelined link search
+    private final Semaphore scanBudget;
+
+    private final TopologyScanPlanner topologyScanPlanner;
+
+    public ApplicationsMapCreatorFactory(Executor executor) {
+        this(executor, false, 1);
+    }
+
+    public ApplicationsMapCreatorFactory(Executor executor, boolean pipelineEnable, int maxConcurrentScans) {
+        this(executor, pipelineEnable, maxConcurrentScans, null);
+    }
+
     @Autowired
-    public ApplicationsMapCreatorFactory(@Qualifier("applicationsMapCreateExecutor") Executor executor) {
+    public ApplicationsMapCreatorFactory(@Qualifier("applicationsMapCreateExecutor") Executor executor,
+                                         @Value("#{pinpointWebProps['web.servermap.creator.pipeline.enable'] ?: false}") boolean pipelineEnable,
+                                         @Value("#{pinpointWebProps['web.servermap.creator.pipeline.maxConcurrentScans'] ?: 16}") int maxConcurrentScans,
+                                         TopologyScanPlanner topologyScanPlanner) {
         this.executor = Objects.requireNonNull(executor, "executor must not be null");
+        if (maxConcurrentScans <= 0) {
+            throw new IllegalArgumentException("maxConcurrentScans must be positive");
+        }
+        this.pipelineEnable = pipelineEnable;
+        this.scanBudget = new Semaphore(maxConcurrentScans, true);
+        // null if the link search does not start from the recorded topology
+        this.topologyScanPlanner = topologyScanPlanner != null && topologyScanPlanner.isEnable() ? topologyScanPlanner : null;
     }
 
     public ApplicationsMapCreator create(ApplicationMapCreator applicationMapCreator) {
         return new DefaultApplicationsMapCreator(applicationMapCreator, executor);
     }
+
+    public boolean isPipelineEnable() {
+        return pipelineEnable;
+    }
+
+    LinkSelector createPipelinedLinkSelector(ApplicationMapCreator applicationMapCreator, VirtualLinkHandler virtualLinkHandler, ServerMapDataFilter serverMapDataFilter) {
+        return new PipelinedLinkSelector(applicationMapCreator, virtualLinkHandler, serverMapDataFilter, executor, scanBudget, topologyScanPlanner);
+    }
 }
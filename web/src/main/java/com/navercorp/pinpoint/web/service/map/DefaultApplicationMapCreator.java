@@ -62,11 +62,7 @@ public class DefaultApplicationMapCreator implements ApplicationMapCreator {
 
         final boolean searchCallerNode = linkSelectContext.checkNextCaller(application);
         if (searchCallerNode) {
-            logger.debug("Finding Caller link data for {}", application);
-            final LinkDataMap callerLinkDataMap = linkDataMapService.selectCallerLinkDataMap(application, range);
-            logger.debug("Found Caller. count={}, caller={}, depth={}", callerLinkDataMap.size(), application, linkSelectContext.getCallerDepth());
-
-            final LinkDataMap processedCallerLinkDataMap = callerLinkDataMapProcessor.processLinkDataMap(callerLinkDataMap, range);
+            final LinkDataMap processedCallerLinkDataMap = createCallerLinkDataMap(application, range);
             for (LinkData callerLinkData : processedCallerLinkDataMap.getLinkDataList()) {
                 searchResult.addSourceLinkData(callerLinkData);
                 final Application toApplication = callerLinkData.getToApplication();
@@ -80,11 +76,7 @@ public class DefaultApplicationMapCreator implements ApplicationMapCreator {
 
         final boolean searchCalleeNode = linkSelectContext.checkNextCallee(application);
         if (searchCalleeNode) {
-            logger.debug("Finding Callee link data for {}", application);
-            final LinkDataMap calleeLinkDataMap = linkDataMapService.selectCalleeLinkDataMap(application, range);
-            logger.debug("Found Callee. count={}, callee={}, depth={}", calleeLinkDataMap.size(), application, linkSelectContext.getCalleeDepth());
-
-            final LinkDataMap processedCalleeLinkDataMap = calleeLinkDataMapProcessor.processLinkDataMap(calleeLinkDataMap, range);
+            final LinkDataMap processedCalleeLinkDataMap = createCalleeLinkDataMap(application, range);
             for (LinkData calleeLinkData : processedCalleeLinkDataMap.getLinkDataList()) {
                 searchResult.addTargetLinkData(calleeLinkData);
                 final Application fromApplication = calleeLinkData.getFromApplication();
@@ -93,4 +85,22 @@ public class DefaultApplicationMapCreator implements ApplicationMapCreator {
         }
         return searchResult;
     }
+
+    @Override
+    public LinkDataMap createCallerLinkDataMap(Application application, Range range) {
+        logger.debug("Finding Caller link data for {}", application);
+        final LinkDataMap callerLinkDataMap = linkDataMapService.selectCallerLinkDataMap(application, range);
+        logger.debug("Found Caller. count={}, caller={}", callerLinkDataMap.size(), application);
+
+        return callerLinkDataMapProcessor.processLinkDataMap(callerLinkDataMap, range);
+    }
+
+    @Override
+    public LinkDataMap createCalleeLinkDataMap(Application application, Range range) {
+        logger.debug("Finding Callee link data for {}", application);
+        final LinkDataMap calleeLinkDataMap = linkDataMapService.selectCalleeLinkDataMap(application, range);
+        logger.debug("Found Callee. count={}, callee={}", calleeLinkDataMap.size(), application);
+
+        return calleeLinkDataMapProcessor.processLinkDataMap(calleeLinkDataMap, range);
+    }
 }
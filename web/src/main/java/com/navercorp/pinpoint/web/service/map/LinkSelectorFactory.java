@@ -80,6 +80,8 @@ public class LinkSelectorFactory {
 
         if (LinkSelectorType.UNIDIRECTIONAL == linkSelectorType) {
             return new UnidirectionalLinkSelector(applicationsMapCreator, virtualLinkHandler, serverMapDataFilter);
+        } else if (applicationsMapCreatorFactory.isPipelineEnable()) {
+            return applicationsMapCreatorFactory.createPipelinedLinkSelector(applicationMapCreator, virtualLinkHandler, serverMapDataFilter);
         } else {
             return new BidirectionalLinkSelector(applicationsMapCreator, virtualLinkHandler, serverMapDataFilter);
         }
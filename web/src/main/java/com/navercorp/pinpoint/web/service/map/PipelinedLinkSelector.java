@@ -0,0 +1,268 @@
+/*
+ * Copyright 2019 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.navercorp.pinpoint.web.service.map;
+
+import com.navercorp.pinpoint.web.applicationmap.rawdata.LinkData;
+import com.navercorp.pinpoint.web.applicationmap.rawdata.LinkDataDuplexMap;
+import com.navercorp.pinpoint.web.applicationmap.rawdata.LinkDataMap;
+import com.navercorp.pinpoint.web.security.ServerMapDataFilter;
+import com.navercorp.pinpoint.web.vo.Application;
+import com.navercorp.pinpoint.web.vo.Range;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Bidirectional link search without a barrier between depths.
+ * <p>
+ * The caller and callee scans of a node are scheduled as soon as the scan that found the node completes,
+ * so a slow scan only delays its own branch. Every application keeps the smallest depth it was reached at.
+ * A node reached again at a smaller depth is expanded again from the scans it already has, so the result is
+ * the same as the breadth-first {@link BidirectionalLinkSelector}.
+ * Each caller/callee scan runs at most once per application (see {@link LinkVisitChecker}) and takes a permit of
+ * the scan budget shared by all requests.
+ * <p>
+ * With a {@link TopologyScanPlanner}, the scans of the applications found in the recorded topology are started
+ * before the search. The search then picks them up like any other scan, and a planned scan the search does not
+ * reach is left out of the result.
+ */
+public class PipelinedLinkSelector implements LinkSelector {
+
+    private final Logger logger = LoggerFactory.getLogger(this.getClass());
+
+    private final ApplicationMapCreator applicationMapCreator;
+
+    private final VirtualLinkHandler virtualLinkHandler;
+
+    private final ServerMapDataFilter serverMapDataFilter;
+
+    private final Executor executor;
+
+    private final Semaphore scanBudget;
+
+    private final TopologyScanPlanner topologyScanPlanner;
+
+    private final LinkVisitChecker linkVisitChecker = new LinkVisitChecker();
+
+    PipelinedLinkSelector(
+            ApplicationMapCreator applicationMapCreator,
+            VirtualLinkHandler virtualLinkHandler,
+            ServerMapDataFilter serverMapDataFilter,
+            Executor executor,
+            Semaphore scanBudget,
+            TopologyScanPlanner topologyScanPlanner) {
+        this.applicationMapCreator = Objects.requireNonNull(applicationMapCreator, "applicationMapCreator must not be null");
+        this.virtualLinkHandler = Objects.requireNonNull(virtualLinkHandler, "virtualLinkHandler must not be null");
+        this.serverMapDataFilter = serverMapDataFilter;
+        this.executor = Objects.requireNonNull(executor, "executor must not be null");
+        this.scanBudget = Objects.requireNonNull(scanBudget, "scanBudget must not be null");
+        this.topologyScanPlanner = topologyScanPlanner;
+    }
+
+    @Override
+    public LinkDataDuplexMap select(List<Application> sourceApplications, Range range, int callerSearchDepth, int calleeSearchDepth) {
+        logger.debug("Creating link data map for {}", sourceApplications);
+        final Traversal traversal = new Traversal(range, callerSearchDepth, calleeSearchDepth);
+        final LinkDataDuplexMap linkDataDuplexMap = traversal.run(sourceApplications);
+        return virtualLinkHandler.processVirtualLinks(linkDataDuplexMap, linkVisitChecker, range);
+    }
+
+    private class Traversal {
+        private final Range range;
+        private final int callerDepthLimit;
+        private final int calleeDepthLimit;
+
+        private final ConcurrentMap<Application, Integer> depths = new ConcurrentHashMap<>();
+        private final ConcurrentMap<Application, CompletableFuture<LinkDataMap>> callerScans = new ConcurrentHashMap<>();
+        private final ConcurrentMap<Application, CompletableFuture<LinkDataMap>> calleeScans = new ConcurrentHashMap<>();
+
+        private final Queue<LinkData> sourceLinkDataList = new ConcurrentLinkedQueue<>();
+        private final Queue<LinkData> targetLinkDataList = new ConcurrentLinkedQueue<>();
+
+        private final AtomicInteger pending = new AtomicInteger();
+        private final CompletableFuture<Void> completed = new CompletableFuture<>();
+
+        private Traversal(Range range, int callerDepthLimit, int calleeDepthLimit) {
+            this.range = Objects.requireNonNull(range, "range must not be null");
+            this.callerDepthLimit = callerDepthLimit;
+            this.calleeDepthLimit = calleeDepthLimit;
+        }
+
+        private LinkDataDuplexMap run(List<Application> sourceApplications) {
+            if (topologyScanPlanner != null) {
+                prefetch(topologyScanPlanner.plan(sourceApplications, range, callerDepthLimit, calleeDepthLimit, serverMapDataFilter));
+            }
+            pending.incrementAndGet();
+            for (Application application : sourceApplications) {
+                visit(application, 0);
+            }
+            done();
+            try {
+                completed.join();
+            } catch (CompletionException e) {
+                final Throwable cause = e.getCause();
+                if (cause instanceof RuntimeException) {
+                    throw (RuntimeException) cause;
+                }
+                throw e;
+            }
+            logger.debug("search end. nodes:{}, callerScans:{}, calleeScans:{}", depths.size(), callerScans.size(), calleeScans.size());
+
+            final LinkDataDuplexMap linkDataDuplexMap = new LinkDataDuplexMap();
+            for (LinkData linkData : sourceLinkDataList) {
+                linkDataDuplexMap.addSourceLinkData(linkData);
+            }
+            for (LinkData linkData : targetLinkDataList) {
+                linkDataDuplexMap.addTargetLinkData(linkData);
+            }
+            return linkDataDuplexMap;
+        }
+
+        private void prefetch(TopologyScanPlanner.ScanPlan scanPlan) {
+            if (scanPlan == null) {
+                return;
+            }
+            logger.debug("prefetch callerScans:{}, calleeScans:{}", scanPlan.getCallers().size(), scanPlan.getCallees().size());
+            for (Application application : scanPlan.getCallers()) {
+                callerScans.computeIfAbsent(application, this::scanCaller);
+            }
+            for (Application application : scanPlan.getCallees()) {
+                calleeScans.computeIfAbsent(application, this::scanCallee);
+            }
+        }
+
+        private void visit(Application application, int depth) {
+            if (completed.isDone()) {
+                return;
+            }
+            if (serverMapDataFilter != null && serverMapDataFilter.filter(application)) {
+                return;
+            }
+            if (!updateDepth(application, depth)) {
+                return;
+            }
+            if (depth < callerDepthLimit) {
+                final CompletableFuture<LinkDataMap> callerScan = callerScans.computeIfAbsent(application, this::scanCaller);
+                final boolean firstVisit = !linkVisitChecker.visitCaller(application);
+                expand(callerScan, application, depth, true, firstVisit);
+            }
+            if (depth < calleeDepthLimit) {
+                final CompletableFuture<LinkDataMap> calleeScan = calleeScans.computeIfAbsent(application, this::scanCallee);
+                final boolean firstVisit = !linkVisitChecker.visitCallee(application);
+                expand(calleeScan, application, depth, false, firstVisit);
+            }
+        }
+
+        private boolean updateDepth(Application application, int depth) {
+            while (true) {
+                final Integer prevDepth = depths.putIfAbsent(application, depth);
+                if (prevDepth == null) {
+                    return true;
+                }
+                if (prevDepth <= depth) {
+                    return false;
+                }
+                if (depths.replace(application, prevDepth, depth)) {
+                    logger.debug("shorter path found. application:{} depth:{}->{}", application, prevDepth, depth);
+                    return true;
+                }
+            }
+        }
+
+        private CompletableFuture<LinkDataMap> scanCaller(Application application) {
+            return scan(() -> applicationMapCreator.createCallerLinkDataMap(application, range));
+        }
+
+        private CompletableFuture<LinkDataMap> scanCallee(Application application) {
+            return scan(() -> applicationMapCreator.createCalleeLinkDataMap(application, range));
+        }
+
+        private CompletableFuture<LinkDataMap> scan(Supplier<LinkDataMap> scanner) {
+            try {
+                return CompletableFuture.supplyAsync(() -> {
+                    scanBudget.acquireUninterruptibly();
+                    try {
+                        return scanner.get();
+                    } finally {
+                        scanBudget.release();
+                    }
+                }, executor);
+            } catch (RuntimeException e) {
+                // rejected by the executor
+                final CompletableFuture<LinkDataMap> failed = new CompletableFuture<>();
+                failed.completeExceptionally(e);
+                return failed;
+            }
+        }
+
+        private void expand(CompletableFuture<LinkDataMap> scan, Application application, int depth, boolean caller, boolean firstVisit) {
+            pending.incrementAndGet();
+            scan.whenComplete((linkDataMap, throwable) -> {
+                if (throwable != null) {
+                    logger.warn("link scan failed. application:{} caller:{}", application, caller, throwable);
+                    completed.completeExceptionally(throwable);
+                    return;
+                }
+                try {
+                    // the links of a scan are collected once, by the first visit of the application
+                    if (firstVisit) {
+                        if (caller) {
+                            sourceLinkDataList.addAll(linkDataMap.getLinkDataList());
+                        } else {
+                            targetLinkDataList.addAll(linkDataMap.getLinkDataList());
+                        }
+                    }
+                    final int nextDepth = depth + 1;
+                    for (LinkData linkData : linkDataMap.getLinkDataList()) {
+                        if (caller) {
+                            final Application toApplication = linkData.getToApplication();
+                            // skip if nextApplication is a terminal or an unknown cloud
+                            if (toApplication.getServiceType().isTerminal() || toApplication.getServiceType().isUnknown()) {
+                                continue;
+                            }
+                            visit(toApplication, nextDepth);
+                        } else {
+                            visit(linkData.getFromApplication(), nextDepth);
+                        }
+                    }
+                } catch (RuntimeException e) {
+                    completed.completeExceptionally(e);
+                } finally {
+                    done();
+                }
+            });
+        }
+
+        private void done() {
+            if (pending.decrementAndGet() == 0) {
+                completed.complete(null);
+            }
+        }
+    }
+}
@@ -0,0 +1,155 @@
+/*
+ * Copyright 2019 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.navercorp.pinpoint.web.service.map;
+
+import com.navercorp.pinpoint.common.server.bo.TopologyEdgeBo;
+import com.navercorp.pinpoint.web.dao.ApplicationTopologyDao;
+import com.navercorp.pinpoint.web.security.ServerMapDataFilter;
+import com.navercorp.pinpoint.web.service.ApplicationFactory;
+import com.navercorp.pinpoint.web.vo.Application;
+import com.navercorp.pinpoint.web.vo.Range;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.Set;
+
+/**
+ * Finds the applications a link search is going to scan from the topology the collectors record (see ApplicationTopology table).
+ * <p>
+ * The search is run on the recorded edges with the same depth rules as {@link PipelinedLinkSelector},
+ * so every scan can be started at once instead of one depth after another.
+ * Links the collectors do not record, such as rpc calls resolved through the host application map, are still found by the
+ * link search itself, the plan only starts the known scans early.
+ */
+@Component
+public class TopologyScanPlanner {
+
+    private final Logger logger = LoggerFactory.getLogger(this.getClass());
+
+    private final boolean enable;
+
+    private final ApplicationTopologyDao applicationTopologyDao;
+
+    private final ApplicationFactory applicationFactory;
+
+    @Autowired
+    public TopologyScanPlanner(@Value("#{pinpointWebProps['web.servermap.topology.enable'] ?: false}") boolean enable,
+                               ApplicationTopologyDao applicationTopologyDao, ApplicationFactory applicationFactory) {
+        this.enable = enable;
+        this.applicationTopologyDao = Objects.requireNonNull(applicationTopologyDao, "applicationTopologyDao must not be null");
+        this.applicationFactory = Objects.requireNonNull(applicationFactory, "applicationFactory must not be null");
+    }
+
+    public boolean isEnable() {
+        return enable;
+    }
+
+    /**
+     * @return the planned scans, or null if there is no topology for the range
+     */
+    public ScanPlan plan(List<Application> sourceApplications, Range range, int callerDepthLimit, int calleeDepthLimit, ServerMapDataFilter serverMapDataFilter) {
+        if (!enable) {
+            return null;
+        }
+        final Set<TopologyEdgeBo> edges;
+        try {
+            edges = applicationTopologyDao.getEdges(range);
+        } catch (Exception e) {
+            logger.warn("read application topology failed. range:{}", range, e);
+            return null;
+        }
+        if (edges.isEmpty()) {
+            return null;
+        }
+
+        final Map<Application, Set<Application>> callerLinks = new HashMap<>();
+        final Map<Application, Set<Application>> calleeLinks = new HashMap<>();
+        for (TopologyEdgeBo edge : edges) {
+            final Application from = applicationFactory.createApplication(edge.getFromApplicationName(), edge.getFromServiceType());
+            final Application to = applicationFactory.createApplication(edge.getToApplicationName(), edge.getToServiceType());
+            if (edge.getDirection() == TopologyEdgeBo.Direction.CALLER) {
+                callerLinks.computeIfAbsent(from, key -> new HashSet<>()).add(to);
+            } else {
+                calleeLinks.computeIfAbsent(to, key -> new HashSet<>()).add(from);
+            }
+        }
+
+        final ScanPlan scanPlan = new ScanPlan();
+        final Map<Application, Integer> depths = new HashMap<>();
+        final Queue<Application> queue = new ArrayDeque<>();
+        for (Application application : sourceApplications) {
+            enqueue(application, 0, depths, queue, serverMapDataFilter);
+        }
+        // breadth first, an application is reached at its smallest depth first
+        while (!queue.isEmpty()) {
+            final Application application = queue.poll();
+            final int depth = depths.get(application);
+            if (depth < callerDepthLimit) {
+                scanPlan.callers.add(application);
+                for (Application toApplication : callerLinks.getOrDefault(application, Collections.emptySet())) {
+                    // skip if nextApplication is a terminal or an unknown cloud
+                    if (toApplication.getServiceType().isTerminal() || toApplication.getServiceType().isUnknown()) {
+                        continue;
+                    }
+                    enqueue(toApplication, depth + 1, depths, queue, serverMapDataFilter);
+                }
+            }
+            if (depth < calleeDepthLimit) {
+                scanPlan.callees.add(application);
+                for (Application fromApplication : calleeLinks.getOrDefault(application, Collections.emptySet())) {
+                    enqueue(fromApplication, depth + 1, depths, queue, serverMapDataFilter);
+                }
+            }
+        }
+        logger.debug("scan plan. edges:{}, callers:{}, callees:{}", edges.size(), scanPlan.callers.size(), scanPlan.callees.size());
+        return scanPlan;
+    }
+
+    private void enqueue(Application application, int depth, Map<Application, Integer> depths, Queue<Application> queue, ServerMapDataFilter serverMapDataFilter) {
+        if (serverMapDataFilter != null && serverMapDataFilter.filter(application)) {
+            return;
+        }
+        if (depths.putIfAbsent(application, depth) == null) {
+            queue.add(application);
+        }
+    }
+
+    public static class ScanPlan {
+        private final Set<Application> callers = new HashSet<>();
+        private final Set<Application> callees = new HashSet<>();
+
+        public Set<Application> getCallers() {
+            return callers;
+        }
+
+        public Set<Application> getCallees() {
+            return callees;
+        }
+    }
+}
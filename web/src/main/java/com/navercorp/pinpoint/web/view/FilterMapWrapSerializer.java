@@ -42,6 +42,9 @@ public class FilterMapWrapSerializer extends JsonSerializer<FilterMapWrap> {
 
         jgen.writeObjectField("applicationMapData", wrap.getApplicationMap());
         jgen.writeNumberField("lastFetchedTimestamp", wrap.getLastFetchedTimestamp());
+        if (wrap.getCursor() != null) {
+            jgen.writeStringField("cursor", wrap.getCursor());
+        }
 
         if (wrap.getApplicationMap() instanceof ApplicationMapWithScatterScanResult) {
             final List<ApplicationScatterScanResult> applicationScatterScanResult = ((ApplicationMapWithScatterScanResult) wrap.getApplicationMap()).getApplicationScatterScanResultList();
@@ -0,0 +1,74 @@
+/*
+ * Copyright 2019 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.navercorp.pinpoint.web.view;
+
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.navercorp.pinpoint.common.util.TransactionId;
+import com.navercorp.pinpoint.web.applicationmap.link.Link;
+import com.navercorp.pinpoint.web.applicationmap.nodes.Node;
+import com.navercorp.pinpoint.web.vo.callstacks.Record;
+import com.navercorp.pinpoint.web.vo.callstacks.RecordSet;
+
+import java.util.Collection;
+import java.util.Objects;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * The json of {@link TransactionInfoViewModel}, with each call stack row written to the response as soon as its record is
+ * created. The records and rows of a transaction are never all in memory at once.
+ * <p>
+ * The call stack is written before the other fields, since the record set values are known only after the last record.
+ *
+ * @see TransactionInfoStreamingViewModelSerializer
+ */
+@JsonSerialize(using = TransactionInfoStreamingViewModelSerializer.class)
+public class TransactionInfoStreamingViewModel {
+
+    private final TransactionId transactionId;
+    private final Collection<Node> nodes;
+    private final Collection<Link> links;
+    private final String completeState;
+    private final boolean logLinkEnable;
+    private final String logButtonName;
+    private final String logPageUrl;
+    private final String disableButtonMessage;
+    // hands the records to the consumer and returns the record set without a record list
+    private final Function<Consumer<Record>, RecordSet> recordSetFactory;
+
+    public TransactionInfoStreamingViewModel(TransactionId transactionId, Collection<Node> nodes, Collection<Link> links, String completeState, boolean logLinkEnable,
+                                             String logButtonName, String logPageUrl, String disableButtonMessage, Function<Consumer<Record>, RecordSet> recordSetFactory) {
+        this.transactionId = transactionId;
+        this.nodes = nodes;
+        this.links = links;
+        this.completeState = completeState;
+        this.logLinkEnable = logLinkEnable;
+        this.logButtonName = logButtonName;
+        this.logPageUrl = logPageUrl;
+        this.disableButtonMessage = disableButtonMessage;
+        this.recordSetFactory = Objects.requireNonNull(recordSetFactory, "recordSetFactory must not be null");
+    }
+
+    /**
+     * @return the view model of the other fields, with an empty call stack
+     */
+    TransactionInfoViewModel createRecords(Consumer<Record> recordConsumer) {
+        final RecordSet recordSet = recordSetFactory.apply(recordConsumer);
+        return new TransactionInfoViewModel(transactionId, nodes, links, recordSet, completeState, logLinkEnable, logButtonName, logPageUrl, disableButtonMessage);
+    }
+}
@@ -0,0 +1,97 @@
+/*
+ * Copyright 2019 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.navercorp.pinpoint.web.view;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.navercorp.pinpoint.web.vo.callstacks.Record;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.function.Consumer;
+
+/**
+ * Writes the call stack rows while the records are created, and flushes every {@value #FLUSH_ROWS} rows so the
+ * response goes out in chunks.
+ */
+public class TransactionInfoStreamingViewModelSerializer extends JsonSerializer<TransactionInfoStreamingViewModel> {
+
+    static final int FLUSH_ROWS = 1024;
+
+    private final TransactionInfoCallStackSerializer callStackSerializer = new TransactionInfoCallStackSerializer();
+
+    @Override
+    public void serialize(TransactionInfoStreamingViewModel value, JsonGenerator jgen, SerializerProvider provider) throws IOException {
+        jgen.writeStartObject();
+
+        jgen.writeArrayFieldStart("callStack");
+        final CallStackWriter callStackWriter = new CallStackWriter(jgen, provider);
+        final TransactionInfoViewModel viewModel;
+        try {
+            viewModel = value.createRecords(callStackWriter);
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        jgen.writeEndArray();
+
+        jgen.writeObjectField("callStackIndex", viewModel.getCallStackIndex());
+        jgen.writeStringField("applicationName", viewModel.getApplicationName());
+        jgen.writeStringField("transactionId", viewModel.getTransactionId());
+        jgen.writeStringField("agentId", viewModel.getAgentId());
+        jgen.writeStringField("applicationId", viewModel.getApplicationId());
+        jgen.writeNumberField("callStackStart", viewModel.getCallStackStart());
+        jgen.writeNumberField("callStackEnd", viewModel.getCallStackEnd());
+        jgen.writeStringField("completeState", viewModel.getCompleteState());
+        jgen.writeBooleanField("logLinkEnable", viewModel.isLogLinkEnable());
+        jgen.writeBooleanField("loggingTransactionInfo", viewModel.isLoggingTransactionInfo());
+        jgen.writeStringField("logButtonName", viewModel.getLogButtonName());
+        jgen.writeStringField("logPageUrl", viewModel.getLogPageUrl());
+        jgen.writeStringField("disableButtonMessage", viewModel.getDisableButtonMessage());
+        jgen.writeObjectField("applicationMapData", viewModel.getApplicationMapData());
+
+        jgen.writeEndObject();
+    }
+
+    private class CallStackWriter implements Consumer<Record> {
+        private final JsonGenerator jgen;
+        private final SerializerProvider provider;
+        private long barRatio;
+        private int rows;
+
+        private CallStackWriter(JsonGenerator jgen, SerializerProvider provider) {
+            this.jgen = jgen;
+            this.provider = provider;
+        }
+
+        @Override
+        public void accept(Record record) {
+            if (rows == 0) {
+                barRatio = TransactionInfoViewModel.getBarRatio(record);
+            }
+            try {
+                callStackSerializer.serialize(new TransactionInfoViewModel.CallStack(record, barRatio), jgen, provider);
+                if (++rows % FLUSH_ROWS == 0) {
+                    jgen.flush();
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+}
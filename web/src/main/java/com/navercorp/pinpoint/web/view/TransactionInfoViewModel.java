@@ -147,13 +147,7 @@ public class TransactionInfoViewModel {
         long barRatio = 0;
         for(Record record : recordSet.getRecordList()) {
             if(first) {
-                if(record.isMethod()) {
-                    long begin = record.getBegin();
-                    long end = record.getBegin() + record.getElapsed();
-                    if(end  - begin > 0) {
-                        barRatio = 100 / (end - begin);
-                    }
-                }
+                barRatio = getBarRatio(record);
                 first = false;
             }
             list.add(new CallStack(record, barRatio));
@@ -162,6 +156,17 @@ public class TransactionInfoViewModel {
         return list;
     }
 
+    static long getBarRatio(Record firstRecord) {
+        if(firstRecord.isMethod()) {
+            long begin = firstRecord.getBegin();
+            long end = firstRecord.getBegin() + firstRecord.getElapsed();
+            if(end  - begin > 0) {
+                return 100 / (end - begin);
+            }
+        }
+        return 0;
+    }
+
     @JsonProperty("applicationMapData")
     public Map<String, List<Object>> getApplicationMapData() {
         Map<String, List<Object>> result = new HashMap<String, List<Object>>();
@@ -0,0 +1,112 @@
+/*
+ * Copyright 2019 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.navercorp.pinpoint.web.vo;
+
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Agents added, changed or removed since a version of the agent directory.
+ * <p>
+ * If the requested version is unknown or too old, {@code full} is set and {@code agents} holds every agent instead.
+ */
+public class AgentDirectoryChanges {
+
+    private final long version;
+    private final boolean full;
+    private final List<AgentInfo> agents;
+    private final List<RemovedAgent> removedAgents;
+
+    public AgentDirectoryChanges(long version, boolean full, List<AgentInfo> agents, List<RemovedAgent> removedAgents) {
+        this.version = version;
+        this.full = full;
+        this.agents = Objects.requireNonNull(agents, "agents must not be null");
+        this.removedAgents = Objects.requireNonNull(removedAgents, "removedAgents must not be null");
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public boolean isFull() {
+        return full;
+    }
+
+    public List<AgentInfo> getAgents() {
+        return agents;
+    }
+
+    public List<RemovedAgent> getRemovedAgents() {
+        return removedAgents;
+    }
+
+    @Override
+    public String toString() {
+        return "AgentDirectoryChanges{" +
+                "version=" + version +
+                ", full=" + full +
+                ", agents=" + agents.size() +
+                ", removedAgents=" + removedAgents.size() +
+                '}';
+    }
+
+    public static class RemovedAgent {
+
+        private final String applicationName;
+        private final String agentId;
+
+        public RemovedAgent(String applicationName, String agentId) {
+            this.applicationName = applicationName;
+            this.agentId = agentId;
+        }
+
+        public String getApplicationName() {
+            return applicationName;
+        }
+
+        public String getAgentId() {
+            return agentId;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+
+            RemovedAgent that = (RemovedAgent) o;
+
+            if (applicationName != null ? !applicationName.equals(that.applicationName) : that.applicationName != null) return false;
+            return agentId != null ? agentId.equals(that.agentId) : that.agentId == null;
+        }
+
+        @Override
+        public int hashCode() {
+            int result = applicationName != null ? applicationName.hashCode() : 0;
+            result = 31 * result + (agentId != null ? agentId.hashCode() : 0);
+            return result;
+        }
+
+        @Override
+        public String toString() {
+            return "RemovedAgent{" +
+                    "applicationName='" + applicationName + '\'' +
+                    ", agentId='" + agentId + '\'' +
+                    '}';
+        }
+    }
+}
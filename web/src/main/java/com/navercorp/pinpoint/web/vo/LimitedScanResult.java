@@ -26,6 +26,7 @@ public class LimitedScanResult<V> {
 
     private long limitedTime;
     private V data;
+    private TraceIndexCursor cursor;
 
     public V getScanData() {
         return data;
@@ -43,10 +44,22 @@ public class LimitedScanResult<V> {
         this.limitedTime = limitedTime;
     }
 
+    /**
+     * Returns the position to resume the scan from, or {@code null} if the range has been scanned to the end.
+     */
+    public TraceIndexCursor getCursor() {
+        return cursor;
+    }
+
+    public void setCursor(TraceIndexCursor cursor) {
+        this.cursor = cursor;
+    }
+
     @Override
     public String toString() {
         final StringBuilder sb = new StringBuilder("LimitedScanResult{");
         sb.append("limitedTime=").append(limitedTime);
+        sb.append(", cursor=").append(cursor);
         sb.append(", data=").append(data);
         sb.append('}');
         return sb.toString();
@@ -0,0 +1,125 @@
+/*
+ * Copyright 2019 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.navercorp.pinpoint.web.vo;
+
+import com.navercorp.pinpoint.common.trace.HistogramSchema;
+import com.navercorp.pinpoint.common.trace.ServiceType;
+import com.navercorp.pinpoint.web.applicationmap.histogram.ColumnarHistogram;
+import com.navercorp.pinpoint.web.applicationmap.histogram.Histogram;
+import com.navercorp.pinpoint.web.applicationmap.histogram.TimeHistogram;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * The response times of an application over a range, one {@link ColumnarHistogram} row per timestamp
+ * with one column per agent. Same data as a list of {@link ResponseTime}, without a histogram object per agent and minute.
+ */
+public class ResponseTimeColumns {
+
+    private final ServiceType applicationServiceType;
+    private final HistogramSchema schema;
+
+    // column index of each agent
+    private final Map<String, Integer> agentIndexMap = new HashMap<>();
+    private final List<String> agentIds = new ArrayList<>();
+
+    private final Map<Long, ColumnarHistogram> rows = new HashMap<>();
+
+    public ResponseTimeColumns(ServiceType applicationServiceType) {
+        this.applicationServiceType = Objects.requireNonNull(applicationServiceType, "applicationServiceType must not be null");
+        this.schema = applicationServiceType.getHistogramSchema();
+    }
+
+    public ServiceType getApplicationServiceType() {
+        return applicationServiceType;
+    }
+
+    public int getAgentIndex(String agentId) {
+        if (agentId == null) {
+            throw new NullPointerException("agentId must not be null");
+        }
+        Integer agentIndex = agentIndexMap.get(agentId);
+        if (agentIndex == null) {
+            agentIndex = agentIds.size();
+            agentIndexMap.put(agentId, agentIndex);
+            agentIds.add(agentId);
+        }
+        return agentIndex;
+    }
+
+    public void addResponseTime(long timeStamp, int agentIndex, short slotTime, long count) {
+        getRow(timeStamp).addCallCount(agentIndex, slotTime, count);
+    }
+
+    public void addResponseTime(long timeStamp, String agentId, short slotTime, long count) {
+        addResponseTime(timeStamp, getAgentIndex(agentId), slotTime, count);
+    }
+
+    public void addResponseTime(ResponseTime responseTime) {
+        if (responseTime == null) {
+            throw new NullPointerException("responseTime must not be null");
+        }
+        final ColumnarHistogram row = getRow(responseTime.getTimeStamp());
+        for (Map.Entry<String, TimeHistogram> entry : responseTime.getAgentHistogram()) {
+            final int agentIndex = getAgentIndex(entry.getKey());
+            final Histogram histogram = entry.getValue();
+            row.addCallCount(agentIndex, schema.getFastSlot().getSlotTime(), histogram.getFastCount());
+            row.addCallCount(agentIndex, schema.getNormalSlot().getSlotTime(), histogram.getNormalCount());
+            row.addCallCount(agentIndex, schema.getSlowSlot().getSlotTime(), histogram.getSlowCount());
+            row.addCallCount(agentIndex, schema.getVerySlowSlot().getSlotTime(), histogram.getVerySlowCount());
+            row.addCallCount(agentIndex, schema.getErrorSlot().getSlotTime(), histogram.getErrorCount());
+            row.addCallCount(agentIndex, schema.getFastErrorSlot().getSlotTime(), histogram.getFastErrorCount());
+            row.addCallCount(agentIndex, schema.getNormalErrorSlot().getSlotTime(), histogram.getNormalErrorCount());
+            row.addCallCount(agentIndex, schema.getSlowErrorSlot().getSlotTime(), histogram.getSlowErrorCount());
+            row.addCallCount(agentIndex, schema.getVerySlowErrorSlot().getSlotTime(), histogram.getVerySlowErrorCount());
+        }
+    }
+
+    private ColumnarHistogram getRow(long timeStamp) {
+        return rows.computeIfAbsent(timeStamp, key -> new ColumnarHistogram(schema, agentIds.size()));
+    }
+
+    public List<String> getAgentIds() {
+        return Collections.unmodifiableList(agentIds);
+    }
+
+    /**
+     * @return rows keyed by timestamp
+     */
+    public Map<Long, ColumnarHistogram> getRows() {
+        return Collections.unmodifiableMap(rows);
+    }
+
+    public boolean isEmpty() {
+        return rows.isEmpty();
+    }
+
+    @Override
+    public String toString() {
+        return "ResponseTimeColumns{" +
+                "applicationServiceType=" + applicationServiceType +
+                ", agents=" + agentIds.size() +
+                ", rows=" + rows.size() +
+                '}';
+    }
+}
@@ -0,0 +1,110 @@
+/*
+ * Copyright 2019 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.navercorp.pinpoint.web.vo;
+
+import com.navercorp.pinpoint.common.buffer.AutomaticBuffer;
+import com.navercorp.pinpoint.common.buffer.Buffer;
+import com.navercorp.pinpoint.common.buffer.FixedBuffer;
+
+import java.util.Arrays;
+import java.util.Base64;
+
+/**
+ * Position in the application trace index, pointing at the last transaction returned by a scan.
+ * A scan resumed from a cursor starts with the transaction right after it, so no row is read twice.
+ */
+public final class TraceIndexCursor {
+
+    private static final byte VERSION = 0;
+
+    private final long timestamp;
+    private final byte[] qualifier;
+
+    public TraceIndexCursor(long timestamp, byte[] qualifier) {
+        if (qualifier == null) {
+            throw new NullPointerException("qualifier must not be null");
+        }
+        this.timestamp = timestamp;
+        this.qualifier = qualifier;
+    }
+
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    public byte[] getQualifier() {
+        return qualifier;
+    }
+
+    public String encode() {
+        final Buffer buffer = new AutomaticBuffer(16 + qualifier.length);
+        buffer.putByte(VERSION);
+        buffer.putVLong(timestamp);
+        buffer.putPrefixedBytes(qualifier);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(buffer.copyBuffer());
+    }
+
+    public static TraceIndexCursor decode(String cursor) {
+        if (cursor == null) {
+            throw new NullPointerException("cursor must not be null");
+        }
+        try {
+            final Buffer buffer = new FixedBuffer(Base64.getUrlDecoder().decode(cursor));
+            final byte version = buffer.readByte();
+            if (version != VERSION) {
+                throw new IllegalArgumentException("unsupported cursor version:" + version);
+            }
+            final long timestamp = buffer.readVLong();
+            final byte[] qualifier = buffer.readPrefixedBytes();
+            if (qualifier == null || buffer.hasRemaining()) {
+                throw new IllegalArgumentException("invalid cursor:" + cursor);
+            }
+            return new TraceIndexCursor(timestamp, qualifier);
+        } catch (IllegalArgumentException e) {
+            throw e;
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("invalid cursor:" + cursor, e);
+        }
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+
+        TraceIndexCursor that = (TraceIndexCursor) o;
+
+        if (timestamp != that.timestamp) return false;
+        return Arrays.equals(qualifier, that.qualifier);
+    }
+
+    @Override
+    public int hashCode() {
+        int result = (int) (timestamp ^ (timestamp >>> 32));
+        result = 31 * result + Arrays.hashCode(qualifier);
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return "TraceIndexCursor{" +
+                "timestamp=" + timestamp +
+                ", qualifier=" + Arrays.toString(qualifier) +
+                '}';
+    }
+}
@@ -98,6 +98,7 @@ public class ApplicationMapBuilderTest {
             }
         };
         when(mapResponseDao.selectResponseTime(any(Application.class), any(Range.class))).thenAnswer(responseTimeAnswer);
+        when(mapResponseDao.selectResponseTimeColumns(any(Application.class), any(Range.class))).thenCallRealMethod();
         when(responseHistograms.getResponseTimeList(any(Application.class))).thenAnswer(responseTimeAnswer);
 
         when(agentInfoService.getAgentsByApplicationName(anyString(), anyLong())).thenAnswer(new Answer<Set<AgentInfo>>() {
@@ -0,0 +1,153 @@
+/*
+ * Copyright 2019 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.navercorp.pinpoint.web.applicationmap.histogram;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.navercorp.pinpoint.common.trace.BaseHistogramSchema;
+import com.navercorp.pinpoint.common.trace.HistogramSchema;
+import com.navercorp.pinpoint.common.trace.HistogramSlot;
+import com.navercorp.pinpoint.common.trace.ServiceType;
+import com.navercorp.pinpoint.common.trace.SlotType;
+import com.navercorp.pinpoint.web.view.AgentResponseTimeViewModel;
+import com.navercorp.pinpoint.web.vo.Application;
+import com.navercorp.pinpoint.web.vo.Range;
+import com.navercorp.pinpoint.web.vo.ResponseTime;
+import com.navercorp.pinpoint.web.vo.ResponseTimeColumns;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeSet;
+
+public class ColumnarHistogramTest {
+
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    private final HistogramSchema schema = ServiceType.STAND_ALONE.getHistogramSchema();
+
+    private final List<HistogramSlot> slots = Arrays.asList(schema.getFastSlot(), schema.getNormalSlot(), schema.getSlowSlot(), schema.getVerySlowSlot(),
+            schema.getErrorSlot(), schema.getFastErrorSlot(), schema.getNormalErrorSlot(), schema.getSlowErrorSlot(), schema.getVerySlowErrorSlot());
+
+    @Test
+    public void sameSlotsAsHistogram() {
+        ColumnarHistogram columnarHistogram = new ColumnarHistogram(schema, 0);
+        Histogram histogram = new Histogram(schema);
+        long count = 1;
+        for (HistogramSlot slot : slots) {
+            columnarHistogram.addCallCount(2, slot.getSlotTime(), count);
+            histogram.addCallCount(slot.getSlotTime(), count);
+            count *= 2;
+        }
+
+        Assert.assertEquals(3, columnarHistogram.getWidth());
+        assertHistogram(histogram, columnarHistogram.getHistogram(2));
+        assertHistogram(histogram, columnarHistogram.mergeColumns());
+        assertHistogram(new Histogram(schema), columnarHistogram.getHistogram(0));
+        assertHistogram(new Histogram(schema), columnarHistogram.getHistogram(5));
+    }
+
+    @Test
+    public void add() {
+        ColumnarHistogram row1 = new ColumnarHistogram(schema, 1);
+        row1.addCallCount(0, schema.getFastSlot().getSlotTime(), 1);
+        ColumnarHistogram row2 = new ColumnarHistogram(schema, 2);
+        row2.addCallCount(0, schema.getFastSlot().getSlotTime(), 2);
+        row2.addCallCount(1, schema.getSlowErrorSlot().getSlotTime(), 3);
+
+        row1.add(row2);
+
+        Assert.assertEquals(2, row1.getWidth());
+        Assert.assertEquals(3, row1.getHistogram(0).getFastCount());
+        Assert.assertEquals(3, row1.getHistogram(1).getSlowErrorCount());
+        Assert.assertEquals(6, row1.mergeColumns().getTotalCount());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void addOtherSchema() {
+        ColumnarHistogram columnarHistogram = new ColumnarHistogram(schema, 1);
+        columnarHistogram.add(new ColumnarHistogram(BaseHistogramSchema.FAST_SCHEMA, 1));
+    }
+
+    @Test
+    public void sameNodeHistogram() throws Exception {
+        Application application = new Application("test", ServiceType.STAND_ALONE);
+        Range range = new Range(0, 60 * 60 * 1000);
+        Random random = new Random(1);
+
+        List<ResponseTime> responseTimeList = new ArrayList<>();
+        ResponseTimeColumns responseTimeColumns = new ResponseTimeColumns(application.getServiceType());
+        for (long timeStamp = 0; timeStamp <= range.getTo(); timeStamp += 60 * 1000) {
+            ResponseTime responseTime = new ResponseTime(application.getName(), application.getServiceType(), timeStamp);
+            for (int agent = 0; agent < 20; agent++) {
+                if (random.nextInt(4) == 0) {
+                    continue;
+                }
+                HistogramSlot slot = slots.get(random.nextInt(slots.size()));
+                long count = random.nextInt(1000) + 1;
+                responseTime.addResponseTime("agent-" + agent, slot.getSlotTime(), count);
+                responseTimeColumns.addResponseTime(timeStamp, "agent-" + agent, slot.getSlotTime(), count);
+            }
+            responseTimeList.add(responseTime);
+        }
+
+        NodeHistogram expected = new NodeHistogram(application, range, responseTimeList);
+        NodeHistogram actual = new NodeHistogram(application, range, responseTimeColumns);
+
+        assertHistogram(expected.getApplicationHistogram(), actual.getApplicationHistogram());
+        Assert.assertEquals(expected.getAgentHistogramMap().keySet(), actual.getAgentHistogramMap().keySet());
+        for (Map.Entry<String, Histogram> entry : expected.getAgentHistogramMap().entrySet()) {
+            assertHistogram(entry.getValue(), actual.getAgentHistogramMap().get(entry.getKey()));
+        }
+        Assert.assertEquals(mapper.writeValueAsString(expected.getApplicationTimeHistogram()), mapper.writeValueAsString(actual.getApplicationTimeHistogram()));
+        Assert.assertEquals(toJson(expected.getAgentTimeHistogram().getAgentResponseTimeViewModelList()), toJson(actual.getAgentTimeHistogram().getAgentResponseTimeViewModelList()));
+    }
+
+    @Test
+    public void fromResponseTime() {
+        ResponseTime responseTime = new ResponseTime("test", ServiceType.STAND_ALONE, 1000);
+        for (HistogramSlot slot : slots) {
+            responseTime.addResponseTime("agent", slot.getSlotTime(), 3);
+        }
+        ResponseTimeColumns responseTimeColumns = new ResponseTimeColumns(ServiceType.STAND_ALONE);
+        responseTimeColumns.addResponseTime(responseTime);
+
+        Assert.assertEquals(Arrays.asList("agent"), responseTimeColumns.getAgentIds());
+        assertHistogram(responseTime.findHistogram("agent"), responseTimeColumns.getRows().get(1000L).getHistogram(0));
+    }
+
+    private Set<String> toJson(List<AgentResponseTimeViewModel> viewModelList) throws Exception {
+        Set<String> jsonSet = new TreeSet<>();
+        for (AgentResponseTimeViewModel viewModel : viewModelList) {
+            jsonSet.add(viewModel.getAgentName() + mapper.writeValueAsString(viewModel.getResponseTimeViewModel()));
+        }
+        return jsonSet;
+    }
+
+    private void assertHistogram(Histogram expected, Histogram actual) {
+        for (SlotType slotType : SlotType.values()) {
+            Assert.assertEquals(slotType.name(), expected.getCount(slotType), actual.getCount(slotType));
+        }
+        Assert.assertEquals(expected.getErrorCount(), actual.getErrorCount());
+        Assert.assertEquals(expected.getTotalCount(), actual.getTotalCount());
+    }
+}
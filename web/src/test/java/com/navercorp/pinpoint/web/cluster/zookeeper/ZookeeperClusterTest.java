@@ -16,6 +16,7 @@
 
 package com.navercorp.pinpoint.web.cluster.zookeeper;
 
+import com.navercorp.pinpoint.common.server.cluster.zookeeper.AgentShardCodec;
 import com.navercorp.pinpoint.common.server.cluster.zookeeper.exception.PinpointZookeeperException;
 import com.navercorp.pinpoint.common.util.NetUtils;
 import com.navercorp.pinpoint.rpc.client.PinpointClient;
@@ -38,6 +39,8 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.util.SocketUtils;
 
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 
 /**
@@ -174,6 +177,52 @@ public class ZookeeperClusterTest {
         }
     }
 
+    @Test
+    public void shardedRegistryTest() throws Exception {
+        ZooKeeper zookeeper = null;
+        ZookeeperClusterDataManager manager = null;
+        try {
+            final String shardParentPath = AgentShardCodec.AGENT_SHARD_PATH + "/test";
+            zookeeper = new ZooKeeper(DEFAULT_IP + ":" + zookeeperPort, 5000, null);
+            createPath(zookeeper, shardParentPath, true);
+            zookeeper.create(shardParentPath + "/0", AgentShardCodec.encode(Arrays.asList("a:b:1", "a:c:1")), Ids.OPEN_ACL_UNSAFE, CreateMode.EPHEMERAL);
+            createPath(zookeeper, COLLECTOR_TEST_NODE_PATH, true);
+            zookeeper.setData(COLLECTOR_TEST_NODE_PATH, AgentShardCodec.getShardedMarker(), -1);
+
+            manager = new ZookeeperClusterDataManager(DEFAULT_IP + ":" + zookeeperPort, 5000, 60000);
+            manager.start();
+            awaitClusterManagerConnected(manager);
+
+            awaitCheckAgentRegistered(manager, "a", "b", 1L);
+            Assert.assertEquals(Collections.singletonList("test"), manager.getRegisteredAgentList("a", "c", 1L));
+
+            // a new shard
+            zookeeper.create(shardParentPath + "/1", AgentShardCodec.encode(Collections.singletonList("d:e:2")), Ids.OPEN_ACL_UNSAFE, CreateMode.EPHEMERAL);
+            awaitCheckAgentRegistered(manager, "d", "e", 2L);
+
+            // a changed shard only touches its own agents
+            zookeeper.setData(shardParentPath + "/0", AgentShardCodec.encode(Collections.singletonList("a:b:1")), -1);
+            awaitCheckAgentUnRegistered(manager, "a", "c", 1L);
+            Assert.assertEquals(Collections.singletonList("test"), manager.getRegisteredAgentList("a", "b", 1L));
+            Assert.assertEquals(Collections.singletonList("test"), manager.getRegisteredAgentList("d", "e", 2L));
+
+            zookeeper.delete(shardParentPath + "/1", -1);
+            awaitCheckAgentUnRegistered(manager, "d", "e", 2L);
+            Assert.assertEquals(Collections.singletonList("test"), manager.getRegisteredAgentList("a", "b", 1L));
+
+            zookeeper.delete(COLLECTOR_TEST_NODE_PATH, -1);
+            awaitCheckAgentUnRegistered(manager, "a", "b", 1L);
+        } finally {
+            if (zookeeper != null) {
+                zookeeper.close();
+            }
+
+            if (manager != null) {
+                manager.stop();
+            }
+        }
+    }
+
     private void awaitClusterManagerConnected(final ZookeeperClusterDataManager manager) {
         boolean await = awaitUtils.await(new TestAwaitTaskUtils() {
             @Override
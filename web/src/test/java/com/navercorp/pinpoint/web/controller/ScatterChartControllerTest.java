@@ -0,0 +1,44 @@
+/*
+ * Copyright 2019 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.navercorp.pinpoint.web.controller;
+
+import com.navercorp.pinpoint.web.service.AsyncQueryService;
+import org.junit.Assert;
+import org.junit.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.servlet.ModelAndView;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+
+public class ScatterChartControllerTest {
+
+    @Test
+    public void rejectedScatterData() throws Exception {
+        ScatterChartController controller = new ScatterChartController();
+        AsyncQueryService asyncQueryService = new AsyncQueryService(command -> {
+            throw new RejectedExecutionException("queue full");
+        }, true, true);
+        ReflectionTestUtils.setField(controller, "asyncQueryService", asyncQueryService);
+
+        CompletableFuture<ModelAndView> future = controller.getScatterData("app", 1000, 2000, 100, 1, 5000, true, null, null, null, 1);
+
+        // answered with 503 by ControllerExceptionHandler
+        Throwable cause = future.handle((value, throwable) -> throwable).get();
+        Assert.assertTrue(cause instanceof RejectedExecutionException);
+    }
+}
@@ -0,0 +1,121 @@
+/*
+ * Copyright 2019 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.navercorp.pinpoint.web.dao.hbase;
+
+import com.sematext.hbase.wd.AbstractRowKeyDistributor;
+import com.sematext.hbase.wd.RowKeyDistributorByHashPrefix;
+import org.apache.hadoop.hbase.Cell;
+import org.apache.hadoop.hbase.KeyValue;
+import org.apache.hadoop.hbase.client.Result;
+import org.apache.hadoop.hbase.client.ResultScanner;
+import org.apache.hadoop.hbase.util.Bytes;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class TraceIndexMergeScannerTest {
+
+    private final AbstractRowKeyDistributor distributor = new RowKeyDistributorByHashPrefix(new RowKeyDistributorByHashPrefix.OneByteSimpleHash(4));
+
+    @Test
+    public void mergeAscending() throws IOException {
+        ResultScanner scanner1 = scanner(1, 4, 5);
+        ResultScanner scanner2 = scanner(2, 3);
+        ResultScanner scanner3 = scanner();
+
+        TraceIndexMergeScanner mergeScanner = new TraceIndexMergeScanner(distributor, new ResultScanner[]{scanner1, scanner2, scanner3}, true);
+
+        Assert.assertEquals(list(1, 2, 3, 4, 5), readAll(mergeScanner));
+    }
+
+    @Test
+    public void mergeDescending() throws IOException {
+        ResultScanner scanner1 = scanner(9, 3);
+        ResultScanner scanner2 = scanner(8, 7, 1);
+
+        TraceIndexMergeScanner mergeScanner = new TraceIndexMergeScanner(distributor, new ResultScanner[]{scanner1, scanner2}, false);
+
+        Assert.assertEquals(list(9, 8, 7, 3, 1), readAll(mergeScanner));
+    }
+
+    @Test
+    public void readOnDemand() throws IOException {
+        ResultScanner scanner1 = scanner(1, 2, 3);
+        ResultScanner scanner2 = scanner(10, 11);
+
+        TraceIndexMergeScanner mergeScanner = new TraceIndexMergeScanner(distributor, new ResultScanner[]{scanner1, scanner2}, true);
+        mergeScanner.next();
+
+        // the head of every partition plus the row replacing the consumed one
+        verify(scanner1, times(2)).next();
+        verify(scanner2, times(1)).next();
+    }
+
+    @Test
+    public void close() throws IOException {
+        ResultScanner scanner1 = scanner(1);
+
+        TraceIndexMergeScanner mergeScanner = new TraceIndexMergeScanner(distributor, new ResultScanner[]{scanner1, null}, true);
+        mergeScanner.close();
+
+        verify(scanner1).close();
+    }
+
+    private List<Long> readAll(TraceIndexMergeScanner mergeScanner) throws IOException {
+        List<Long> rows = new ArrayList<>();
+        Result result;
+        while ((result = mergeScanner.next()) != null) {
+            rows.add(Bytes.toLong(mergeScanner.getOriginalRow(result)));
+        }
+        return rows;
+    }
+
+    private ResultScanner scanner(long... originalRows) throws IOException {
+        ResultScanner scanner = mock(ResultScanner.class);
+        Result[] results = new Result[originalRows.length + 1];
+        for (int i = 0; i < originalRows.length; i++) {
+            byte[] row = distributor.getDistributedKey(Bytes.toBytes(originalRows[i]));
+            Cell cell = new KeyValue(row, Bytes.toBytes("I"), Bytes.toBytes("q"), Bytes.toBytes("v"));
+            results[i] = Result.create(new Cell[]{cell});
+        }
+        if (results.length == 1) {
+            when(scanner.next()).thenReturn(null);
+        } else {
+            Result[] rest = new Result[results.length - 1];
+            System.arraycopy(results, 1, rest, 0, rest.length);
+            when(scanner.next()).thenReturn(results[0], rest);
+        }
+        return scanner;
+    }
+
+    private List<Long> list(long... values) {
+        List<Long> list = new ArrayList<>();
+        for (long value : values) {
+            list.add(value);
+        }
+        return list;
+    }
+}
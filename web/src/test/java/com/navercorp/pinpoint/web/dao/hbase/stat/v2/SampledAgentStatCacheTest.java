@@ -0,0 +1,223 @@
+/*
+ * Copyright 2019 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.navercorp.pinpoint.web.dao.hbase.stat.v2;
+
+import com.navercorp.pinpoint.common.server.bo.JvmGcType;
+import com.navercorp.pinpoint.common.server.bo.stat.AgentStatType;
+import com.navercorp.pinpoint.web.util.TimeWindow;
+import com.navercorp.pinpoint.web.vo.Range;
+import com.navercorp.pinpoint.web.vo.stat.SampledAgentStatDataPoint;
+import com.navercorp.pinpoint.web.vo.stat.SampledCpuLoad;
+import com.navercorp.pinpoint.web.vo.stat.SampledJvmGc;
+import com.navercorp.pinpoint.web.vo.stat.chart.agent.AgentStatPoint;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+public class SampledAgentStatCacheTest {
+
+    private static final long SLOT_SIZE = 5000;
+    private static final int SLOTS_PER_BLOCK = 10;
+    private static final long BLOCK_SIZE = SLOT_SIZE * SLOTS_PER_BLOCK;
+    private static final long CLOSE_DELAY = 60000;
+
+    private final AtomicLong currentTime = new AtomicLong();
+    private final List<TimeWindow> loadedWindows = new ArrayList<>();
+    private File spillDirectory;
+
+    @Before
+    public void setUp() throws Exception {
+        spillDirectory = Files.createTempDirectory("statChartCache").toFile();
+    }
+
+    @After
+    public void tearDown() {
+        File[] files = spillDirectory.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                file.delete();
+            }
+        }
+        spillDirectory.delete();
+    }
+
+    @Test
+    public void cacheClosedBlocks() {
+        SampledAgentStatCache cache = newCache(1024 * 1024, null);
+        currentTime.set(BLOCK_SIZE * 10);
+        TimeWindow timeWindow = newTimeWindow(BLOCK_SIZE * 2 + SLOT_SIZE * 3, BLOCK_SIZE * 5);
+
+        List<SampledCpuLoad> first = cache.getSampledAgentStatList(AgentStatType.CPU_LOAD, "agent", timeWindow, this::loadCpuLoad);
+        Assert.assertEquals(4, loadedWindows.size());
+        assertCpuLoads(timeWindow, first);
+
+        List<SampledCpuLoad> second = cache.getSampledAgentStatList(AgentStatType.CPU_LOAD, "agent", timeWindow, this::loadCpuLoad);
+        Assert.assertEquals(4, loadedWindows.size());
+        assertCpuLoads(timeWindow, second);
+
+        Map<String, Object> stats = cache.getStats();
+        Assert.assertEquals(8L, stats.get("requests"));
+        Assert.assertEquals(4L, stats.get("hits"));
+        Assert.assertEquals(4L, stats.get("misses"));
+    }
+
+    @Test
+    public void sampleOpenBlocks() {
+        SampledAgentStatCache cache = newCache(1024 * 1024, null);
+        // the block from BLOCK_SIZE * 2 closes at BLOCK_SIZE * 3 + CLOSE_DELAY
+        currentTime.set(BLOCK_SIZE * 3 + CLOSE_DELAY - 1);
+        TimeWindow timeWindow = newTimeWindow(BLOCK_SIZE, BLOCK_SIZE * 3 + SLOT_SIZE * 4);
+
+        assertCpuLoads(timeWindow, cache.getSampledAgentStatList(AgentStatType.CPU_LOAD, "agent", timeWindow, this::loadCpuLoad));
+        assertCpuLoads(timeWindow, cache.getSampledAgentStatList(AgentStatType.CPU_LOAD, "agent", timeWindow, this::loadCpuLoad));
+        // one closed block, and the open slots twice
+        Assert.assertEquals(3, loadedWindows.size());
+        TimeWindow openWindow = loadedWindows.get(2);
+        Assert.assertEquals(BLOCK_SIZE * 2 - SLOT_SIZE, openWindow.getWindowRange().getFrom());
+        Assert.assertEquals(timeWindow.getWindowRange().getTo(), openWindow.getWindowRange().getTo());
+
+        currentTime.set(BLOCK_SIZE * 3 + CLOSE_DELAY);
+        assertCpuLoads(timeWindow, cache.getSampledAgentStatList(AgentStatType.CPU_LOAD, "agent", timeWindow, this::loadCpuLoad));
+        // the closed block, then the open slots
+        Assert.assertEquals(5, loadedWindows.size());
+        Assert.assertEquals(BLOCK_SIZE * 3 - SLOT_SIZE, loadedWindows.get(4).getWindowRange().getFrom());
+    }
+
+    @Test
+    public void separateKeys() {
+        SampledAgentStatCache cache = newCache(1024 * 1024, null);
+        currentTime.set(BLOCK_SIZE * 10);
+        TimeWindow timeWindow = newTimeWindow(0, BLOCK_SIZE - SLOT_SIZE);
+
+        cache.getSampledAgentStatList(AgentStatType.CPU_LOAD, "agent1", timeWindow, this::loadCpuLoad);
+        cache.getSampledAgentStatList(AgentStatType.CPU_LOAD, "agent2", timeWindow, this::loadCpuLoad);
+        TimeWindow coarseWindow = new TimeWindow(new Range(0, BLOCK_SIZE * 2 - SLOT_SIZE * 2), range -> SLOT_SIZE * 2);
+        cache.getSampledAgentStatList(AgentStatType.CPU_LOAD, "agent1", coarseWindow, this::loadCpuLoad);
+        Assert.assertEquals(3, loadedWindows.size());
+    }
+
+    @Test
+    public void spill() {
+        // every block is evicted as soon as it is cached
+        SampledAgentStatCache cache = newCache(1, spillDirectory);
+        currentTime.set(BLOCK_SIZE * 10);
+        TimeWindow timeWindow = newTimeWindow(0, BLOCK_SIZE - SLOT_SIZE);
+
+        assertCpuLoads(timeWindow, cache.getSampledAgentStatList(AgentStatType.CPU_LOAD, "agent", timeWindow, this::loadCpuLoad));
+        Assert.assertEquals(1, spillDirectory.listFiles().length);
+
+        assertCpuLoads(timeWindow, cache.getSampledAgentStatList(AgentStatType.CPU_LOAD, "agent", timeWindow, this::loadCpuLoad));
+        Assert.assertEquals(1, loadedWindows.size());
+        Assert.assertEquals(1L, cache.getStats().get("spillHits"));
+        Assert.assertEquals(2L, cache.getStats().get("evictions"));
+        Assert.assertEquals(1, spillDirectory.listFiles().length);
+
+        cache.destroy();
+        Assert.assertEquals(0, spillDirectory.listFiles().length);
+    }
+
+    @Test
+    public void disabled() {
+        SampledAgentStatCache cache = new SampledAgentStatCache(false, 1024, SLOTS_PER_BLOCK, CLOSE_DELAY, null, 0, currentTime::get);
+        currentTime.set(BLOCK_SIZE * 10);
+        TimeWindow timeWindow = newTimeWindow(0, BLOCK_SIZE * 2);
+
+        cache.getSampledAgentStatList(AgentStatType.CPU_LOAD, "agent", timeWindow, this::loadCpuLoad);
+        cache.getSampledAgentStatList(AgentStatType.CPU_LOAD, "agent", timeWindow, this::loadCpuLoad);
+        Assert.assertEquals(2, loadedWindows.size());
+        Assert.assertSame(timeWindow, loadedWindows.get(0));
+    }
+
+    @Test
+    public void noCodec() {
+        SampledAgentStatCache cache = newCache(1024 * 1024, null);
+        currentTime.set(BLOCK_SIZE * 10);
+        TimeWindow timeWindow = newTimeWindow(0, BLOCK_SIZE * 2);
+        Function<TimeWindow, List<SampledAgentStatDataPoint>> loader = window -> {
+            loadedWindows.add(window);
+            return Collections.emptyList();
+        };
+
+        cache.getSampledAgentStatList(AgentStatType.DATASOURCE, "agent", timeWindow, loader);
+        cache.getSampledAgentStatList(AgentStatType.DATASOURCE, "agent", timeWindow, loader);
+        Assert.assertEquals(2, loadedWindows.size());
+    }
+
+    @Test
+    public void blockRoundTrip() {
+        SampledJvmGc sampledJvmGc = new SampledJvmGc();
+        sampledJvmGc.setJvmGcType(JvmGcType.G1);
+        sampledJvmGc.setHeapUsed(new AgentStatPoint<>(1000L, 1L, 9L, 4.5, 20L));
+        sampledJvmGc.setHeapMax(new AgentStatPoint<>(1000L, Long.MAX_VALUE >> 11));
+        sampledJvmGc.setNonHeapUsed(new AgentStatPoint<Long>(1000L, null, null, null, null));
+        sampledJvmGc.setNonHeapMax(SampledJvmGc.UNCOLLECTED_POINT_CREATOR.createUnCollectedPoint(1000L));
+        sampledJvmGc.setGcOldCount(new AgentStatPoint<>(1000L, 0L));
+        sampledJvmGc.setGcOldTime(new AgentStatPoint<>(1000L, 3L));
+
+        SampledPointCodec<SampledJvmGc> codec = SampledPointCodec.getCodec(AgentStatType.JVM_GC);
+        SampledPointBlock block = SampledPointBlock.encode(codec, Collections.singletonList(sampledJvmGc));
+        List<SampledJvmGc> decoded = new ArrayList<>();
+        block.decode(codec, 0, 1000, decoded);
+
+        Assert.assertEquals(Collections.singletonList(sampledJvmGc), decoded);
+    }
+
+    private SampledAgentStatCache newCache(long maxBytes, File spillDirectory) {
+        return new SampledAgentStatCache(true, maxBytes, SLOTS_PER_BLOCK, CLOSE_DELAY, spillDirectory, 1024 * 1024, currentTime::get);
+    }
+
+    private TimeWindow newTimeWindow(long from, long to) {
+        return new TimeWindow(new Range(from, to), range -> SLOT_SIZE);
+    }
+
+    private List<SampledCpuLoad> loadCpuLoad(TimeWindow timeWindow) {
+        loadedWindows.add(timeWindow);
+        List<SampledCpuLoad> result = new ArrayList<>();
+        for (Long timestamp : timeWindow) {
+            result.add(newCpuLoad(timestamp));
+        }
+        return result;
+    }
+
+    private SampledCpuLoad newCpuLoad(long timestamp) {
+        double value = timestamp / SLOT_SIZE;
+        return new SampledCpuLoad(new AgentStatPoint<>(timestamp, value, value + 1, value + 0.5, value * 2), new AgentStatPoint<>(timestamp, value));
+    }
+
+    private void assertCpuLoads(TimeWindow timeWindow, List<SampledCpuLoad> cpuLoads) {
+        List<SampledCpuLoad> expected = new ArrayList<>();
+        for (Long timestamp : timeWindow) {
+            expected.add(newCpuLoad(timestamp));
+        }
+        Assert.assertEquals(expected.size(), cpuLoads.size());
+        for (int i = 0; i < expected.size(); i++) {
+            Assert.assertEquals(expected.get(i).getJvmCpuLoad(), cpuLoads.get(i).getJvmCpuLoad());
+            Assert.assertEquals(expected.get(i).getSystemCpuLoad(), cpuLoads.get(i).getSystemCpuLoad());
+        }
+    }
+}
@@ -0,0 +1,179 @@
+/*
+ * Copyright 2019 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.navercorp.pinpoint.web.service;
+
+import com.navercorp.pinpoint.common.server.bo.AgentLifeCycleBo;
+import com.navercorp.pinpoint.common.server.util.AgentLifeCycleState;
+import com.navercorp.pinpoint.web.vo.AgentDirectoryChanges;
+import com.navercorp.pinpoint.web.vo.AgentInfo;
+import com.navercorp.pinpoint.web.vo.AgentStatus;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Set;
+
+public class AgentDirectoryTest {
+
+    private static final long INITIAL_VERSION = 100;
+
+    @Test
+    public void index() {
+        AgentDirectory agentDirectory = new AgentDirectory(INITIAL_VERSION, 10);
+        agentDirectory.put(newAgentInfo("agent1", "app1", "host1", 1000));
+        agentDirectory.put(newAgentInfo("agent2", "app1", "host2", 1000));
+        agentDirectory.put(newAgentInfo("agent3", "app2", "host2", 1000));
+
+        Assert.assertEquals(2, agentDirectory.getAgentsByApplicationName("app1").size());
+        Assert.assertEquals(1, agentDirectory.getAgentsByApplicationName("app2").size());
+        Assert.assertEquals(2, agentDirectory.getAgentsByHostName("host2").size());
+        Assert.assertTrue(agentDirectory.getAgentsByHostName("host3").isEmpty());
+
+        // moved to another host
+        agentDirectory.put(newAgentInfo("agent2", "app1", "host3", 1000));
+        Assert.assertEquals(1, agentDirectory.getAgentsByHostName("host2").size());
+        Assert.assertEquals("agent2", agentDirectory.getAgentsByHostName("host3").iterator().next().getAgentId());
+        Assert.assertEquals(3, agentDirectory.size());
+    }
+
+    @Test
+    public void copyOut() {
+        AgentDirectory agentDirectory = new AgentDirectory(INITIAL_VERSION, 10);
+        agentDirectory.put(newAgentInfo("agent1", "app1", "host1", 1000));
+
+        Set<AgentInfo> agentInfos = agentDirectory.getAgentsByApplicationName("app1");
+        agentInfos.iterator().next().getStatus().setState(AgentLifeCycleState.SHUTDOWN);
+
+        AgentInfo agentInfo = agentDirectory.getAgentsByApplicationName("app1").iterator().next();
+        Assert.assertEquals(AgentLifeCycleState.RUNNING, agentInfo.getStatus().getState());
+    }
+
+    @Test
+    public void changes() {
+        AgentDirectory agentDirectory = new AgentDirectory(INITIAL_VERSION, 10);
+        agentDirectory.put(newAgentInfo("agent1", "app1", "host1", 1000));
+        agentDirectory.put(newAgentInfo("agent2", "app1", "host1", 1000));
+        long version = agentDirectory.getVersion();
+        Assert.assertEquals(INITIAL_VERSION + 2, version);
+
+        // same agent, no change
+        agentDirectory.put(newAgentInfo("agent1", "app1", "host1", 1000));
+        Assert.assertEquals(version, agentDirectory.getVersion());
+
+        agentDirectory.put(newAgentInfo("agent3", "app2", "host1", 1000));
+        agentDirectory.retainAll(Arrays.asList(newAgentInfo("agent2", "app1", "host1", 1000), newAgentInfo("agent3", "app2", "host1", 1000)));
+
+        AgentDirectoryChanges changes = agentDirectory.getChanges(version);
+        Assert.assertFalse(changes.isFull());
+        Assert.assertEquals(agentDirectory.getVersion(), changes.getVersion());
+        Assert.assertEquals(1, changes.getAgents().size());
+        Assert.assertEquals("agent3", changes.getAgents().get(0).getAgentId());
+        Assert.assertEquals(Collections.singletonList(new AgentDirectoryChanges.RemovedAgent("app1", "agent1")), changes.getRemovedAgents());
+
+        AgentDirectoryChanges noChanges = agentDirectory.getChanges(changes.getVersion());
+        Assert.assertFalse(noChanges.isFull());
+        Assert.assertTrue(noChanges.getAgents().isEmpty());
+        Assert.assertTrue(noChanges.getRemovedAgents().isEmpty());
+
+        // re-added
+        agentDirectory.put(newAgentInfo("agent1", "app1", "host1", 2000));
+        Assert.assertTrue(agentDirectory.getChanges(version).getRemovedAgents().isEmpty());
+    }
+
+    @Test
+    public void fullChanges() {
+        AgentDirectory agentDirectory = new AgentDirectory(INITIAL_VERSION, 1);
+        agentDirectory.put(newAgentInfo("agent1", "app1", "host1", 1000));
+        agentDirectory.put(newAgentInfo("agent2", "app1", "host1", 1000));
+        agentDirectory.put(newAgentInfo("agent3", "app1", "host1", 1000));
+        long version = agentDirectory.getVersion();
+
+        // unknown versions
+        Assert.assertTrue(agentDirectory.getChanges(-1).isFull());
+        Assert.assertTrue(agentDirectory.getChanges(version + 1).isFull());
+        Assert.assertEquals(3, agentDirectory.getChanges(-1).getAgents().size());
+
+        // the first removal is forgotten
+        agentDirectory.remove("app1", "agent1");
+        agentDirectory.remove("app1", "agent2");
+        Assert.assertTrue(agentDirectory.getChanges(version).isFull());
+        AgentDirectoryChanges changes = agentDirectory.getChanges(version + 1);
+        Assert.assertFalse(changes.isFull());
+        Assert.assertEquals(Collections.singletonList(new AgentDirectoryChanges.RemovedAgent("app1", "agent2")), changes.getRemovedAgents());
+    }
+
+    @Test
+    public void updateStatus() {
+        AgentDirectory agentDirectory = new AgentDirectory(INITIAL_VERSION, 10);
+        agentDirectory.put(newAgentInfo("agent1", "app1", "host1", 1000));
+        long version = agentDirectory.getVersion();
+
+        Assert.assertFalse(agentDirectory.updateStatus(new AgentLifeCycleBo("unknown", 1000, 3000, 1, AgentLifeCycleState.SHUTDOWN)));
+        // event of another run
+        Assert.assertFalse(agentDirectory.updateStatus(new AgentLifeCycleBo("agent1", 500, 3000, 1, AgentLifeCycleState.SHUTDOWN)));
+        // older event
+        Assert.assertTrue(agentDirectory.updateStatus(new AgentLifeCycleBo("agent1", 1000, 1200, 1, AgentLifeCycleState.SHUTDOWN)));
+        Assert.assertEquals(version, agentDirectory.getVersion());
+
+        Assert.assertTrue(agentDirectory.updateStatus(new AgentLifeCycleBo("agent1", 1000, 3000, 2, AgentLifeCycleState.SHUTDOWN)));
+        Assert.assertEquals(version + 1, agentDirectory.getVersion());
+        // applied twice
+        Assert.assertTrue(agentDirectory.updateStatus(new AgentLifeCycleBo("agent1", 1000, 3000, 2, AgentLifeCycleState.SHUTDOWN)));
+        Assert.assertEquals(version + 1, agentDirectory.getVersion());
+
+        AgentStatus status = agentDirectory.getAgentsByApplicationName("app1").iterator().next().getStatus();
+        Assert.assertEquals(AgentLifeCycleState.SHUTDOWN, status.getState());
+        Assert.assertEquals(3000, status.getEventTimestamp());
+    }
+
+    @Test
+    public void sameAgentIdOfTwoApplications() {
+        AgentDirectory agentDirectory = new AgentDirectory(INITIAL_VERSION, 10);
+        agentDirectory.put(newAgentInfo("agent1", "app1", "host1", 1000));
+        agentDirectory.put(newAgentInfo("agent1", "app2", "host2", 2000));
+
+        Assert.assertEquals(2, agentDirectory.size());
+        Assert.assertEquals(1000, agentDirectory.getAgentsByApplicationName("app1").iterator().next().getStartTimestamp());
+        Assert.assertEquals(2000, agentDirectory.getAgentsByApplicationName("app2").iterator().next().getStartTimestamp());
+        Assert.assertEquals(2000, agentDirectory.getLatestStartTimestamp("agent1"));
+
+        // the event applies to the agent of its run only
+        Assert.assertTrue(agentDirectory.updateStatus(new AgentLifeCycleBo("agent1", 1000, 3000, 1, AgentLifeCycleState.SHUTDOWN)));
+        Assert.assertEquals(AgentLifeCycleState.SHUTDOWN, agentDirectory.getAgentsByApplicationName("app1").iterator().next().getStatus().getState());
+        Assert.assertEquals(AgentLifeCycleState.RUNNING, agentDirectory.getAgentsByApplicationName("app2").iterator().next().getStatus().getState());
+
+        agentDirectory.remove("app1", "agent1");
+        Assert.assertTrue(agentDirectory.getAgentsByApplicationName("app1").isEmpty());
+        Assert.assertEquals(1, agentDirectory.getAgentsByApplicationName("app2").size());
+        Assert.assertEquals(1, agentDirectory.getAgentsByHostName("host2").size());
+    }
+
+    private AgentInfo newAgentInfo(String agentId, String applicationName, String hostName, long startTimestamp) {
+        AgentInfo agentInfo = new AgentInfo();
+        agentInfo.setAgentId(agentId);
+        agentInfo.setApplicationName(applicationName);
+        agentInfo.setHostName(hostName);
+        agentInfo.setStartTimestamp(startTimestamp);
+        AgentStatus agentStatus = new AgentStatus(agentId);
+        agentStatus.setState(AgentLifeCycleState.RUNNING);
+        agentStatus.setEventTimestamp(startTimestamp + 500);
+        agentInfo.setStatus(agentStatus);
+        return agentInfo;
+    }
+}
@@ -0,0 +1,199 @@
+/*
+ * Copyright 2019 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.navercorp.pinpoint.web.service;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.security.authentication.TestingAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class AsyncQueryServiceTest {
+
+    private final List<Runnable> tasks = new ArrayList<>();
+    private final Executor executor = tasks::add;
+    private final AtomicInteger queryCount = new AtomicInteger();
+
+    @Before
+    public void setUp() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @After
+    public void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    public void coalesce() throws Exception {
+        AsyncQueryService asyncQueryService = new AsyncQueryService(executor, true, true);
+
+        CompletableFuture<String> future1 = asyncQueryService.execute(this::query, "query", "app", 1L);
+        CompletableFuture<String> future2 = asyncQueryService.execute(this::query, "query", "app", 1L);
+        Assert.assertEquals(1, tasks.size());
+        Assert.assertFalse(future1.isDone());
+        Assert.assertFalse(future2.isDone());
+
+        runTasks();
+        Assert.assertEquals("result1", future1.get());
+        Assert.assertEquals("result1", future2.get());
+        Assert.assertEquals(1, queryCount.get());
+        Assert.assertEquals(1L, asyncQueryService.getStats().get("coalesced"));
+        Assert.assertEquals(0, asyncQueryService.getStats().get("inFlight"));
+
+        // a completed query runs again
+        CompletableFuture<String> future3 = asyncQueryService.execute(this::query, "query", "app", 1L);
+        runTasks();
+        Assert.assertEquals("result2", future3.get());
+    }
+
+    @Test
+    public void differentKeys() throws Exception {
+        AsyncQueryService asyncQueryService = new AsyncQueryService(executor, true, true);
+
+        asyncQueryService.execute(this::query, "query", "app", 1L);
+        asyncQueryService.execute(this::query, "query", "app", 2L);
+        asyncQueryService.execute(this::query, "otherQuery", "app", 1L);
+        Assert.assertEquals(3, tasks.size());
+    }
+
+    @Test
+    public void differentUsers() throws Exception {
+        AsyncQueryService asyncQueryService = new AsyncQueryService(executor, true, true);
+
+        SecurityContextHolder.getContext().setAuthentication(new TestingAuthenticationToken("user1", null));
+        asyncQueryService.execute(this::query, "query", "app");
+        SecurityContextHolder.getContext().setAuthentication(new TestingAuthenticationToken("user2", null));
+        asyncQueryService.execute(this::query, "query", "app");
+        asyncQueryService.execute(this::query, "query", "app");
+        Assert.assertEquals(2, tasks.size());
+    }
+
+    @Test
+    public void coalesceDisabled() throws Exception {
+        AsyncQueryService asyncQueryService = new AsyncQueryService(executor, true, false);
+
+        CompletableFuture<String> future1 = asyncQueryService.execute(this::query, "query", "app");
+        CompletableFuture<String> future2 = asyncQueryService.execute(this::query, "query", "app");
+        Assert.assertEquals(2, tasks.size());
+
+        runTasks();
+        Assert.assertEquals("result1", future1.get());
+        Assert.assertEquals("result2", future2.get());
+    }
+
+    @Test
+    public void asyncDisabled() throws Exception {
+        AsyncQueryService asyncQueryService = new AsyncQueryService(executor, false, true);
+
+        CompletableFuture<String> future = asyncQueryService.execute(this::query, "query", "app");
+        Assert.assertTrue(tasks.isEmpty());
+        Assert.assertEquals("result1", future.get());
+        Assert.assertEquals(0, asyncQueryService.getStats().get("inFlight"));
+    }
+
+    @Test
+    public void failure() throws Exception {
+        AsyncQueryService asyncQueryService = new AsyncQueryService(executor, true, true);
+        IllegalStateException exception = new IllegalStateException("scan failed");
+
+        CompletableFuture<String> future1 = asyncQueryService.execute(() -> {
+            throw exception;
+        }, "query", "app");
+        CompletableFuture<String> future2 = asyncQueryService.execute(this::query, "query", "app");
+        runTasks();
+
+        Assert.assertSame(exception, getCause(future1));
+        Assert.assertSame(exception, getCause(future2));
+        Assert.assertEquals(0, asyncQueryService.getStats().get("inFlight"));
+    }
+
+    @Test
+    public void rejected() throws Exception {
+        AsyncQueryService asyncQueryService = new AsyncQueryService(command -> {
+            throw new RejectedExecutionException("queue full");
+        }, true, true);
+
+        CompletableFuture<String> future = asyncQueryService.execute(this::query, "query", "app");
+        Assert.assertTrue(getCause(future) instanceof RejectedExecutionException);
+        Assert.assertEquals(0, queryCount.get());
+        Assert.assertEquals(1L, asyncQueryService.getStats().get("rejected"));
+        Assert.assertEquals(0, asyncQueryService.getStats().get("inFlight"));
+    }
+
+    @Test
+    public void rejectedFollower() throws Exception {
+        List<Runnable> accepted = new ArrayList<>();
+        AsyncQueryService asyncQueryService = new AsyncQueryService(command -> {
+            if (accepted.isEmpty()) {
+                accepted.add(command);
+                return;
+            }
+            throw new RejectedExecutionException("queue full");
+        }, true, true);
+
+        CompletableFuture<String> leader = asyncQueryService.execute(() -> {
+            throw new RejectedExecutionException("nested query rejected");
+        }, "query", "app");
+        CompletableFuture<String> follower = asyncQueryService.execute(this::query, "query", "app");
+        accepted.get(0).run();
+
+        // not wrapped in a CompletionException, so it is answered with 503
+        Assert.assertTrue(getCause(leader) instanceof RejectedExecutionException);
+        Assert.assertTrue(getCause(follower) instanceof RejectedExecutionException);
+    }
+
+    @Test
+    public void thenApply() throws Exception {
+        CompletableFuture<String> rejected = new CompletableFuture<>();
+        rejected.completeExceptionally(new RejectedExecutionException("queue full"));
+        CompletableFuture<String> wrapped = rejected.thenApply(value -> value);
+
+        Assert.assertTrue(getCause(AsyncQueryService.thenApply(rejected, String::length)) instanceof RejectedExecutionException);
+        Assert.assertTrue(getCause(AsyncQueryService.thenApply(wrapped, String::length)) instanceof RejectedExecutionException);
+
+        CompletableFuture<String> completed = CompletableFuture.completedFuture("result");
+        Assert.assertEquals(Integer.valueOf(6), AsyncQueryService.thenApply(completed, String::length).get());
+    }
+
+    private String query() {
+        return "result" + queryCount.incrementAndGet();
+    }
+
+    private void runTasks() {
+        List<Runnable> runnables = new ArrayList<>(tasks);
+        tasks.clear();
+        for (Runnable runnable : runnables) {
+            runnable.run();
+        }
+    }
+
+    private Throwable getCause(CompletableFuture<?> future) throws Exception {
+        Assert.assertTrue(future.isCompletedExceptionally());
+        // the exception as spring mvc gets it, get() would unwrap a CompletionException
+        return future.handle((value, throwable) -> throwable).get();
+    }
+}
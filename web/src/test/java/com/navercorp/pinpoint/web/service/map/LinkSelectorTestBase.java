@@ -40,6 +40,7 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Random;
 import java.util.Set;
+import java.util.concurrent.Executor;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
@@ -59,7 +60,7 @@ public abstract class LinkSelectorTestBase {
 
     private final ExecutorService executor = Executors.newFixedThreadPool(4);
 
-    private final ApplicationsMapCreatorFactory applicationsMapCreatorFactory = new ApplicationsMapCreatorFactory(executor);
+    private final ApplicationsMapCreatorFactory applicationsMapCreatorFactory = newApplicationsMapCreatorFactory(executor);
 
     protected final ServiceType testRpcServiceType = ServiceTypeFactory.of(9000, "TEST_RPC_CLIENT", ServiceTypeProperty.RECORD_STATISTICS);
 
@@ -71,6 +72,10 @@ public abstract class LinkSelectorTestBase {
 
     protected abstract LinkSelectorType getLinkSelectorType();
 
+    protected ApplicationsMapCreatorFactory newApplicationsMapCreatorFactory(Executor executor) {
+        return new ApplicationsMapCreatorFactory(executor);
+    }
+
     @Before
     public void setUp() throws Exception {
         this.linkDataMapService = mock(LinkDataMapService.class);
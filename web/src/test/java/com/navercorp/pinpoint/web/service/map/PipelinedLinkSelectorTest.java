@@ -0,0 +1,96 @@
+/*
+ * Copyright 2019 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.navercorp.pinpoint.web.service.map;
+
+import com.navercorp.pinpoint.common.trace.ServiceType;
+import com.navercorp.pinpoint.web.applicationmap.rawdata.LinkDataDuplexMap;
+import com.navercorp.pinpoint.web.applicationmap.rawdata.LinkDataMap;
+import com.navercorp.pinpoint.web.vo.Application;
+import com.navercorp.pinpoint.web.vo.LinkKey;
+import com.navercorp.pinpoint.web.vo.Range;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.concurrent.Executor;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Runs the bidirectional cases against the pipelined traversal.
+ */
+public class PipelinedLinkSelectorTest extends BidirectionalLinkSelectorTest {
+
+    @Override
+    protected ApplicationsMapCreatorFactory newApplicationsMapCreatorFactory(Executor executor) {
+        return new ApplicationsMapCreatorFactory(executor, true, 2);
+    }
+
+    @Test
+    public void pipelinedLinkSelector() {
+        LinkSelector linkSelector = linkSelectorFactory.createLinkSelector(getLinkSelectorType());
+        Assert.assertTrue(linkSelector instanceof PipelinedLinkSelector);
+    }
+
+    @Test
+    public void shorterPathFoundLater() {
+        // APP_A -> APP_B(slow) -> APP_D -> APP_F
+        //   |----> APP_C -> APP_E ----^
+        final Application APP_A = new Application("APP_A", ServiceType.TEST_STAND_ALONE);
+        final Application APP_B = new Application("APP_B", ServiceType.TEST_STAND_ALONE);
+        final Application APP_C = new Application("APP_C", ServiceType.TEST_STAND_ALONE);
+        final Application APP_D = new Application("APP_D", ServiceType.TEST_STAND_ALONE);
+        final Application APP_E = new Application("APP_E", ServiceType.TEST_STAND_ALONE);
+        final Application APP_F = new Application("APP_F", ServiceType.TEST_STAND_ALONE);
+
+        when(linkDataMapService.selectCallerLinkDataMap(any(Application.class), any(Range.class))).thenAnswer(invocation -> {
+            Application caller = invocation.getArgument(0);
+            LinkDataMap linkDataMap = new LinkDataMap();
+            if (caller.equals(APP_A)) {
+                addLink(linkDataMap, APP_A, APP_B);
+                addLink(linkDataMap, APP_A, APP_C);
+            } else if (caller.equals(APP_B)) {
+                Thread.sleep(300);
+                addLink(linkDataMap, APP_B, APP_D);
+            } else if (caller.equals(APP_C)) {
+                addLink(linkDataMap, APP_C, APP_E);
+            } else if (caller.equals(APP_E)) {
+                addLink(linkDataMap, APP_E, APP_D);
+            } else if (caller.equals(APP_D)) {
+                addLink(linkDataMap, APP_D, APP_F);
+            }
+            return linkDataMap;
+        });
+        when(linkDataMapService.selectCalleeLinkDataMap(any(Application.class), any(Range.class))).thenReturn(newEmptyLinkDataMap());
+        when(hostApplicationMapDao.findAcceptApplicationName(any(Application.class), any(Range.class))).thenReturn(new HashSet<>());
+
+        LinkSelector linkSelector = linkSelectorFactory.createLinkSelector(getLinkSelectorType());
+        LinkDataDuplexMap linkDataDuplexMap = linkSelector.select(Collections.singletonList(APP_A), range, 3, 0);
+
+        // APP_D is reached at depth 3 through APP_E first, and at depth 2 through APP_B later
+        Assert.assertNotNull(linkDataDuplexMap.getSourceLinkData(new LinkKey(APP_D, APP_F)));
+        verify(linkDataMapService, times(1)).selectCallerLinkDataMap(APP_D, range);
+    }
+
+    private void addLink(LinkDataMap linkDataMap, Application from, Application to) {
+        linkDataMap.addLinkData(from, from.getName(), to, to.getName(), 1000, ServiceType.STAND_ALONE.getHistogramSchema().getNormalSlot().getSlotTime(), 1);
+    }
+}
@@ -0,0 +1,148 @@
+/*
+ * Copyright 2019 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.navercorp.pinpoint.web.service.map;
+
+import com.navercorp.pinpoint.common.server.bo.TopologyEdgeBo;
+import com.navercorp.pinpoint.common.trace.ServiceType;
+import com.navercorp.pinpoint.web.applicationmap.rawdata.LinkDataDuplexMap;
+import com.navercorp.pinpoint.web.applicationmap.rawdata.LinkDataMap;
+import com.navercorp.pinpoint.web.dao.ApplicationTopologyDao;
+import com.navercorp.pinpoint.web.service.ApplicationFactory;
+import com.navercorp.pinpoint.web.service.LinkDataMapService;
+import com.navercorp.pinpoint.web.vo.Application;
+import com.navercorp.pinpoint.web.vo.LinkKey;
+import com.navercorp.pinpoint.web.vo.Range;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyShort;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class TopologyScanPlannerTest {
+
+    private final Range range = new Range(0, 100);
+
+    private final Application APP_A = new Application("APP_A", ServiceType.TEST_STAND_ALONE);
+    private final Application APP_B = new Application("APP_B", ServiceType.TEST_STAND_ALONE);
+    private final Application APP_C = new Application("APP_C", ServiceType.TEST_STAND_ALONE);
+    private final Application APP_X = new Application("APP_X", ServiceType.TEST_STAND_ALONE);
+    private final Application USER = new Application("USER", ServiceType.USER);
+    private final Application DB = new Application("DB", ServiceType.UNKNOWN_DB);
+
+    private final ExecutorService executor = Executors.newFixedThreadPool(4);
+
+    private ApplicationTopologyDao applicationTopologyDao;
+    private TopologyScanPlanner topologyScanPlanner;
+
+    @Before
+    public void setUp() {
+        applicationTopologyDao = mock(ApplicationTopologyDao.class);
+        ApplicationFactory applicationFactory = mock(ApplicationFactory.class);
+        when(applicationFactory.createApplication(anyString(), anyShort())).thenAnswer(invocation -> {
+            String applicationName = invocation.getArgument(0);
+            short serviceTypeCode = invocation.getArgument(1);
+            for (Application application : Arrays.asList(APP_A, APP_B, APP_C, APP_X, USER, DB)) {
+                if (application.getName().equals(applicationName) && application.getServiceTypeCode() == serviceTypeCode) {
+                    return application;
+                }
+            }
+            throw new IllegalArgumentException(applicationName);
+        });
+        topologyScanPlanner = new TopologyScanPlanner(true, applicationTopologyDao, applicationFactory);
+    }
+
+    @After
+    public void cleanUp() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void plan() {
+        // USER -> APP_A -> APP_B -> DB
+        //                    ^---- APP_C
+        Set<TopologyEdgeBo> edges = new HashSet<>();
+        edges.add(edge(TopologyEdgeBo.Direction.CALLEE, USER, APP_A));
+        edges.add(edge(TopologyEdgeBo.Direction.CALLER, APP_A, APP_B));
+        edges.add(edge(TopologyEdgeBo.Direction.CALLEE, APP_A, APP_B));
+        edges.add(edge(TopologyEdgeBo.Direction.CALLER, APP_B, DB));
+        edges.add(edge(TopologyEdgeBo.Direction.CALLEE, APP_C, APP_B));
+        when(applicationTopologyDao.getEdges(range)).thenReturn(edges);
+
+        TopologyScanPlanner.ScanPlan scanPlan = topologyScanPlanner.plan(Collections.singletonList(APP_A), range, 2, 1, null);
+
+        // USER is found by the callee scan of APP_A, and is caller scanned like any other application
+        Assert.assertEquals(new HashSet<>(Arrays.asList(APP_A, APP_B, USER)), scanPlan.getCallers());
+        // APP_B is reached at depth 1, beyond the callee depth
+        Assert.assertEquals(Collections.singleton(APP_A), scanPlan.getCallees());
+    }
+
+    @Test
+    public void noTopology() {
+        when(applicationTopologyDao.getEdges(range)).thenReturn(Collections.emptySet());
+        Assert.assertNull(topologyScanPlanner.plan(Collections.singletonList(APP_A), range, 2, 2, null));
+    }
+
+    @Test
+    public void prefetchedScanOutsideSearch() {
+        // the topology still knows APP_A -> APP_X, the statistics only have APP_A -> APP_B
+        Set<TopologyEdgeBo> edges = new HashSet<>();
+        edges.add(edge(TopologyEdgeBo.Direction.CALLER, APP_A, APP_X));
+        when(applicationTopologyDao.getEdges(range)).thenReturn(edges);
+
+        ApplicationMapCreator applicationMapCreator = mock(ApplicationMapCreator.class);
+        when(applicationMapCreator.createCallerLinkDataMap(any(Application.class), any(Range.class))).thenAnswer(invocation -> {
+            Application caller = invocation.getArgument(0);
+            LinkDataMap linkDataMap = new LinkDataMap();
+            if (caller.equals(APP_A)) {
+                linkDataMap.addLinkData(APP_A, "agentA", APP_B, "agentB", 1000, ServiceType.STAND_ALONE.getHistogramSchema().getNormalSlot().getSlotTime(), 1);
+            } else if (caller.equals(APP_X)) {
+                linkDataMap.addLinkData(APP_X, "agentX", APP_C, "agentC", 1000, ServiceType.STAND_ALONE.getHistogramSchema().getNormalSlot().getSlotTime(), 1);
+            }
+            return linkDataMap;
+        });
+        when(applicationMapCreator.createCalleeLinkDataMap(any(Application.class), any(Range.class))).thenReturn(new LinkDataMap());
+
+        VirtualLinkHandler virtualLinkHandler = new VirtualLinkHandler(mock(LinkDataMapService.class), new VirtualLinkMarker());
+        LinkSelector linkSelector = new PipelinedLinkSelector(applicationMapCreator, virtualLinkHandler, null, executor, new Semaphore(2), topologyScanPlanner);
+        LinkDataDuplexMap linkDataDuplexMap = linkSelector.select(Collections.singletonList(APP_A), range, 2, 0);
+
+        verify(applicationMapCreator, timeout(1000)).createCallerLinkDataMap(APP_X, range);
+        Assert.assertNotNull(linkDataDuplexMap.getSourceLinkData(new LinkKey(APP_A, APP_B)));
+        Assert.assertNull(linkDataDuplexMap.getSourceLinkData(new LinkKey(APP_X, APP_C)));
+        Assert.assertEquals(1, linkDataDuplexMap.getSourceLinkDataList().size());
+    }
+
+    private TopologyEdgeBo edge(TopologyEdgeBo.Direction direction, Application from, Application to) {
+        return new TopologyEdgeBo(direction, from.getName(), from.getServiceTypeCode(), to.getName(), to.getServiceTypeCode());
+    }
+}
@@ -0,0 +1,91 @@
+/*
+ * Copyright 2019 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.navercorp.pinpoint.web.view;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.navercorp.pinpoint.common.server.bo.MethodTypeEnum;
+import com.navercorp.pinpoint.common.trace.ServiceType;
+import com.navercorp.pinpoint.common.util.TransactionId;
+import com.navercorp.pinpoint.web.vo.callstacks.DefaultRecord;
+import com.navercorp.pinpoint.web.vo.callstacks.ParameterRecord;
+import com.navercorp.pinpoint.web.vo.callstacks.Record;
+import com.navercorp.pinpoint.web.vo.callstacks.RecordSet;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+public class TransactionInfoStreamingViewModelTest {
+
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    private final TransactionId transactionId = new TransactionId("agent", 1000, 1);
+
+    @Test
+    public void sameJson() throws Exception {
+        List<Record> recordList = new ArrayList<>();
+        for (int i = 0; i < TransactionInfoStreamingViewModelSerializer.FLUSH_ROWS * 2 + 1; i++) {
+            int id = recordList.size() + 1;
+            recordList.add(new DefaultRecord(i % 10, id, id - 1, true, "method" + i, "args", 1000 + i, 100, i, "agent", "app", ServiceType.STAND_ALONE,
+                    null, true, i % 7 == 0, "tx", 1, 10, MethodTypeEnum.DEFAULT, true));
+            recordList.add(new ParameterRecord(i % 10 + 1, id + 1, id, "REMOTE_ADDRESS", "127.0.0.1"));
+        }
+        RecordSet recordSet = newRecordSet();
+        recordSet.setRecordList(recordList);
+        TransactionInfoViewModel viewModel = new TransactionInfoViewModel(transactionId, Collections.emptyList(), Collections.emptyList(), recordSet,
+                "Complete", true, "log", "http://localhost/log", "disabled");
+
+        TransactionInfoStreamingViewModel streamingViewModel = new TransactionInfoStreamingViewModel(transactionId, Collections.emptyList(), Collections.emptyList(),
+                "Complete", true, "log", "http://localhost/log", "disabled", recordConsumer -> {
+                    recordList.forEach(recordConsumer);
+                    return newRecordSet();
+                });
+
+        JsonNode expected = mapper.readTree(mapper.writeValueAsString(viewModel));
+        JsonNode actual = mapper.readTree(mapper.writeValueAsString(streamingViewModel));
+        Assert.assertEquals(recordList.size(), actual.get("callStack").size());
+        Assert.assertEquals(expected, actual);
+    }
+
+    @Test
+    public void emptyCallStack() throws Exception {
+        TransactionInfoViewModel viewModel = new TransactionInfoViewModel(transactionId, Collections.emptyList(), Collections.emptyList(), newRecordSet(),
+                "Complete", false, "", "", "");
+        TransactionInfoStreamingViewModel streamingViewModel = new TransactionInfoStreamingViewModel(transactionId, Collections.emptyList(), Collections.emptyList(),
+                "Complete", false, "", "", "", recordConsumer -> newRecordSet());
+
+        JsonNode expected = mapper.readTree(mapper.writeValueAsString(viewModel));
+        JsonNode actual = mapper.readTree(mapper.writeValueAsString(streamingViewModel));
+        Assert.assertEquals(expected, actual);
+    }
+
+    private RecordSet newRecordSet() {
+        RecordSet recordSet = new RecordSet();
+        recordSet.setApplicationName("app");
+        recordSet.setAgentId("agent");
+        recordSet.setApplicationId("app");
+        recordSet.setStartTime(1000);
+        recordSet.setEndTime(5000);
+        recordSet.setLoggingTransactionInfo(true);
+        recordSet.setRecordList(Collections.emptyList());
+        return recordSet;
+    }
+}
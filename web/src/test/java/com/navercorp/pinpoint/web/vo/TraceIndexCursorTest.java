@@ -0,0 +1,56 @@
+/*
+ * Copyright 2019 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.navercorp.pinpoint.web.vo;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TraceIndexCursorTest {
+
+    @Test
+    public void encodeDecode() {
+        TraceIndexCursor cursor = new TraceIndexCursor(1547000000000L, new byte[]{0, 1, 2, -1, 127});
+
+        String encoded = cursor.encode();
+        TraceIndexCursor decoded = TraceIndexCursor.decode(encoded);
+
+        Assert.assertEquals(cursor, decoded);
+        Assert.assertEquals(1547000000000L, decoded.getTimestamp());
+    }
+
+    @Test
+    public void encodedIsUrlSafe() {
+        TraceIndexCursor cursor = new TraceIndexCursor(Long.MAX_VALUE, new byte[]{-1, -2, -3, -4, -5, -6});
+
+        String encoded = cursor.encode();
+
+        Assert.assertTrue(encoded, encoded.matches("[A-Za-z0-9_-]+"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void decodeInvalidBase64() {
+        TraceIndexCursor.decode("not a cursor!");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void decodeTruncated() {
+        String encoded = new TraceIndexCursor(1547000000000L, new byte[]{1, 2, 3, 4}).encode();
+
+        TraceIndexCursor.decode(encoded.substring(0, encoded.length() - 3));
+    }
+}